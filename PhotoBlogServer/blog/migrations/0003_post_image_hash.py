@@ -0,0 +1,33 @@
+import hashlib
+
+from django.db import migrations, models
+
+
+def backfill_image_hash(apps, schema_editor):
+    # 기존 이미지의 해시를 채움 (파일이 없으면 건너뜀)
+    Post = apps.get_model("blog", "Post")
+    for post in Post.objects.exclude(image="").iterator():
+        try:
+            digest = hashlib.sha256()
+            with post.image.open("rb") as f:
+                for chunk in f.chunks():
+                    digest.update(chunk)
+        except (FileNotFoundError, OSError):
+            continue
+        post.image_hash = digest.hexdigest()
+        post.save(update_fields=["image_hash"])
+
+
+class Migration(migrations.Migration):
+    dependencies = [
+        ("blog", "0002_post_image"),
+    ]
+
+    operations = [
+        migrations.AddField(
+            model_name="post",
+            name="image_hash",
+            field=models.CharField(blank=True, db_index=True, default="", max_length=64),
+        ),
+        migrations.RunPython(backfill_image_hash, migrations.RunPython.noop),
+    ]
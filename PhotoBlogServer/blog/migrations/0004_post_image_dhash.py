@@ -0,0 +1,34 @@
+from django.db import migrations, models
+from PIL import Image
+
+
+def backfill_image_dhash(apps, schema_editor):
+    # 기존 이미지의 dHash를 채움 (blog.views.image_dhash와 같은 계산, 파일이 없으면 건너뜀)
+    Post = apps.get_model("blog", "Post")
+    for post in Post.objects.filter(image_dhash="").exclude(image="").iterator():
+        try:
+            with post.image.open("rb") as f, Image.open(f) as img:
+                px = img.convert("L").resize((9, 8), Image.Resampling.BOX).tobytes()
+        except (FileNotFoundError, OSError, ValueError):
+            continue
+        bits = 0
+        for y in range(8):
+            for x in range(8):
+                bits = (bits << 1) | (1 if px[y * 9 + x] > px[y * 9 + x + 1] else 0)
+        post.image_dhash = "%016x" % bits
+        post.save(update_fields=["image_dhash"])
+
+
+class Migration(migrations.Migration):
+    dependencies = [
+        ("blog", "0003_post_image_hash"),
+    ]
+
+    operations = [
+        migrations.AddField(
+            model_name="post",
+            name="image_dhash",
+            field=models.CharField(blank=True, default="", max_length=16),
+        ),
+        migrations.RunPython(backfill_image_dhash, migrations.RunPython.noop),
+    ]
@@ -0,0 +1,34 @@
+from django.db import migrations, models
+from PIL import Image
+
+
+def backfill_image_size(apps, schema_editor):
+    # 기존 이미지의 크기를 채움 (헤더만 읽음, 파일이 없으면 건너뜀)
+    Post = apps.get_model("blog", "Post")
+    for post in Post.objects.filter(image_width__isnull=True).exclude(image="").iterator():
+        try:
+            with post.image.open("rb") as f, Image.open(f) as img:
+                post.image_width, post.image_height = img.size
+        except (FileNotFoundError, OSError, ValueError):
+            continue
+        post.save(update_fields=["image_width", "image_height"])
+
+
+class Migration(migrations.Migration):
+    dependencies = [
+        ("blog", "0004_post_image_dhash"),
+    ]
+
+    operations = [
+        migrations.AddField(
+            model_name="post",
+            name="image_width",
+            field=models.PositiveIntegerField(blank=True, null=True),
+        ),
+        migrations.AddField(
+            model_name="post",
+            name="image_height",
+            field=models.PositiveIntegerField(blank=True, null=True),
+        ),
+        migrations.RunPython(backfill_image_size, migrations.RunPython.noop),
+    ]
@@ -0,0 +1,21 @@
+from django.db import migrations, models
+
+
+class Migration(migrations.Migration):
+    # 기존 글은 변환본 없이 원본을 그대로 보냄 (다음에 이미지를 수정하면 만들어짐)
+    dependencies = [
+        ("blog", "0005_post_image_size"),
+    ]
+
+    operations = [
+        migrations.AddField(
+            model_name="post",
+            name="image_webp",
+            field=models.FileField(blank=True, default="", upload_to="blog_image/%Y/%m/%d/"),
+        ),
+        migrations.AddField(
+            model_name="post",
+            name="image_avif",
+            field=models.FileField(blank=True, default="", upload_to="blog_image/%Y/%m/%d/"),
+        ),
+    ]
@@ -10,6 +10,16 @@ class Post(models.Model):
     created_date = models.DateTimeField(default=timezone.now)
     published_date = models.DateTimeField(blank=True, null=True)
     image = models.ImageField(upload_to='blog_image/%Y/%m/%d/', default='blog_image/default_error.png')
+    # 이미지 파일의 SHA-256 (hex). 같은 이미지는 파일 하나를 여러 Post가 공유
+    image_hash = models.CharField(max_length=64, blank=True, default='', db_index=True)
+    # 이미지의 dHash (16자리 hex). 거의 같은 이미지(연속 프레임) 판별용
+    image_dhash = models.CharField(max_length=16, blank=True, default='')
+    # 이미지 픽셀 크기. 앱이 이미지를 받기 전에 칸 크기를 정할 때 사용 (모르면 null)
+    image_width = models.PositiveIntegerField(blank=True, null=True)
+    image_height = models.PositiveIntegerField(blank=True, null=True)
+    # 원본보다 작을 때만 만들어 두는 변환본. api_root/Post/<id>/image/ 가 Accept 헤더로 골라 보냄
+    image_webp = models.FileField(upload_to='blog_image/%Y/%m/%d/', blank=True, default='')
+    image_avif = models.FileField(upload_to='blog_image/%Y/%m/%d/', blank=True, default='')
 
     def publish(self):
         self.published_date = timezone.now()
@@ -1,10 +1,32 @@
 from blog.models import Post
 from rest_framework import serializers
+from rest_framework.reverse import reverse
 from django.contrib.auth.models import User
 
 class PostSerializer(serializers.HyperlinkedModelSerializer):
     author = serializers.PrimaryKeyRelatedField(read_only=True)
+    # 앱이 피드에서 거의 같은 이미지를 묶을 때 사용
+    image_dhash = serializers.CharField(read_only=True)
+    # 앱이 이미지를 받기 전에 그리드 칸 높이를 정할 때 사용 (모르면 null)
+    image_width = serializers.IntegerField(read_only=True)
+    image_height = serializers.IntegerField(read_only=True)
+    # 이미지를 Accept 헤더로 형식을 고르고 ?w=로 줄여서 보내는 주소 (이미지가 없으면 null, image를 사용)
+    # 변환본이 없는 글도 이 주소를 씀: 원본으로 대신 보내고 축소는 그대로 적용됨
+    image_negotiated = serializers.SerializerMethodField()
 
     class Meta:
         model = Post
-        fields = ('id', 'author', 'title', 'text','created_date','published_date', 'image')
\ No newline at end of file
+        fields = ('id', 'author', 'title', 'text','created_date','published_date', 'image', 'image_dhash',
+                  'image_width', 'image_height', 'image_negotiated')
+
+    def get_image_negotiated(self, post):
+        if not post.image:
+            return None
+        return reverse('post-image', args=[post.pk], request=self.context.get('request'))
+
+
+class PostSummarySerializer(serializers.ModelSerializer):
+    # 데이터 절약 모드의 새 글 확인용: 본문과 이미지 주소 없이 id, 제목, 날짜만
+    class Meta:
+        model = Post
+        fields = ('id', 'title', 'created_date', 'published_date')
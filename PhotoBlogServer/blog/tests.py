@@ -1,3 +1,45 @@
-from django.test import TestCase
+import io
+import shutil
+import tempfile
 
-# Create your tests here.
+from PIL import Image
+from django.contrib.auth.models import User
+from django.core.files.base import ContentFile
+from django.test import TestCase, override_settings
+from rest_framework.test import APIClient
+
+from .models import Post
+
+
+class VariantlessImageTests(TestCase):
+    """
+    WebP/AVIF 변환본이 없는 글 (0006 이전 글, 변환본이 원본보다 크던 글)도
+    image_negotiated 주소로 받아 ?w= 축소가 적용되는지 (앱의 데이터 절약 모드 썸네일)
+    """
+
+    def setUp(self):
+        self.media_root = tempfile.mkdtemp()
+        self.addCleanup(shutil.rmtree, self.media_root, ignore_errors=True)
+        override = override_settings(MEDIA_ROOT=self.media_root)
+        override.enable()
+        self.addCleanup(override.disable)
+
+        out = io.BytesIO()
+        Image.new('RGB', (800, 600), (200, 80, 40)).save(out, 'JPEG')
+        self.post = Post(author=User.objects.create_user('camera'), title='person', text='person, ',
+                         image_width=800, image_height=600)
+        self.post.image.save('frame.jpg', ContentFile(out.getvalue()), save=True)
+        self.client = APIClient()
+
+    def test_negotiated_url_without_variants(self):
+        posts = self.client.get('/api_root/Post/').json()
+        self.assertTrue(posts[0]['image_negotiated'].endswith('/api_root/Post/%d/image/' % self.post.pk))
+
+    def test_resized_without_variants(self):
+        url = self.client.get('/api_root/Post/').json()[0]['image_negotiated']
+        response = self.client.get(url + '?w=320', HTTP_ACCEPT='image/jpeg')
+        self.assertEqual(response.status_code, 200)
+        self.assertEqual(response['Content-Type'], 'image/jpeg')
+        self.assertEqual(response['X-Full-Length'], str(self.post.image.size))
+        with Image.open(io.BytesIO(b''.join(response.streaming_content))) as img:
+            self.assertEqual(img.size, (320, 240))
@@ -1,13 +1,26 @@
+import hashlib
+import io
+import os
+from datetime import timedelta
+
+from PIL import Image, features
+from django.conf import settings
+from django.core.files.base import ContentFile
+from django.core.files.storage import default_storage
+from django.db import transaction
+from django.http import FileResponse
 from django.shortcuts import render, get_object_or_404, redirect
 from django.utils import timezone
 from .models import Post
 from .forms import PostForm
 from rest_framework import viewsets
-from .serializers import PostSerializer
+from rest_framework.decorators import action
+from rest_framework.filters import OrderingFilter
+from .serializers import PostSerializer, PostSummarySerializer
 from rest_framework.decorators import api_view, permission_classes
 from rest_framework.permissions import AllowAny
 from rest_framework.response import Response
-from rest_framework.status import HTTP_400_BAD_REQUEST, HTTP_401_UNAUTHORIZED, HTTP_200_OK
+from rest_framework.status import HTTP_400_BAD_REQUEST, HTTP_401_UNAUTHORIZED, HTTP_200_OK, HTTP_201_CREATED, HTTP_404_NOT_FOUND
 from django.contrib.auth import authenticate
 from rest_framework.authtoken.models import Token
 
@@ -88,10 +101,328 @@ def login(request):
         status=HTTP_200_OK
     )
 
+def image_sha256(uploaded):
+    # 업로드된 파일을 청크 단위로 읽어 SHA-256 계산 (메모리에 전부 올리지 않음)
+    digest = hashlib.sha256()
+    for chunk in uploaded.chunks():
+        digest.update(chunk)
+    uploaded.seek(0)
+    return digest.hexdigest()
+
+
+def image_dhash(image_file):
+    """
+    이미지의 dHash (64비트, 16자리 hex). 9x8 흑백으로 줄인 뒤 각 행에서
+    왼쪽 픽셀이 오른쪽보다 밝으면 1 (앱의 core DHash와 같은 비트 순서)
+    """
+    image_file.seek(0)
+    with Image.open(image_file) as img:
+        gray = img.convert('L').resize((9, 8), Image.Resampling.BOX)
+    image_file.seek(0)
+    px = gray.tobytes()
+    bits = 0
+    for y in range(8):
+        for x in range(8):
+            bits = (bits << 1) | (1 if px[y * 9 + x] > px[y * 9 + x + 1] else 0)
+    return '%016x' % bits
+
+
+def image_size(image_file):
+    # (width, height). Pillow는 헤더만 읽으므로 큰 이미지도 디코딩하지 않음
+    image_file.seek(0)
+    with Image.open(image_file) as img:
+        size = img.size
+    image_file.seek(0)
+    return size
+
+
+# 변환본 형식: (필드, Content-Type, Pillow 형식, 저장 옵션). 앞쪽이 더 작으므로 우선
+IMAGE_VARIANTS = [
+    ('image_avif', 'image/avif', 'AVIF', {'quality': 60}),
+    ('image_webp', 'image/webp', 'WEBP', {'quality': 80, 'method': 4}),
+]
+
+
+def encode_variants(uploaded):
+    """
+    업로드 이미지를 WebP(와 Pillow가 지원하면 AVIF)로 변환
+    원본보다 작은 변환본만 {필드: ContentFile} 로 돌려줌
+    """
+    original_size = uploaded.size
+    stem = os.path.splitext(os.path.basename(uploaded.name))[0]
+    variants = {}
+    uploaded.seek(0)
+    with Image.open(uploaded) as img:
+        img.load()
+        if img.mode not in ('RGB', 'RGBA'):
+            img = img.convert('RGBA' if 'transparency' in img.info else 'RGB')
+        for field, _, pil_format, options in IMAGE_VARIANTS:
+            if pil_format == 'AVIF' and not features.check('avif'):
+                continue
+            out = io.BytesIO()
+            try:
+                img.save(out, pil_format, **options)
+            except (OSError, ValueError, KeyError):
+                continue
+            if out.tell() < original_size:
+                variants[field] = ContentFile(out.getvalue(), name=stem + '.' + pil_format.lower())
+    uploaded.seek(0)
+    return variants
+
+
+# 축소본 너비 (앱의 NetworkQualityEstimator.IMAGE_WIDTHS와 같음). 요청 너비는 이 중 하나로 올림
+IMAGE_WIDTHS = (320, 640, 1280)
+
+
+def resized_image(post, width, webp):
+    """
+    글 이미지를 width 너비로 줄인 사본 (WebP 또는 JPEG)과 Content-Type
+    처음 요청될 때 만들어 저장해 두고 이후에는 그대로 보냄. 원본이 width 이하면 (None, None)
+    """
+    if not post.image_width or not post.image_height or post.image_width <= width:
+        return None, None
+    if webp:
+        ext, mime, pil_format, options = 'webp', 'image/webp', 'WEBP', {'quality': 80, 'method': 4}
+    else:
+        ext, mime, pil_format, options = 'jpg', 'image/jpeg', 'JPEG', {'quality': 85}
+    # 같은 이미지를 쓰는 글끼리 공유하도록 해시로 이름을 지음
+    name = 'blog_image/resized/%s_%d.%s' % (post.image_hash or 'post%d' % post.pk, width, ext)
+    if not default_storage.exists(name):
+        height = max(1, round(post.image_height * width / post.image_width))
+        with post.image.open('rb') as f, Image.open(f) as img:
+            # JPEG은 디코딩 단계에서 1/2, 1/4, 1/8로 줄여 읽음
+            img.draft('RGB', (width, height))
+            resized = img.convert('RGB').resize((width, height), Image.Resampling.LANCZOS)
+        out = io.BytesIO()
+        resized.save(out, pil_format, **options)
+        name = default_storage.save(name, ContentFile(out.getvalue()))
+    return default_storage.open(name, 'rb'), mime
+
+
+def accepted_types(accept_header):
+    # Accept 헤더에서 q=0이 아닌 MIME 타입 집합
+    accepted = set()
+    for part in (accept_header or '').split(','):
+        fields = [f.strip() for f in part.split(';')]
+        q = next((f[2:] for f in fields[1:] if f.startswith('q=')), '1')
+        try:
+            if float(q) <= 0:
+                continue
+        except ValueError:
+            continue
+        accepted.add(fields[0].lower())
+    return accepted
+
+
+def hamming_distance(a, b):
+    return bin(int(a, 16) ^ int(b, 16)).count('1')
+
+
+def stored_image_for(image_hash):
+    # 같은 해시로 이미 저장된 이미지의 Post (없으면 None)
+    if not image_hash:
+        return None
+    return Post.objects.filter(image_hash=image_hash).exclude(image='') \
+        .only('image', 'image_dhash', 'image_width', 'image_height', 'image_webp', 'image_avif').first()
+
+
+# 일괄 삭제/수정 요청 하나에 담을 수 있는 최대 글 수
+BULK_MAX_ITEMS = 500
+
+
+def is_detection_upload(request):
+    # changedetection.py가 보내는 detection=1. 앱에서 직접 올린 글은 중복 검사를 하지 않음
+    return str(request.data.get('detection', '')).lower() in ('1', 'true')
+
+
+def recent_near_duplicate(author, dhash):
+    """
+    같은 작성자가 최근 NEAR_DUPLICATE_WINDOW_SECONDS 안에 올린 글 중
+    dHash 거리가 NEAR_DUPLICATE_MAX_DISTANCE 이하인 글 (없으면 None)
+    NEAR_DUPLICATE_MAX_DISTANCE가 None이면 검사하지 않음
+    """
+    max_distance = getattr(settings, 'NEAR_DUPLICATE_MAX_DISTANCE', 6)
+    if max_distance is None or not dhash:
+        return None
+    since = timezone.now() - timedelta(seconds=getattr(settings, 'NEAR_DUPLICATE_WINDOW_SECONDS', 300))
+    recent = Post.objects.filter(author=author, created_date__gte=since) \
+        .exclude(image_dhash='').order_by('-id')[:50]
+    for post in recent:
+        if hamming_distance(post.image_dhash, dhash) <= max_distance:
+            return post
+    return None
+
+
 class BlogImages(viewsets.ModelViewSet):
     queryset = Post.objects.all()
     serializer_class = PostSerializer
+    # 기본은 id 오름차순, ?ordering=-id 는 최신순 (앱의 새 글 감지가 앞부분만 읽고 멈춤)
+    filter_backends = [OrderingFilter]
+    ordering_fields = ['id']
+    ordering = ['id']
+
+    def create(self, request, *args, **kwargs):
+        serializer = self.get_serializer(data=request.data)
+        serializer.is_valid(raise_exception=True)
+        fields = self._image_fields(serializer)
+        # 감지 카메라가 올린 프레임이 최근 글과 거의 같은 이미지면 새 글을 만들지 않음
+        if is_detection_upload(request):
+            duplicate = recent_near_duplicate(request.user, fields.get('image_dhash'))
+            if duplicate is not None:
+                return self._near_duplicate_response(duplicate)
+        serializer.save(author=request.user, published_date=timezone.now(), **fields)
+        return Response(serializer.data, status=HTTP_201_CREATED,
+                        headers=self.get_success_headers(serializer.data))
+
+    def list(self, request, *args, **kwargs):
+        """
+        ?summary=1 이면 id, title, 날짜만 보냄 (앱의 데이터 절약 모드 새 글 확인)
+        절약한 양은 앱이 마지막 전체 목록의 글당 크기로 추정함 (폴링마다 전체 목록을 만들지 않음)
+        """
+        if request.query_params.get('summary') != '1':
+            return super().list(request, *args, **kwargs)
+        queryset = self.filter_queryset(self.get_queryset())
+        return Response(PostSummarySerializer(queryset, many=True).data)
+
+    def perform_update(self, serializer):
+        serializer.save(**self._image_fields(serializer))
+
+    def _image_fields(self, serializer):
+        # 같은 이미지가 이미 있으면 새 파일을 저장하지 않고 기존 파일을 가리킴
+        uploaded = serializer.validated_data.get('image')
+        if uploaded is None:
+            return {}
+        image_hash = image_sha256(uploaded)
+        existing = stored_image_for(image_hash)
+        if existing is not None:
+            return {'image': existing.image.name, 'image_hash': image_hash,
+                    'image_dhash': existing.image_dhash,
+                    'image_width': existing.image_width, 'image_height': existing.image_height,
+                    'image_webp': existing.image_webp.name, 'image_avif': existing.image_avif.name}
+        try:
+            dhash = image_dhash(uploaded)
+            width, height = image_size(uploaded)
+            variants = encode_variants(uploaded)
+        except (OSError, ValueError):
+            # Pillow가 읽지 못하는 형식이면 중복 검사, 크기, 변환본 없이 저장
+            dhash, width, height, variants = '', None, None, {}
+        fields = {'image': uploaded, 'image_hash': image_hash, 'image_dhash': dhash,
+                  'image_width': width, 'image_height': height,
+                  'image_webp': '', 'image_avif': ''}
+        fields.update(variants)
+        return fields
+
+    def _near_duplicate_response(self, duplicate):
+        # 200 + 기존 글 (새 글이면 201), 헤더로 어느 글과 겹쳤는지 알려줌
+        return Response(self.get_serializer(duplicate).data, status=HTTP_200_OK,
+                        headers={'X-Near-Duplicate-Of': str(duplicate.id)})
+
+    @action(detail=False, methods=['post'], url_path='by-hash')
+    def create_by_hash(self, request):
+        """
+        이미지 바이트 없이 title, text, image_hash(SHA-256 hex)만으로 글 작성
+        서버에 같은 이미지가 있으면 201, 없으면 404 (클라이언트는 이미지를 포함해 다시 업로드)
+        detection=1 (감지 카메라)이고 최근 글과 거의 같은 이미지면 새 글 없이 200
+        """
+        image_hash = (request.data.get('image_hash') or '').lower()
+        existing = stored_image_for(image_hash)
+        if existing is None:
+            return Response({'detail': 'Unknown image hash'}, status=HTTP_404_NOT_FOUND)
+        if is_detection_upload(request):
+            duplicate = recent_near_duplicate(request.user, existing.image_dhash)
+            if duplicate is not None:
+                return self._near_duplicate_response(duplicate)
+        serializer = self.get_serializer(data={
+            'title': request.data.get('title'),
+            'text': request.data.get('text'),
+        })
+        serializer.is_valid(raise_exception=True)
+        serializer.save(author=request.user, published_date=timezone.now(),
+                        image=existing.image.name, image_hash=image_hash,
+                        image_dhash=existing.image_dhash,
+                        image_width=existing.image_width, image_height=existing.image_height,
+                        image_webp=existing.image_webp.name, image_avif=existing.image_avif.name)
+        return Response(serializer.data, status=HTTP_201_CREATED)
+
+    @action(detail=False, methods=['post'], url_path='bulk')
+    def bulk(self, request):
+        """
+        여러 글을 한 요청으로 삭제/수정 (앱의 다중 선택)
+        {"delete": [id, ...], "update": [{"id": id, "title": ..., "text": ...}, ...]}
+        하나의 트랜잭션에서 처리하고 글마다 결과를 돌려줌
+        {"results": [{"id", "op", "status", "post"(수정 성공) 또는 "errors"(검증 실패)}, ...]}
+        없는 글은 404, 잘못된 값은 400으로 그 글만 건너뜀
+        """
+        delete_ids = request.data.get('delete') or []
+        updates = request.data.get('update') or []
+        if not isinstance(delete_ids, list) or not isinstance(updates, list):
+            return Response({'detail': 'delete and update must be lists'}, status=HTTP_400_BAD_REQUEST)
+        if len(delete_ids) + len(updates) > BULK_MAX_ITEMS:
+            return Response({'detail': 'Too many items (max %d)' % BULK_MAX_ITEMS}, status=HTTP_400_BAD_REQUEST)
+        if not all(type(post_id) is int for post_id in delete_ids) \
+                or not all(isinstance(item, dict) and type(item.get('id')) is int for item in updates):
+            return Response({'detail': 'ids must be integers'}, status=HTTP_400_BAD_REQUEST)
+
+        results = []
+        with transaction.atomic():
+            queryset = self.get_queryset()
+            existing = set(queryset.filter(pk__in=delete_ids).values_list('pk', flat=True))
+            queryset.filter(pk__in=existing).delete()
+            for post_id in delete_ids:
+                results.append({'id': post_id, 'op': 'delete', 'status': 204 if post_id in existing else 404})
+
+            posts = queryset.in_bulk([item['id'] for item in updates])
+            for item in updates:
+                post = posts.get(item['id'])
+                if post is None:
+                    results.append({'id': item['id'], 'op': 'update', 'status': 404})
+                    continue
+                fields = {name: item[name] for name in ('title', 'text') if name in item}
+                serializer = self.get_serializer(post, data=fields, partial=True)
+                if serializer.is_valid():
+                    serializer.save()
+                    results.append({'id': post.id, 'op': 'update', 'status': 200, 'post': serializer.data})
+                else:
+                    results.append({'id': post.id, 'op': 'update', 'status': 400, 'errors': serializer.errors})
+        return Response({'results': results})
 
-    def perform_create(self, serializer):
-        # 인증된 사용자를 author로 자동 설정하고 published_date도 설정
-        serializer.save(author=self.request.user, published_date=timezone.now())
\ No newline at end of file
+    @action(detail=True, methods=['get'], url_path='image')
+    def image(self, request, pk=None):
+        """
+        글의 이미지를 Accept 헤더가 허용하는 가장 작은 형식으로 보냄 (AVIF > WebP > 원본)
+        ?w=너비 를 주면 그 너비 이상인 가장 작은 IMAGE_WIDTHS 크기로 줄인 사본 (WebP > JPEG)
+        """
+        post = self.get_object()
+        accepted = accepted_types(request.META.get('HTTP_ACCEPT'))
+        chosen, content_type = post.image, None
+        for field, mime, _, _ in IMAGE_VARIANTS:
+            variant = getattr(post, field)
+            if variant and mime in accepted:
+                chosen, content_type = variant, mime
+                break
+        if not chosen:
+            return Response({'detail': 'No image'}, status=HTTP_404_NOT_FOUND)
+        try:
+            requested_width = int(request.query_params.get('w', ''))
+        except ValueError:
+            requested_width = None
+        width = next((w for w in IMAGE_WIDTHS if requested_width and w >= requested_width), None)
+        resized = None
+        if width:
+            try:
+                resized, resized_type = resized_image(post, width, 'image/webp' in accepted)
+            except (OSError, ValueError):
+                # 축소하지 못하면 원래 크기로 보냄
+                resized = None
+        try:
+            if resized is not None:
+                response = FileResponse(resized, content_type=resized_type)
+                # 축소하지 않았다면 받았을 크기 (앱이 절약한 데이터를 셈)
+                response['X-Full-Length'] = str(chosen.size)
+            else:
+                response = FileResponse(chosen.open('rb'), content_type=content_type)
+        except FileNotFoundError:
+            return Response({'detail': 'Image file missing'}, status=HTTP_404_NOT_FOUND)
+        # 같은 주소라도 Accept에 따라 다른 형식이므로 캐시가 구분하도록
+        response['Vary'] = 'Accept'
+        return response
@@ -150,4 +150,8 @@ DEFAULT_AUTO_FIELD = "django.db.models.BigAutoField"
 MdESSAGE_STORAGE = "django.contrib.messages.storage.session.SessionStorage"
 
 MEDIA_URL = "/media/"
-MEDIA_ROOT = BASE_DIR / "media/" 
\ No newline at end of file
+MEDIA_ROOT = BASE_DIR / "media/" 
+# 감지 카메라(detection=1)의 거의 같은 이미지 업로드 억제 (dHash 해밍 거리, 같은 작성자의 최근 글 기준)
+# None이면 검사하지 않음
+NEAR_DUPLICATE_MAX_DISTANCE = 6
+NEAR_DUPLICATE_WINDOW_SECONDS = 300
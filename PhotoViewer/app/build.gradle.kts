@@ -19,6 +19,10 @@ android {
 
         // Default API URL for debug builds (localhost via Android emulator)
         buildConfigField("String", "API_BASE_URL", "\"http://10.0.2.2:8000/\"")
+
+        // Minimum AppLog level (android.util.Log constants: 2 = VERBOSE ... 6 = ERROR).
+        // Must stay a literal so the AppLog level flags are compile-time constants.
+        buildConfigField("int", "LOG_LEVEL", "2")
     }
 
     buildTypes {
@@ -36,6 +40,8 @@ android {
         release {
             // Production: PythonAnywhere
             buildConfigField("String", "API_BASE_URL", "\"https://mouseku.pythonanywhere.com/\"")
+            // Warnings and errors only; verbose/debug/info logging is compiled out
+            buildConfigField("int", "LOG_LEVEL", "5")
             isMinifyEnabled = false
             proguardFiles(
                 getDefaultProguardFile("proguard-android-optimize.txt"),
@@ -53,6 +59,18 @@ android {
     buildFeatures {
         buildConfig = true
     }
+    testOptions {
+        unitTests {
+            // FeedRenderBenchmark inflates the real layouts under Robolectric
+            isIncludeAndroidResources = true
+            // -PrenderBenchmark.record stores this run as FeedRenderBenchmark's baseline;
+            // -PrenderBenchmark.gateTimes also fails it on bind times (report-only by default)
+            all {
+                it.systemProperty("renderBenchmark.record", project.hasProperty("renderBenchmark.record"))
+                it.systemProperty("renderBenchmark.gateTimes", project.hasProperty("renderBenchmark.gateTimes"))
+            }
+        }
+    }
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
@@ -60,15 +78,19 @@ android {
 }
 
 dependencies {
+    implementation(project(":core"))
     implementation(libs.appcompat)
     implementation(libs.material)
     implementation(libs.activity)
     implementation(libs.constraintlayout)
+    implementation(libs.lifecycle.viewmodel)
+    implementation(libs.lifecycle.livedata)
     implementation("androidx.swiperefreshlayout:swiperefreshlayout:1.1.0")
     implementation("androidx.security:security-crypto:1.1.0-alpha06")
     implementation("androidx.work:work-runtime:2.9.0")
     testImplementation(libs.junit)
     testImplementation("org.mockito:mockito-core:5.2.0")
+    testImplementation(libs.robolectric)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.example.photoviewer;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.photoviewer.core.image.ImageFormat;
+import com.example.photoviewer.utils.ImageFormats;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Bytes per image and decode time for the old upload encoding (JPEG 90) and WebP
+ * on a fixed, generated corpus: detector frames, a larger camera scene and a
+ * portrait photo. Runs on a device, since the codecs are the platform's.
+ * AVIF is decode-only on Android (from 12), so it is measured from server output instead.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ImageFormatBenchmark {
+    private static final String TAG = "ImageFormatBenchmark";
+    private static final int DECODE_ITERATIONS = 20;
+
+    /**
+     * Gradient background, a few solid shapes and sensor noise, like the feed's photos
+     */
+    private static Bitmap scene(int width, int height, int seed) {
+        Random random = new Random(seed);
+        int[] argb = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int v = Math.min(255, (x * 160) / width + (y * 60) / height + random.nextInt(24));
+                argb[y * width + x] = 0xff000000 | (v << 16) | ((v * 3 / 4) << 8) | (v / 2);
+            }
+        }
+        for (int shape = 0; shape < 6; shape++) {
+            int left = random.nextInt(width / 2);
+            int top = random.nextInt(height / 2);
+            int color = 0xff000000 | random.nextInt(0xffffff);
+            for (int y = top; y < top + height / 4; y++) {
+                for (int x = left; x < left + width / 4; x++) {
+                    argb[y * width + x] = color;
+                }
+            }
+        }
+        return Bitmap.createBitmap(argb, width, height, Bitmap.Config.ARGB_8888);
+    }
+
+    private static long decodeMicros(byte[] data) {
+        long start = System.nanoTime();
+        for (int i = 0; i < DECODE_ITERATIONS; i++) {
+            Bitmap decoded = BitmapFactory.decodeByteArray(data, 0, data.length);
+            assertNotNull(decoded);
+            decoded.recycle();
+        }
+        return (System.nanoTime() - start) / 1000 / DECODE_ITERATIONS;
+    }
+
+    @Test
+    public void webpIsSmallerThanJpegOnCorpus() {
+        Bitmap[] corpus = {
+            scene(320, 240, 1), scene(320, 240, 2), scene(320, 240, 3),
+            scene(1280, 960, 4), scene(1080, 1920, 5),
+        };
+        long jpegBytes = 0;
+        long webpBytes = 0;
+        for (int i = 0; i < corpus.length; i++) {
+            Bitmap bitmap = corpus[i];
+            ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+            bitmap.compress(Bitmap.CompressFormat.JPEG, 90, jpeg);
+            byte[] jpegData = jpeg.toByteArray();
+            byte[] webpData = ImageFormats.encodeForUpload(bitmap);
+            assertEquals(ImageFormat.WEBP, ImageFormat.sniff(webpData));
+
+            Log.i(TAG, bitmap.getWidth() + "x" + bitmap.getHeight() + " #" + i
+                    + ": jpeg " + jpegData.length + " B, " + decodeMicros(jpegData) + " us"
+                    + " | webp " + webpData.length + " B, " + decodeMicros(webpData) + " us");
+            jpegBytes += jpegData.length;
+            webpBytes += webpData.length;
+            bitmap.recycle();
+        }
+        Log.i(TAG, "corpus total: jpeg " + jpegBytes + " B, webp " + webpBytes + " B ("
+                + (100 - webpBytes * 100 / jpegBytes) + "% smaller)");
+        assertTrue("WebP should be smaller than JPEG 90 on the corpus", webpBytes < jpegBytes);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.photoviewer;
+
+import android.util.DisplayMetrics;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.recyclerview.widget.StaggeredGridLayoutManager;
+import com.example.photoviewer.core.layout.FeedLayout;
+
+/**
+ * LayoutManager and cell sizes for a FeedLayout; used by MainActivity and by
+ * FeedRenderBenchmark, so the benchmark measures the feed exactly as it is set up
+ */
+final class FeedLayoutSetup {
+    // Dimensions from activity_main.xml / item_image.xml, in dp
+    private static final int FEED_MARGIN_DP = 16;
+    private static final int CELL_PADDING_DP = 8;
+    private static final int LIST_ROW_HEIGHT_DP = 200;
+
+    private FeedLayoutSetup() {}
+
+    /**
+     * Cell sizes come from the window width, so they are known before the first layout pass
+     * @return Image width of one cell in pixels
+     */
+    static int apply(RecyclerView recyclerView, ImageAdapter adapter, FeedLayout feedLayout) {
+        DisplayMetrics dm = recyclerView.getResources().getDisplayMetrics();
+        int contentWidth = dm.widthPixels - 2 * Math.round(FEED_MARGIN_DP * dm.density);
+        int cellWidth = feedLayout.cellWidth(contentWidth, 2 * Math.round(CELL_PADDING_DP * dm.density));
+        int listRowHeight = Math.round(LIST_ROW_HEIGHT_DP * dm.density);
+
+        switch (feedLayout) {
+            case GRID:
+                recyclerView.setLayoutManager(
+                    new GridLayoutManager(recyclerView.getContext(), feedLayout.getColumns()));
+                break;
+            case STAGGERED:
+                StaggeredGridLayoutManager staggered =
+                    new StaggeredGridLayoutManager(feedLayout.getColumns(), StaggeredGridLayoutManager.VERTICAL);
+                // Heights are final from the first bind, so there are no gaps to repair by moving items
+                staggered.setGapStrategy(StaggeredGridLayoutManager.GAP_HANDLING_NONE);
+                recyclerView.setLayoutManager(staggered);
+                break;
+            default:
+                recyclerView.setLayoutManager(new LinearLayoutManager(recyclerView.getContext()));
+                break;
+        }
+        adapter.setLayout(feedLayout, cellWidth, listRowHeight);
+        return cellWidth;
+    }
+}
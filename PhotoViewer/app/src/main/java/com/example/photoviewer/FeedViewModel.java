@@ -0,0 +1,622 @@
+package com.example.photoviewer;
+
+import android.app.Application;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import com.example.photoviewer.core.feed.BulkResult;
+import com.example.photoviewer.core.feed.NearDuplicateFilter;
+import com.example.photoviewer.core.feed.NewPostScan;
+import com.example.photoviewer.core.feed.PostRecord;
+import com.example.photoviewer.core.image.ImageFormat;
+import com.example.photoviewer.core.metrics.MetricsRegistry;
+import com.example.photoviewer.core.net.ApiClient;
+import com.example.photoviewer.core.net.CancelledException;
+import com.example.photoviewer.core.net.CircuitOpenException;
+import com.example.photoviewer.core.net.NetworkQualityEstimator;
+import com.example.photoviewer.core.net.RequestScope;
+import com.example.photoviewer.core.sched.LaneScheduler;
+import com.example.photoviewer.core.search.PostIndex;
+import com.example.photoviewer.core.trace.TraceRecorder;
+import com.example.photoviewer.services.ApiProvider;
+import com.example.photoviewer.utils.AppLog;
+import com.example.photoviewer.utils.DataSaver;
+import com.example.photoviewer.utils.ImageFormats;
+import com.example.photoviewer.utils.ImageHashes;
+import com.example.photoviewer.utils.PostCache;
+import com.example.photoviewer.utils.StartupWarmups;
+import com.example.photoviewer.utils.SyncPreferences;
+import com.example.photoviewer.utils.ThumbnailCache;
+import com.example.photoviewer.utils.TraceDumps;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feed state for MainActivity that survives configuration changes
+ * Holds the downloaded posts (with bitmaps), the in-flight sync and the pending
+ * edit state, so rotation, locale or dark mode changes re-render from memory
+ * instead of downloading every post and image again
+ * <p>
+ * All network work runs in this ViewModel's RequestScope: it is cancelled when the
+ * ViewModel is cleared (the activity finishes) or on logout, and each sync runs in a
+ * child scope that a newer sync cancels.
+ * <p>
+ * Titles and text of every synced or cached post are kept in a PostIndex, updated on
+ * the sync lane as posts arrive, so search() can filter the feed on the main thread.
+ */
+public class FeedViewModel extends AndroidViewModel {
+    private static final String TAG = "FeedViewModel";
+    // Same as the foreground poll interval; older data is refreshed when the activity is recreated
+    static final long STALE_AFTER_MS = 30000;
+
+    /**
+     * Outcome of one sync, delivered once to whichever activity instance is observing
+     */
+    public static final class SyncResult {
+        private final boolean success;
+        private final int postCount;
+        private boolean handled;
+
+        SyncResult(boolean success, int postCount) {
+            this.success = success;
+            this.postCount = postCount;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public int getPostCount() {
+            return postCount;
+        }
+
+        /**
+         * @return true the first time only, so a recreated activity does not repeat toasts
+         */
+        public boolean markHandled() {
+            if (handled) {
+                return false;
+            }
+            handled = true;
+            return true;
+        }
+    }
+
+    private final MutableLiveData<List<Post>> posts = new MutableLiveData<>(Collections.emptyList());
+    private final MutableLiveData<Boolean> syncing = new MutableLiveData<>(false);
+    private final MutableLiveData<String> status = new MutableLiveData<>();
+    private final MutableLiveData<SyncResult> syncResult = new MutableLiveData<>();
+
+    private final LaneScheduler scheduler = LaneScheduler.getInstance();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final RequestScope scope = new RequestScope();
+    private final ApiClient api = ApiProvider.get().withScope(scope);
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private final TraceRecorder trace = TraceRecorder.getInstance();
+    private final SyncPreferences syncPrefs;
+    private final PostCache postCache;
+    private final ThumbnailCache thumbnailCache;
+    private final DataSaver dataSaver;
+    private final PostIndex searchIndex = new PostIndex();
+    private String searchQuery = "";
+
+    private boolean cacheLoaded;
+    private volatile boolean synced;
+    // Scope of the sync in flight, or null
+    private RequestScope syncScope;
+    private volatile boolean stale = true;
+    private long lastSyncedAt;
+
+    // Pending edit state (survives the recreation that can happen while the image picker is open)
+    private Post currentEditPost;
+    private Bitmap currentEditImage;
+    private int postIdToShowAfterRefresh = -1;
+
+    public FeedViewModel(@NonNull Application application) {
+        super(application);
+        syncPrefs = new SyncPreferences(application);
+        postCache = new PostCache(application);
+        thumbnailCache = new ThumbnailCache(application);
+        dataSaver = new DataSaver(application);
+    }
+
+    public LiveData<List<Post>> getPosts() {
+        return posts;
+    }
+
+    public LiveData<Boolean> getSyncing() {
+        return syncing;
+    }
+
+    public LiveData<String> getStatus() {
+        return status;
+    }
+
+    public LiveData<SyncResult> getSyncResult() {
+        return syncResult;
+    }
+
+    /**
+     * @return Ids of the posts matching the query, ascending, or null if the query
+     *         is empty; fast enough to run per keystroke on the main thread
+     */
+    public int[] search(String query) {
+        long start = System.nanoTime();
+        int[] ids = searchIndex.search(query);
+        metrics.histogram("search.query_ms").recordSince(start);
+        return ids;
+    }
+
+    public String getSearchQuery() {
+        return searchQuery;
+    }
+
+    public void setSearchQuery(String query) {
+        searchQuery = query == null ? "" : query;
+    }
+
+    /**
+     * Background work that should outlive the activity instance (upload, edit, delete, poll)
+     * @param lane USER for mutations the user is waiting on, BACKGROUND for polls
+     */
+    public void execute(LaneScheduler.Lane lane, Runnable task) {
+        scheduler.execute(lane, task);
+    }
+
+    /**
+     * @return The API client bound to this ViewModel's scope; its calls are aborted
+     *         when the ViewModel is cleared or cancelAll() is called
+     */
+    public ApiClient getApi() {
+        return api;
+    }
+
+    /**
+     * @return A scope for activity-bound work (e.g. one poll), cancelled with this ViewModel
+     */
+    public RequestScope newScope() {
+        return scope.newChild();
+    }
+
+    /**
+     * Abort every request and pending result of this ViewModel (logout)
+     * Must be called on the main thread
+     */
+    public void cancelAll() {
+        scope.cancel();
+        mainHandler.removeCallbacksAndMessages(null);
+        syncScope = null;
+        syncing.setValue(false);
+    }
+
+    public boolean isSyncing() {
+        return syncScope != null;
+    }
+
+    /**
+     * @return true if there is nothing synced yet, new posts were detected,
+     *         or the last sync is older than STALE_AFTER_MS
+     */
+    public boolean isStale() {
+        return stale || SystemClock.elapsedRealtime() - lastSyncedAt > STALE_AFTER_MS;
+    }
+
+    /**
+     * Force the next isStale() check to resync (e.g. after an upload, or the poll saw new posts)
+     * Safe to call from any thread
+     */
+    public void markStale() {
+        stale = true;
+    }
+
+    /**
+     * Apply a bulk delete/edit to the shown feed in one update instead of resyncing:
+     * removed posts are dropped, updated ones take the server's title and text and
+     * keep their bitmap. The post cache is rewritten on the USER lane.
+     * Must be called on the main thread
+     */
+    public void applyBulkResult(BulkResult result) {
+        Set<Integer> removed = new HashSet<>(result.getRemovedIds());
+        Map<Integer, PostRecord> updated = new HashMap<>();
+        for (PostRecord record : result.getUpdatedPosts()) {
+            updated.put(record.getId(), record);
+        }
+        List<Post> current = posts.getValue();
+        List<Post> next = new ArrayList<>(current.size());
+        for (Post post : current) {
+            if (removed.contains(post.getId())) {
+                searchIndex.remove(post.getId());
+                continue;
+            }
+            PostRecord record = updated.get(post.getId());
+            if (record != null) {
+                post = new Post(record, post.getImageBitmap());
+                searchIndex.add(post.getId(), post.getTitle(), post.getText());
+            }
+            next.add(post);
+        }
+        List<Post> feed = Collections.unmodifiableList(next);
+        posts.setValue(feed);
+        if (isSyncing()) {
+            // The running sync read the feed before this change; make the next check resync
+            markStale();
+        }
+        scheduler.execute(LaneScheduler.Lane.USER, () -> postCache.save(feed));
+    }
+
+    /**
+     * Render posts from the local cache without touching the network, once per ViewModel
+     * Decoded on the VISIBLE_IMAGE lane; dropped if a sync result was published first
+     * Must be called on the main thread
+     */
+    public void loadCachedPosts() {
+        if (cacheLoaded) {
+            return;
+        }
+        cacheLoaded = true;
+
+        // Normally already loaded while the splash screen was up
+        List<Post> preloaded = StartupWarmups.takePreloadedFeed();
+        if (preloaded != null) {
+            AppLog.d(TAG, "Using " + preloaded.size() + " preloaded cached posts");
+            metrics.counter(preloaded.isEmpty() ? "cache.feed.miss" : "cache.feed.hit").inc();
+            if (!preloaded.isEmpty()) {
+                index(preloaded);
+                posts.setValue(preloaded);
+                status.setValue("캐시된 포스트 " + preloaded.size() + "개");
+            }
+            return;
+        }
+        scheduler.execute(LaneScheduler.Lane.VISIBLE_IMAGE, () -> {
+            List<Post> cachedPosts = new ArrayList<>();
+            for (Post post : postCache.load()) {
+                Bitmap thumbnail = thumbnailCache.get(post.getId());
+                if (thumbnail != null || post.hasImageSize()) {
+                    cachedPosts.add(post.withImageBitmap(thumbnail));
+                }
+            }
+            AppLog.d(TAG, "Loaded " + cachedPosts.size() + " cached posts");
+            metrics.counter(cachedPosts.isEmpty() ? "cache.feed.miss" : "cache.feed.hit").inc();
+            if (cachedPosts.isEmpty()) {
+                return;
+            }
+            index(cachedPosts);
+            mainHandler.post(() -> {
+                if (synced) {
+                    return;
+                }
+                posts.setValue(cachedPosts);
+                status.setValue("캐시된 포스트 " + cachedPosts.size() + "개");
+            });
+        });
+    }
+
+    /**
+     * Start a full sync. A sync already in flight is cancelled (its connection is
+     * closed and its results dropped), since the newer one reflects later changes.
+     * Must be called on the main thread
+     * @return false if the ViewModel has been cancelled
+     */
+    public boolean sync() {
+        if (scope.isCancelled()) {
+            return false;
+        }
+        if (syncScope != null) {
+            AppLog.d(TAG, "Cancelling the previous sync");
+            syncScope.cancel();
+        }
+        RequestScope runScope = scope.newChild();
+        syncScope = runScope;
+        syncing.setValue(true);
+        // One sync at a time: a newer one queues behind the cancelled run, which ends quickly
+        scheduler.execute(LaneScheduler.Lane.SYNC, () -> {
+            try (runScope) {
+                runSync(runScope);
+            } catch (CancelledException e) {
+                AppLog.d(TAG, "Sync cancelled");
+                metrics.counter("sync.cancelled").inc();
+                trace.record("sync", "cancelled");
+            }
+        });
+        return true;
+    }
+
+    private void runSync(RequestScope runScope) throws CancelledException {
+        runScope.throwIfCancelled();
+        ApiClient api = this.api.withScope(runScope);
+        long syncStart = System.nanoTime();
+        metrics.counter("sync.runs").inc();
+        trace.record("sync", "start");
+        List<Post> downloadedPosts = new ArrayList<>();
+        List<PostRecord> records = new ArrayList<>();
+        NearDuplicateFilter nearDuplicates = new NearDuplicateFilter();
+        try {
+            NetworkQualityEstimator network = api.getNetworkQuality();
+            records = fetchFeed(api, network);
+            if (AppLog.D) AppLog.d(TAG, "Total posts received: " + records.size());
+            trace.record("sync", "feed", records.size());
+            // Drop posts deleted on the server; the rest are (re)indexed as the loop reaches them
+            int[] ids = new int[records.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = records.get(i).getId();
+            }
+            searchIndex.retainAll(ids);
+            long imagesStart = System.nanoTime();
+
+            List<PostRecord> toFetch = new ArrayList<>();
+            for (int i = 0; i < records.size(); i++) {
+                PostRecord record = records.get(i);
+                searchIndex.add(record.getId(), record.getTitle(), record.getText());
+                if (AppLog.V) AppLog.v(TAG, "Post #" + (i+1) + ": " + record.getTitle() + " " + record.getImageUrl());
+
+                // Bursts of near-identical detection frames: skip the download when the server sent a dHash
+                if (record.hasImage() && NearDuplicateFilter.isComparable(record)
+                        && !nearDuplicates.offer(record.getCreatedAtMillis(), record.getImageDhash())) {
+                    if (AppLog.D) AppLog.d(TAG, "Post #" + (i+1) + " collapsed as a near-duplicate");
+                } else if (record.hasImage()) {
+                    toFetch.add(record);
+                } else if (AppLog.D) {
+                    AppLog.d(TAG, "Post #" + (i+1) + " has no image");
+                }
+            }
+
+            // Images download on the SYNC_IMAGE lane, as many at once as the network estimate
+            // allows, and are decoded here in feed order
+            int imageWidth = network.imageWidthFor(getApplication().getResources().getDisplayMetrics().widthPixels);
+            // Data saver: thumbnail-sized images, and cached thumbnails of unchanged images are reused
+            Map<Integer, Post> reusable = new HashMap<>();
+            if (dataSaver.isEnabled()) {
+                imageWidth = Math.min(imageWidth, DataSaver.IMAGE_WIDTH);
+                for (Post cached : postCache.load()) {
+                    reusable.put(cached.getId(), cached);
+                }
+            }
+            metrics.counter("sync.image_width." + imageWidth).inc();
+            List<FutureTask<byte[]>> downloads = new ArrayList<>(toFetch.size());
+            boolean[] fromNetwork = new boolean[toFetch.size()];
+            int networkInFlight = 0;
+            try {
+                for (int i = 0; i < toFetch.size(); i++) {
+                    while (downloads.size() < toFetch.size() && networkInFlight < network.getImageParallelism()) {
+                        int next = downloads.size();
+                        PostRecord nextRecord = toFetch.get(next);
+                        Post cached = reusable.get(nextRecord.getId());
+                        FutureTask<byte[]> reused = cached != null && cached.hasSameImage(nextRecord)
+                            ? reuseThumbnail(nextRecord.getId()) : null;
+                        if (reused != null) {
+                            downloads.add(reused);
+                        } else {
+                            downloads.add(fetchImageAsync(api, nextRecord, imageWidth));
+                            fromNetwork[next] = true;
+                            networkInFlight++;
+                        }
+                    }
+                    if (fromNetwork[i]) {
+                        networkInFlight--;
+                    }
+                    PostRecord record = toFetch.get(i);
+                    runScope.throwIfCancelled();
+                    try {
+                        byte[] imageData = await(downloads.get(i));
+                        runScope.throwIfCancelled();
+                        long decodeStart = System.nanoTime();
+                        Bitmap imageBitmap = BitmapFactory.decodeByteArray(imageData, 0, imageData.length);
+                        metrics.histogram("sync.image_decode_ms").recordSince(decodeStart);
+                        metrics.histogram("media." + ImageFormat.sniff(imageData).getName() + ".decode_ms")
+                            .recordSince(decodeStart);
+
+                        if (imageBitmap != null && !record.hasImageDhash() && record.getCreatedAtMillis() >= 0
+                                && !nearDuplicates.offer(record.getCreatedAtMillis(), ImageHashes.dhash(imageBitmap))) {
+                            // Older server without image_dhash: hash the decoded bitmap instead
+                            if (AppLog.D) AppLog.d(TAG, "Post " + record.getId() + " collapsed as a near-duplicate");
+                        } else if (imageBitmap != null) {
+                            downloadedPosts.add(new Post(record, imageBitmap));
+                            if (!thumbnailCache.contains(record.getId())) {
+                                thumbnailCache.put(record.getId(), imageBitmap);
+                            }
+                        } else {
+                            AppLog.e(TAG, "✗ Image of post " + record.getId() + " decode failed - bitmap is null");
+                        }
+                    } catch (CancelledException e) {
+                        throw e;
+                    } catch (IOException e) {
+                        AppLog.e(TAG, "✗ Error downloading image of post " + record.getId() + ": " + e.getMessage());
+                    }
+                }
+            } finally {
+                // Downloads not started yet are dropped; running ones end with the sync scope
+                for (FutureTask<byte[]> download : downloads) {
+                    download.cancel(false);
+                }
+            }
+            metrics.histogram("sync.images_ms").recordSince(imagesStart);
+            metrics.counter("feed.near_duplicates").add(nearDuplicates.getCollapsedCount());
+            if (AppLog.D) AppLog.d(TAG, "Total posts downloaded: " + downloadedPosts.size());
+        } catch (CancelledException e) {
+            throw e;
+        } catch (CircuitOpenException e) {
+            AppLog.w(TAG, "Sync skipped: " + e.getMessage());
+            metrics.counter("sync.failures").inc();
+        } catch (IOException e) {
+            AppLog.e(TAG, "Error in download task: " + e.getMessage(), e);
+            metrics.counter("sync.failures").inc();
+            TraceDumps.dumpToFile(getApplication(), "sync-failure");
+        }
+        trace.record("sync", "end", downloadedPosts.size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - syncStart));
+
+        runScope.throwIfCancelled();
+
+        if (downloadedPosts.isEmpty()) {
+            deliver(runScope, () -> {
+                status.setValue("포스트를 불러오지 못했습니다.");
+                syncResult.setValue(new SyncResult(false, 0));
+            });
+            return;
+        }
+
+        // Check for new posts
+        int lastSeenId = syncPrefs.getLastSeenPostId();
+        NewPostScan scan = NewPostScan.scan(records, lastSeenId);
+        AppLog.d(TAG, scan.toString());
+        if (scan.getMaxId() > lastSeenId) {
+            syncPrefs.setLastSeenPostId(scan.getMaxId());
+            AppLog.d(TAG, "Updated lastSeenPostId to " + scan.getMaxId());
+        }
+        postCache.save(downloadedPosts);
+
+        synced = true;
+        List<Post> result = Collections.unmodifiableList(downloadedPosts);
+        deliver(runScope, () -> {
+            stale = false;
+            lastSyncedAt = SystemClock.elapsedRealtime();
+            posts.setValue(result);
+            int collapsed = nearDuplicates.getCollapsedCount();
+            status.setValue("동기화 완료! (" + result.size() + "개 포스트"
+                + (collapsed > 0 ? ", 비슷한 이미지 " + collapsed + "개 생략)" : ")"));
+            syncResult.setValue(new SyncResult(true, result.size()));
+        });
+    }
+
+    /**
+     * The feed list: the download started at login if there is one (it is already
+     * under way or done), otherwise a new request
+     */
+    private List<PostRecord> fetchFeed(ApiClient api, NetworkQualityEstimator network) throws IOException {
+        FutureTask<List<PostRecord>> prefetched = StartupWarmups.takePrefetchedFeed();
+        if (prefetched != null) {
+            try {
+                List<PostRecord> records = prefetched.get();
+                metrics.counter("sync.feed_prefetched").inc();
+                return records;
+            } catch (InterruptedException | CancellationException e) {
+                throw new CancelledException("Feed prefetch cancelled");
+            } catch (ExecutionException e) {
+                AppLog.d(TAG, "Feed prefetch failed, fetching again: " + e.getCause());
+            }
+        }
+        return api.fetchPosts(network.timeoutMs());
+    }
+
+    /**
+     * Start downloading a post's image on the SYNC_IMAGE lane, at the given width
+     */
+    private FutureTask<byte[]> fetchImageAsync(ApiClient api, PostRecord record, int width) {
+        FutureTask<byte[]> download = new FutureTask<>(() -> {
+            long downloadStart = System.nanoTime();
+            byte[] data = api.fetchImage(ApiClient.imageUrlForWidth(record.getImageUrl(), width),
+                ImageFormats.ACCEPT, api.getNetworkQuality().imageTimeoutMs());
+            metrics.histogram("sync.image_download_ms").recordSince(downloadStart);
+            return data;
+        });
+        scheduler.execute(LaneScheduler.Lane.SYNC_IMAGE, download);
+        return download;
+    }
+
+    /**
+     * @return A completed task holding the post's cached thumbnail, or null if it has none
+     */
+    private FutureTask<byte[]> reuseThumbnail(int postId) {
+        byte[] thumbnail = thumbnailCache.getEncoded(postId);
+        if (thumbnail == null) {
+            return null;
+        }
+        // The download it replaces would have been at least about this big
+        metrics.counter("datasaver.thumbnails_reused").inc();
+        metrics.counter("datasaver.bytes_saved").add(thumbnail.length);
+        FutureTask<byte[]> task = new FutureTask<>(() -> thumbnail);
+        task.run();
+        return task;
+    }
+
+    private static byte[] await(FutureTask<byte[]> download) throws IOException {
+        try {
+            return download.get();
+        } catch (InterruptedException | CancellationException e) {
+            throw new CancelledException("Image download cancelled");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Add posts from the local cache to the search index (unchanged posts are skipped cheaply)
+     */
+    private void index(List<Post> cachedPosts) {
+        for (Post post : cachedPosts) {
+            searchIndex.add(post.getId(), post.getTitle(), post.getText());
+        }
+    }
+
+    /**
+     * Publish a sync's results on the main thread, unless a newer sync or
+     * cancelAll() superseded it in the meantime
+     */
+    private void deliver(RequestScope runScope, Runnable publish) {
+        mainHandler.post(() -> {
+            if (runScope.isCancelled() || syncScope != runScope) {
+                return;
+            }
+            syncScope = null;
+            publish.run();
+            syncing.setValue(false);
+        });
+    }
+
+    public Post getCurrentEditPost() {
+        return currentEditPost;
+    }
+
+    public void setCurrentEditPost(Post post) {
+        currentEditPost = post;
+    }
+
+    public Bitmap getCurrentEditImage() {
+        return currentEditImage;
+    }
+
+    public void setCurrentEditImage(Bitmap image) {
+        currentEditImage = image;
+    }
+
+    /**
+     * @return Post id to open once the next sync finishes, or -1
+     */
+    public int getPostIdToShowAfterRefresh() {
+        return postIdToShowAfterRefresh;
+    }
+
+    public void setPostIdToShowAfterRefresh(int postId) {
+        postIdToShowAfterRefresh = postId;
+    }
+
+    @Override
+    protected void onCleared() {
+        scope.cancel();
+        mainHandler.removeCallbacksAndMessages(null);
+        currentEditImage = null;
+    }
+}
@@ -1,55 +1,162 @@
 package com.example.photoviewer;
 
-import android.util.Log;
+import android.graphics.Color;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
 import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
 import androidx.recyclerview.widget.RecyclerView;
+import com.example.photoviewer.core.layout.FeedLayout;
+import com.example.photoviewer.utils.AppLog;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 public class ImageAdapter extends RecyclerView.Adapter<ImageAdapter.ImageViewHolder> {
     private static final String TAG = "ImageAdapter";
     private List<Post> postList;
     private OnPostClickListener clickListener;
+    private FeedLayout layout = FeedLayout.LIST;
+    private int cellWidth;
+    private int listRowHeight;
+    // Multi-select: a long press starts it, taps then toggle posts instead of opening them
+    private final Set<Integer> selectedIds = new LinkedHashSet<>();
+    private boolean selecting;
+    private int maxSelection = Integer.MAX_VALUE;
+    private OnSelectionChangedListener selectionListener;
 
     public interface OnPostClickListener {
         void onPostClick(Post post);
     }
 
+    public interface OnSelectionChangedListener {
+        /**
+         * @param count Selected posts; 0 when selection mode ended
+         * @param limitReached true if a post was not added because maxSelection was reached
+         */
+        void onSelectionChanged(int count, boolean limitReached);
+    }
+
     public ImageAdapter(List<Post> postList, OnPostClickListener clickListener) {
         this.postList = postList;
         this.clickListener = clickListener;
-        Log.d(TAG, "ImageAdapter created with " + postList.size() + " posts");
+        if (AppLog.D) AppLog.d(TAG, "ImageAdapter created with " + postList.size() + " posts");
+    }
+
+    /**
+     * Switch the cell sizing; the caller sets the matching LayoutManager
+     * @param cellWidth Image width of one cell in pixels (FeedLayout.cellWidth)
+     * @param listRowHeight Row height in pixels for FeedLayout.LIST
+     */
+    public void setLayout(FeedLayout layout, int cellWidth, int listRowHeight) {
+        this.layout = layout;
+        this.cellWidth = cellWidth;
+        this.listRowHeight = listRowHeight;
+        notifyDataSetChanged();
+    }
+
+    /**
+     * @param maxSelection Most posts one bulk request may carry
+     */
+    public void setSelectionListener(OnSelectionChangedListener listener, int maxSelection) {
+        this.selectionListener = listener;
+        this.maxSelection = maxSelection;
+    }
+
+    public boolean isSelecting() {
+        return selecting;
+    }
+
+    /**
+     * @return Selected post ids, in the order they were selected
+     */
+    public List<Integer> getSelectedIds() {
+        return new ArrayList<>(selectedIds);
+    }
+
+    /**
+     * Leave selection mode
+     */
+    public void clearSelection() {
+        if (!selecting) {
+            return;
+        }
+        selecting = false;
+        selectedIds.clear();
+        notifyDataSetChanged();
+        if (selectionListener != null) {
+            selectionListener.onSelectionChanged(0, false);
+        }
+    }
+
+    private void toggleSelection(Post post, int position) {
+        boolean limitReached = false;
+        if (!selectedIds.remove(post.getId())) {
+            if (selectedIds.size() < maxSelection) {
+                selectedIds.add(post.getId());
+            } else {
+                limitReached = true;
+            }
+        }
+        if (selectedIds.isEmpty()) {
+            clearSelection();
+            return;
+        }
+        notifyItemChanged(position);
+        if (selectionListener != null) {
+            selectionListener.onSelectionChanged(selectedIds.size(), limitReached);
+        }
     }
 
     @NonNull
     @Override
     public ImageViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_image, parent, false);
-        Log.d(TAG, "onCreateViewHolder called");
+        AppLog.v(TAG, "onCreateViewHolder called");
         return new ImageViewHolder(view);
     }
 
     @Override
     public void onBindViewHolder(@NonNull ImageViewHolder holder, int position) {
         Post post = postList.get(position);
+        // Size from server metadata, not the bitmap, so the cell never resizes when it arrives
+        int height = layout.cellHeight(cellWidth, listRowHeight, post.getImageWidth(), post.getImageHeight());
+        ViewGroup.LayoutParams params = holder.imageView.getLayoutParams();
+        if (params.height != height) {
+            params.height = height;
+            holder.imageView.setLayoutParams(params);
+        }
         holder.imageView.setImageBitmap(post.getImageBitmap());
+        boolean selected = selecting && selectedIds.contains(post.getId());
+        holder.imageView.setAlpha(selected ? 0.6f : 1f);
+        holder.itemView.setBackgroundColor(selected
+            ? ContextCompat.getColor(holder.itemView.getContext(), R.color.selected) : Color.TRANSPARENT);
         holder.itemView.setOnClickListener(v -> {
-            if (clickListener != null) {
+            if (selecting) {
+                toggleSelection(post, holder.getAdapterPosition());
+            } else if (clickListener != null) {
                 clickListener.onPostClick(post);
             }
         });
-        Log.d(TAG, "onBindViewHolder: position=" + position + ", title=" + post.getTitle());
+        holder.itemView.setOnLongClickListener(v -> {
+            if (selectionListener == null) {
+                return false;
+            }
+            selecting = true;
+            toggleSelection(post, holder.getAdapterPosition());
+            return true;
+        });
+        if (AppLog.V) AppLog.v(TAG, "onBindViewHolder: position=" + position + ", title=" + post.getTitle());
     }
 
     @Override
     public int getItemCount() {
-        int count = postList.size();
-        Log.d(TAG, "getItemCount: " + count);
-        return count;
+        // Called many times per layout pass; never log here
+        return postList.size();
     }
 
     public static class ImageViewHolder extends RecyclerView.ViewHolder {
@@ -2,22 +2,37 @@ package com.example.photoviewer;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.widget.Button;
 import android.widget.CheckBox;
 import android.widget.EditText;
 import android.widget.TextView;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
+import com.example.photoviewer.core.sched.LaneScheduler;
 import com.example.photoviewer.services.AuthenticationService;
 import com.example.photoviewer.services.SessionManager;
-import com.example.photoviewer.utils.SecureTokenManager;
+import com.example.photoviewer.services.SessionReauthenticator;
+import com.example.photoviewer.utils.AppLog;
+import com.example.photoviewer.utils.StartupWarmups;
 
 public class LoginActivity extends AppCompatActivity {
+    /**
+     * Opened by SessionReauthenticator after the server rejected the token: logging in
+     * returns to the waiting requests instead of starting MainActivity
+     */
+    public static final String EXTRA_REAUTHENTICATE = "reauthenticate";
+    // Servers drop idle keep-alive sockets; warm again if the user types for longer than this
+    private static final long REWARM_AFTER_MS = 30000;
+
     private EditText usernameInput;
     private EditText passwordInput;
     private Button loginButton;
     private CheckBox rememberUsernameCheckbox;
     private TextView errorMessage;
+    private long lastWarmUpAt = -REWARM_AFTER_MS;
+    private boolean reauthenticating;
+    private volatile boolean loggedIn;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -27,6 +42,38 @@ public class LoginActivity extends AppCompatActivity {
         initializeViews();
         loadRememberedUsername();
         setupLoginButton();
+
+        reauthenticating = getIntent().getBooleanExtra(EXTRA_REAUTHENTICATE, false);
+        if (reauthenticating) {
+            String username = SessionManager.getInstance().getUsername();
+            if (username != null && !username.isEmpty()) {
+                usernameInput.setText(username);
+            }
+            errorMessage.setText("Session expired. Please log in again.");
+            errorMessage.setVisibility(android.view.View.VISIBLE);
+        }
+
+        // Connect while the user types, so login does not pay for DNS + TCP + TLS
+        warmUpConnection();
+        usernameInput.setOnFocusChangeListener((v, hasFocus) -> {
+            if (hasFocus) {
+                warmUpConnection();
+            }
+        });
+        passwordInput.setOnFocusChangeListener((v, hasFocus) -> {
+            if (hasFocus) {
+                warmUpConnection();
+            }
+        });
+    }
+
+    private void warmUpConnection() {
+        long now = SystemClock.elapsedRealtime();
+        if (now - lastWarmUpAt < REWARM_AFTER_MS) {
+            return;
+        }
+        lastWarmUpAt = now;
+        LaneScheduler.getInstance().execute(LaneScheduler.Lane.USER, StartupWarmups::warmConnection);
     }
 
     private void initializeViews() {
@@ -39,14 +86,14 @@ public class LoginActivity extends AppCompatActivity {
 
     private void loadRememberedUsername() {
         try {
-            String saved = SecureTokenManager.getInstance().getUsername();
+            String saved = SessionManager.getInstance().getUsername();
             if (saved != null && !saved.isEmpty()) {
                 usernameInput.setText(saved);
                 rememberUsernameCheckbox.setChecked(true);
             }
         } catch (RuntimeException e) {
             // SecureTokenManager not initialized yet - that's ok, it will be handled
-            android.util.Log.d("LoginActivity", "SecureTokenManager not yet available");
+            AppLog.d("LoginActivity", "SecureTokenManager not yet available");
         }
     }
 
@@ -81,14 +128,25 @@ public class LoginActivity extends AppCompatActivity {
 
                     // Save username if checkbox is checked
                     if (rememberUsernameCheckbox.isChecked()) {
-                        SecureTokenManager.getInstance().saveUsername(username);
+                        SessionManager.getInstance().rememberUsername(username);
                     } else {
-                        SecureTokenManager.getInstance().deleteUsername();
+                        SessionManager.getInstance().forgetUsername();
                     }
                 } catch (RuntimeException e) {
-                    android.util.Log.e("LoginActivity", "Error saving session: " + e.getMessage());
+                    AppLog.e("LoginActivity", "Error saving session: " + e.getMessage());
+                }
+
+                loggedIn = true;
+                if (reauthenticating) {
+                    // The requests waiting for this login are replayed with the new token
+                    SessionReauthenticator.getInstance().onLoggedIn(token);
+                    runOnUiThread(LoginActivity.this::finish);
+                    return;
                 }
 
+                // First feed page downloads while MainActivity starts (its sync takes it over)
+                StartupWarmups.prefetchFeed();
+
                 // Navigate to MainActivity
                 Intent intent = new Intent(LoginActivity.this, MainActivity.class);
                 startActivity(intent);
@@ -107,6 +165,14 @@ public class LoginActivity extends AppCompatActivity {
         });
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (reauthenticating && !loggedIn && !isChangingConfigurations()) {
+            SessionReauthenticator.getInstance().onCancelled();
+        }
+    }
+
     private void showError(String message) {
         errorMessage.setText(message);
         errorMessage.setVisibility(android.view.View.VISIBLE);
@@ -1,6 +1,8 @@
 package com.example.photoviewer;
 
 import android.Manifest;
+import android.app.Activity;
+import android.content.ContentResolver;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.database.Cursor;
@@ -12,45 +14,62 @@ import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
 import android.provider.MediaStore;
-import android.util.Log;
+import android.text.format.Formatter;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.View;
 import android.widget.Button;
+import android.widget.EditText;
 import android.widget.ImageView;
 import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.activity.OnBackPressedCallback;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.google.android.material.textfield.TextInputEditText;
 import com.example.photoviewer.services.SessionManager;
-import com.example.photoviewer.utils.SecureTokenManager;
+import com.example.photoviewer.utils.AppLog;
+import com.example.photoviewer.utils.DataSaver;
+import com.example.photoviewer.utils.FullImageCache;
+import com.example.photoviewer.utils.ImageFormats;
+import com.example.photoviewer.utils.PostCache;
+import com.example.photoviewer.utils.StartupWarmups;
 import com.example.photoviewer.utils.SyncPreferences;
 import com.example.photoviewer.utils.NotificationHelper;
+import com.example.photoviewer.utils.ThumbnailCache;
+
+import com.example.photoviewer.core.feed.BulkEdit;
+import com.example.photoviewer.core.feed.BulkResult;
+import com.example.photoviewer.core.feed.NewPostDetector;
+import com.example.photoviewer.core.feed.NewPostScan;
+import com.example.photoviewer.core.image.ImageFormat;
+import com.example.photoviewer.core.layout.FeedLayout;
+import com.example.photoviewer.core.metrics.MetricsRegistry;
+import com.example.photoviewer.core.net.ApiClient;
+import com.example.photoviewer.core.net.ApiException;
+import com.example.photoviewer.core.net.ApiResponse;
+import com.example.photoviewer.core.net.CancelledException;
+import com.example.photoviewer.core.net.CircuitOpenException;
+import com.example.photoviewer.core.net.RequestScope;
+import com.example.photoviewer.core.sched.LaneScheduler.Lane;
+import com.example.photoviewer.views.TiledImageView;
+import com.example.photoviewer.workers.ThumbnailPrefetchWorker;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
-import java.io.BufferedReader;
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
-import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class MainActivity extends AppCompatActivity {
 
@@ -58,37 +77,51 @@ public class MainActivity extends AppCompatActivity {
     private static final int PICK_IMAGE_REQUEST = 1;
     private static final int REQUEST_CODE_EDIT_IMAGE = 103;
     private static final int REQUEST_CODE_NOTIFICATION_PERMISSION = 104;
+    private static final String PREF_FEED_LAYOUT = "feedLayout";
 
     private RecyclerView recyclerView;
     private SwipeRefreshLayout swipeRefreshLayout;
     private ImageAdapter imageAdapter;
+    private FeedLayout feedLayout = FeedLayout.LIST;
+    private Button btnLayout;
+    // Posts shown by the adapter: allPosts filtered by the search box
     private List<Post> postList = new ArrayList<>();
+    private List<Post> allPosts = new ArrayList<>();
     private TextView textView;
     private Uri selectedImageUri;
     private ProgressBar progressBar;
-    private Post currentEditPost;
-    private Bitmap currentEditImage;
-    private int postIdToShowAfterRefresh = -1;
-
-    // API URL automatically switches based on build type:
-    // - Debug builds: http://10.0.2.2:8000/ (localhost via emulator)
-    // - Release builds: https://mouseku.pythonanywhere.com/
-    private final String site_url = BuildConfig.API_BASE_URL;
-    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+    // Feed, in-flight sync and pending edit state; survives configuration changes
+    private FeedViewModel viewModel;
+
+    // Activity-bound requests (foreground poll); cancelled in onDestroy.
+    // Upload, edit and delete use viewModel.getApi() so they survive rotation.
+    private RequestScope activityScope;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
 
     // Sync and notification helpers
     private SyncPreferences syncPrefs;
     private NotificationHelper notificationHelper;
 
+    // Local feed cache (filled by sync and by BackgroundSyncWorker)
+    private PostCache postCache;
+    private ThumbnailCache thumbnailCache;
+    private FullImageCache fullImageCache;
+    private DataSaver dataSaver;
+    private Button btnDataSaver;
+    private View selectionBar;
+    private TextView tvSelectionCount;
+    // Enabled while posts are selected, so Back ends the selection instead of the activity
+    private OnBackPressedCallback selectionBackCallback;
+
     // Foreground polling
     private final Handler syncHandler = new Handler(Looper.getMainLooper());
     private final Runnable syncRunnable = new Runnable() {
         @Override
         public void run() {
-            Log.d(TAG, "Foreground polling: checking for new posts");
+            AppLog.d(TAG, "Foreground polling: checking for new posts");
             checkForNewPosts(true); // true = show notification even when app is active
-            syncHandler.postDelayed(this, 30000); // 30 seconds
+            syncHandler.postDelayed(this, pollIntervalMs());
         }
     };
 
@@ -97,16 +130,9 @@ public class MainActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
-        // Initialize SecureTokenManager if not already initialized
-        try {
-            SecureTokenManager.initialize(this);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
         // Check session validity - redirect to login if session is invalid
         if (!SessionManager.getInstance().isLoggedIn()) {
-            Log.d(TAG, "Session is invalid - redirecting to login");
+            AppLog.d(TAG, "Session is invalid - redirecting to login");
             Intent intent = new Intent(MainActivity.this, LoginActivity.class);
             intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
             startActivity(intent);
@@ -119,19 +145,80 @@ public class MainActivity extends AppCompatActivity {
         swipeRefreshLayout = findViewById(R.id.swipeRefreshLayout);
         progressBar = findViewById(R.id.progressBar);
 
-        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        btnLayout = findViewById(R.id.btn_layout);
+
         imageAdapter = new ImageAdapter(postList, this::onPostClicked);
+        imageAdapter.setSelectionListener(this::onSelectionChanged, BulkEdit.MAX_ITEMS);
+        selectionBar = findViewById(R.id.selectionBar);
+        tvSelectionCount = findViewById(R.id.tvSelectionCount);
+        selectionBackCallback = new OnBackPressedCallback(false) {
+            @Override
+            public void handleOnBackPressed() {
+                imageAdapter.clearSelection();
+            }
+        };
+        getOnBackPressedDispatcher().addCallback(this, selectionBackCallback);
         recyclerView.setAdapter(imageAdapter);
+        String savedLayout = getPreferences(MODE_PRIVATE).getString(PREF_FEED_LAYOUT, FeedLayout.LIST.name());
+        try {
+            feedLayout = FeedLayout.valueOf(savedLayout);
+        } catch (IllegalArgumentException e) {
+            feedLayout = FeedLayout.LIST;
+        }
+        applyFeedLayout();
+
+        viewModel = new ViewModelProvider(this).get(FeedViewModel.class);
+        activityScope = viewModel.newScope();
+        viewModel.getPosts().observe(this, posts -> {
+            allPosts = posts;
+            applySearch();
+        });
+        viewModel.getStatus().observe(this, status -> {
+            if (status != null) {
+                textView.setText(status);
+            }
+        });
+        viewModel.getSyncing().observe(this, syncing -> {
+            progressBar.setVisibility(syncing ? View.VISIBLE : View.GONE);
+            if (!syncing) {
+                // Pull to Refresh 애니메이션 중지
+                swipeRefreshLayout.setRefreshing(false);
+            }
+        });
+        viewModel.getSyncResult().observe(this, this::onSyncFinished);
+
+        // 검색: 로컬 인덱스로 입력할 때마다 바로 필터링
+        TextInputEditText etSearch = findViewById(R.id.etSearch);
+        etSearch.setText(viewModel.getSearchQuery());
+        etSearch.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                viewModel.setSearchQuery(s.toString());
+                applySearch();
+            }
+        });
 
         // Pull to Refresh 설정
         swipeRefreshLayout.setOnRefreshListener(() -> {
-            Log.d(TAG, "Swipe refresh triggered");
+            AppLog.d(TAG, "Swipe refresh triggered");
             onClickDownload(null);
         });
 
         // Initialize sync and notification helpers
         syncPrefs = new SyncPreferences(this);
         notificationHelper = new NotificationHelper(this);
+        postCache = new PostCache(this);
+        thumbnailCache = new ThumbnailCache(this);
+        fullImageCache = new FullImageCache(this);
+        dataSaver = new DataSaver(this);
+        btnDataSaver = findViewById(R.id.btn_data_saver);
+        btnDataSaver.setText(dataSaver.getMode().getLabel());
 
         // Request notification permission (Android 13+)
         requestNotificationPermission();
@@ -139,9 +226,25 @@ public class MainActivity extends AppCompatActivity {
         // Add logout button to toolbar
         addLogoutButton();
 
-        // Auto-sync on login
-        Log.d(TAG, "Auto-syncing on login");
-        onClickDownload(null);
+        // Debug builds: long-press the status line to open the metrics screen
+        if (BuildConfig.DEBUG) {
+            textView.setOnLongClickListener(v -> {
+                startActivity(new Intent(this, MetricsActivity.class));
+                return true;
+            });
+        }
+
+        // Show the cached feed right away, then refresh it from the server.
+        // After a configuration change the retained feed is reused unless it is stale.
+        viewModel.loadCachedPosts();
+        if (viewModel.isSyncing()) {
+            AppLog.d(TAG, "Sync still in flight from the previous instance");
+        } else if (viewModel.isStale()) {
+            AppLog.d(TAG, "Auto-syncing (feed is stale)");
+            onClickDownload(null);
+        } else {
+            AppLog.d(TAG, "Reusing retained feed, no resync");
+        }
     }
 
     /**
@@ -151,16 +254,16 @@ public class MainActivity extends AppCompatActivity {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
             if (checkSelfPermission(Manifest.permission.POST_NOTIFICATIONS)
                 != PackageManager.PERMISSION_GRANTED) {
-                Log.d(TAG, "Requesting notification permission");
+                AppLog.d(TAG, "Requesting notification permission");
                 requestPermissions(
                     new String[]{Manifest.permission.POST_NOTIFICATIONS},
                     REQUEST_CODE_NOTIFICATION_PERMISSION
                 );
             } else {
-                Log.d(TAG, "Notification permission already granted");
+                AppLog.d(TAG, "Notification permission already granted");
             }
         } else {
-            Log.d(TAG, "Notification permission not required (API < 33)");
+            AppLog.d(TAG, "Notification permission not required (API < 33)");
         }
     }
 
@@ -169,10 +272,10 @@ public class MainActivity extends AppCompatActivity {
         super.onRequestPermissionsResult(requestCode, permissions, grantResults);
         if (requestCode == REQUEST_CODE_NOTIFICATION_PERMISSION) {
             if (grantResults.length > 0 && grantResults[0] == PackageManager.PERMISSION_GRANTED) {
-                Log.d(TAG, "Notification permission granted");
+                AppLog.d(TAG, "Notification permission granted");
                 Toast.makeText(this, "알림 권한이 허용되었습니다", Toast.LENGTH_SHORT).show();
             } else {
-                Log.d(TAG, "Notification permission denied");
+                AppLog.d(TAG, "Notification permission denied");
                 Toast.makeText(this, "알림 권한이 거부되었습니다. 설정에서 허용해주세요.",
                     Toast.LENGTH_LONG).show();
             }
@@ -190,8 +293,15 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void logout() {
+        // Abort in-flight requests first, so a sync cannot write the caches after they are cleared
+        viewModel.cancelAll();
+        ThumbnailPrefetchWorker.cancel(this);
         SessionManager.getInstance().logout();
         syncPrefs.clear(); // Clear sync preferences on logout
+        postCache.clear();
+        thumbnailCache.clear();
+        fullImageCache.clear();
+        StartupWarmups.clear();
         Intent intent = new Intent(MainActivity.this, SplashActivity.class);
         intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
         startActivity(intent);
@@ -201,167 +311,154 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onResume() {
         super.onResume();
-        Log.d(TAG, "onResume - starting foreground polling");
-        // Start foreground polling (30 second interval)
-        syncHandler.postDelayed(syncRunnable, 30000);
+        AppLog.d(TAG, "onResume - starting foreground polling");
+        // Start foreground polling (30 seconds, 2 minutes in data-saver mode)
+        syncHandler.postDelayed(syncRunnable, pollIntervalMs());
     }
 
     @Override
     protected void onPause() {
         super.onPause();
-        Log.d(TAG, "onPause - stopping foreground polling");
+        AppLog.d(TAG, "onPause - stopping foreground polling");
         // Stop foreground polling when app goes to background
         syncHandler.removeCallbacks(syncRunnable);
     }
 
-    public void onClickDownload(View v) {
-        Toast.makeText(getApplicationContext(), "이미지 동기화 중...", Toast.LENGTH_SHORT).show();
-        progressBar.setVisibility(View.VISIBLE);
-        executorService.execute(() -> {
-            List<Post> downloadedPosts = new ArrayList<>();
-            try {
-                URL url = new URL(site_url + "api_root/Post/");
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-                conn.setRequestProperty("Authorization", "Token " + SessionManager.getInstance().getToken());
-                conn.setRequestMethod("GET");
-                conn.setConnectTimeout(3000);
-                conn.setReadTimeout(3000);
-
-                int responseCode = conn.getResponseCode();
-                if (responseCode == HttpURLConnection.HTTP_OK) {
-                    InputStream is = conn.getInputStream();
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(is));
-                    StringBuilder result = new StringBuilder();
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        result.append(line);
-                    }
-                    is.close();
-                    conn.disconnect();
-
-                    JSONArray aryJson = new JSONArray(result.toString());
-                    Log.d(TAG, "Total posts received: " + aryJson.length());
-
-                    for (int i = 0; i < aryJson.length(); i++) {
-                        JSONObject post_json = aryJson.getJSONObject(i);
-                        int id = post_json.optInt("id", -1);
-                        String title = post_json.optString("title", "No title");
-                        String text = post_json.optString("text", "");
-                        String imageUrl = post_json.getString("image");
-
-                        Log.d(TAG, "Post #" + (i+1) + ": " + title);
-                        Log.d(TAG, "Image URL: " + imageUrl);
-
-                        if (imageUrl != null && !imageUrl.equals("null") && !imageUrl.isEmpty()) {
-                            try {
-                                Log.d(TAG, "Attempting to download image #" + (i+1));
-                                URL myImageUrl = new URL(imageUrl);
-                                HttpURLConnection imgConn = (HttpURLConnection) myImageUrl.openConnection();
-                                imgConn.setConnectTimeout(5000);
-                                imgConn.setReadTimeout(5000);
-
-                                int imgResponseCode = imgConn.getResponseCode();
-                                Log.d(TAG, "Image response code: " + imgResponseCode);
-
-                                if (imgResponseCode == HttpURLConnection.HTTP_OK) {
-                                    InputStream imgStream = imgConn.getInputStream();
-                                    Bitmap imageBitmap = BitmapFactory.decodeStream(imgStream);
-
-                                    if (imageBitmap != null) {
-                                        Post post = new Post(id, title, text, imageUrl, imageBitmap);
-                                        downloadedPosts.add(post);
-                                        Log.d(TAG, "✓ Image #" + (i+1) + " downloaded successfully");
-                                    } else {
-                                        Log.e(TAG, "✗ Image #" + (i+1) + " decode failed - bitmap is null");
-                                    }
-                                    imgStream.close();
-                                } else {
-                                    Log.e(TAG, "✗ Image #" + (i+1) + " download failed - HTTP " + imgResponseCode);
-                                }
-                                imgConn.disconnect();
-                            } catch (Exception e) {
-                                Log.e(TAG, "✗ Error downloading image #" + (i+1) + ": " + e.getMessage());
-                                e.printStackTrace();
-                            }
-                        } else {
-                            Log.w(TAG, "Post #" + (i+1) + " has no image");
-                        }
-                    }
-                    Log.d(TAG, "Total posts downloaded: " + downloadedPosts.size());
-                }
-            } catch (IOException | JSONException e) {
-                Log.e(TAG, "Error in download task: " + e.getMessage());
-                e.printStackTrace();
-            }
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        syncHandler.removeCallbacks(syncRunnable);
+        // Results of background work are not delivered to a destroyed instance
+        mainHandler.removeCallbacksAndMessages(null);
+        if (activityScope != null) {
+            activityScope.cancel();
+        }
+    }
 
-            mainHandler.post(() -> {
-                // Pull to Refresh 애니메이션 중지
-                swipeRefreshLayout.setRefreshing(false);
-                progressBar.setVisibility(View.GONE);
+    /**
+     * Deliver a background result unless this activity instance has been destroyed meanwhile
+     */
+    private void postToUi(Runnable action) {
+        postToUi(mainHandler, this, action);
+    }
 
-                if (!downloadedPosts.isEmpty()) {
-                    Log.d(TAG, "Updating RecyclerView with " + downloadedPosts.size() + " posts");
+    /**
+     * Post action to handler; it is dropped if activity is destroyed by the time it runs
+     */
+    static void postToUi(Handler handler, Activity activity, Runnable action) {
+        handler.post(() -> {
+            if (!activity.isDestroyed()) {
+                action.run();
+            }
+        });
+    }
 
-                    // Check for new posts
-                    int lastSeenId = syncPrefs.getLastSeenPostId();
-                    int maxId = 0;
-                    int newPostCount = 0;
-                    String firstNewObjectName = null;
+    public void onClickDownload(View v) {
+        if (!viewModel.sync()) {
+            AppLog.d(TAG, "Sync not started (cancelled)");
+            swipeRefreshLayout.setRefreshing(false);
+            return;
+        }
+        Toast.makeText(getApplicationContext(), "이미지 동기화 중...", Toast.LENGTH_SHORT).show();
+    }
 
-                    for (Post post : downloadedPosts) {
-                        int postId = post.getId();
-                        if (postId > maxId) {
-                            maxId = postId;
-                        }
-                        if (postId > lastSeenId) {
-                            newPostCount++;
-                            if (firstNewObjectName == null) {
-                                firstNewObjectName = post.getTitle();
-                            }
-                        }
-                    }
+    /**
+     * Toasts and the post-edit detail view for a finished sync
+     * A result is handled once, so it is not replayed after rotation
+     */
+    private void onSyncFinished(FeedViewModel.SyncResult result) {
+        if (result == null || !result.markHandled()) {
+            return;
+        }
+        if (!result.isSuccess()) {
+            Toast.makeText(getApplicationContext(),
+                "포스트 다운로드 실패. Logcat을 확인하세요.",
+                Toast.LENGTH_LONG).show();
+            return;
+        }
+        Toast.makeText(getApplicationContext(),
+            result.getPostCount() + "개의 포스트를 불러왔습니다.",
+            Toast.LENGTH_SHORT).show();
+
+        // 저장 후 포스트 상세보기를 자동으로 표시해야 하는 경우
+        int postIdToShow = viewModel.getPostIdToShowAfterRefresh();
+        if (postIdToShow > 0) {
+            for (Post p : allPosts) {
+                if (p.getId() == postIdToShow) {
+                    AppLog.d(TAG, "Showing post detail for post ID: " + postIdToShow);
+                    onPostClicked(p);
+                    break;
+                }
+            }
+            viewModel.setPostIdToShowAfterRefresh(-1); // 초기화
+        }
+    }
 
-                    Log.d(TAG, "lastSeenId=" + lastSeenId + ", maxId=" + maxId + ", newPostCount=" + newPostCount);
+    private long pollIntervalMs() {
+        return dataSaver.isEnabled() ? DataSaver.POLL_INTERVAL_MS : 30000;
+    }
 
-                    // Update UI
-                    postList.clear();
-                    postList.addAll(downloadedPosts);
-                    imageAdapter.notifyDataSetChanged();
-                    Log.d(TAG, "notifyDataSetChanged() called, postList size: " + postList.size());
-                    textView.setText("동기화 완료! (" + downloadedPosts.size() + "개 포스트)");
-                    Toast.makeText(getApplicationContext(),
-                        downloadedPosts.size() + "개의 포스트를 불러왔습니다.",
-                        Toast.LENGTH_SHORT).show();
+    /**
+     * Cycle the data-saver mode (auto / on / off) and show what it saved this session
+     */
+    public void onClickDataSaver(View v) {
+        DataSaver.Mode mode = dataSaver.getMode().next();
+        dataSaver.setMode(mode);
+        btnDataSaver.setText(mode.getLabel());
+        long saved = DataSaver.getSessionBytesSaved(metrics);
+        Toast.makeText(this, (dataSaver.isEnabled() ? "데이터 절약 모드 사용 중" : "데이터 절약 모드 꺼짐")
+            + " (이번 실행에서 " + Formatter.formatShortFileSize(this, saved) + " 절약)", Toast.LENGTH_SHORT).show();
+    }
 
-                    // Update lastSeenPostId
-                    if (maxId > lastSeenId) {
-                        syncPrefs.setLastSeenPostId(maxId);
-                        Log.d(TAG, "Updated lastSeenPostId to " + maxId);
-                    }
+    /**
+     * Download the post's full-resolution image (or take it from disk) for the zoom viewer
+     * Cancelled through imageScope when the dialog closes
+     * @param onRequestOnly In data-saver mode: only show it if it is already on disk
+     * @return false if the image was not loaded because it would need a download
+     */
+    private boolean loadFullImage(Post post, TiledImageView target, RequestScope imageScope, boolean onRequestOnly) {
+        String imageUrl = post.getImageUrl();
+        if (imageUrl == null || imageUrl.isEmpty() || imageUrl.equals("null")) {
+            return true;
+        }
+        if (onRequestOnly) {
+            File cached = fullImageCache.getCached(post.getId(), imageUrl);
+            if (cached == null) {
+                return false;
+            }
+            target.setImageFile(cached);
+            return true;
+        }
+        ApiClient api = viewModel.getApi().withScope(imageScope);
+        viewModel.execute(Lane.USER, () -> {
+            try (imageScope) {
+                File file = fullImageCache.get(api, post.getId(), imageUrl);
+                postToUi(() -> target.setImageFile(file));
+            } catch (CancelledException e) {
+                AppLog.d(TAG, "Full image download cancelled for post " + post.getId());
+            } catch (IOException e) {
+                AppLog.e(TAG, "Error downloading full image for post " + post.getId() + ": " + e.getMessage());
+            }
+        });
+        return true;
+    }
 
-                    // 저장 후 포스트 상세보기를 자동으로 표시해야 하는 경우
-                    if (postIdToShowAfterRefresh > 0) {
-                        Post postToShow = null;
-                        for (Post p : postList) {
-                            if (p.getId() == postIdToShowAfterRefresh) {
-                                postToShow = p;
-                                break;
-                            }
-                        }
-                        if (postToShow != null) {
-                            Log.d(TAG, "Showing post detail for post ID: " + postIdToShowAfterRefresh);
-                            onPostClicked(postToShow);
-                        }
-                        postIdToShowAfterRefresh = -1; // 초기화
-                    }
-                } else {
-                    textView.setText("포스트를 불러오지 못했습니다.");
-                    Toast.makeText(getApplicationContext(),
-                        "포스트 다운로드 실패. Logcat을 확인하세요.",
-                        Toast.LENGTH_LONG).show();
+    /**
+     * Show the posts matching the current search query (all of them if it is empty)
+     */
+    private void applySearch() {
+        int[] matches = viewModel.search(viewModel.getSearchQuery());
+        postList.clear();
+        if (matches == null) {
+            postList.addAll(allPosts);
+        } else {
+            for (Post post : allPosts) {
+                if (Arrays.binarySearch(matches, post.getId()) >= 0) {
+                    postList.add(post);
                 }
-            });
-        });
+            }
+        }
+        imageAdapter.notifyDataSetChanged();
     }
 
     private void onPostClicked(Post post) {
@@ -369,34 +466,47 @@ public class MainActivity extends AppCompatActivity {
             // Null check for post
             if (post == null) {
                 Toast.makeText(this, "포스트를 표시할 수 없습니다", Toast.LENGTH_SHORT).show();
-                Log.w(TAG, "onPostClicked: post is null");
+                AppLog.w(TAG, "onPostClicked: post is null");
                 return;
             }
 
             // 포스트 상세보기 다이얼로그
             View dialogView = getLayoutInflater().inflate(R.layout.dialog_post_detail, null);
 
-            ImageView ivPostImage = dialogView.findViewById(R.id.ivPostImage);
+            TiledImageView ivPostImage = dialogView.findViewById(R.id.ivPostImage);
             TextView tvPostTitle = dialogView.findViewById(R.id.tvPostTitle);
             TextView tvPostText = dialogView.findViewById(R.id.tvPostText);
             Button btnDelete = dialogView.findViewById(R.id.btnDeleteEdit);
 
-            // Post 데이터로 뷰 채우기
-            if (post.getImageBitmap() != null) {
-                ivPostImage.setImageBitmap(post.getImageBitmap());
-            }
+            // Post 데이터로 뷰 채우기: 썸네일을 먼저 보여주고 원본은 받아서 타일로 표시
+            ivPostImage.setPreview(post.getImageBitmap());
+            RequestScope imageScope = viewModel.newScope();
+            // 데이터 절약 모드에서는 원본을 요청할 때만 받음
+            boolean fullImageLoaded = loadFullImage(post, ivPostImage, imageScope, dataSaver.isEnabled());
             tvPostTitle.setText(post.getTitle());
             tvPostText.setText(post.getText());
 
             // AlertDialog 생성 및 보여주기
-            AlertDialog dialog = new AlertDialog.Builder(this)
+            AlertDialog.Builder builder = new AlertDialog.Builder(this)
                 .setView(dialogView)
                 .setPositiveButton("닫기", null)
                 .setNegativeButton("수정", (d, which) -> {
                     d.dismiss();
                     onEditPost(post);
-                })
-                .show();
+                });
+            if (!fullImageLoaded) {
+                builder.setNeutralButton("원본 보기", null);
+            }
+            AlertDialog dialog = builder.show();
+            dialog.setOnDismissListener(d -> imageScope.cancel());
+            if (!fullImageLoaded) {
+                // Replace the default listener so the dialog stays open while the original loads
+                Button btnFullImage = dialog.getButton(AlertDialog.BUTTON_NEUTRAL);
+                btnFullImage.setOnClickListener(v -> {
+                    btnFullImage.setEnabled(false);
+                    loadFullImage(post, ivPostImage, imageScope, false);
+                });
+            }
 
             // 삭제 버튼 클릭 핸들러 (버튼이 레이아웃에 있는 경우에만)
             if (btnDelete != null) {
@@ -406,16 +516,16 @@ public class MainActivity extends AppCompatActivity {
                 });
             }
 
-            Log.d(TAG, "onPostClicked: dialog shown for post: " + post.getTitle());
+            AppLog.d(TAG, "onPostClicked: dialog shown for post: " + post.getTitle());
 
         } catch (NullPointerException e) {
-            Log.e(TAG, "onPostClicked - NullPointerException: " + e.getMessage(), e);
+            AppLog.e(TAG, "onPostClicked - NullPointerException: " + e.getMessage(), e);
             Toast.makeText(this, "포스트 데이터를 불러올 수 없습니다", Toast.LENGTH_SHORT).show();
         } catch (IllegalStateException e) {
-            Log.e(TAG, "onPostClicked - IllegalStateException: " + e.getMessage(), e);
+            AppLog.e(TAG, "onPostClicked - IllegalStateException: " + e.getMessage(), e);
             Toast.makeText(this, "다이얼로그를 표시할 수 없습니다", Toast.LENGTH_SHORT).show();
         } catch (Exception e) {
-            Log.e(TAG, "onPostClicked - Unexpected error: " + e.getMessage(), e);
+            AppLog.e(TAG, "onPostClicked - Unexpected error: " + e.getMessage(), e);
             Toast.makeText(this, "포스트를 표시할 수 없습니다", Toast.LENGTH_SHORT).show();
         }
     }
@@ -426,13 +536,13 @@ public class MainActivity extends AppCompatActivity {
                 .setTitle("포스트 삭제")
                 .setMessage("정말로 이 포스트를 삭제하시겠습니까?")
                 .setPositiveButton("삭제", (dialog, which) -> {
-                    Log.d(TAG, "Delete confirmed for post: " + post.getTitle());
+                    AppLog.d(TAG, "Delete confirmed for post: " + post.getTitle());
                     deletePost(post);
                 })
                 .setNegativeButton("취소", null)
                 .show();
         } catch (Exception e) {
-            Log.e(TAG, "showDeleteConfirmDialog error: " + e.getMessage(), e);
+            AppLog.e(TAG, "showDeleteConfirmDialog error: " + e.getMessage(), e);
             Toast.makeText(this, "삭제 확인 대화를 표시할 수 없습니다", Toast.LENGTH_SHORT).show();
         }
     }
@@ -441,7 +551,7 @@ public class MainActivity extends AppCompatActivity {
         try {
             if (post == null) {
                 Toast.makeText(this, "포스트를 편집할 수 없습니다", Toast.LENGTH_SHORT).show();
-                Log.w(TAG, "onEditPost: post is null");
+                AppLog.w(TAG, "onEditPost: post is null");
                 return;
             }
 
@@ -459,6 +569,7 @@ public class MainActivity extends AppCompatActivity {
 
             // 현재 포스트 데이터 바인딩
             // 새로 선택된 이미지가 있으면 그것을 표시, 없으면 기존 이미지 표시
+            Bitmap currentEditImage = viewModel.getCurrentEditImage();
             if (currentEditImage != null) {
                 ivEditImage.setImageBitmap(currentEditImage);
             } else if (post.getImageBitmap() != null) {
@@ -470,7 +581,7 @@ public class MainActivity extends AppCompatActivity {
             // 이미지 변경 버튼 클릭 핸들러
             btnChangeImage.setOnClickListener(v -> {
                 Intent intent = new Intent(Intent.ACTION_PICK, MediaStore.Images.Media.EXTERNAL_CONTENT_URI);
-                currentEditPost = post;
+                viewModel.setCurrentEditPost(post);
                 startActivityForResult(intent, REQUEST_CODE_EDIT_IMAGE);
             });
 
@@ -512,20 +623,48 @@ public class MainActivity extends AppCompatActivity {
                     .show();
             });
 
-            Log.d(TAG, "onEditPost: edit dialog shown for post: " + post.getTitle());
+            AppLog.d(TAG, "onEditPost: edit dialog shown for post: " + post.getTitle());
 
         } catch (NullPointerException e) {
-            Log.e(TAG, "onEditPost - NullPointerException: " + e.getMessage(), e);
+            AppLog.e(TAG, "onEditPost - NullPointerException: " + e.getMessage(), e);
             Toast.makeText(this, "포스트 데이터를 불러올 수 없습니다", Toast.LENGTH_SHORT).show();
         } catch (IllegalStateException e) {
-            Log.e(TAG, "onEditPost - IllegalStateException: " + e.getMessage(), e);
+            AppLog.e(TAG, "onEditPost - IllegalStateException: " + e.getMessage(), e);
             Toast.makeText(this, "다이얼로그를 표시할 수 없습니다", Toast.LENGTH_SHORT).show();
         } catch (Exception e) {
-            Log.e(TAG, "onEditPost - Unexpected error: " + e.getMessage(), e);
+            AppLog.e(TAG, "onEditPost - Unexpected error: " + e.getMessage(), e);
             Toast.makeText(this, "포스트를 편집할 수 없습니다", Toast.LENGTH_SHORT).show();
         }
     }
 
+    /**
+     * 보기 방식 전환: 목록 -> 격자 -> 모자이크
+     */
+    public void onClickLayout(View v) {
+        feedLayout = feedLayout.next();
+        getPreferences(MODE_PRIVATE).edit().putString(PREF_FEED_LAYOUT, feedLayout.name()).apply();
+        applyFeedLayout();
+    }
+
+    /**
+     * Set the LayoutManager and cell sizes for feedLayout (see FeedLayoutSetup)
+     */
+    private void applyFeedLayout() {
+        int cellWidth = FeedLayoutSetup.apply(recyclerView, imageAdapter, feedLayout);
+        switch (feedLayout) {
+            case GRID:
+                btnLayout.setText("격자");
+                break;
+            case STAGGERED:
+                btnLayout.setText("모자이크");
+                break;
+            default:
+                btnLayout.setText("목록");
+                break;
+        }
+        AppLog.d(TAG, "Feed layout " + feedLayout + ", cell width " + cellWidth + "px");
+    }
+
     public void onClickUpload(View v) {
         // 갤러리에서 이미지 선택
         Intent intent = new Intent(Intent.ACTION_PICK, MediaStore.Images.Media.EXTERNAL_CONTENT_URI);
@@ -539,7 +678,7 @@ public class MainActivity extends AppCompatActivity {
 
         if (resultCode == RESULT_OK && data != null) {
             Uri selectedImage = data.getData();
-            Log.d(TAG, "Image selected: " + selectedImage);
+            AppLog.d(TAG, "Image selected: " + selectedImage);
 
             if (requestCode == PICK_IMAGE_REQUEST) {
                 // 새 포스트 업로드용 이미지 선택
@@ -550,13 +689,15 @@ public class MainActivity extends AppCompatActivity {
             } else if (requestCode == REQUEST_CODE_EDIT_IMAGE) {
                 // 포스트 편집용 이미지 선택
                 try {
-                    currentEditImage = getBitmapFromUri(selectedImage);
-                    if (currentEditImage != null && currentEditPost != null) {
+                    Bitmap editImage = getBitmapFromUri(selectedImage);
+                    viewModel.setCurrentEditImage(editImage);
+                    Post editPost = viewModel.getCurrentEditPost();
+                    if (editImage != null && editPost != null) {
                         // 편집 다이얼로그 다시 표시 (선택된 이미지 포함)
-                        onEditPost(currentEditPost);
+                        onEditPost(editPost);
                     }
                 } catch (Exception e) {
-                    Log.e(TAG, "Error loading image for edit: " + e.getMessage(), e);
+                    AppLog.e(TAG, "Error loading image for edit: " + e.getMessage(), e);
                     Toast.makeText(this, "이미지를 로드할 수 없습니다", Toast.LENGTH_SHORT).show();
                 }
             }
@@ -572,7 +713,7 @@ public class MainActivity extends AppCompatActivity {
                 return bitmap;
             }
         } catch (IOException e) {
-            Log.e(TAG, "Error getting bitmap from URI: " + e.getMessage(), e);
+            AppLog.e(TAG, "Error getting bitmap from URI: " + e.getMessage(), e);
         }
         return null;
     }
@@ -607,101 +748,37 @@ public class MainActivity extends AppCompatActivity {
 
     private void uploadImage(Uri imageUri, String title, String text) {
         progressBar.setVisibility(View.VISIBLE);
-        executorService.execute(() -> {
-            HttpURLConnection conn = null;
-            DataOutputStream dos = null;
-            InputStream inputStream = null;
-
-            String lineEnd = "\r\n";
-            String twoHyphens = "--";
-            String boundary = "===boundary===" + System.currentTimeMillis() + "===";
-
+        ContentResolver resolver = getContentResolver();
+        viewModel.execute(Lane.USER, () -> {
             try {
-                // ContentResolver를 통해 InputStream 직접 얻기
-                inputStream = getContentResolver().openInputStream(imageUri);
-                if (inputStream == null) {
-                    mainHandler.post(() -> {
-                        progressBar.setVisibility(View.GONE);
-                        textView.setText("이미지를 읽을 수 없습니다.");
-                        Toast.makeText(MainActivity.this, "이미지 업로드 실패", Toast.LENGTH_SHORT).show();
-                    });
-                    return;
-                }
-
                 // 파일 이름 가져오기
                 String fileName = getFileName(imageUri);
-                Log.d(TAG, "Uploading file: " + fileName);
-                Log.d(TAG, "Title: " + title);
-                Log.d(TAG, "Text: " + text);
-                Log.d(TAG, "Uri: " + imageUri.toString());
-
-                // HTTP 연결 설정
-                URL url = new URL(site_url + "api_root/Post/");
-                conn = (HttpURLConnection) url.openConnection();
-                conn.setDoInput(true);
-                conn.setDoOutput(true);
-                conn.setUseCaches(false);
-                conn.setRequestMethod("POST");
-                conn.setRequestProperty("Connection", "Keep-Alive");
-                conn.setRequestProperty("Authorization", "Token " + SessionManager.getInstance().getToken());
-                conn.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
-
-                dos = new DataOutputStream(conn.getOutputStream());
-
-                // title 필드
-                dos.writeBytes(twoHyphens + boundary + lineEnd);
-                dos.writeBytes("Content-Disposition: form-data; name=\"title\"" + lineEnd);
-                dos.writeBytes(lineEnd);
-                dos.writeBytes(title + lineEnd);
-
-                // text 필드
-                dos.writeBytes(twoHyphens + boundary + lineEnd);
-                dos.writeBytes("Content-Disposition: form-data; name=\"text\"" + lineEnd);
-                dos.writeBytes(lineEnd);
-                dos.writeBytes(text + lineEnd);
-
-                // image 필드
-                dos.writeBytes(twoHyphens + boundary + lineEnd);
-                dos.writeBytes("Content-Disposition: form-data; name=\"image\"; filename=\"" +
-                             fileName + "\"" + lineEnd);
-                dos.writeBytes("Content-Type: image/*" + lineEnd);
-                dos.writeBytes(lineEnd);
-
-                // 이미지 데이터 쓰기 (InputStream에서 직접 읽기)
-                byte[] buffer = new byte[4096];
-                int bytesRead;
-                long totalBytesRead = 0;
-                while ((bytesRead = inputStream.read(buffer)) != -1) {
-                    dos.write(buffer, 0, bytesRead);
-                    totalBytesRead += bytesRead;
-                }
-                inputStream.close();
-                Log.d(TAG, "Total bytes uploaded: " + totalBytesRead);
-
-                dos.writeBytes(lineEnd);
-                dos.writeBytes(twoHyphens + boundary + twoHyphens + lineEnd);
-
-                dos.flush();
-                dos.close();
-
-                // 응답 확인
-                int responseCode = conn.getResponseCode();
-                Log.d(TAG, "Upload response code: " + responseCode);
+                AppLog.d(TAG, "Uploading file: " + fileName);
+                AppLog.d(TAG, "Title: " + title);
+                AppLog.d(TAG, "Text: " + text);
+                AppLog.d(TAG, "Uri: " + imageUri.toString());
+
+                // ContentResolver에서 읽으면서 해시를 계산하고, 서버에 같은 이미지가 있으면
+                // 해시만 보냄. 새 이미지일 때만 다시 열어 multipart body로 직접 복사
+                ApiResponse response = viewModel.getApi().createPostDeduplicated(title, text, fileName, "image/*",
+                    () -> {
+                        InputStream in = resolver.openInputStream(imageUri);
+                        if (in == null) {
+                            throw new FileNotFoundException("Cannot open " + imageUri);
+                        }
+                        return in;
+                    }, 30000);
+                int responseCode = response.getCode();
+                AppLog.d(TAG, "Upload response code: " + responseCode);
 
                 if (responseCode == HttpURLConnection.HTTP_CREATED ||
                     responseCode == HttpURLConnection.HTTP_OK) {
                     // 성공
-                    BufferedReader reader = new BufferedReader(
-                        new InputStreamReader(conn.getInputStream()));
-                    StringBuilder response = new StringBuilder();
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        response.append(line);
-                    }
-                    reader.close();
-                    Log.d(TAG, "Upload response: " + response.toString());
+                    AppLog.d(TAG, "Upload response: " + response.getBody());
+                    // Picked up by a recreated activity if this one is gone by now
+                    viewModel.markStale();
 
-                    mainHandler.post(() -> {
+                    postToUi(() -> {
                         progressBar.setVisibility(View.GONE);
                         textView.setText("업로드 성공!");
                         Toast.makeText(MainActivity.this,
@@ -712,17 +789,9 @@ public class MainActivity extends AppCompatActivity {
                     });
                 } else {
                     // 실패
-                    BufferedReader errorReader = new BufferedReader(
-                        new InputStreamReader(conn.getErrorStream()));
-                    StringBuilder errorResponse = new StringBuilder();
-                    String errorLine;
-                    while ((errorLine = errorReader.readLine()) != null) {
-                        errorResponse.append(errorLine);
-                    }
-                    errorReader.close();
-                    Log.e(TAG, "Upload failed: " + responseCode + " - " + errorResponse.toString());
+                    AppLog.e(TAG, "Upload failed: " + responseCode + " - " + response.getBody());
 
-                    mainHandler.post(() -> {
+                    postToUi(() -> {
                         progressBar.setVisibility(View.GONE);
                         textView.setText("업로드 실패 (HTTP " + responseCode + ")");
                         Toast.makeText(MainActivity.this,
@@ -731,28 +800,24 @@ public class MainActivity extends AppCompatActivity {
                     });
                 }
 
+            } catch (FileNotFoundException e) {
+                AppLog.e(TAG, "Upload error - image not readable: " + e.getMessage());
+                postToUi(() -> {
+                    progressBar.setVisibility(View.GONE);
+                    textView.setText("이미지를 읽을 수 없습니다.");
+                    Toast.makeText(MainActivity.this, "이미지 업로드 실패", Toast.LENGTH_SHORT).show();
+                });
             } catch (Exception e) {
-                Log.e(TAG, "Upload error: " + e.getMessage());
+                AppLog.e(TAG, "Upload error: " + e.getMessage());
                 e.printStackTrace();
 
-                mainHandler.post(() -> {
+                postToUi(() -> {
                     progressBar.setVisibility(View.GONE);
                     textView.setText("업로드 에러: " + e.getMessage());
                     Toast.makeText(MainActivity.this,
                         "업로드 중 오류 발생",
                         Toast.LENGTH_LONG).show();
                 });
-            } finally {
-                if (inputStream != null) {
-                    try {
-                        inputStream.close();
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
-                }
-                if (conn != null) {
-                    conn.disconnect();
-                }
             }
         });
     }
@@ -778,103 +843,57 @@ public class MainActivity extends AppCompatActivity {
     private void updatePost(Post post, String newTitle, String newContent) {
         if (post == null) {
             Toast.makeText(this, "포스트를 업데이트할 수 없습니다", Toast.LENGTH_SHORT).show();
-            Log.w(TAG, "updatePost: post is null");
+            AppLog.w(TAG, "updatePost: post is null");
             return;
         }
 
         progressBar.setVisibility(View.VISIBLE);
-        executorService.execute(() -> {
-            HttpURLConnection conn = null;
-            DataOutputStream dos = null;
-
-            String lineEnd = "\r\n";
-            String twoHyphens = "--";
-            String boundary = "===boundary===" + System.currentTimeMillis() + "===";
-
+        // 새 이미지가 선택된 경우만 포함
+        Bitmap newImage = viewModel.getCurrentEditImage();
+        viewModel.setCurrentEditImage(null); // 사용 후 초기화
+        viewModel.execute(Lane.USER, () -> {
             try {
-                URL url = new URL(site_url + "api_root/Post/" + post.getId() + "/");
-                conn = (HttpURLConnection) url.openConnection();
-                conn.setRequestMethod("PUT");
-                conn.setRequestProperty("Authorization", "Token " + SessionManager.getInstance().getToken());
-                conn.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
-                conn.setDoOutput(true);
-                conn.setConnectTimeout(10000);
-                conn.setReadTimeout(10000);
-
-                dos = new DataOutputStream(conn.getOutputStream());
-
-                // 제목 필드 작성
-                dos.writeBytes(twoHyphens + boundary + lineEnd);
-                dos.writeBytes("Content-Disposition: form-data; name=\"title\"" + lineEnd + lineEnd);
-                dos.writeBytes(newTitle + lineEnd);
-
-                // 내용 필드 작성
-                dos.writeBytes(twoHyphens + boundary + lineEnd);
-                dos.writeBytes("Content-Disposition: form-data; name=\"text\"" + lineEnd + lineEnd);
-                dos.writeBytes(newContent + lineEnd);
-
-                // 새 이미지가 선택된 경우만 포함
-                if (currentEditImage != null) {
-                    dos.writeBytes(twoHyphens + boundary + lineEnd);
-                    dos.writeBytes("Content-Disposition: form-data; name=\"image\"; filename=\"image.jpg\"" + lineEnd);
-                    dos.writeBytes("Content-Type: image/jpeg" + lineEnd + lineEnd);
-
-                    // 이미지 데이터 작성
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                    currentEditImage.compress(android.graphics.Bitmap.CompressFormat.JPEG, 90, baos);
-                    dos.write(baos.toByteArray());
-                    dos.writeBytes(lineEnd);
-
-                    currentEditImage = null; // 사용 후 초기화
+                byte[] imageData = null;
+                if (newImage != null) {
+                    imageData = ImageFormats.encodeForUpload(newImage);
+                    metrics.counter("upload.webp.bytes").add(imageData.length);
                 }
 
-                // 경계선 끝
-                dos.writeBytes(twoHyphens + boundary + twoHyphens + lineEnd);
-                dos.flush();
-                dos.close();
-
-                int responseCode = conn.getResponseCode();
-                Log.d(TAG, "Update response code: " + responseCode);
+                ApiResponse response = viewModel.getApi().updatePost(post.getId(), newTitle, newContent,
+                    imageData, "image.webp", ImageFormat.WEBP.getMimeType(), 10000);
+                int responseCode = response.getCode();
+                AppLog.d(TAG, "Update response code: " + responseCode);
+                viewModel.markStale();
 
-                mainHandler.post(() -> {
+                postToUi(() -> {
                     progressBar.setVisibility(View.GONE);
                     if (responseCode == HttpURLConnection.HTTP_OK ||
                         responseCode == HttpURLConnection.HTTP_NO_CONTENT ||
                         (responseCode >= 200 && responseCode < 205)) {
                         Toast.makeText(MainActivity.this, "포스트가 수정되었습니다", Toast.LENGTH_SHORT).show();
-                        Log.d(TAG, "Post #" + post.getId() + " updated successfully");
+                        AppLog.d(TAG, "Post #" + post.getId() + " updated successfully");
                         // 수정 후 목록 새로고침 및 포스트 상세보기 자동 표시
-                        postIdToShowAfterRefresh = post.getId();
+                        viewModel.setPostIdToShowAfterRefresh(post.getId());
                         onClickDownload(null);
                     } else {
-                        Toast.makeText(MainActivity.this, "수정 실패: HTTP " + responseCode, Toast.LENGTH_SHORT).show();
-                        Log.e(TAG, "Update failed with code: " + responseCode);
+                        Toast.makeText(MainActivity.this, httpErrorMessage("수정 실패", responseCode), Toast.LENGTH_SHORT).show();
+                        AppLog.e(TAG, "Update failed with code: " + responseCode);
                     }
                 });
 
             } catch (IOException e) {
-                Log.e(TAG, "Update error - Network error: " + e.getMessage(), e);
-                mainHandler.post(() -> {
+                AppLog.e(TAG, "Update error - Network error: " + e.getMessage(), e);
+                postToUi(() -> {
                     progressBar.setVisibility(View.GONE);
-                    Toast.makeText(MainActivity.this, "네트워크 오류가 발생했습니다", Toast.LENGTH_SHORT).show();
+                    Toast.makeText(MainActivity.this, networkErrorMessage(e, "네트워크 오류가 발생했습니다"),
+                        Toast.LENGTH_SHORT).show();
                 });
             } catch (Exception e) {
-                Log.e(TAG, "Update error - Unexpected error: " + e.getMessage(), e);
-                mainHandler.post(() -> {
+                AppLog.e(TAG, "Update error - Unexpected error: " + e.getMessage(), e);
+                postToUi(() -> {
                     progressBar.setVisibility(View.GONE);
                     Toast.makeText(MainActivity.this, "오류가 발생했습니다: " + e.getMessage(), Toast.LENGTH_SHORT).show();
                 });
-            } finally {
-                if (dos != null) {
-                    try {
-                        dos.close();
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
-                }
-                if (conn != null) {
-                    conn.disconnect();
-                }
             }
         });
     }
@@ -882,113 +901,195 @@ public class MainActivity extends AppCompatActivity {
     private void deletePost(Post post) {
         if (post == null) {
             Toast.makeText(this, "포스트를 삭제할 수 없습니다", Toast.LENGTH_SHORT).show();
-            Log.w(TAG, "deletePost: post is null");
+            AppLog.w(TAG, "deletePost: post is null");
             return;
         }
 
-        executorService.execute(() -> {
-            HttpURLConnection conn = null;
+        viewModel.execute(Lane.USER, () -> {
             try {
-                URL url = new URL(site_url + "api_root/Post/" + post.getId() + "/");
-                conn = (HttpURLConnection) url.openConnection();
-                conn.setRequestMethod("DELETE");
-                conn.setRequestProperty("Authorization", "Token " + SessionManager.getInstance().getToken());
-                conn.setConnectTimeout(10000);
-                conn.setReadTimeout(10000);
-
-                int responseCode = conn.getResponseCode();
-                Log.d(TAG, "Delete response code: " + responseCode);
+                int responseCode = viewModel.getApi().deletePost(post.getId(),
+                    viewModel.getApi().getNetworkQuality().timeoutMs()).getCode();
+                AppLog.d(TAG, "Delete response code: " + responseCode);
+                viewModel.markStale();
 
-                mainHandler.post(() -> {
+                postToUi(() -> {
                     if (responseCode == HttpURLConnection.HTTP_NO_CONTENT ||
                         responseCode == HttpURLConnection.HTTP_OK) {
                         Toast.makeText(this, "포스트가 삭제되었습니다", Toast.LENGTH_SHORT).show();
-                        Log.d(TAG, "Post #" + post.getId() + " deleted successfully");
+                        AppLog.d(TAG, "Post #" + post.getId() + " deleted successfully");
                         // 삭제 후 목록 새로고침
                         onClickDownload(null);
                     } else {
-                        Toast.makeText(this, "삭제 실패: HTTP " + responseCode, Toast.LENGTH_SHORT).show();
-                        Log.e(TAG, "Delete failed with code: " + responseCode);
+                        Toast.makeText(this, httpErrorMessage("삭제 실패", responseCode), Toast.LENGTH_SHORT).show();
+                        AppLog.e(TAG, "Delete failed with code: " + responseCode);
                     }
                 });
             } catch (IOException e) {
-                Log.e(TAG, "Delete error: " + e.getMessage(), e);
-                mainHandler.post(() ->
-                    Toast.makeText(this, "삭제 중 오류 발생: " + e.getMessage(), Toast.LENGTH_SHORT).show()
+                AppLog.e(TAG, "Delete error: " + e.getMessage(), e);
+                postToUi(() ->
+                    Toast.makeText(this, networkErrorMessage(e, "삭제 중 오류 발생: " + e.getMessage()),
+                        Toast.LENGTH_SHORT).show()
                 );
-            } finally {
-                if (conn != null) {
-                    conn.disconnect();
+            }
+        });
+    }
+
+    private void onSelectionChanged(int count, boolean limitReached) {
+        selectionBar.setVisibility(count > 0 ? View.VISIBLE : View.GONE);
+        tvSelectionCount.setText(count + "개 선택");
+        selectionBackCallback.setEnabled(count > 0);
+        if (limitReached) {
+            Toast.makeText(this, "한 번에 " + BulkEdit.MAX_ITEMS + "개까지 선택할 수 있습니다", Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    public void onClickCancelSelection(View v) {
+        imageAdapter.clearSelection();
+    }
+
+    public void onClickBulkDelete(View v) {
+        List<Integer> ids = imageAdapter.getSelectedIds();
+        if (ids.isEmpty()) {
+            return;
+        }
+        new AlertDialog.Builder(this)
+            .setTitle("포스트 삭제")
+            .setMessage("선택한 " + ids.size() + "개 포스트를 삭제하시겠습니까?")
+            .setPositiveButton("삭제", (dialog, which) -> {
+                BulkEdit edit = new BulkEdit();
+                for (int id : ids) {
+                    edit.delete(id);
                 }
+                runBulkEdit(edit, "삭제");
+            })
+            .setNegativeButton("취소", null)
+            .show();
+    }
+
+    public void onClickBulkTitle(View v) {
+        List<Integer> ids = imageAdapter.getSelectedIds();
+        if (ids.isEmpty()) {
+            return;
+        }
+        EditText etTitle = new EditText(this);
+        etTitle.setSingleLine(true);
+        etTitle.setHint("새 제목");
+        new AlertDialog.Builder(this)
+            .setTitle("선택한 " + ids.size() + "개 포스트 제목 변경")
+            .setView(etTitle)
+            .setPositiveButton("변경", (dialog, which) -> {
+                String title = etTitle.getText().toString().trim();
+                if (title.isEmpty()) {
+                    Toast.makeText(this, "제목을 입력해주세요", Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                BulkEdit edit = new BulkEdit();
+                for (int id : ids) {
+                    edit.update(id, title, null);
+                }
+                runBulkEdit(edit, "수정");
+            })
+            .setNegativeButton("취소", null)
+            .show();
+    }
+
+    /**
+     * Send a multi-select delete/edit as one request and apply the per-post results
+     * to the feed in one adapter update (no resync)
+     */
+    private void runBulkEdit(BulkEdit edit, String action) {
+        imageAdapter.clearSelection();
+        progressBar.setVisibility(View.VISIBLE);
+        viewModel.execute(Lane.USER, () -> {
+            try {
+                ApiClient api = viewModel.getApi();
+                BulkResult result = api.bulkEdit(edit, api.getNetworkQuality().timeoutMs());
+                AppLog.d(TAG, "Bulk " + action + ": " + result);
+                postToUi(() -> {
+                    progressBar.setVisibility(View.GONE);
+                    viewModel.applyBulkResult(result);
+                    int failed = result.getFailures().size();
+                    Toast.makeText(this, result.getSucceededCount() + "개 포스트 " + action + " 완료"
+                        + (failed > 0 ? ", " + failed + "개 실패" : ""), Toast.LENGTH_SHORT).show();
+                });
+            } catch (ApiException e) {
+                AppLog.e(TAG, "Bulk " + action + " failed with code: " + e.getCode());
+                postToUi(() -> {
+                    progressBar.setVisibility(View.GONE);
+                    Toast.makeText(this, httpErrorMessage(action + " 실패", e.getCode()), Toast.LENGTH_SHORT).show();
+                });
+            } catch (IOException e) {
+                AppLog.e(TAG, "Bulk " + action + " error: " + e.getMessage(), e);
+                postToUi(() -> {
+                    progressBar.setVisibility(View.GONE);
+                    Toast.makeText(this, networkErrorMessage(e, "네트워크 오류가 발생했습니다"),
+                        Toast.LENGTH_SHORT).show();
+                });
             }
         });
     }
 
+    /**
+     * Toast text for a failed request; an open circuit breaker means the call was never sent
+     */
+    private static String networkErrorMessage(IOException e, String fallback) {
+        if (e instanceof CircuitOpenException) {
+            long seconds = Math.max(1, ((CircuitOpenException) e).getRetryAfterMs() / 1000);
+            return "서버가 응답하지 않습니다. " + seconds + "초 후 다시 시도하세요.";
+        }
+        if (e instanceof ApiException && ((ApiException) e).getCode() == HttpURLConnection.HTTP_UNAUTHORIZED) {
+            return httpErrorMessage(fallback, HttpURLConnection.HTTP_UNAUTHORIZED);
+        }
+        return fallback;
+    }
+
+    /**
+     * Toast text for an error status; a 401 that is still there was not fixed by re-login
+     * (the user closed the login screen, or the app was in the background)
+     */
+    private static String httpErrorMessage(String prefix, int code) {
+        if (code == HttpURLConnection.HTTP_UNAUTHORIZED) {
+            return "로그인이 만료되었습니다. 다시 로그인해주세요.";
+        }
+        return prefix + ": HTTP " + code;
+    }
+
     /**
      * Check for new posts without updating UI
      * Used by foreground polling and background sync
      * @param showNotification Whether to show notification for new posts
      */
     private void checkForNewPosts(boolean showNotification) {
-        executorService.execute(() -> {
+        viewModel.execute(Lane.BACKGROUND, () -> {
             try {
-                URL url = new URL(site_url + "api_root/Post/");
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-                conn.setRequestProperty("Authorization", "Token " + SessionManager.getInstance().getToken());
-                conn.setRequestMethod("GET");
-                conn.setConnectTimeout(2000);
-                conn.setReadTimeout(2000);
-
-                int responseCode = conn.getResponseCode();
-                if (responseCode == HttpURLConnection.HTTP_OK) {
-                    InputStream is = conn.getInputStream();
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(is));
-                    StringBuilder result = new StringBuilder();
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        result.append(line);
-                    }
-                    is.close();
-                    conn.disconnect();
-
-                    JSONArray aryJson = new JSONArray(result.toString());
-                    int lastSeenId = syncPrefs.getLastSeenPostId();
-                    int maxId = 0;
-                    int newPostCount = 0;
-                    String firstNewObjectName = null;
-
-                    for (int i = 0; i < aryJson.length(); i++) {
-                        JSONObject post_json = aryJson.getJSONObject(i);
-                        int id = post_json.optInt("id", -1);
-                        if (id > maxId) {
-                            maxId = id;
-                        }
-                        if (id > lastSeenId) {
-                            newPostCount++;
-                            if (firstNewObjectName == null) {
-                                firstNewObjectName = post_json.optString("title", "");
-                            }
-                        }
+                // Skim ids newest first; the response is dropped once the old posts start
+                ApiClient api = viewModel.getApi().withScope(activityScope);
+                NewPostDetector detector = new NewPostDetector(syncPrefs.getLastSeenPostId()).newestFirst();
+                if (dataSaver.isEnabled()) {
+                    detector.summaryOnly();
+                }
+                NewPostScan scan = api.detectNewPosts(detector, api.getNetworkQuality().timeoutMs());
+                AppLog.d(TAG, "checkForNewPosts: " + scan);
+                metrics.counter(scan.hasNewPosts() ? "poll.foreground.new_posts" : "poll.foreground.no_change").inc();
+
+                if (scan.hasNewPosts()) {
+                    if (showNotification) {
+                        // Show notification for new detections
+                        notificationHelper.showNewDetectionNotification(
+                            scan.getNewPostCount(), scan.getFirstNewTitle());
                     }
 
-                    Log.d(TAG, "checkForNewPosts: lastSeenId=" + lastSeenId +
-                          ", maxId=" + maxId + ", newPostCount=" + newPostCount);
-
-                    if (newPostCount > 0) {
-                        if (showNotification) {
-                            // Show notification for new detections
-                            notificationHelper.showNewDetectionNotification(newPostCount, firstNewObjectName);
-                        }
-
-                        // Update lastSeenPostId
-                        syncPrefs.setLastSeenPostId(maxId);
+                    // Update lastSeenPostId
+                    syncPrefs.setLastSeenPostId(scan.getMaxId());
 
-                        // Always trigger full sync to update UI
-                        mainHandler.post(() -> onClickDownload(null));
-                    }
+                    // Always trigger full sync to update UI
+                    postToUi(() -> onClickDownload(null));
                 }
-            } catch (IOException | JSONException e) {
-                Log.e(TAG, "Error in checkForNewPosts: " + e.getMessage());
+            } catch (CancelledException e) {
+                AppLog.d(TAG, "checkForNewPosts cancelled");
+            } catch (IOException e) {
+                metrics.counter("poll.foreground.error").inc();
+                AppLog.e(TAG, "Error in checkForNewPosts: " + e.getMessage());
                 e.printStackTrace();
             }
         });
@@ -0,0 +1,93 @@
+package com.example.photoviewer;
+
+import android.os.Build;
+import android.os.Bundle;
+import android.widget.TextView;
+import android.widget.Toast;
+import androidx.appcompat.app.AppCompatActivity;
+import com.example.photoviewer.core.metrics.MetricsRegistry;
+import com.example.photoviewer.core.net.NetworkQualityEstimator;
+import com.example.photoviewer.services.ApiProvider;
+import com.example.photoviewer.utils.AppLog;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Debug screen for the in-memory MetricsRegistry (sync phases, HTTP latency,
+ * bytes per endpoint, cache hit rates, poll outcomes) and the current network estimate
+ * Opened by long-pressing the status line in MainActivity on debug builds
+ * Exports go to Android/data/<package>/files/metrics/ so they can be pulled with adb
+ */
+public class MetricsActivity extends AppCompatActivity {
+    private static final String TAG = "MetricsActivity";
+
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private final NetworkQualityEstimator network = ApiProvider.get().getNetworkQuality();
+    private TextView metricsText;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_metrics);
+        setTitle("Metrics");
+
+        metricsText = findViewById(R.id.metrics_text);
+        findViewById(R.id.btn_metrics_refresh).setOnClickListener(v -> refresh());
+        findViewById(R.id.btn_metrics_export).setOnClickListener(v -> export());
+        findViewById(R.id.btn_metrics_reset).setOnClickListener(v -> {
+            metrics.reset();
+            refresh();
+        });
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        refresh();
+    }
+
+    private void refresh() {
+        metricsText.setText("[network]\n" + network + "\n\n" + metrics.formatText());
+    }
+
+    private void export() {
+        File dir = new File(getExternalFilesDir(null), "metrics");
+        if (!dir.exists() && !dir.mkdirs()) {
+            Toast.makeText(this, "내보내기 폴더를 만들 수 없습니다", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US).format(new Date());
+        File file = new File(dir, "metrics-" + BuildConfig.VERSION_NAME + "-" + BuildConfig.BUILD_TYPE
+            + "-" + timestamp + ".json");
+
+        Map<String, String> meta = new HashMap<>();
+        meta.put("versionName", BuildConfig.VERSION_NAME);
+        meta.put("versionCode", String.valueOf(BuildConfig.VERSION_CODE));
+        meta.put("buildType", BuildConfig.BUILD_TYPE);
+        meta.put("apiBaseUrl", BuildConfig.API_BASE_URL);
+        meta.put("device", Build.MANUFACTURER + " " + Build.MODEL);
+        meta.put("sdkInt", String.valueOf(Build.VERSION.SDK_INT));
+        meta.put("exportedAt", timestamp);
+        meta.put("networkQuality", network.getQuality().name());
+        meta.put("networkRttMs", String.valueOf(network.getRttMs()));
+        meta.put("networkThroughputKbps", String.valueOf(network.getThroughputKbps()));
+
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            metrics.writeJson(out, meta);
+            AppLog.d(TAG, "Metrics exported to " + file.getPath());
+            Toast.makeText(this, "저장됨: " + file.getName(), Toast.LENGTH_LONG).show();
+        } catch (IOException e) {
+            AppLog.e(TAG, "Error exporting metrics: " + e.getMessage());
+            Toast.makeText(this, "내보내기 실패: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+        }
+    }
+}
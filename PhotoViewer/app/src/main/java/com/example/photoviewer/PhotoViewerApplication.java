@@ -3,14 +3,18 @@ package com.example.photoviewer;
 import android.app.Activity;
 import android.app.Application;
 import android.os.Bundle;
-import android.util.Log;
+import android.os.Trace;
 
 import androidx.work.Constraints;
 import androidx.work.NetworkType;
 import androidx.work.PeriodicWorkRequest;
 import androidx.work.WorkManager;
 
+import com.example.photoviewer.services.SessionManager;
+import com.example.photoviewer.services.SessionReauthenticator;
+import com.example.photoviewer.utils.AppLog;
 import com.example.photoviewer.utils.SecureTokenManager;
+import com.example.photoviewer.utils.TraceDumps;
 import com.example.photoviewer.workers.BackgroundSyncWorker;
 
 import java.util.concurrent.TimeUnit;
@@ -20,7 +24,10 @@ public class PhotoViewerApplication extends Application {
     private static final long SESSION_TIMEOUT_MS = 600000; // 10 minutes
 
     // Volatile session state - resets to false when process dies
-    private static boolean sessionActive = false;
+    // (also read from SplashActivity's startup thread)
+    private static volatile boolean sessionActive = false;
+
+    private static volatile boolean inForeground;
 
     private int activeActivityCount = 0;
 
@@ -31,34 +38,49 @@ public class PhotoViewerApplication extends Application {
         return sessionActive;
     }
 
+    /**
+     * @return true while an activity of the app is started (visible)
+     */
+    public static boolean isInForeground() {
+        return inForeground;
+    }
+
     /**
      * Set session active state (volatile - will reset to false when process dies)
      */
     public static void setSessionActive(boolean active) {
-        Log.d(TAG, "Setting sessionActive to: " + active);
+        AppLog.d(TAG, "Setting sessionActive to: " + active);
         sessionActive = active;
     }
 
     @Override
     public void onCreate() {
         super.onCreate();
-        Log.d(TAG, "Application onCreate called");
-
-        // Initialize SecureTokenManager
-        try {
-            SecureTokenManager.initialize(this);
-            // Log initial state on app startup
-            // NOTE: sessionActive is always false on process start (volatile memory)
-            long initialLastActive = SecureTokenManager.getInstance().getLastActiveTime();
-            boolean hasToken = SecureTokenManager.getInstance().hasToken();
-            Log.d(TAG, "=== APP STARTUP STATE ===");
-            Log.d(TAG, "Initial session_active: " + sessionActive + " (always false on new process)");
-            Log.d(TAG, "Initial last_active_time: " + initialLastActive);
-            Log.d(TAG, "Has token: " + hasToken);
-            Log.d(TAG, "======================");
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to initialize SecureTokenManager", e);
-        }
+        AppLog.d(TAG, "Application onCreate called");
+        TraceDumps.installCrashHandler(this);
+
+        // Initialize SecureTokenManager off the main thread (Keystore + EncryptedSharedPreferences).
+        // Consumers block on it only when they first need the store.
+        Trace.beginSection("PhotoViewerApplication.startSecureInit");
+        SecureTokenManager.initializeAsync(this);
+        Trace.endSection();
+        SessionReauthenticator.getInstance().init(this);
+        new Thread(() -> {
+            try {
+                // Log initial state on app startup
+                // NOTE: sessionActive is always false on process start (volatile memory)
+                // Loads the in-memory session snapshot (the only decrypting read at startup)
+                long initialLastActive = SessionManager.getInstance().getLastActiveTime();
+                boolean hasToken = SessionManager.getInstance().isLoggedIn();
+                AppLog.d(TAG, "=== APP STARTUP STATE ===");
+                AppLog.d(TAG, "Initial session_active: " + sessionActive + " (always false on new process)");
+                AppLog.d(TAG, "Initial last_active_time: " + initialLastActive);
+                AppLog.d(TAG, "Has token: " + hasToken);
+                AppLog.d(TAG, "======================");
+            } catch (RuntimeException e) {
+                AppLog.e(TAG, "Failed to initialize SecureTokenManager", e);
+            }
+        }, "SessionPreload").start();
 
         // Initialize background sync with WorkManager
         setupBackgroundSync();
@@ -67,64 +89,66 @@ public class PhotoViewerApplication extends Application {
         registerActivityLifecycleCallbacks(new ActivityLifecycleCallbacks() {
             @Override
             public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
-                Log.d(TAG, "onActivityCreated: " + activity.getClass().getSimpleName());
+                AppLog.d(TAG, "onActivityCreated: " + activity.getClass().getSimpleName());
             }
 
             @Override
             public void onActivityStarted(Activity activity) {
                 activeActivityCount++;
-                Log.d(TAG, "onActivityStarted: " + activity.getClass().getSimpleName() +
+                inForeground = true;
+                AppLog.d(TAG, "onActivityStarted: " + activity.getClass().getSimpleName() +
                       " (active count: " + activeActivityCount + ")");
 
                 // Log state before setting session_active
-                Log.d(TAG, "BEFORE setSessionActive(true): session_active=" + sessionActive);
+                AppLog.d(TAG, "BEFORE setSessionActive(true): session_active=" + sessionActive);
 
                 // App came to foreground - set session_active = true (volatile memory)
                 setSessionActive(true);
 
                 // Log state after setting session_active
-                Log.d(TAG, "AFTER setSessionActive(true): session_active=" + sessionActive);
+                AppLog.d(TAG, "AFTER setSessionActive(true): session_active=" + sessionActive);
             }
 
             @Override
             public void onActivityResumed(Activity activity) {
-                Log.d(TAG, "onActivityResumed: " + activity.getClass().getSimpleName());
+                AppLog.d(TAG, "onActivityResumed: " + activity.getClass().getSimpleName());
             }
 
             @Override
             public void onActivityPaused(Activity activity) {
-                Log.d(TAG, "onActivityPaused: " + activity.getClass().getSimpleName());
+                AppLog.d(TAG, "onActivityPaused: " + activity.getClass().getSimpleName());
             }
 
             @Override
             public void onActivityStopped(Activity activity) {
                 activeActivityCount--;
-                Log.d(TAG, "onActivityStopped: " + activity.getClass().getSimpleName() +
+                inForeground = activeActivityCount > 0;
+                AppLog.d(TAG, "onActivityStopped: " + activity.getClass().getSimpleName() +
                       " (active count: " + activeActivityCount + ")");
 
                 // All activities stopped - save last_active_time for timeout check
                 // NOTE: We DO NOT set sessionActive=false here. Keep it true (in volatile memory).
                 // If process dies, sessionActive resets to false automatically, allowing detection.
                 if (activeActivityCount == 0) {
-                    Log.d(TAG, "All activities stopped - saving last_active_time for timeout check");
+                    AppLog.d(TAG, "All activities stopped - saving last_active_time for timeout check");
 
                     // Save timestamp to SharedPreferences (persistent)
                     long timestamp = System.currentTimeMillis();
-                    SecureTokenManager.getInstance().setLastActiveTime(timestamp);
+                    SessionManager.getInstance().setLastActiveTime(timestamp);
 
-                    Log.d(TAG, "session_active remains: " + sessionActive + " (volatile, will reset to false if process dies)");
-                    Log.d(TAG, "Set last_active_time to: " + timestamp);
+                    AppLog.d(TAG, "session_active remains: " + sessionActive + " (volatile, will reset to false if process dies)");
+                    AppLog.d(TAG, "Set last_active_time to: " + timestamp);
                 }
             }
 
             @Override
             public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
-                Log.d(TAG, "onActivitySaveInstanceState: " + activity.getClass().getSimpleName());
+                AppLog.d(TAG, "onActivitySaveInstanceState: " + activity.getClass().getSimpleName());
             }
 
             @Override
             public void onActivityDestroyed(Activity activity) {
-                Log.d(TAG, "onActivityDestroyed: " + activity.getClass().getSimpleName());
+                AppLog.d(TAG, "onActivityDestroyed: " + activity.getClass().getSimpleName());
             }
         });
     }
@@ -134,7 +158,7 @@ public class PhotoViewerApplication extends Application {
      * Runs periodic checks every 15 minutes for new posts
      */
     private void setupBackgroundSync() {
-        Log.d(TAG, "Setting up background sync worker");
+        AppLog.d(TAG, "Setting up background sync worker");
 
         // Create constraints: only run when network is available
         Constraints constraints = new Constraints.Builder()
@@ -158,7 +182,7 @@ public class PhotoViewerApplication extends Application {
                 syncWorkRequest
             );
 
-        Log.d(TAG, "Background sync worker scheduled (15 minute interval)");
+        AppLog.d(TAG, "Background sync worker scheduled (15 minute interval)");
     }
 
 }
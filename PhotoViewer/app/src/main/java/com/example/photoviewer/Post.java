@@ -2,21 +2,56 @@ package com.example.photoviewer;
 
 import android.graphics.Bitmap;
 
+import com.example.photoviewer.core.feed.PostRecord;
+
 public class Post {
     private int id;
     private String title;
     private String text;
     private String imageUrl;
+    private int imageWidth;
+    private int imageHeight;
+    // Server's dHash of the image; tells a replaced image from the cached one (0 if unknown)
+    private long imageDhash;
+    private boolean hasImageDhash;
     private Bitmap imageBitmap;
 
     public Post(int id, String title, String text, String imageUrl, Bitmap imageBitmap) {
+        this(id, title, text, imageUrl, 0, 0, imageBitmap);
+    }
+
+    /**
+     * @param imageWidth Server-reported image size in pixels (0 if unknown), used to size
+     *                   the feed cell before the bitmap is available
+     */
+    public Post(int id, String title, String text, String imageUrl,
+                int imageWidth, int imageHeight, Bitmap imageBitmap) {
         this.id = id;
         this.title = title;
         this.text = text;
         this.imageUrl = imageUrl;
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
         this.imageBitmap = imageBitmap;
     }
 
+    public Post(PostRecord record, Bitmap imageBitmap) {
+        this(record.getId(), record.getTitle(), record.getText(), record.getImageUrl(),
+            record.getImageWidth(), record.getImageHeight(), imageBitmap);
+        this.imageDhash = record.getImageDhash();
+        this.hasImageDhash = record.hasImageDhash();
+    }
+
+    /**
+     * @return A copy of this post with the given bitmap (e.g. a cached thumbnail)
+     */
+    public Post withImageBitmap(Bitmap bitmap) {
+        Post copy = new Post(id, title, text, imageUrl, imageWidth, imageHeight, bitmap);
+        copy.imageDhash = imageDhash;
+        copy.hasImageDhash = hasImageDhash;
+        return copy;
+    }
+
     public int getId() {
         return id;
     }
@@ -33,6 +68,38 @@ public class Post {
         return imageUrl;
     }
 
+    public int getImageWidth() {
+        return imageWidth;
+    }
+
+    public int getImageHeight() {
+        return imageHeight;
+    }
+
+    /**
+     * @return true if the server reported the image's size
+     */
+    public boolean hasImageSize() {
+        return imageWidth > 0 && imageHeight > 0;
+    }
+
+    public long getImageDhash() {
+        return imageDhash;
+    }
+
+    public boolean hasImageDhash() {
+        return hasImageDhash;
+    }
+
+    /**
+     * @return true if the record describes the same image as this post (same URL and
+     *         server dHash), so a thumbnail cached for this post still shows it
+     */
+    public boolean hasSameImage(PostRecord record) {
+        return hasImageDhash && record.hasImageDhash() && imageDhash == record.getImageDhash()
+            && imageUrl != null && imageUrl.equals(record.getImageUrl());
+    }
+
     public Bitmap getImageBitmap() {
         return imageBitmap;
     }
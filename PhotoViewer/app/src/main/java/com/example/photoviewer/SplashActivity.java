@@ -4,14 +4,18 @@ import android.content.Intent;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
-import android.util.Log;
 import androidx.appcompat.app.AppCompatActivity;
 import com.example.photoviewer.services.SessionManager;
-import com.example.photoviewer.utils.SecureTokenManager;
+import com.example.photoviewer.utils.AppLog;
+import com.example.photoviewer.utils.StartupGate;
+import com.example.photoviewer.utils.StartupWarmups;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class SplashActivity extends AppCompatActivity {
     private static final String TAG = "SplashActivity";
-    private static final int SPLASH_DURATION = 2000; // 2 seconds
     private static final long SESSION_TIMEOUT_MS = 600000; // 10 minutes
 
     @Override
@@ -19,67 +23,86 @@ public class SplashActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_splash);
 
-        // Initialize SecureTokenManager on app startup (earliest point)
-        try {
-            SecureTokenManager.initialize(this);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        // Check session validity BEFORE any navigation decision
-        checkAndClearInvalidSession();
-
-        new Handler(Looper.getMainLooper()).postDelayed(() -> {
-            Intent nextActivity;
-            if (SessionManager.getInstance().isLoggedIn()) {
-                nextActivity = new Intent(SplashActivity.this, MainActivity.class);
-            } else {
-                nextActivity = new Intent(SplashActivity.this, LoginActivity.class);
+        // Route as soon as the session check is done instead of after a fixed delay.
+        // The check loads the session snapshot; the network and cached feed warm up meanwhile.
+        long startTime = System.currentTimeMillis();
+        // Read before onStart: onActivityStarted sets the flag, and the gate's worker
+        // would usually run after that and never see a process death
+        boolean sessionActive = PhotoViewerApplication.isSessionActive();
+        StartupWarmups.expectPreloadedFeed();
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        ExecutorService workers = Executors.newFixedThreadPool(3);
+        new StartupGate(workers, mainHandler::post).start(
+            () -> {
+                // Check session validity BEFORE any navigation decision
+                checkAndClearInvalidSession(sessionActive);
+                return SessionManager.getInstance().isLoggedIn();
+            },
+            Arrays.asList(
+                StartupWarmups::warmConnection,
+                () -> StartupWarmups.preloadCachedFeed(getApplicationContext())
+            ),
+            loggedIn -> {
+                AppLog.d(TAG, "Startup ready after " + (System.currentTimeMillis() - startTime) + "ms");
+                if (isFinishing() || isDestroyed()) {
+                    StartupWarmups.discardPreloadedFeed();
+                    return;
+                }
+                Intent nextActivity;
+                if (loggedIn) {
+                    nextActivity = new Intent(SplashActivity.this, MainActivity.class);
+                } else {
+                    StartupWarmups.discardPreloadedFeed();
+                    nextActivity = new Intent(SplashActivity.this, LoginActivity.class);
+                }
+                startActivity(nextActivity);
+                finish();
             }
-            startActivity(nextActivity);
-            finish();
-        }, SPLASH_DURATION);
+        );
+        // Let submitted tasks finish, then release the threads
+        workers.shutdown();
     }
 
     /**
+     * Runs on a worker thread (may wait for SecureTokenManager initialization)
      * Check if session should be cleared due to:
      * 1. Process death (sessionActive is false but we have a token - means process was killed)
      * 2. Inactivity timeout (> 10 minutes since last active)
+     * @param sessionActive PhotoViewerApplication.isSessionActive() as read in onCreate
      */
-    private void checkAndClearInvalidSession() {
-        Log.d(TAG, "Checking session validity on app startup");
+    private void checkAndClearInvalidSession(boolean sessionActive) {
+        AppLog.d(TAG, "Checking session validity on app startup");
 
         // If no session data exists, nothing to clear
-        if (!SecureTokenManager.getInstance().hasSessionData()) {
-            Log.d(TAG, "No session data exists - first launch or already cleared");
+        if (!SessionManager.getInstance().hasSessionData()) {
+            AppLog.d(TAG, "No session data exists - first launch or already cleared");
             return;
         }
 
         // Check 1: Did the process die?
         // sessionActive is volatile (in-memory only). On new process start, it's always false.
         // If we have a token but sessionActive=false, the process must have been killed.
-        boolean sessionActive = PhotoViewerApplication.isSessionActive();
-        boolean hasToken = SecureTokenManager.getInstance().hasToken();
+        boolean hasToken = SessionManager.getInstance().isLoggedIn();
 
         if (hasToken && !sessionActive) {
-            Log.d(TAG, "Process death detected (has token but sessionActive=false) - clearing session");
-            SecureTokenManager.getInstance().clearSession();
+            AppLog.d(TAG, "Process death detected (has token but sessionActive=false) - clearing session");
+            SessionManager.getInstance().clearSession();
             return;
         }
 
         // Check 2: Check for inactivity timeout (if process is still alive)
-        long lastActiveTime = SecureTokenManager.getInstance().getLastActiveTime();
+        long lastActiveTime = SessionManager.getInstance().getLastActiveTime();
         long currentTime = System.currentTimeMillis();
         long timeSinceActive = currentTime - lastActiveTime;
 
-        Log.d(TAG, "Last active: " + lastActiveTime + ", Current: " + currentTime +
+        AppLog.d(TAG, "Last active: " + lastActiveTime + ", Current: " + currentTime +
               ", Elapsed: " + (timeSinceActive / 1000) + "s");
 
         if (timeSinceActive > SESSION_TIMEOUT_MS) {
-            Log.d(TAG, "Inactivity timeout exceeded (" + (timeSinceActive / 1000) + "s > 600s) - clearing session");
-            SecureTokenManager.getInstance().clearSession();
+            AppLog.d(TAG, "Inactivity timeout exceeded (" + (timeSinceActive / 1000) + "s > 600s) - clearing session");
+            SessionManager.getInstance().clearSession();
         } else {
-            Log.d(TAG, "Session still valid - keeping session");
+            AppLog.d(TAG, "Session still valid - keeping session");
         }
     }
 }
@@ -0,0 +1,24 @@
+package com.example.photoviewer.services;
+
+import com.example.photoviewer.BuildConfig;
+import com.example.photoviewer.core.metrics.MetricsRegistry;
+import com.example.photoviewer.core.net.ApiClient;
+
+/**
+ * Process-wide ApiClient for the build's API_BASE_URL, authenticated with the current
+ * session token (SessionManager's in-memory snapshot) and recording into the shared
+ * MetricsRegistry. A rejected token leads to one re-login (SessionReauthenticator),
+ * after which the waiting requests are replayed.
+ */
+public final class ApiProvider {
+    private static final ApiClient client =
+            new ApiClient(BuildConfig.API_BASE_URL, () -> SessionManager.getInstance().getToken(),
+                    MetricsRegistry.getInstance())
+                .withReauthenticator(SessionReauthenticator.getInstance());
+
+    private ApiProvider() {}
+
+    public static ApiClient get() {
+        return client;
+    }
+}
@@ -2,36 +2,163 @@ package com.example.photoviewer.services;
 
 import com.example.photoviewer.utils.SecureTokenManager;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Session state backed by SecureTokenManager.
+ * <p>
+ * Reads are served from an immutable in-memory snapshot that is loaded from
+ * EncryptedSharedPreferences once; every change replaces the snapshot and is
+ * written through to the encrypted store. This keeps decryption off the hot
+ * path (API requests, the foreground poll, splash checks).
+ * <p>
+ * Write-through happens on a single background thread, in order, so callers
+ * (including the main thread) never pay for encryption.
+ */
 public class SessionManager {
-    private static SessionManager instance;
+    private static final SessionManager instance = new SessionManager();
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final ExecutorService storeWriter = Executors.newSingleThreadExecutor();
 
     private SessionManager() {}
 
     public static SessionManager getInstance() {
-        if (instance == null) {
-            instance = new SessionManager();
-        }
         return instance;
     }
 
+    /**
+     * Immutable view of the persisted session
+     */
+    private static final class Snapshot {
+        final String token;
+        final String username;
+        final long lastActiveTime;
+
+        Snapshot(String token, String username, long lastActiveTime) {
+            this.token = token;
+            this.username = username;
+            this.lastActiveTime = lastActiveTime;
+        }
+
+        Snapshot withToken(String token) {
+            return new Snapshot(token, username, lastActiveTime);
+        }
+
+        Snapshot withUsername(String username) {
+            return new Snapshot(token, username, lastActiveTime);
+        }
+
+        Snapshot withLastActiveTime(long lastActiveTime) {
+            return new Snapshot(token, username, lastActiveTime);
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot.get();
+        if (s != null) {
+            return s;
+        }
+        SecureTokenManager store = SecureTokenManager.getInstance();
+        Snapshot loaded = new Snapshot(store.getToken(), store.getUsername(), store.getLastActiveTime());
+        // If another thread loaded (or changed) the session first, keep its value
+        if (snapshot.compareAndSet(null, loaded)) {
+            return loaded;
+        }
+        return snapshot.get();
+    }
+
+    private void update(UnaryOperator<Snapshot> change) {
+        Snapshot prev;
+        Snapshot next;
+        do {
+            prev = current();
+            next = change.apply(prev);
+        } while (!snapshot.compareAndSet(prev, next));
+    }
+
+    /**
+     * Load the snapshot ahead of time (e.g. during app startup)
+     */
+    public void preload() {
+        current();
+    }
+
     public boolean isLoggedIn() {
-        return SecureTokenManager.getInstance().hasToken();
+        return current().token != null;
     }
 
     public String getToken() {
-        return SecureTokenManager.getInstance().getToken();
+        return current().token;
     }
 
     public String getUsername() {
-        return SecureTokenManager.getInstance().getUsername();
+        return current().username;
+    }
+
+    public long getLastActiveTime() {
+        return current().lastActiveTime;
+    }
+
+    public boolean hasSessionData() {
+        Snapshot s = current();
+        return s.token != null || s.lastActiveTime != 0;
     }
 
     public void saveSession(String username, String token) {
-        SecureTokenManager.getInstance().saveUsername(username);
-        SecureTokenManager.getInstance().saveToken(token);
+        update(s -> s.withUsername(username).withToken(token));
+        storeWriter.execute(() -> {
+            SecureTokenManager.getInstance().saveUsername(username);
+            SecureTokenManager.getInstance().saveToken(token);
+        });
+    }
+
+    public void rememberUsername(String username) {
+        update(s -> s.withUsername(username));
+        storeWriter.execute(() -> SecureTokenManager.getInstance().saveUsername(username));
+    }
+
+    public void forgetUsername() {
+        update(s -> s.withUsername(""));
+        storeWriter.execute(() -> SecureTokenManager.getInstance().deleteUsername());
+    }
+
+    public void setLastActiveTime(long timestamp) {
+        update(s -> s.withLastActiveTime(timestamp));
+        storeWriter.execute(() -> SecureTokenManager.getInstance().setLastActiveTime(timestamp));
+    }
+
+    /**
+     * Drop token, username and last active time (process death / inactivity timeout)
+     */
+    public void clearSession() {
+        snapshot.set(new Snapshot(null, "", 0));
+        storeWriter.execute(() -> SecureTokenManager.getInstance().clearSession());
     }
 
     public void logout() {
-        SecureTokenManager.getInstance().clearAll();
+        snapshot.set(new Snapshot(null, "", 0));
+        storeWriter.execute(() -> SecureTokenManager.getInstance().clearAll());
+    }
+
+    /**
+     * Wait until every change made so far has been written through to the encrypted store
+     * (for tests that read SecureTokenManager directly; never call on the main thread)
+     */
+    public void awaitStoreWrites(long timeoutMs) throws InterruptedException, TimeoutException {
+        Future<?> marker = storeWriter.submit(() -> { });
+        try {
+            marker.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // An empty task cannot fail
+            throw new IllegalStateException(e);
+        }
     }
 }
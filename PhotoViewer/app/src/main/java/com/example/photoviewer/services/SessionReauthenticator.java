@@ -0,0 +1,93 @@
+package com.example.photoviewer.services;
+
+import android.content.Context;
+import android.content.Intent;
+import com.example.photoviewer.LoginActivity;
+import com.example.photoviewer.PhotoViewerApplication;
+import com.example.photoviewer.core.net.AuthGate;
+import com.example.photoviewer.core.net.CancelledException;
+import com.example.photoviewer.utils.AppLog;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asks the user to log in again when the server rejects the session token (revoked,
+ * expired, or the server's tokens were reset), instead of failing every request.
+ * ApiProvider's client runs it through its AuthGate, one flow at a time: it opens
+ * LoginActivity in re-login mode and blocks the request's thread until that screen
+ * logs in or closes; the waiting requests are then replayed with the new token.
+ * In the background nothing can be shown, so the requests fail with their 401.
+ */
+public final class SessionReauthenticator implements AuthGate.Reauthenticator {
+    private static final String TAG = "SessionReauthenticator";
+    // The user gets this long to log in before the waiting requests give up
+    static final long TIMEOUT_MS = 120000;
+
+    private static final SessionReauthenticator instance = new SessionReauthenticator();
+
+    private volatile Context context;
+    private volatile CountDownLatch pending;
+    private volatile String newToken;
+
+    private SessionReauthenticator() {}
+
+    public static SessionReauthenticator getInstance() {
+        return instance;
+    }
+
+    /**
+     * Called from PhotoViewerApplication.onCreate; until then re-login is not offered
+     */
+    public void init(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    @Override
+    public String reauthenticate(String rejectedToken) throws CancelledException {
+        Context app = context;
+        if (app == null || !PhotoViewerApplication.isInForeground()) {
+            AppLog.d(TAG, "Token rejected while in the background; not asking to log in");
+            return null;
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        newToken = null;
+        pending = done;
+        AppLog.d(TAG, "Token rejected; asking the user to log in again");
+        app.startActivity(new Intent(app, LoginActivity.class)
+            .putExtra(LoginActivity.EXTRA_REAUTHENTICATE, true)
+            .addFlags(Intent.FLAG_ACTIVITY_NEW_TASK));
+        try {
+            if (!done.await(TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                AppLog.d(TAG, "Re-login timed out");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancelledException("Interrupted while waiting for re-login");
+        } finally {
+            pending = null;
+        }
+        return newToken;
+    }
+
+    /**
+     * LoginActivity (re-login mode) saved a new session
+     */
+    public void onLoggedIn(String token) {
+        CountDownLatch done = pending;
+        newToken = token;
+        if (done != null) {
+            done.countDown();
+        }
+    }
+
+    /**
+     * LoginActivity (re-login mode) closed without logging in
+     */
+    public void onCancelled() {
+        CountDownLatch done = pending;
+        if (done != null) {
+            done.countDown();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.photoviewer.utils;
+
+import android.util.Log;
+import com.example.photoviewer.BuildConfig;
+import com.example.photoviewer.core.trace.TraceRecorder;
+
+/**
+ * Level-gated logging facade
+ * The level flags are compile-time constants derived from BuildConfig.LOG_LEVEL,
+ * so a guarded call such as
+ *     if (AppLog.D) AppLog.d(TAG, "bind " + position);
+ * is removed by javac together with its string building when the level is off
+ * (release builds keep only warnings and errors)
+ * Warnings and errors are also recorded in the TraceRecorder ring buffer,
+ * so they show up in failure dumps (see TraceDumps)
+ */
+public final class AppLog {
+    public static final boolean V = BuildConfig.LOG_LEVEL <= Log.VERBOSE;
+    public static final boolean D = BuildConfig.LOG_LEVEL <= Log.DEBUG;
+    public static final boolean I = BuildConfig.LOG_LEVEL <= Log.INFO;
+
+    private AppLog() {}
+
+    public static void v(String tag, String msg) {
+        if (V) {
+            Log.v(tag, msg);
+        }
+    }
+
+    public static void d(String tag, String msg) {
+        if (D) {
+            Log.d(tag, msg);
+        }
+    }
+
+    public static void i(String tag, String msg) {
+        if (I) {
+            Log.i(tag, msg);
+        }
+    }
+
+    public static void w(String tag, String msg) {
+        TraceRecorder.getInstance().record(tag, "W", msg);
+        Log.w(tag, msg);
+    }
+
+    public static void w(String tag, String msg, Throwable tr) {
+        TraceRecorder.getInstance().record(tag, "W", msg + ": " + tr);
+        Log.w(tag, msg, tr);
+    }
+
+    public static void e(String tag, String msg) {
+        TraceRecorder.getInstance().record(tag, "E", msg);
+        Log.e(tag, msg);
+    }
+
+    public static void e(String tag, String msg, Throwable tr) {
+        TraceRecorder.getInstance().record(tag, "E", msg + ": " + tr);
+        Log.e(tag, msg, tr);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.photoviewer.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.ConnectivityManager;
+import com.example.photoviewer.core.metrics.MetricsRegistry;
+
+/**
+ * Data-saver mode for metered networks
+ * AUTO (the default) turns it on while the active network is metered;
+ * ON and OFF override that. While it is on:
+ * - polls ask for summary lists (id and title) and run every 2 minutes instead of 30 s
+ * - feed images are requested at thumbnail width, and cached thumbnails of unchanged
+ *   images are reused instead of downloaded again
+ * - the detail dialog shows the thumbnail until the full image is requested
+ * - thumbnail prefetch also waits for the charger
+ * Kept outside SyncPreferences so logout does not reset it
+ */
+public class DataSaver {
+    private static final String PREF_NAME = "PhotoViewerDataSaverPrefs";
+    private static final String KEY_MODE = "mode";
+
+    public static final long POLL_INTERVAL_MS = 120000;
+    /** Image width requested in data-saver mode (the server's smallest rendition) */
+    public static final int IMAGE_WIDTH = 320;
+
+    public enum Mode {
+        AUTO("절약 자동"),
+        ON("절약 켜짐"),
+        OFF("절약 꺼짐");
+
+        private final String label;
+
+        Mode(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public Mode next() {
+            return values()[(ordinal() + 1) % values().length];
+        }
+    }
+
+    private final SharedPreferences prefs;
+    private final ConnectivityManager connectivity;
+
+    public DataSaver(Context context) {
+        prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        connectivity = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+    }
+
+    public Mode getMode() {
+        try {
+            return Mode.valueOf(prefs.getString(KEY_MODE, Mode.AUTO.name()));
+        } catch (IllegalArgumentException e) {
+            return Mode.AUTO;
+        }
+    }
+
+    public void setMode(Mode mode) {
+        prefs.edit().putString(KEY_MODE, mode.name()).apply();
+    }
+
+    /**
+     * @return true if requests should be cut down right now
+     */
+    public boolean isEnabled() {
+        switch (getMode()) {
+            case ON:
+                return true;
+            case OFF:
+                return false;
+            default:
+                // Cellular, tethering and networks the user marked as metered
+                return connectivity != null && connectivity.isActiveNetworkMetered();
+        }
+    }
+
+    /**
+     * @return Bytes not downloaded in this process thanks to summary lists (estimated from
+     *         the last full list), downscaled images (as reported by the server) and reused thumbnails
+     */
+    public static long getSessionBytesSaved(MetricsRegistry metrics) {
+        return metrics.counter("http.posts.poll.bytes_saved").get()
+            + metrics.counter("http.media.bytes_saved").get()
+            + metrics.counter("datasaver.bytes_saved").get();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.photoviewer.utils;
+
+import android.content.Context;
+import com.example.photoviewer.core.cache.SizeBoundedFileCache;
+import com.example.photoviewer.core.metrics.MetricsRegistry;
+import com.example.photoviewer.core.net.ApiClient;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Disk cache of full-resolution images for the zoom viewer, keyed by post id and URL
+ * Images are streamed to disk and region-decoded from there, never loaded whole
+ */
+public class FullImageCache {
+    private static final String TAG = "FullImageCache";
+    private static final String DIR_NAME = "full_images";
+    private static final long MAX_CACHE_BYTES = 150L * 1024 * 1024; // 150 MB, a few 50 MP photos
+
+    private final SizeBoundedFileCache cache;
+
+    public FullImageCache(Context context) {
+        this.cache = new SizeBoundedFileCache(
+            new File(context.getApplicationContext().getCacheDir(), DIR_NAME), MAX_CACHE_BYTES);
+    }
+
+    /**
+     * Return the cached file, downloading it first if needed
+     * Blocks; call from a background lane
+     */
+    public File get(ApiClient api, int postId, String imageUrl) throws IOException {
+        String key = keyFor(postId, imageUrl);
+        File file = cache.get(key);
+        if (file != null) {
+            MetricsRegistry.getInstance().counter("cache.full_image.hit").inc();
+            return file;
+        }
+        MetricsRegistry.getInstance().counter("cache.full_image.miss").inc();
+        AppLog.d(TAG, "Downloading full image for post " + postId);
+        return cache.put(key, out -> api.fetchImage(imageUrl, ImageFormats.REGION_DECODABLE_ACCEPT, out, 60000));
+    }
+
+    /**
+     * @return The cached file, or null if it has not been downloaded (data-saver mode
+     *         only downloads full images on request)
+     */
+    public File getCached(int postId, String imageUrl) {
+        return cache.get(keyFor(postId, imageUrl));
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    private static String keyFor(int postId, String imageUrl) {
+        // The URL changes when the post's image is replaced
+        return postId + "_" + Integer.toHexString(imageUrl.hashCode());
+    }
+}
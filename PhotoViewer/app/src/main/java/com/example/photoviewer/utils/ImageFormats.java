@@ -0,0 +1,54 @@
+package com.example.photoviewer.utils;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+import com.example.photoviewer.core.image.ImageFormat;
+import java.io.ByteArrayOutputStream;
+import java.util.EnumSet;
+
+/**
+ * Which image formats this device decodes and encodes
+ * WebP decodes everywhere (minSdk 24); AVIF decodes from Android 12
+ */
+public final class ImageFormats {
+    // Lossy WebP at 80 is about the size of JPEG at 70 and looks like JPEG at 90
+    private static final int WEBP_QUALITY = 80;
+
+    /**
+     * Accept header for feed image downloads
+     */
+    public static final String ACCEPT = ImageFormat.acceptHeader(decodable());
+
+    /**
+     * Accept header for images opened with BitmapRegionDecoder (no AVIF support)
+     */
+    public static final String REGION_DECODABLE_ACCEPT =
+        ImageFormat.acceptHeader(EnumSet.of(ImageFormat.WEBP, ImageFormat.JPEG, ImageFormat.PNG));
+
+    private ImageFormats() {}
+
+    static EnumSet<ImageFormat> decodable() {
+        EnumSet<ImageFormat> formats = EnumSet.of(ImageFormat.WEBP, ImageFormat.JPEG, ImageFormat.PNG);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+            formats.add(ImageFormat.AVIF);
+        }
+        return formats;
+    }
+
+    /**
+     * Encode an edited image for upload as lossy WebP
+     */
+    public static byte[] encodeForUpload(Bitmap bitmap) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bitmap.compress(webpFormat(), WEBP_QUALITY, out);
+        return out.toByteArray();
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Bitmap.CompressFormat webpFormat() {
+        // Before Android 11 WEBP is lossy for quality < 100
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+            ? Bitmap.CompressFormat.WEBP_LOSSY
+            : Bitmap.CompressFormat.WEBP;
+    }
+}
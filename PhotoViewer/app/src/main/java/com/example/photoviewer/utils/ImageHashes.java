@@ -0,0 +1,25 @@
+package com.example.photoviewer.utils;
+
+import android.graphics.Bitmap;
+import com.example.photoviewer.core.image.DHash;
+
+/**
+ * Perceptual hashes of decoded bitmaps, for posts whose dHash the server did not send
+ */
+public final class ImageHashes {
+
+    private ImageHashes() {}
+
+    /**
+     * @return The bitmap's DHash; scaling to 9x8 is done natively, so only 72 pixels are read
+     */
+    public static long dhash(Bitmap bitmap) {
+        Bitmap small = Bitmap.createScaledBitmap(bitmap, DHash.WIDTH, DHash.HEIGHT, true);
+        int[] pixels = new int[DHash.WIDTH * DHash.HEIGHT];
+        small.getPixels(pixels, 0, DHash.WIDTH, 0, 0, DHash.WIDTH, DHash.HEIGHT);
+        if (small != bitmap) {
+            small.recycle();
+        }
+        return DHash.compute(pixels, DHash.WIDTH, DHash.HEIGHT);
+    }
+}
@@ -6,7 +6,6 @@ import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Build;
-import android.util.Log;
 import androidx.core.app.NotificationCompat;
 import com.example.photoviewer.MainActivity;
 import com.example.photoviewer.R;
@@ -45,7 +44,7 @@ public class NotificationHelper {
             channel.setDescription(CHANNEL_DESC);
             channel.enableVibration(true);
             notificationManager.createNotificationChannel(channel);
-            Log.d(TAG, "Notification channel created");
+            AppLog.d(TAG, "Notification channel created");
         }
     }
 
@@ -56,7 +55,7 @@ public class NotificationHelper {
      */
     public void showNewDetectionNotification(int count, String firstObjectName) {
         if (count <= 0) {
-            Log.w(TAG, "showNewDetectionNotification called with count <= 0");
+            AppLog.w(TAG, "showNewDetectionNotification called with count <= 0");
             return;
         }
 
@@ -73,7 +72,7 @@ public class NotificationHelper {
             text = count + "개의 새로운 검출";
         }
 
-        Log.d(TAG, "Showing notification: " + title + " - " + text);
+        AppLog.d(TAG, "Showing notification: " + title + " - " + text);
 
         // Intent to open MainActivity when notification is tapped
         Intent intent = new Intent(context, MainActivity.class);
@@ -98,7 +97,7 @@ public class NotificationHelper {
 
         // Show notification
         notificationManager.notify(NOTIFICATION_ID, builder.build());
-        Log.d(TAG, "Notification shown successfully");
+        AppLog.d(TAG, "Notification shown successfully");
     }
 
     /**
@@ -106,6 +105,6 @@ public class NotificationHelper {
      */
     public void cancelAll() {
         notificationManager.cancelAll();
-        Log.d(TAG, "All notifications cancelled");
+        AppLog.d(TAG, "All notifications cancelled");
     }
 }
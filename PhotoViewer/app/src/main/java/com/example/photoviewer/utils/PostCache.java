@@ -0,0 +1,123 @@
+package com.example.photoviewer.utils;
+
+import android.content.Context;
+import com.example.photoviewer.Post;
+import com.example.photoviewer.core.feed.FeedParser;
+import com.example.photoviewer.core.feed.PostRecord;
+import com.example.photoviewer.core.image.DHash;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local copy of the post list metadata (id, title, text, image URL, size and dHash)
+ * Lets MainActivity render the feed before the network answers
+ */
+public class PostCache {
+    private static final String TAG = "PostCache";
+    private static final String FILE_NAME = "post_cache.json";
+
+    private final File file;
+
+    public PostCache(Context context) {
+        this.file = new File(context.getApplicationContext().getFilesDir(), FILE_NAME);
+    }
+
+    /**
+     * Load cached posts (without bitmaps)
+     * @return Cached posts in feed order, or an empty list if nothing is cached
+     */
+    public synchronized List<Post> load() {
+        List<Post> posts = new ArrayList<>();
+        if (!file.exists()) {
+            return posts;
+        }
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            for (PostRecord record : FeedParser.parse(in)) {
+                posts.add(new Post(record, null));
+            }
+        } catch (IOException e) {
+            AppLog.e(TAG, "Error reading post cache: " + e.getMessage());
+        }
+        return posts;
+    }
+
+    /**
+     * Replace the cached feed with a freshly synced list
+     */
+    public synchronized void save(List<Post> posts) {
+        JSONArray array = new JSONArray();
+        try {
+            for (Post post : posts) {
+                array.put(toJson(post));
+            }
+        } catch (JSONException e) {
+            AppLog.e(TAG, "Error encoding post cache: " + e.getMessage());
+            return;
+        }
+        write(array);
+    }
+
+    /**
+     * Add or replace posts by id, keeping existing entries that were not touched
+     * Used by BackgroundSyncWorker, which only learns about new posts
+     */
+    public synchronized void merge(List<Post> newPosts) {
+        Map<Integer, Post> byId = new LinkedHashMap<>();
+        for (Post post : load()) {
+            byId.put(post.getId(), post);
+        }
+        for (Post post : newPosts) {
+            byId.put(post.getId(), post);
+        }
+        save(new ArrayList<>(byId.values()));
+    }
+
+    public synchronized void clear() {
+        if (file.exists() && !file.delete()) {
+            AppLog.w(TAG, "Could not delete post cache");
+        }
+    }
+
+    private static JSONObject toJson(Post post) throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("id", post.getId());
+        json.put("title", post.getTitle());
+        json.put("text", post.getText());
+        json.put("image", post.getImageUrl());
+        if (post.hasImageDhash()) {
+            json.put("image_dhash", DHash.toHex(post.getImageDhash()));
+        }
+        if (post.hasImageSize()) {
+            json.put("image_width", post.getImageWidth());
+            json.put("image_height", post.getImageHeight());
+        }
+        return json;
+    }
+
+    private void write(JSONArray array) {
+        // Write to a temp file first so a crash never leaves a half-written cache
+        File tmp = new File(file.getPath() + ".tmp");
+        try (OutputStream out = new FileOutputStream(tmp)) {
+            out.write(array.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            AppLog.e(TAG, "Error writing post cache: " + e.getMessage());
+            return;
+        }
+        if (!tmp.renameTo(file)) {
+            AppLog.e(TAG, "Error replacing post cache file");
+        }
+    }
+}
@@ -2,12 +2,25 @@ package com.example.photoviewer.utils;
 
 import android.content.Context;
 import android.content.SharedPreferences;
-import android.util.Log;
+import android.os.Looper;
+import android.os.Trace;
 import androidx.security.crypto.EncryptedSharedPreferences;
 import androidx.security.crypto.MasterKey;
 import java.io.IOException;
 import java.security.GeneralSecurityException;
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Encrypted storage for the auth token, remembered username and last active time.
+ * <p>
+ * Building the MasterKey (Android Keystore) and EncryptedSharedPreferences is
+ * slow, so initialization runs once on a background thread started from
+ * PhotoViewerApplication. getInstance() only waits for it the first time the
+ * store is actually needed.
+ */
 public class SecureTokenManager {
     private static final String TAG = "SecureTokenManager";
     private static final String PREFS_NAME = "auth_prefs";
@@ -16,9 +29,14 @@ public class SecureTokenManager {
     private static final String LAST_ACTIVE_TIME_KEY = "last_active_time";
     // NOTE: session_active is now stored in PhotoViewerApplication (volatile memory)
 
-    private static SecureTokenManager instance;
+    private static volatile SecureTokenManager instance;
+    private static Future<SecureTokenManager> initFuture;
     private SharedPreferences encryptedPrefs;
 
+    // Encrypted store access counters (each read decrypts, each write encrypts)
+    private static final AtomicLong readCount = new AtomicLong();
+    private static final AtomicLong writeCount = new AtomicLong();
+
     private SecureTokenManager(Context context) throws GeneralSecurityException, IOException {
         MasterKey masterKey = new MasterKey.Builder(context)
                 .setKeyScheme(MasterKey.KeyScheme.AES256_GCM)
@@ -33,24 +51,117 @@ public class SecureTokenManager {
         );
     }
 
+    /**
+     * Start initialization on a background thread. Only the first call starts
+     * work; later calls return the same future.
+     */
+    public static synchronized Future<SecureTokenManager> initializeAsync(Context context) {
+        if (initFuture == null) {
+            Context appContext = context.getApplicationContext();
+            FutureTask<SecureTokenManager> task = new FutureTask<>(() -> {
+                Trace.beginSection("SecureTokenManager.init");
+                try {
+                    SecureTokenManager manager = new SecureTokenManager(appContext);
+                    instance = manager;
+                    return manager;
+                } finally {
+                    Trace.endSection();
+                }
+            });
+            initFuture = task;
+            new Thread(task, "SecureTokenManager-init").start();
+        }
+        return initFuture;
+    }
+
+    /**
+     * Blocking initialization, for callers that need the store immediately
+     */
     public static void initialize(Context context) throws GeneralSecurityException, IOException {
-        if (instance == null) {
-            instance = new SecureTokenManager(context);
+        if (instance != null) {
+            return;
+        }
+        try {
+            await(initializeAsync(context));
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof GeneralSecurityException) {
+                throw (GeneralSecurityException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new RuntimeException(cause);
         }
     }
 
     public static SecureTokenManager getInstance() {
-        if (instance == null) {
+        SecureTokenManager manager = instance;
+        if (manager != null) {
+            return manager;
+        }
+        Future<SecureTokenManager> future;
+        synchronized (SecureTokenManager.class) {
+            future = initFuture;
+        }
+        if (future == null) {
             throw new RuntimeException("SecureTokenManager not initialized. Call initialize() first.");
         }
-        return instance;
+        try {
+            return await(future);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("SecureTokenManager initialization failed", e.getCause());
+        }
+    }
+
+    private static SecureTokenManager await(Future<SecureTokenManager> future) throws ExecutionException {
+        boolean onMainThread = Looper.myLooper() == Looper.getMainLooper();
+        if (onMainThread) {
+            // Shows up in cold-start traces as main-thread time spent waiting
+            Trace.beginSection("SecureTokenManager.await");
+            AppLog.d(TAG, "Main thread waiting for SecureTokenManager initialization");
+        }
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    // Initialization cannot be abandoned halfway; finish waiting
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (onMainThread) {
+                Trace.endSection();
+            }
+        }
+    }
+
+    /**
+     * Number of reads from EncryptedSharedPreferences since process start
+     */
+    public static long getReadCount() {
+        return readCount.get();
+    }
+
+    /**
+     * Number of writes to EncryptedSharedPreferences since process start
+     */
+    public static long getWriteCount() {
+        return writeCount.get();
     }
 
     public void saveToken(String token) {
+        writeCount.incrementAndGet();
         encryptedPrefs.edit().putString(TOKEN_KEY, token).apply();
     }
 
     public String getToken() {
+        readCount.incrementAndGet();
         return encryptedPrefs.getString(TOKEN_KEY, null);
     }
 
@@ -59,22 +170,27 @@ public class SecureTokenManager {
     }
 
     public void deleteToken() {
+        writeCount.incrementAndGet();
         encryptedPrefs.edit().remove(TOKEN_KEY).apply();
     }
 
     public void saveUsername(String username) {
+        writeCount.incrementAndGet();
         encryptedPrefs.edit().putString(USERNAME_KEY, username).apply();
     }
 
     public String getUsername() {
+        readCount.incrementAndGet();
         return encryptedPrefs.getString(USERNAME_KEY, "");
     }
 
     public void deleteUsername() {
+        writeCount.incrementAndGet();
         encryptedPrefs.edit().remove(USERNAME_KEY).apply();
     }
 
     public void clearAll() {
+        writeCount.incrementAndGet();
         encryptedPrefs.edit().clear().apply();
     }
 
@@ -82,26 +198,30 @@ public class SecureTokenManager {
     // NOTE: setSessionActive/isSessionActive moved to PhotoViewerApplication (volatile memory)
 
     public void setLastActiveTime(long timestamp) {
+        writeCount.incrementAndGet();
         encryptedPrefs.edit().putLong(LAST_ACTIVE_TIME_KEY, timestamp).apply();
     }
 
     public long getLastActiveTime() {
+        readCount.incrementAndGet();
         return encryptedPrefs.getLong(LAST_ACTIVE_TIME_KEY, 0);
     }
 
     public boolean hasSessionData() {
         // Check if any session data exists (token or timestamp)
+        readCount.incrementAndGet();
         return encryptedPrefs.contains(LAST_ACTIVE_TIME_KEY) || hasToken();
     }
 
     public void clearSession() {
         // Log state before clearing
-        Log.d(TAG, "=== CLEARING SESSION ===");
-        Log.d(TAG, "Before clear - last_active_time: " + getLastActiveTime());
-        Log.d(TAG, "Before clear - has token: " + hasToken());
+        AppLog.d(TAG, "=== CLEARING SESSION ===");
+        AppLog.d(TAG, "Before clear - last_active_time: " + getLastActiveTime());
+        AppLog.d(TAG, "Before clear - has token: " + hasToken());
 
         // Clear all session data (token, username, and timestamps)
         // NOTE: session_active is in PhotoViewerApplication (volatile), no need to clear
+        writeCount.incrementAndGet();
         encryptedPrefs.edit()
                 .remove(TOKEN_KEY)
                 .remove(USERNAME_KEY)
@@ -109,8 +229,8 @@ public class SecureTokenManager {
                 .apply();
 
         // Log state after clearing
-        Log.d(TAG, "After clear - last_active_time: " + getLastActiveTime());
-        Log.d(TAG, "After clear - has token: " + hasToken());
-        Log.d(TAG, "=====================");
+        AppLog.d(TAG, "After clear - last_active_time: " + getLastActiveTime());
+        AppLog.d(TAG, "After clear - has token: " + hasToken());
+        AppLog.d(TAG, "=====================");
     }
 }
@@ -0,0 +1,63 @@
+package com.example.photoviewer.utils;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Runs the splash screen's startup work in parallel and reports readiness as
+ * soon as the one task that decides routing (session validation) finishes.
+ * Warm-up tasks keep running in the background; the splash never waits on them.
+ */
+public class StartupGate {
+
+    public interface ReadyCallback {
+        /**
+         * @param loggedIn Result of session validation
+         */
+        void onReady(boolean loggedIn);
+    }
+
+    private final ExecutorService workers;
+    private final Executor callbackExecutor;
+
+    /**
+     * @param workers Executor for validation and warm-up tasks (needs enough
+     *                threads to run them in parallel)
+     * @param callbackExecutor Where onReady is delivered (main thread in the app)
+     */
+    public StartupGate(ExecutorService workers, Executor callbackExecutor) {
+        this.workers = workers;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * Start validation and warm-ups together
+     * @param validation Checks/clears the session and returns whether the user is logged in
+     * @param warmUps Best-effort tasks; failures are ignored
+     * @param callback Called once, when validation completes
+     */
+    public void start(Callable<Boolean> validation, List<Runnable> warmUps, ReadyCallback callback) {
+        // Submitted first so it never queues behind a warm-up
+        workers.execute(() -> {
+            boolean loggedIn;
+            try {
+                loggedIn = Boolean.TRUE.equals(validation.call());
+            } catch (Exception e) {
+                loggedIn = false;
+            }
+            boolean result = loggedIn;
+            callbackExecutor.execute(() -> callback.onReady(result));
+        });
+        for (Runnable warmUp : warmUps) {
+            workers.execute(() -> {
+                try {
+                    warmUp.run();
+                } catch (RuntimeException e) {
+                    // Warm-ups only save time later; never block startup on them
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.photoviewer.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import com.example.photoviewer.Post;
+import com.example.photoviewer.core.feed.PostRecord;
+import com.example.photoviewer.core.net.ApiClient;
+import com.example.photoviewer.core.sched.LaneScheduler;
+import com.example.photoviewer.services.ApiProvider;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Work the splash and login screens start ahead of time
+ * so MainActivity does not have to do it on its first frame
+ */
+public final class StartupWarmups {
+    private static final String TAG = "StartupWarmups";
+
+    // Posts hold decoded thumbnails: kept only between expectPreloadedFeed() and the
+    // take/discard that follows it, so a late preload is not held for the life of the process
+    private static boolean preloadWanted;
+    private static List<Post> preloadedFeed;
+    private static volatile FutureTask<List<PostRecord>> prefetchedFeed;
+
+    private StartupWarmups() {}
+
+    /**
+     * Resolve DNS and open a (TLS) connection to the API host through the shared ApiClient.
+     * The socket goes back to the platform keep-alive pool and is reused by login or the first sync.
+     */
+    public static void warmConnection() {
+        ApiClient api = ApiProvider.get();
+        boolean reached = api.warmUp(api.getNetworkQuality().timeoutMs());
+        AppLog.d(TAG, "Connection warm-up " + (reached ? "done" : "failed"));
+    }
+
+    /**
+     * Start downloading the feed list as soon as login returns a token, on the USER lane,
+     * while MainActivity is still starting; its first sync takes the result instead of
+     * making another round trip.
+     * Call after the session is saved, so the request carries the new token
+     */
+    public static void prefetchFeed() {
+        ApiClient api = ApiProvider.get();
+        FutureTask<List<PostRecord>> fetch = new FutureTask<>(() -> api.fetchPosts(api.getNetworkQuality().timeoutMs()));
+        prefetchedFeed = fetch;
+        LaneScheduler.getInstance().execute(LaneScheduler.Lane.USER, fetch);
+    }
+
+    /**
+     * Hand over the feed download started by prefetchFeed() (once)
+     * @return The download, possibly still running or failed, or null if none was started
+     */
+    public static FutureTask<List<PostRecord>> takePrefetchedFeed() {
+        FutureTask<List<PostRecord>> fetch = prefetchedFeed;
+        prefetchedFeed = null;
+        return fetch;
+    }
+
+    /**
+     * The next preloadCachedFeed() result is kept for MainActivity.
+     * Call on the main thread before routing, so the consumer cannot start first
+     */
+    public static synchronized void expectPreloadedFeed() {
+        preloadWanted = true;
+        preloadedFeed = null;
+    }
+
+    /**
+     * Load cached posts and their thumbnails into memory for MainActivity.
+     * Dropped if MainActivity already started without it, or the feed will not be shown
+     */
+    public static void preloadCachedFeed(Context context) {
+        PostCache postCache = new PostCache(context);
+        ThumbnailCache thumbnailCache = new ThumbnailCache(context);
+        List<Post> posts = new ArrayList<>();
+        for (Post post : postCache.load()) {
+            Bitmap thumbnail = thumbnailCache.get(post.getId());
+            // Without a thumbnail, a post of known size still gets a correctly sized placeholder
+            if (thumbnail != null || post.hasImageSize()) {
+                posts.add(post.withImageBitmap(thumbnail));
+            }
+        }
+        synchronized (StartupWarmups.class) {
+            if (!preloadWanted) {
+                AppLog.d(TAG, "Dropped " + posts.size() + " preloaded cached posts, no longer wanted");
+                return;
+            }
+            preloadedFeed = posts;
+        }
+        AppLog.d(TAG, "Preloaded " + posts.size() + " cached posts");
+    }
+
+    /**
+     * Hand over the preloaded feed (once); a preload still running is then dropped
+     * @return Cached posts with thumbnails or a known image size, or null if nothing was preloaded
+     */
+    public static synchronized List<Post> takePreloadedFeed() {
+        List<Post> posts = preloadedFeed;
+        preloadWanted = false;
+        preloadedFeed = null;
+        return posts;
+    }
+
+    /**
+     * The feed will not be shown (e.g. the splash screen routes to login): release the
+     * preloaded posts and drop a preload still running
+     */
+    public static void discardPreloadedFeed() {
+        takePreloadedFeed();
+    }
+
+    public static void clear() {
+        discardPreloadedFeed();
+        FutureTask<List<PostRecord>> fetch = takePrefetchedFeed();
+        if (fetch != null) {
+            fetch.cancel(false);
+        }
+    }
+}
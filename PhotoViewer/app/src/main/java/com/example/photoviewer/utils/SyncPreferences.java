@@ -2,7 +2,6 @@ package com.example.photoviewer.utils;
 
 import android.content.Context;
 import android.content.SharedPreferences;
-import android.util.Log;
 
 /**
  * Helper class for managing sync-related preferences
@@ -26,7 +25,7 @@ public class SyncPreferences {
      */
     public int getLastSeenPostId() {
         int lastId = prefs.getInt(KEY_LAST_SEEN_POST_ID, 0);
-        Log.d(TAG, "getLastSeenPostId: " + lastId);
+        if (AppLog.V) AppLog.v(TAG, "getLastSeenPostId: " + lastId);
         return lastId;
     }
 
@@ -35,7 +34,7 @@ public class SyncPreferences {
      * @param postId The highest post ID currently visible
      */
     public void setLastSeenPostId(int postId) {
-        Log.d(TAG, "setLastSeenPostId: " + postId);
+        if (AppLog.D) AppLog.d(TAG, "setLastSeenPostId: " + postId);
         prefs.edit()
             .putInt(KEY_LAST_SEEN_POST_ID, postId)
             .putLong(KEY_LAST_SYNC_TIMESTAMP, System.currentTimeMillis())
@@ -54,7 +53,7 @@ public class SyncPreferences {
      * Clear all sync preferences (e.g., on logout)
      */
     public void clear() {
-        Log.d(TAG, "Clearing sync preferences");
+        AppLog.d(TAG, "Clearing sync preferences");
         prefs.edit().clear().apply();
     }
 }
@@ -0,0 +1,131 @@
+package com.example.photoviewer.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import com.example.photoviewer.core.cache.SizeBoundedFileCache;
+import com.example.photoviewer.core.metrics.MetricsRegistry;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Disk cache of feed thumbnails, keyed by post id
+ * Least recently used files are evicted once the cache grows past its size budget
+ */
+public class ThumbnailCache {
+    private static final String TAG = "ThumbnailCache";
+    private static final String DIR_NAME = "thumbnails";
+    private static final long MAX_CACHE_BYTES = 20L * 1024 * 1024; // 20 MB
+    private static final int THUMBNAIL_MAX_WIDTH = 480;
+    private static final int JPEG_QUALITY = 85;
+
+    private final SizeBoundedFileCache cache;
+
+    public ThumbnailCache(Context context) {
+        this.cache = new SizeBoundedFileCache(
+            new File(context.getApplicationContext().getCacheDir(), DIR_NAME), MAX_CACHE_BYTES);
+    }
+
+    public boolean contains(int postId) {
+        return cache.contains(keyFor(postId));
+    }
+
+    /**
+     * @return The cached thumbnail's encoded bytes, or null if the post has none
+     */
+    public byte[] getEncoded(int postId) {
+        File file = cache.get(keyFor(postId));
+        if (file == null) {
+            return null;
+        }
+        byte[] data = new byte[(int) file.length()];
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            in.readFully(data);
+            return data;
+        } catch (IOException e) {
+            AppLog.e(TAG, "Error reading thumbnail for post " + postId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Decode a cached thumbnail
+     * @return Bitmap, or null if the post has no cached thumbnail
+     */
+    public Bitmap get(int postId) {
+        File file = cache.get(keyFor(postId));
+        if (file == null) {
+            MetricsRegistry.getInstance().counter("cache.thumbnail.miss").inc();
+            return null;
+        }
+        MetricsRegistry.getInstance().counter("cache.thumbnail.hit").inc();
+        return BitmapFactory.decodeFile(file.getPath());
+    }
+
+    /**
+     * Store a thumbnail scaled down from a full-size bitmap
+     */
+    public void put(int postId, Bitmap bitmap) {
+        if (bitmap == null) {
+            return;
+        }
+        Bitmap thumbnail = bitmap;
+        if (bitmap.getWidth() > THUMBNAIL_MAX_WIDTH) {
+            int height = Math.max(1, bitmap.getHeight() * THUMBNAIL_MAX_WIDTH / bitmap.getWidth());
+            thumbnail = Bitmap.createScaledBitmap(bitmap, THUMBNAIL_MAX_WIDTH, height, true);
+        }
+        writeJpeg(postId, thumbnail);
+        if (thumbnail != bitmap) {
+            thumbnail.recycle();
+        }
+    }
+
+    /**
+     * Store a thumbnail from encoded image bytes, decoding at reduced size
+     * so large originals never need to be held in memory at full resolution
+     */
+    public boolean putEncoded(int postId, byte[] data) {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(data, 0, data.length, bounds);
+        if (bounds.outWidth <= 0) {
+            return false;
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = calculateSampleSize(bounds.outWidth);
+        Bitmap decoded = BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        if (decoded == null) {
+            return false;
+        }
+        put(postId, decoded);
+        decoded.recycle();
+        return true;
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    private static int calculateSampleSize(int width) {
+        int sampleSize = 1;
+        while (width / (sampleSize * 2) >= THUMBNAIL_MAX_WIDTH) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    private void writeJpeg(int postId, Bitmap bitmap) {
+        try {
+            cache.put(keyFor(postId), out -> bitmap.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out));
+        } catch (IOException e) {
+            AppLog.e(TAG, "Error writing thumbnail for post " + postId + ": " + e.getMessage());
+        }
+    }
+
+    private static String keyFor(int postId) {
+        return postId + ".jpg";
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.photoviewer.utils;
+
+import android.content.Context;
+import android.util.Log;
+import com.example.photoviewer.core.trace.TraceRecorder;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the TraceRecorder ring buffer to filesDir/traces/last-<reason>.txt
+ * Called on sync failures and from the uncaught exception handler,
+ * so the events leading up to a failure survive the process
+ */
+public final class TraceDumps {
+    private static final String TAG = "TraceDumps";
+    private static final String DIR_NAME = "traces";
+
+    private TraceDumps() {}
+
+    /**
+     * @param reason Short file-name-safe label, e.g. "crash" or "sync-failure"
+     * @return The dump file, or null if it could not be written
+     */
+    public static File dumpToFile(Context context, String reason) {
+        File dir = new File(context.getApplicationContext().getFilesDir(), DIR_NAME);
+        if (!dir.exists() && !dir.mkdirs()) {
+            Log.w(TAG, "Could not create trace dump dir");
+            return null;
+        }
+        File file = new File(dir, "last-" + reason + ".txt");
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            TraceRecorder.getInstance().dump(out);
+        } catch (IOException e) {
+            Log.w(TAG, "Error writing trace dump: " + e.getMessage());
+            return null;
+        }
+        Log.w(TAG, "Trace dumped to " + file.getPath());
+        return file;
+    }
+
+    /**
+     * Install a handler that dumps the trace before the default crash handling runs
+     */
+    public static void installCrashHandler(Context context) {
+        Context appContext = context.getApplicationContext();
+        Thread.UncaughtExceptionHandler previous = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((thread, throwable) -> {
+            TraceRecorder.getInstance().record("crash", thread.getName(), String.valueOf(throwable));
+            dumpToFile(appContext, "crash");
+            if (previous != null) {
+                previous.uncaughtException(thread, throwable);
+            }
+        });
+    }
+}
@@ -0,0 +1,329 @@
+package com.example.photoviewer.views;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.AttributeSet;
+import android.util.LruCache;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
+import android.view.View;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.example.photoviewer.core.image.TileGrid;
+import com.example.photoviewer.core.image.TileGrid.Tile;
+import com.example.photoviewer.core.layout.ZoomState;
+import com.example.photoviewer.core.metrics.MetricsRegistry;
+import com.example.photoviewer.core.sched.LaneScheduler;
+import com.example.photoviewer.utils.AppLog;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Pan and pinch-zoom viewer for images of any resolution
+ * <p>
+ * The whole image is shown from one low-resolution base layer (at most the view's
+ * size); on top of it, only the tiles visible at the current zoom are decoded from
+ * the file with BitmapRegionDecoder, on the VISIBLE_IMAGE lane. Decoded tiles live in
+ * an LruCache bounded by bytes, so memory depends on the view size, not the image.
+ * Until setImageFile() has opened the full image, the preview bitmap is shown.
+ */
+public class TiledImageView extends View {
+    private static final String TAG = "TiledImageView";
+    // Photos have no alpha; half the memory of ARGB_8888 per tile
+    private static final Bitmap.Config TILE_CONFIG = Bitmap.Config.RGB_565;
+    private static final int TILE_BYTES = TileGrid.DEFAULT_TILE_SIZE * TileGrid.DEFAULT_TILE_SIZE * 2;
+
+    private final ZoomState zoom = new ZoomState();
+    private final LaneScheduler scheduler = LaneScheduler.getInstance();
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final RectF dst = new RectF();
+    private final ScaleGestureDetector scaleDetector;
+    private final GestureDetector gestureDetector;
+
+    // Main thread only
+    private final LruCache<Tile, Bitmap> tileCache = new LruCache<Tile, Bitmap>(TILE_BYTES) {
+        @Override
+        protected int sizeOf(Tile tile, Bitmap bitmap) {
+            return bitmap.getByteCount();
+        }
+    };
+    private final Set<Tile> loading = new HashSet<>();
+    // Tiles the last draw needed; queued decodes of tiles scrolled away are skipped
+    private volatile Set<Tile> wanted = Collections.emptySet();
+    // Bumped when the image changes or the view is released; late results are dropped
+    private int generation;
+    private Bitmap preview;
+    private BitmapRegionDecoder decoder;
+    private TileGrid grid;
+    private int imageWidth;
+    private int imageHeight;
+    private Bitmap base;
+    private int baseSampleSize;
+    private boolean baseLoading;
+
+    public TiledImageView(Context context) {
+        this(context, null);
+    }
+
+    public TiledImageView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        scaleDetector = new ScaleGestureDetector(context, new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+            @Override
+            public boolean onScale(@NonNull ScaleGestureDetector detector) {
+                zoom.zoomBy(detector.getScaleFactor(), detector.getFocusX(), detector.getFocusY());
+                invalidate();
+                return true;
+            }
+        });
+        gestureDetector = new GestureDetector(context, new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onDown(@NonNull MotionEvent e) {
+                return true;
+            }
+
+            @Override
+            public boolean onScroll(@Nullable MotionEvent e1, @NonNull MotionEvent e2, float dx, float dy) {
+                if (!zoom.isZoomed()) {
+                    return false;
+                }
+                zoom.panBy(-dx, -dy);
+                invalidate();
+                return true;
+            }
+
+            @Override
+            public boolean onDoubleTap(@NonNull MotionEvent e) {
+                if (zoom.isZoomed()) {
+                    zoom.reset();
+                } else {
+                    zoom.zoomBy(zoom.getMaxScale() / zoom.getScale(), e.getX(), e.getY());
+                }
+                invalidate();
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Show a bitmap (e.g. the feed thumbnail) until the full image is opened
+     */
+    public void setPreview(@Nullable Bitmap bitmap) {
+        preview = bitmap;
+        if (decoder == null && bitmap != null) {
+            setImageSize(bitmap.getWidth(), bitmap.getHeight());
+        }
+        invalidate();
+    }
+
+    /**
+     * Open a full-resolution image file for tiled display
+     * Must be called on the main thread; ignored once the view is detached
+     */
+    public void setImageFile(File file) {
+        if (!isAttachedToWindow()) {
+            return;
+        }
+        int requestGeneration = ++generation;
+        scheduler.execute(LaneScheduler.Lane.VISIBLE_IMAGE, () -> {
+            BitmapRegionDecoder opened;
+            try {
+                opened = newDecoder(file);
+            } catch (IOException e) {
+                AppLog.e(TAG, "Cannot open " + file.getName() + " for region decoding: " + e.getMessage());
+                return;
+            }
+            mainHandler.post(() -> {
+                if (requestGeneration != generation) {
+                    recycleInBackground(opened);
+                    return;
+                }
+                clearImage();
+                decoder = opened;
+                grid = new TileGrid(opened.getWidth(), opened.getHeight(), TileGrid.DEFAULT_TILE_SIZE);
+                AppLog.d(TAG, "Opened " + opened.getWidth() + "x" + opened.getHeight() + " image");
+                setImageSize(opened.getWidth(), opened.getHeight());
+                requestBase();
+                invalidate();
+            });
+        });
+    }
+
+    @SuppressWarnings("deprecation")
+    private static BitmapRegionDecoder newDecoder(File file) throws IOException {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+            return BitmapRegionDecoder.newInstance(file.getPath());
+        }
+        return BitmapRegionDecoder.newInstance(file.getPath(), false);
+    }
+
+    private void setImageSize(int width, int height) {
+        imageWidth = width;
+        imageHeight = height;
+        if (getWidth() > 0 && getHeight() > 0) {
+            zoom.setSizes(getWidth(), getHeight(), width, height);
+        }
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        if (imageWidth > 0) {
+            zoom.setSizes(w, h, imageWidth, imageHeight);
+        }
+        // Room for every tile one screen needs, twice over, so small pans hit the cache
+        long budget = 2L * TileGrid.maxVisibleTiles(w, h, TileGrid.DEFAULT_TILE_SIZE) * TILE_BYTES;
+        tileCache.resize((int) Math.max(TILE_BYTES, Math.min(budget, Runtime.getRuntime().maxMemory() / 8)));
+        requestBase();
+    }
+
+    /**
+     * Decode the whole image at a sample size that fits it in the view at half resolution
+     * or better; tiles add the detail
+     */
+    private void requestBase() {
+        if (decoder == null || base != null || baseLoading || getWidth() == 0) {
+            return;
+        }
+        baseLoading = true;
+        int sampleSize = TileGrid.sampleSizeFor(zoom.getFitScale()) * 2;
+        int requestGeneration = generation;
+        BitmapRegionDecoder source = decoder;
+        Rect whole = new Rect(0, 0, imageWidth, imageHeight);
+        scheduler.execute(LaneScheduler.Lane.VISIBLE_IMAGE, () -> {
+            Bitmap decoded = decodeRegion(source, whole, sampleSize);
+            mainHandler.post(() -> {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                baseLoading = false;
+                base = decoded;
+                baseSampleSize = sampleSize;
+                invalidate();
+            });
+        });
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+        if (!zoom.hasSizes()) {
+            return;
+        }
+        float scale = zoom.getScale();
+        float left = zoom.getTranslateX();
+        float top = zoom.getTranslateY();
+        Bitmap background = base != null ? base : preview;
+        if (background != null) {
+            dst.set(left, top, left + imageWidth * scale, top + imageHeight * scale);
+            canvas.drawBitmap(background, null, dst, paint);
+        }
+        if (grid == null || base == null) {
+            return;
+        }
+        int sampleSize = TileGrid.sampleSizeFor(scale);
+        if (sampleSize >= baseSampleSize) {
+            wanted = Collections.emptySet();
+            return;
+        }
+        float[] visible = zoom.visibleImageRect();
+        List<Tile> tiles = grid.tilesFor(visible[0], visible[1], visible[2], visible[3], sampleSize);
+        wanted = new HashSet<>(tiles);
+        for (Tile tile : tiles) {
+            Bitmap bitmap = tileCache.get(tile);
+            if (bitmap != null) {
+                dst.set(left + tile.left * scale, top + tile.top * scale,
+                    left + tile.right * scale, top + tile.bottom * scale);
+                canvas.drawBitmap(bitmap, null, dst, paint);
+            } else if (loading.add(tile)) {
+                loadTile(tile);
+            }
+        }
+    }
+
+    private void loadTile(Tile tile) {
+        int requestGeneration = generation;
+        BitmapRegionDecoder source = decoder;
+        scheduler.execute(LaneScheduler.Lane.VISIBLE_IMAGE, () -> {
+            Bitmap bitmap = null;
+            if (wanted.contains(tile)) {
+                long start = System.nanoTime();
+                bitmap = decodeRegion(source, new Rect(tile.left, tile.top, tile.right, tile.bottom), tile.sampleSize);
+                metrics.histogram("viewer.tile_decode_ms").recordSince(start);
+                metrics.counter("viewer.tiles").inc();
+            }
+            Bitmap decoded = bitmap;
+            mainHandler.post(() -> {
+                loading.remove(tile);
+                if (requestGeneration == generation && decoded != null) {
+                    tileCache.put(tile, decoded);
+                    invalidate();
+                }
+            });
+        });
+    }
+
+    private static Bitmap decodeRegion(BitmapRegionDecoder source, Rect region, int sampleSize) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize;
+        options.inPreferredConfig = TILE_CONFIG;
+        try {
+            return source.decodeRegion(region, options);
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            // Recycled because the view went away, or a region outside a truncated file
+            return null;
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        boolean handled = scaleDetector.onTouchEvent(event);
+        handled |= gestureDetector.onTouchEvent(event);
+        // Keep the dialog's ScrollView from taking over while pinching or panning a zoomed image
+        if ((zoom.isZoomed() || scaleDetector.isInProgress() || event.getPointerCount() > 1) && getParent() != null) {
+            getParent().requestDisallowInterceptTouchEvent(true);
+        }
+        return handled || super.onTouchEvent(event);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        generation++;
+        clearImage();
+        preview = null;
+    }
+
+    private void clearImage() {
+        if (decoder != null) {
+            recycleInBackground(decoder);
+            decoder = null;
+        }
+        grid = null;
+        base = null;
+        baseLoading = false;
+        loading.clear();
+        wanted = Collections.emptySet();
+        tileCache.evictAll();
+    }
+
+    private void recycleInBackground(BitmapRegionDecoder old) {
+        // Waits for a decode in progress on another thread to finish
+        scheduler.execute(LaneScheduler.Lane.VISIBLE_IMAGE, old::recycle);
+    }
+}
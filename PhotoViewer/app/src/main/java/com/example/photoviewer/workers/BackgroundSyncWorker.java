@@ -1,31 +1,44 @@
 package com.example.photoviewer.workers;
 
 import android.content.Context;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.work.Worker;
 import androidx.work.WorkerParameters;
-import com.example.photoviewer.BuildConfig;
+import com.example.photoviewer.Post;
+import com.example.photoviewer.core.feed.NewPostDetector;
+import com.example.photoviewer.core.feed.NewPostScan;
+import com.example.photoviewer.core.feed.PostRecord;
+import com.example.photoviewer.core.metrics.MetricsRegistry;
+import com.example.photoviewer.core.net.ApiClient;
+import com.example.photoviewer.core.net.ApiException;
+import com.example.photoviewer.core.net.CancelledException;
+import com.example.photoviewer.core.net.CircuitOpenException;
+import com.example.photoviewer.core.net.RequestScope;
+import com.example.photoviewer.services.ApiProvider;
 import com.example.photoviewer.services.SessionManager;
+import com.example.photoviewer.utils.AppLog;
+import com.example.photoviewer.utils.DataSaver;
 import com.example.photoviewer.utils.NotificationHelper;
+import com.example.photoviewer.utils.PostCache;
 import com.example.photoviewer.utils.SyncPreferences;
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-import java.io.BufferedReader;
+import com.example.photoviewer.utils.TraceDumps;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Background worker that periodically checks for new posts
  * Runs every 15 minutes when app is in background
+ * New post metadata is written to PostCache and their thumbnails are
+ * prefetched by ThumbnailPrefetchWorker, so tapping the notification
+ * renders the feed without waiting for the network
  */
 public class BackgroundSyncWorker extends Worker {
     private static final String TAG = "BackgroundSyncWorker";
 
+    // Closes the poll connection when WorkManager stops the run
+    private final RequestScope scope = new RequestScope();
+
     public BackgroundSyncWorker(@NonNull Context context, @NonNull WorkerParameters params) {
         super(context, params);
     }
@@ -33,14 +46,15 @@ public class BackgroundSyncWorker extends Worker {
     @NonNull
     @Override
     public Result doWork() {
-        Log.d(TAG, "BackgroundSyncWorker started");
+        AppLog.d(TAG, "BackgroundSyncWorker started");
 
         // Check if user is logged in
         if (!SessionManager.getInstance().isLoggedIn()) {
-            Log.d(TAG, "User not logged in, skipping sync");
+            AppLog.d(TAG, "User not logged in, skipping sync");
             return Result.success();
         }
 
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
         try {
             // Initialize helpers
             Context context = getApplicationContext();
@@ -48,66 +62,62 @@ public class BackgroundSyncWorker extends Worker {
             NotificationHelper notificationHelper = new NotificationHelper(context);
 
             // Fetch posts from server
-            String siteUrl = BuildConfig.API_BASE_URL;
-            URL url = new URL(siteUrl + "api_root/Post/");
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestProperty("Authorization", "Token " + SessionManager.getInstance().getToken());
-            conn.setRequestMethod("GET");
-            conn.setConnectTimeout(10000);
-            conn.setReadTimeout(10000);
-
-            int responseCode = conn.getResponseCode();
-            if (responseCode == HttpURLConnection.HTTP_OK) {
-                InputStream is = conn.getInputStream();
-                BufferedReader reader = new BufferedReader(new InputStreamReader(is));
-                StringBuilder result = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    result.append(line);
-                }
-                is.close();
-                conn.disconnect();
-
-                // Parse JSON and check for new posts
-                JSONArray aryJson = new JSONArray(result.toString());
-                int lastSeenId = syncPrefs.getLastSeenPostId();
-                int maxId = 0;
-                int newPostCount = 0;
-                String firstNewObjectName = null;
+            // Only the new posts are read in full (for the cache); older ones are skimmed.
+            // In data-saver mode only the summary list is read and nothing is cached ahead
+            boolean saveData = new DataSaver(context).isEnabled();
+            NewPostDetector detector = new NewPostDetector(syncPrefs.getLastSeenPostId()).newestFirst();
+            if (saveData) {
+                detector.summaryOnly();
+            } else {
+                detector.collectNewPosts();
+            }
+            ApiClient api = ApiProvider.get().withScope(scope);
+            NewPostScan scan = api.detectNewPosts(detector, api.getNetworkQuality().timeoutMs());
+            AppLog.d(TAG, "Sync complete: " + scan);
+            metrics.counter(scan.hasNewPosts() ? "poll.background.new_posts" : "poll.background.no_change").inc();
 
-                for (int i = 0; i < aryJson.length(); i++) {
-                    JSONObject post_json = aryJson.getJSONObject(i);
-                    int id = post_json.optInt("id", -1);
-                    if (id > maxId) {
-                        maxId = id;
-                    }
-                    if (id > lastSeenId) {
-                        newPostCount++;
-                        if (firstNewObjectName == null) {
-                            firstNewObjectName = post_json.optString("title", "");
-                        }
+            // Show notification if new posts found
+            if (scan.hasNewPosts()) {
+                AppLog.d(TAG, "New posts detected, showing notification");
+                if (!saveData) {
+                    List<Post> newPosts = new ArrayList<>();
+                    for (PostRecord record : scan.getNewPosts()) {
+                        newPosts.add(new Post(record, null));
                     }
+                    // Persist metadata before notifying so a tap finds it in the cache
+                    new PostCache(context).merge(newPosts);
+                    ThumbnailPrefetchWorker.enqueue(context);
                 }
-
-                Log.d(TAG, "Sync complete: lastSeenId=" + lastSeenId +
-                      ", maxId=" + maxId + ", newPostCount=" + newPostCount);
-
-                // Show notification if new posts found
-                if (newPostCount > 0) {
-                    Log.d(TAG, "New posts detected, showing notification");
-                    notificationHelper.showNewDetectionNotification(newPostCount, firstNewObjectName);
-                    syncPrefs.setLastSeenPostId(maxId);
-                }
-
-                return Result.success();
-            } else {
-                Log.e(TAG, "Sync failed with HTTP code: " + responseCode);
-                return Result.retry();
+                notificationHelper.showNewDetectionNotification(
+                    scan.getNewPostCount(), scan.getFirstNewTitle());
+                syncPrefs.setLastSeenPostId(scan.getMaxId());
             }
-        } catch (IOException | JSONException e) {
-            Log.e(TAG, "Error in background sync: " + e.getMessage());
+
+            return Result.success();
+        } catch (CancelledException e) {
+            AppLog.d(TAG, "Sync stopped by WorkManager");
+            return Result.retry();
+        } catch (CircuitOpenException e) {
+            // The server failed repeatedly; WorkManager's backoff spaces out the next attempt
+            metrics.counter("poll.background.short_circuited").inc();
+            AppLog.d(TAG, "Sync skipped: " + e.getMessage());
+            return Result.retry();
+        } catch (ApiException e) {
+            metrics.counter("poll.background.error").inc();
+            AppLog.e(TAG, "Sync failed with HTTP code: " + e.getCode());
+            return Result.retry();
+        } catch (IOException e) {
+            metrics.counter("poll.background.error").inc();
+            TraceDumps.dumpToFile(getApplicationContext(), "background-sync");
+            AppLog.e(TAG, "Error in background sync: " + e.getMessage());
             e.printStackTrace();
             return Result.retry();
         }
     }
+
+    @Override
+    public void onStopped() {
+        super.onStopped();
+        scope.cancel();
+    }
 }
@@ -0,0 +1,120 @@
+package com.example.photoviewer.workers;
+
+import android.content.Context;
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+import com.example.photoviewer.Post;
+import com.example.photoviewer.core.net.ApiClient;
+import com.example.photoviewer.core.net.CancelledException;
+import com.example.photoviewer.core.net.RequestScope;
+import com.example.photoviewer.services.ApiProvider;
+import com.example.photoviewer.utils.AppLog;
+import com.example.photoviewer.utils.DataSaver;
+import com.example.photoviewer.utils.ImageFormats;
+import com.example.photoviewer.utils.PostCache;
+import com.example.photoviewer.utils.ThumbnailCache;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Downloads thumbnails for cached posts that do not have one yet
+ * Scheduled by BackgroundSyncWorker; only runs on unmetered networks
+ * while the battery is not low
+ */
+public class ThumbnailPrefetchWorker extends Worker {
+    private static final String TAG = "ThumbnailPrefetchWorker";
+    private static final String UNIQUE_WORK_NAME = "ThumbnailPrefetch";
+
+    // Closes the in-flight download when WorkManager stops the run
+    private final RequestScope scope = new RequestScope();
+
+    public ThumbnailPrefetchWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Enqueue a prefetch run. If one is already pending it is kept,
+     * since every run covers all cached posts missing a thumbnail.
+     */
+    public static void enqueue(Context context) {
+        // With data saver switched on by hand, also wait for the charger
+        // (the user asked for less traffic even on unmetered networks)
+        Constraints constraints = new Constraints.Builder()
+            .setRequiredNetworkType(NetworkType.UNMETERED)
+            .setRequiresBatteryNotLow(true)
+            .setRequiresCharging(new DataSaver(context).getMode() == DataSaver.Mode.ON)
+            .build();
+
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(ThumbnailPrefetchWorker.class)
+            .setConstraints(constraints)
+            .build();
+
+        WorkManager.getInstance(context)
+            .enqueueUniqueWork(UNIQUE_WORK_NAME, ExistingWorkPolicy.KEEP, request);
+        AppLog.d(TAG, "Thumbnail prefetch enqueued");
+    }
+
+    /**
+     * Cancel a pending or running prefetch (e.g. on logout)
+     */
+    public static void cancel(Context context) {
+        WorkManager.getInstance(context).cancelUniqueWork(UNIQUE_WORK_NAME);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Context context = getApplicationContext();
+        PostCache postCache = new PostCache(context);
+        ThumbnailCache thumbnailCache = new ThumbnailCache(context);
+        ApiClient api = ApiProvider.get().withScope(scope);
+        int imageWidth = api.getNetworkQuality().imageWidthFor(
+            context.getResources().getDisplayMetrics().widthPixels);
+
+        List<Post> posts = postCache.load();
+        int fetched = 0;
+        int failed = 0;
+
+        for (Post post : posts) {
+            if (isStopped()) {
+                AppLog.d(TAG, "Prefetch stopped (constraints no longer met)");
+                return Result.retry();
+            }
+            String imageUrl = post.getImageUrl();
+            if (thumbnailCache.contains(post.getId())
+                    || imageUrl == null || imageUrl.isEmpty() || imageUrl.equals("null")) {
+                continue;
+            }
+            try {
+                byte[] data = api.fetchImage(ApiClient.imageUrlForWidth(imageUrl, imageWidth), ImageFormats.ACCEPT,
+                    api.getNetworkQuality().imageTimeoutMs());
+                if (thumbnailCache.putEncoded(post.getId(), data)) {
+                    fetched++;
+                } else {
+                    failed++;
+                }
+            } catch (CancelledException e) {
+                AppLog.d(TAG, "Prefetch stopped during a download");
+                return Result.retry();
+            } catch (IOException e) {
+                AppLog.e(TAG, "Error prefetching image for post " + post.getId() + ": " + e.getMessage());
+                failed++;
+            }
+        }
+
+        AppLog.d(TAG, "Prefetch complete: fetched=" + fetched + ", failed=" + failed);
+        return failed > 0 && fetched == 0 ? Result.retry() : Result.success();
+    }
+
+    @Override
+    public void onStopped() {
+        super.onStopped();
+        scope.cancel();
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.photoviewer;
+
+import android.graphics.Bitmap;
+import android.os.Looper;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.photoviewer.core.feed.BulkEdit;
+import com.example.photoviewer.core.layout.FeedLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLog;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Bind and layout cost of the feed: ImageAdapter in the RecyclerView of activity_main.xml,
+ * set up by FeedLayoutSetup as MainActivity does, scrolled through 10k posts in every FeedLayout.
+ * <p>
+ * Measures per layout bind time (mean and p95), bytes allocated per bind and view holders
+ * created, and RecyclerView layout passes per adapter update (a selection toggle, a
+ * search-style refresh, a layout switch). Every run writes its numbers to
+ * build/reports/render-benchmark.properties.
+ * <p>
+ * Layout passes, view holders and allocations are deterministic for a given build and are
+ * compared with the stored baseline in render-benchmark-baseline.properties; growing past
+ * a margin (see ceiling()) fails the test. Bind times depend on the machine and its load,
+ * so they are only reported, unless -PrenderBenchmark.gateTimes gates them too (on a
+ * dedicated machine). Without a baseline the test is skipped. Record one, or re-record
+ * after a deliberate change, with
+ * ./gradlew :app:testDebugUnitTest --tests '*FeedRenderBenchmark' -PrenderBenchmark.record
+ * <p>
+ * Runs under Robolectric, so times are JVM times with shadowed graphics: use them to
+ * compare builds, not to predict frame times on a phone.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, qualifiers = "w411dp-h891dp-xxhdpi")
+public class FeedRenderBenchmark {
+    private static final int POSTS = 10000;
+    // Binds are JIT-compiled and classes loaded before anything is measured
+    private static final int WARMUP_POSTS = 500;
+    // Relative to the module directory, where Gradle runs unit tests
+    private static final File BASELINE = new File("src/test/resources/render-benchmark-baseline.properties");
+    private static final double TIME_MARGIN = 0.30;
+    private static final double ALLOC_MARGIN = 0.10;
+    private static final File REPORT = new File("build/reports/render-benchmark.properties");
+
+    private AppCompatActivity activity;
+    private RecyclerView recyclerView;
+    private List<Post> posts;
+    private MeasuredAdapter adapter;
+    private int layoutPasses;
+
+    @Before
+    public void setUp() {
+        assumeTrue("Needs per-thread allocation counters (HotSpot)",
+            MeasuredAdapter.THREADS.isThreadAllocatedMemorySupported());
+        activity = Robolectric.buildActivity(AppCompatActivity.class).setup().get();
+        activity.setContentView(R.layout.activity_main);
+        recyclerView = activity.findViewById(R.id.recyclerView);
+        recyclerView.addOnLayoutChangeListener((v, left, top, right, bottom,
+                                                oldLeft, oldTop, oldRight, oldBottom) -> layoutPasses++);
+
+        Bitmap thumbnail = Bitmap.createBitmap(320, 240, Bitmap.Config.ARGB_8888);
+        posts = new ArrayList<>(POSTS);
+        for (int i = 1; i <= POSTS; i++) {
+            // Landscape, square and portrait frames, so STAGGERED cells differ in height
+            int height = 180 + (i % 3) * 120;
+            posts.add(new Post(i, "person", "person, ", "http://10.0.2.2:8000/media/" + i + ".jpg",
+                320, height, thumbnail));
+        }
+        adapter = new MeasuredAdapter(posts);
+        adapter.setSelectionListener((count, limitReached) -> { }, BulkEdit.MAX_ITEMS);
+        recyclerView.setAdapter(adapter);
+    }
+
+    @Test
+    public void testScrollAndUpdatesDoNotRegress() throws IOException {
+        Properties results = new Properties();
+        applyFeedLayout(FeedLayout.LIST);
+        scroll(WARMUP_POSTS);
+        for (FeedLayout feedLayout : FeedLayout.values()) {
+            applyFeedLayout(feedLayout);
+            recyclerView.scrollToPosition(0);
+            idle();
+            adapter.reset();
+            scroll(POSTS);
+            assertEquals(feedLayout + " scroll did not reach the last post", POSTS - 1, adapter.maxBoundPosition);
+            String prefix = feedLayout.name().toLowerCase(Locale.US) + ".";
+            results.setProperty(prefix + "bind.mean_us", Long.toString(adapter.meanMicros()));
+            results.setProperty(prefix + "bind.p95_us", Long.toString(adapter.percentileMicros(0.95)));
+            results.setProperty(prefix + "bind.alloc_bytes", Long.toString(adapter.allocatedBytes / adapter.binds));
+            results.setProperty(prefix + "viewholders.created", Integer.toString(adapter.created));
+        }
+
+        recyclerView.scrollToPosition(0);
+        idle();
+        int[] passes = new int[3];
+        // Long press starts selection mode: one notifyItemChanged
+        layoutPasses = 0;
+        assertTrue(recyclerView.getChildAt(0).performLongClick());
+        idle();
+        passes[0] = layoutPasses;
+        // A search narrowing the feed: MainActivity.applySearch replaces the list
+        layoutPasses = 0;
+        posts.subList(0, POSTS / 2).clear();
+        adapter.notifyDataSetChanged();
+        idle();
+        passes[1] = layoutPasses;
+        // New LayoutManager and cell sizes in one go
+        layoutPasses = 0;
+        applyFeedLayout(FeedLayout.GRID);
+        passes[2] = layoutPasses;
+        results.setProperty("update.layout_passes", Integer.toString(Arrays.stream(passes).max().getAsInt()));
+
+        writeReport(results);
+        assertWithinBaseline(results);
+    }
+
+    private void applyFeedLayout(FeedLayout feedLayout) {
+        FeedLayoutSetup.apply(recyclerView, adapter, feedLayout);
+        idle();
+    }
+
+    /**
+     * Scripted scroll: half a screen per frame until the given post has been bound
+     */
+    private void scroll(int untilPosts) {
+        int step = recyclerView.getHeight() / 2;
+        assertTrue("RecyclerView was not laid out", step > 0);
+        while (adapter.maxBoundPosition < untilPosts - 1 && recyclerView.canScrollVertically(1)) {
+            recyclerView.scrollBy(0, step);
+            idle();
+            // Robolectric keeps every log line; debug builds log each bind
+            ShadowLog.clear();
+        }
+    }
+
+    private static void idle() {
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    private static void writeReport(Properties results) throws IOException {
+        File dir = REPORT.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        try (OutputStream out = new FileOutputStream(REPORT)) {
+            results.store(out, "FeedRenderBenchmark, " + POSTS + " posts");
+        }
+    }
+
+    /**
+     * Every gated metric may grow over its baseline by its margin (see ceiling()); one more
+     * fails the test. With -PrenderBenchmark.record the run becomes the new baseline.
+     */
+    private static void assertWithinBaseline(Properties results) throws IOException {
+        if (Boolean.getBoolean("renderBenchmark.record")) {
+            try (OutputStream out = new FileOutputStream(BASELINE)) {
+                results.store(out, "FeedRenderBenchmark baseline (testDebugUnitTest), " + POSTS
+                    + " posts; re-record with -PrenderBenchmark.record after a deliberate change");
+            }
+            return;
+        }
+        assumeTrue("No render benchmark baseline at " + BASELINE + "; record one with "
+            + "./gradlew :app:testDebugUnitTest --tests '*FeedRenderBenchmark' -PrenderBenchmark.record",
+            BASELINE.isFile());
+        boolean gateTimes = Boolean.getBoolean("renderBenchmark.gateTimes");
+        Properties baseline = new Properties();
+        try (InputStream in = new FileInputStream(BASELINE)) {
+            baseline.load(in);
+        }
+        List<String> regressions = new ArrayList<>();
+        for (String name : results.stringPropertyNames()) {
+            if (name.endsWith("_us") && !gateTimes) {
+                continue;
+            }
+            String recorded = baseline.getProperty(name);
+            assertNotNull("No baseline for " + name + "; re-record the baseline", recorded);
+            long base = Long.parseLong(recorded.trim());
+            long limit = ceiling(name, base);
+            long value = Long.parseLong(results.getProperty(name));
+            if (value > limit) {
+                regressions.add(name + " = " + value + " (baseline " + base + ", limit " + limit + ")");
+            }
+        }
+        assertTrue("Render benchmark regressed: " + regressions, regressions.isEmpty());
+    }
+
+    /**
+     * Highest value a metric may reach before it counts as a regression:
+     * times +30% (at least 5 us; JVM timing noise between runs on one machine; only with gateTimes),
+     * allocations +10% (at least 64 bytes), view holders +2, layout passes not at all
+     */
+    static long ceiling(String metric, long baseline) {
+        if (metric.endsWith("_us")) {
+            return Math.max((long) Math.ceil(baseline * (1 + TIME_MARGIN)), baseline + 5);
+        } else if (metric.endsWith("alloc_bytes")) {
+            return Math.max((long) Math.ceil(baseline * (1 + ALLOC_MARGIN)), baseline + 64);
+        } else if (metric.endsWith("viewholders.created")) {
+            return baseline + 2;
+        }
+        return baseline;
+    }
+
+    /**
+     * ImageAdapter timing each bind and counting the bytes it allocates
+     */
+    private static final class MeasuredAdapter extends ImageAdapter {
+        static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        private long[] bindNanos = new long[1024];
+        int binds;
+        long allocatedBytes;
+        int created;
+        int maxBoundPosition = -1;
+
+        MeasuredAdapter(List<Post> posts) {
+            super(posts, post -> { });
+        }
+
+        void reset() {
+            binds = 0;
+            allocatedBytes = 0;
+            created = 0;
+            maxBoundPosition = -1;
+        }
+
+        @NonNull
+        @Override
+        public ImageViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            created++;
+            return super.onCreateViewHolder(parent, viewType);
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull ImageViewHolder holder, int position) {
+            long threadId = Thread.currentThread().getId();
+            long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            super.onBindViewHolder(holder, position);
+            long elapsed = System.nanoTime() - start;
+            allocatedBytes += THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+            if (binds == bindNanos.length) {
+                bindNanos = Arrays.copyOf(bindNanos, binds * 2);
+            }
+            bindNanos[binds++] = elapsed;
+            maxBoundPosition = Math.max(maxBoundPosition, position);
+        }
+
+        long meanMicros() {
+            long sum = 0;
+            for (int i = 0; i < binds; i++) {
+                sum += bindNanos[i];
+            }
+            return binds == 0 ? 0 : sum / binds / 1000;
+        }
+
+        long percentileMicros(double quantile) {
+            if (binds == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(bindNanos, binds);
+            Arrays.sort(sorted);
+            return sorted[Math.min(binds - 1, (int) (quantile * binds))] / 1000;
+        }
+    }
+}
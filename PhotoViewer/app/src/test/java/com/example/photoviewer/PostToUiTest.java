@@ -0,0 +1,55 @@
+package com.example.photoviewer;
+
+import android.app.Activity;
+import android.os.Handler;
+import android.os.Looper;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * MainActivity.postToUi, the path every background result (upload, edit, delete,
+ * bulk edit, full image, new-post check) takes back to the UI
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class PostToUiTest {
+
+    @Test
+    public void testResultFromWorkerRunsOnMainThread() throws InterruptedException {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        Handler handler = new Handler(Looper.getMainLooper());
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+
+        Thread worker = new Thread(() -> MainActivity.postToUi(handler, activity,
+            () -> ranOn.set(Thread.currentThread())));
+        worker.start();
+        worker.join();
+        assertNull("Ran before the main looper got to it", ranOn.get());
+
+        shadowOf(Looper.getMainLooper()).idle();
+        assertSame(Looper.getMainLooper().getThread(), ranOn.get());
+    }
+
+    @Test
+    public void testResultForDestroyedActivityIsDropped() {
+        ActivityController<Activity> controller = Robolectric.buildActivity(Activity.class).setup();
+        Handler handler = new Handler(Looper.getMainLooper());
+        AtomicInteger runs = new AtomicInteger();
+
+        MainActivity.postToUi(handler, controller.get(), runs::incrementAndGet);
+        controller.pause().stop().destroy();
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(0, runs.get());
+    }
+}
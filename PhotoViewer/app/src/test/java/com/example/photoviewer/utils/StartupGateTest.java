@@ -0,0 +1,111 @@
+package com.example.photoviewer.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Startup timing tests for the splash readiness gate.
+ * The old splash always waited a fixed 2000 ms before routing.
+ */
+public class StartupGateTest {
+    private static final long OLD_SPLASH_DURATION_MS = 2000;
+
+    private ExecutorService workers;
+
+    @Before
+    public void setUp() {
+        workers = Executors.newFixedThreadPool(3);
+    }
+
+    @After
+    public void tearDown() {
+        workers.shutdownNow();
+    }
+
+    @Test
+    public void testReadyAsSoonAsValidationCompletes() throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(1);
+        AtomicLong readyAt = new AtomicLong();
+        long start = System.nanoTime();
+
+        new StartupGate(workers, Runnable::run).start(
+            () -> {
+                Thread.sleep(50); // session check
+                return true;
+            },
+            Arrays.asList(
+                () -> sleep(3000), // slow connection warm-up
+                () -> sleep(3000)  // slow cache load
+            ),
+            loggedIn -> {
+                readyAt.set(System.nanoTime());
+                ready.countDown();
+            }
+        );
+
+        assertTrue("Gate should open without waiting for warm-ups", ready.await(1, TimeUnit.SECONDS));
+        long timeToInteractiveMs = TimeUnit.NANOSECONDS.toMillis(readyAt.get() - start);
+        assertTrue("Time to interactive (" + timeToInteractiveMs + "ms) should beat the fixed splash",
+            timeToInteractiveMs < OLD_SPLASH_DURATION_MS / 4);
+    }
+
+    @Test
+    public void testReportsValidationResult() throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(1);
+        AtomicBoolean result = new AtomicBoolean(true);
+
+        new StartupGate(workers, Runnable::run).start(
+            () -> false,
+            Collections.emptyList(),
+            loggedIn -> {
+                result.set(loggedIn);
+                ready.countDown();
+            }
+        );
+
+        assertTrue(ready.await(1, TimeUnit.SECONDS));
+        assertFalse("Logged-out result should route to login", result.get());
+    }
+
+    @Test
+    public void testValidationFailureRoutesToLogin() throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(1);
+        AtomicBoolean result = new AtomicBoolean(true);
+
+        new StartupGate(workers, Runnable::run).start(
+            () -> {
+                throw new IllegalStateException("store unavailable");
+            },
+            Collections.singletonList(() -> {
+                throw new RuntimeException("warm-up failed");
+            }),
+            loggedIn -> {
+                result.set(loggedIn);
+                ready.countDown();
+            }
+        );
+
+        assertTrue(ready.await(1, TimeUnit.SECONDS));
+        assertFalse(result.get());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
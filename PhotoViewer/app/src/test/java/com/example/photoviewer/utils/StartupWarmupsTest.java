@@ -0,0 +1,72 @@
+package com.example.photoviewer.utils;
+
+import android.content.Context;
+
+import com.example.photoviewer.Post;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * The splash screen's cached-feed preload holds decoded thumbnails in a static field;
+ * it must only be kept while MainActivity can still take it
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class StartupWarmupsTest {
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        // Known image size, so the post is preloaded without a cached thumbnail
+        new PostCache(context).save(Collections.singletonList(
+            new Post(1, "person", "person, ", "http://10.0.2.2:8000/media/1.jpg", 320, 240, null)));
+    }
+
+    @After
+    public void tearDown() {
+        StartupWarmups.clear();
+        new PostCache(context).clear();
+    }
+
+    @Test
+    public void testPreloadIsHandedOverOnce() {
+        StartupWarmups.expectPreloadedFeed();
+        StartupWarmups.preloadCachedFeed(context);
+
+        List<Post> posts = StartupWarmups.takePreloadedFeed();
+        assertNotNull(posts);
+        assertEquals(1, posts.size());
+        assertNull(StartupWarmups.takePreloadedFeed());
+    }
+
+    @Test
+    public void testPreloadFinishingAfterMainActivityStartedIsDropped() {
+        StartupWarmups.expectPreloadedFeed();
+        // MainActivity loaded the cache itself
+        assertNull(StartupWarmups.takePreloadedFeed());
+        StartupWarmups.preloadCachedFeed(context);
+
+        assertNull(StartupWarmups.takePreloadedFeed());
+    }
+
+    @Test
+    public void testPreloadForLoginRouteIsDropped() {
+        StartupWarmups.expectPreloadedFeed();
+        StartupWarmups.discardPreloadedFeed();
+        StartupWarmups.preloadCachedFeed(context);
+
+        assertNull(StartupWarmups.takePreloadedFeed());
+    }
+}
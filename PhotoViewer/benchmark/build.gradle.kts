@@ -0,0 +1,52 @@
+// JMH benchmarks for the :core hot paths. Runs on any JVM host, no emulator needed:
+//   ./gradlew :benchmark:jmh
+// Results are written to benchmark/build/results/jmh/results.json
+//
+// The loadtest source set is a load test of the client's sync against a local stand-in
+// server (see LoadTest):
+//   ./gradlew :benchmark:loadTest [--args="posts=50000 latencyMs=80 ..."]
+// Results are written to benchmark/build/results/loadtest/results.json
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// Sources and tests hold Korean text; javac would otherwise use the platform encoding
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+sourceSets {
+    create("loadtest")
+}
+
+dependencies {
+    "loadtestImplementation"(project(":core"))
+    jmhImplementation(project(":core"))
+    // Stand-in for Android's org.json, to benchmark the legacy JSONObject-based loops
+    jmhImplementation(libs.org.json)
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh.get())
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    resultFormat.set("JSON")
+    // Narrow a run with e.g. -PjmhInclude=FeedParsing
+    (project.findProperty("jmhInclude") as String?)?.let { includes.set(listOf(it)) }
+}
+
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Syncs against a local stand-in server for each load scenario and reports the results"
+    classpath = sourceSets["loadtest"].runtimeClasspath
+    mainClass.set("com.example.photoviewer.loadtest.LoadTest")
+    // Roughly a mid-range phone's per-app heap limit
+    maxHeapSize = "512m"
+}
@@ -0,0 +1,64 @@
+package com.example.photoviewer.benchmark;
+
+import com.example.photoviewer.core.cache.SizeBoundedFileCache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thumbnail cache writes once the cache is full, so every put evicts
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CacheEvictionBenchmark {
+
+    @Param({"100", "1000"})
+    public int entriesInBudget;
+
+    private static final int ENTRY_BYTES = 16 * 1024;
+
+    private File dir;
+    private SizeBoundedFileCache cache;
+    private byte[] thumbnail;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("thumbnail-cache-bench").toFile();
+        cache = new SizeBoundedFileCache(dir, (long) entriesInBudget * ENTRY_BYTES);
+        thumbnail = FeedFixtures.imageBytes(ENTRY_BYTES);
+        // Fill to the budget so the measured puts all evict
+        for (next = 0; next < entriesInBudget; next++) {
+            put(next);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cache.clear();
+        dir.delete();
+    }
+
+    @Benchmark
+    public File putWithEviction() throws IOException {
+        return put(next++);
+    }
+
+    private File put(int key) throws IOException {
+        return cache.put(key + ".jpg", out -> out.write(thumbnail));
+    }
+}
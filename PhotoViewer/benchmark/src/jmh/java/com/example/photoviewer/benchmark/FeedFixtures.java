@@ -0,0 +1,123 @@
+package com.example.photoviewer.benchmark;
+
+import com.example.photoviewer.core.feed.PostRecord;
+import com.example.photoviewer.core.image.DHash;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic api_root/Post/ payloads shaped like PhotoBlogServer output
+ * (PostSerializer fields, changedetection.py style titles)
+ */
+final class FeedFixtures {
+    private static final String[] TITLES = {"person", "car", "dog", "bicycle", "사람", "자동차"};
+
+    private FeedFixtures() {}
+
+    static byte[] feedJson(int posts) {
+        return feedJson(posts, false);
+    }
+
+    /**
+     * @param newestFirst Order by id descending, as ?ordering=-id returns it
+     */
+    static byte[] feedJson(int posts, boolean newestFirst) {
+        StringBuilder sb = new StringBuilder(posts * 260);
+        sb.append('[');
+        for (int n = 1; n <= posts; n++) {
+            int i = newestFirst ? posts - n + 1 : n;
+            if (n > 1) {
+                sb.append(',');
+            }
+            String title = TITLES[i % TITLES.length];
+            sb.append("{\"id\":").append(i)
+              .append(",\"author\":1")
+              .append(",\"title\":\"").append(title).append('"')
+              .append(",\"text\":\"").append(title).append(", \"")
+              .append(",\"created_date\":\"2025-11-02T17:57:04.123456+09:00\"")
+              .append(",\"published_date\":\"2025-11-02T17:57:04.123456+09:00\"")
+              .append(",\"image\":\"https://mouseku.pythonanywhere.com/media/blog_image/2025/11/02/")
+              .append(i).append("-17-57-4-123456.jpg\"")
+              .append(",\"image_dhash\":\"").append(DHash.toHex(i * 0x9e3779b97f4a7c15L)).append("\"}");
+        }
+        sb.append(']');
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static List<PostRecord> records(int posts) {
+        List<PostRecord> records = new ArrayList<>(posts);
+        for (int i = 1; i <= posts; i++) {
+            String title = TITLES[i % TITLES.length];
+            records.add(new PostRecord(i, title, title + ", ",
+                    "https://mouseku.pythonanywhere.com/media/blog_image/2025/11/02/" + i + ".jpg"));
+        }
+        return records;
+    }
+
+    /**
+     * Detection feed: bursts of near-identical frames (a few bits apart, a few seconds
+     * apart), then a different scene
+     */
+    static List<PostRecord> detectionBursts(int posts, int burstLength) {
+        Random random = new Random(7);
+        List<PostRecord> records = new ArrayList<>(posts);
+        long scene = random.nextLong();
+        long time = 1762073824000L;
+        for (int i = 1; i <= posts; i++) {
+            if (i % burstLength == 1) {
+                scene = random.nextLong();
+                time += 10 * 60 * 1000;
+            }
+            long frame = scene ^ (1L << random.nextInt(64)) ^ (1L << random.nextInt(64));
+            time += 3000;
+            records.add(new PostRecord(i, "person", "person, ", "https://x/" + i + ".jpg", time, frame, true));
+        }
+        return records;
+    }
+
+    /**
+     * Title/text pairs for search: detector labels in English and Korean, free-form
+     * Korean captions with particles, and camera names
+     */
+    static String[][] captions(int posts) {
+        String[] korean = {"사람이", "고양이가", "강아지", "자동차를", "택배", "현관에서", "주차장", "마당"};
+        String[] words = {"front", "door", "garden", "garage", "night", "motion", "delivery", "visitor"};
+        Random random = new Random(11);
+        String[][] captions = new String[posts][];
+        for (int i = 0; i < posts; i++) {
+            String title = TITLES[random.nextInt(TITLES.length)] + " "
+                    + korean[random.nextInt(korean.length)] + " 감지됨";
+            String text = words[random.nextInt(words.length)] + " camera " + (i % 16) + ", "
+                    + korean[random.nextInt(korean.length)] + " " + words[random.nextInt(words.length)];
+            captions[i] = new String[]{title, text};
+        }
+        return captions;
+    }
+
+    /**
+     * ARGB frame like the detector's uploads: gradient background plus noise
+     */
+    static int[] frame(int width, int height) {
+        Random random = new Random(3);
+        int[] argb = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int v = Math.min(255, (x * 200) / width + random.nextInt(40));
+                argb[y * width + x] = 0xff000000 | (v << 16) | ((v * 3 / 4) << 8) | (v / 2);
+            }
+        }
+        return argb;
+    }
+
+    /**
+     * Incompressible bytes standing in for an encoded photo
+     */
+    static byte[] imageBytes(int size) {
+        byte[] data = new byte[size];
+        new Random(42).nextBytes(data);
+        return data;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.photoviewer.benchmark;
+
+import com.example.photoviewer.core.feed.FeedParser;
+import com.example.photoviewer.core.feed.PostRecord;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing the full api_root/Post/ response into PostRecords
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FeedParsingBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int posts;
+
+    private byte[] json;
+
+    @Setup
+    public void setUp() {
+        json = FeedFixtures.feedJson(posts);
+    }
+
+    @Benchmark
+    public List<PostRecord> parseFeed() throws IOException {
+        return FeedParser.parse(new ByteArrayInputStream(json));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.photoviewer.benchmark;
+
+import com.example.photoviewer.core.feed.NearDuplicateFilter;
+import com.example.photoviewer.core.feed.PostRecord;
+import com.example.photoviewer.core.image.ContentHash;
+import com.example.photoviewer.core.image.DHash;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Near-duplicate detection costs: dHash of a full frame (the fallback when the server
+ * sends no image_dhash; the app normally scales to 9x8 natively first), SHA-256 of the
+ * encoded frame for comparison, and collapsing a feed of detection bursts
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ImageHashBenchmark {
+
+    // 320x240 is what changedetection.py uploads
+    @Param({"320x240", "1280x960"})
+    public String frameSize;
+
+    private int width;
+    private int height;
+    private int[] frame;
+    private int[] scaled;
+    private byte[] encoded;
+    private List<PostRecord> feed;
+
+    @Setup
+    public void setUp() {
+        String[] parts = frameSize.split("x");
+        width = Integer.parseInt(parts[0]);
+        height = Integer.parseInt(parts[1]);
+        frame = FeedFixtures.frame(width, height);
+        scaled = FeedFixtures.frame(DHash.WIDTH, DHash.HEIGHT);
+        // Roughly a JPEG of the frame at quality 85
+        encoded = FeedFixtures.imageBytes(width * height / 4);
+        feed = FeedFixtures.detectionBursts(1000, 20);
+    }
+
+    @Benchmark
+    public long dhashFullFrame() {
+        return DHash.compute(frame, width, height);
+    }
+
+    @Benchmark
+    public long dhashScaled() {
+        return DHash.compute(scaled, DHash.WIDTH, DHash.HEIGHT);
+    }
+
+    @Benchmark
+    public String sha256Encoded() {
+        return ContentHash.sha256(encoded).getHex();
+    }
+
+    @Benchmark
+    public int collapseBursts1000() {
+        return new NearDuplicateFilter().filter(feed).size();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.photoviewer.benchmark;
+
+import com.example.photoviewer.core.net.MultipartWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Multipart body encoding for uploads. Throughput in MB/s is
+ * imageKb / 1024 divided by the reported seconds per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MultipartEncodingBenchmark {
+
+    @Param({"64", "1024", "8192"})
+    public int imageKb;
+
+    private byte[] image;
+
+    @Setup
+    public void setUp() {
+        image = FeedFixtures.imageBytes(imageKb * 1024);
+    }
+
+    @Benchmark
+    public long encodeUpload() throws IOException {
+        MultipartWriter writer = new MultipartWriter(OutputStream.nullOutputStream(), "===boundary===bench===");
+        writer.addField("title", "person");
+        writer.addField("text", "person, 사람, ");
+        writer.addFile("image", "17-57-4-123456.jpg", "image/jpeg", new ByteArrayInputStream(image));
+        writer.finish();
+        return writer.getBytesWritten();
+    }
+}
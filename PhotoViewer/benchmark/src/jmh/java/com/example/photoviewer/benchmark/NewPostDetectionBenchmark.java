@@ -0,0 +1,101 @@
+package com.example.photoviewer.benchmark;
+
+import com.example.photoviewer.core.feed.FeedParser;
+import com.example.photoviewer.core.feed.NewPostDetector;
+import com.example.photoviewer.core.feed.NewPostScan;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Poll-time new-post detection from the raw response bytes (10 new posts):
+ * the original readLine + JSONArray loop, parse-then-scan, and the streaming
+ * detector over the default order and over ?ordering=-id with early stop
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NewPostDetectionBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int posts;
+
+    private byte[] ascending;
+    private byte[] newestFirst;
+    private int lastSeenId;
+
+    @Setup
+    public void setUp() {
+        ascending = FeedFixtures.feedJson(posts, false);
+        newestFirst = FeedFixtures.feedJson(posts, true);
+        lastSeenId = posts - 10;
+    }
+
+    /**
+     * The loop MainActivity.checkForNewPosts and BackgroundSyncWorker used before :core
+     */
+    @Benchmark
+    public int legacyJsonArrayLoop() throws IOException, JSONException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(ascending)));
+        StringBuilder result = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            result.append(line);
+        }
+        JSONArray aryJson = new JSONArray(result.toString());
+        int maxId = 0;
+        int newPostCount = 0;
+        String firstNewObjectName = null;
+        for (int i = 0; i < aryJson.length(); i++) {
+            JSONObject post_json = aryJson.getJSONObject(i);
+            int id = post_json.optInt("id", -1);
+            if (id > maxId) {
+                maxId = id;
+            }
+            if (id > lastSeenId) {
+                newPostCount++;
+                if (firstNewObjectName == null) {
+                    firstNewObjectName = post_json.optString("title", "");
+                }
+            }
+        }
+        return maxId + newPostCount + (firstNewObjectName != null ? 1 : 0);
+    }
+
+    @Benchmark
+    public NewPostScan parseThenScan() throws IOException {
+        return NewPostScan.scan(FeedParser.parse(new ByteArrayInputStream(ascending)), lastSeenId);
+    }
+
+    @Benchmark
+    public NewPostScan detectFullScan() throws IOException {
+        return new NewPostDetector(lastSeenId).detect(new ByteArrayInputStream(ascending));
+    }
+
+    @Benchmark
+    public NewPostScan detectNewestFirst() throws IOException {
+        return new NewPostDetector(lastSeenId).newestFirst().detect(new ByteArrayInputStream(newestFirst));
+    }
+
+    @Benchmark
+    public NewPostScan detectNewestFirstCollecting() throws IOException {
+        return new NewPostDetector(lastSeenId).newestFirst().collectNewPosts()
+                .detect(new ByteArrayInputStream(newestFirst));
+    }
+}
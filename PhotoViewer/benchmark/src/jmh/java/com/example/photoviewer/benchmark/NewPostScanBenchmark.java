@@ -0,0 +1,42 @@
+package com.example.photoviewer.benchmark;
+
+import com.example.photoviewer.core.feed.NewPostScan;
+import com.example.photoviewer.core.feed.PostRecord;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comparing a parsed feed against the last seen id (10 new posts at the end)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NewPostScanBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int posts;
+
+    private List<PostRecord> records;
+    private int lastSeenId;
+
+    @Setup
+    public void setUp() {
+        records = FeedFixtures.records(posts);
+        lastSeenId = posts - 10;
+    }
+
+    @Benchmark
+    public NewPostScan scan() {
+        return NewPostScan.scan(records, lastSeenId);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.photoviewer.benchmark;
+
+import com.example.photoviewer.core.search.PostIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local search: building the index from a full feed (done on the sync lane), a
+ * re-sync where nothing changed, and per-keystroke queries (done on the main thread,
+ * so these must stay well under a frame)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchIndexBenchmark {
+
+    @Param({"10000", "50000"})
+    public int posts;
+
+    private String[][] captions;
+    private PostIndex index;
+
+    @Setup
+    public void setUp() {
+        captions = FeedFixtures.captions(posts);
+        index = build();
+    }
+
+    private PostIndex build() {
+        PostIndex built = new PostIndex();
+        for (int i = 0; i < captions.length; i++) {
+            built.add(i + 1, captions[i][0], captions[i][1]);
+        }
+        return built;
+    }
+
+    @Benchmark
+    public int buildIndex() {
+        return build().size();
+    }
+
+    @Benchmark
+    public int resyncUnchanged() {
+        for (int i = 0; i < captions.length; i++) {
+            index.add(i + 1, captions[i][0], captions[i][1]);
+        }
+        return index.size();
+    }
+
+    @Benchmark
+    public int querySingleSyllable() {
+        return index.search("고").length;
+    }
+
+    @Benchmark
+    public int queryKoreanWord() {
+        return index.search("고양이").length;
+    }
+
+    @Benchmark
+    public int queryLatinPrefix() {
+        return index.search("ga").length;
+    }
+
+    @Benchmark
+    public int queryMixedTerms() {
+        return index.search("사람 front camera").length;
+    }
+}
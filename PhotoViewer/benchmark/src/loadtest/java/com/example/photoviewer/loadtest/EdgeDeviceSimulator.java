@@ -0,0 +1,69 @@
+package com.example.photoviewer.loadtest;
+
+import com.example.photoviewer.core.metrics.MetricsRegistry;
+import com.example.photoviewer.core.net.ApiClient;
+import com.example.photoviewer.core.net.ApiResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Edge devices running changedetection.py: each posts a new detection frame at its
+ * share of the scenario's upload rate, with its own client (and so its own retry
+ * policy and connections). Counts device.uploads and device.upload_failures.
+ */
+final class EdgeDeviceSimulator implements AutoCloseable {
+    private static final String TOKEN = "device-token";
+
+    private final ScheduledExecutorService devices;
+    private final AtomicInteger frames = new AtomicInteger();
+
+    private EdgeDeviceSimulator(int count) {
+        AtomicInteger threads = new AtomicInteger();
+        devices = Executors.newScheduledThreadPool(count, r -> {
+            Thread thread = new Thread(r, "edge-device-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    static EdgeDeviceSimulator start(String baseUrl, LoadScenario scenario, MetricsRegistry metrics) {
+        EdgeDeviceSimulator simulator = new EdgeDeviceSimulator(scenario.devices);
+        if (scenario.uploadsPerSecond <= 0) {
+            return simulator;
+        }
+        long periodMicros = (long) (scenario.devices * 1_000_000L / scenario.uploadsPerSecond);
+        for (int d = 0; d < scenario.devices; d++) {
+            ApiClient device = new ApiClient(baseUrl, () -> TOKEN, metrics);
+            // Devices start spread over one period, not all at once
+            long initialDelay = periodMicros * d / scenario.devices;
+            simulator.devices.scheduleAtFixedRate(() -> simulator.upload(device, scenario, metrics),
+                    initialDelay, periodMicros, TimeUnit.MICROSECONDS);
+        }
+        return simulator;
+    }
+
+    private void upload(ApiClient device, LoadScenario scenario, MetricsRegistry metrics) {
+        // Every frame differs, so the by-hash attempt misses and the frame is uploaded
+        byte[] frame = new byte[scenario.uploadBytes];
+        new Random(frames.incrementAndGet()).nextBytes(frame);
+        try {
+            ApiResponse response = device.createPostDeduplicated("person", "person, ", "frame.jpg", "image/jpeg",
+                    () -> new ByteArrayInputStream(frame), 10000);
+            metrics.counter(response.isSuccessful() ? "device.uploads" : "device.upload_failures").inc();
+        } catch (IOException e) {
+            metrics.counter("device.upload_failures").inc();
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        devices.shutdown();
+        devices.awaitTermination(30, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.photoviewer.loadtest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * One load-test run: what the stand-in server serves and how busy the edge devices are.
+ * Parsed from "key=value" arguments, e.g. {@code posts=50000 imageKb=120 latencyMs=80 errorRate=0.02}
+ */
+final class LoadScenario {
+    final String name;
+    /** Posts in the feed before the run starts */
+    final int posts;
+    /** Size of every media response */
+    final int imageBytes;
+    /** Delay before every response; each request adds up to half of it again as jitter */
+    final int latencyMs;
+    /** Share of requests answered with 503 */
+    final double errorRate;
+    /** Uploads per second across all devices, changedetection.py style (by-hash, then multipart) */
+    final double uploadsPerSecond;
+    final int devices;
+    /** Size of each uploaded frame (changedetection.py sends 320x240 JPEGs) */
+    final int uploadBytes;
+    /** Images downloaded by the sync, in feed order; -1 for all of them, as the app does */
+    final int syncImages;
+    /** How long the viewer polls for new posts while the devices upload */
+    final int durationSeconds;
+    final int pollIntervalMs;
+
+    private LoadScenario(Builder b) {
+        name = b.name;
+        posts = b.posts;
+        imageBytes = b.imageBytes;
+        latencyMs = b.latencyMs;
+        errorRate = b.errorRate;
+        uploadsPerSecond = b.uploadsPerSecond;
+        devices = b.devices;
+        uploadBytes = b.uploadBytes;
+        syncImages = b.syncImages;
+        durationSeconds = b.durationSeconds;
+        pollIntervalMs = b.pollIntervalMs;
+    }
+
+    /**
+     * Feeds of production size, a slow flaky network, and busy edge devices
+     */
+    static List<LoadScenario> defaultSuite() {
+        return Arrays.asList(
+                new Builder("feed-1k").posts(1000).build(),
+                new Builder("feed-10k").posts(10000).build(),
+                new Builder("feed-100k").posts(100000).build(),
+                new Builder("flaky-10k").posts(10000).latencyMs(150).errorRate(0.05).build(),
+                new Builder("busy-devices-10k").posts(10000).devices(8).uploadsPerSecond(20)
+                        .durationSeconds(20).build());
+    }
+
+    /**
+     * @param args "key=value" pairs; keys are the builder's method names (imageKb and
+     *             uploadKb take kilobytes)
+     */
+    static LoadScenario parse(String[] args) {
+        Builder b = new Builder("custom");
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected key=value: " + arg);
+            }
+            String key = arg.substring(0, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "name": b.name = value; break;
+                case "posts": b.posts(Integer.parseInt(value)); break;
+                case "imageKb": b.imageBytes(Integer.parseInt(value) * 1024); break;
+                case "latencyMs": b.latencyMs(Integer.parseInt(value)); break;
+                case "errorRate": b.errorRate(Double.parseDouble(value)); break;
+                case "uploadsPerSecond": b.uploadsPerSecond(Double.parseDouble(value)); break;
+                case "devices": b.devices(Integer.parseInt(value)); break;
+                case "uploadKb": b.uploadBytes(Integer.parseInt(value) * 1024); break;
+                case "syncImages": b.syncImages(Integer.parseInt(value)); break;
+                case "durationSeconds": b.durationSeconds(Integer.parseInt(value)); break;
+                case "pollIntervalMs": b.pollIntervalMs(Integer.parseInt(value)); break;
+                default: throw new IllegalArgumentException("Unknown scenario parameter: " + key);
+            }
+        }
+        return b.build();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "%s: posts=%d image=%dKB latency=%dms errors=%.0f%% uploads=%.1f/s devices=%d syncImages=%d duration=%ds",
+                name, posts, imageBytes / 1024, latencyMs, errorRate * 100, uploadsPerSecond, devices,
+                syncImages, durationSeconds);
+    }
+
+    static final class Builder {
+        private String name;
+        private int posts = 1000;
+        private int imageBytes = 30 * 1024;
+        private int latencyMs;
+        private double errorRate;
+        private double uploadsPerSecond;
+        private int devices = 1;
+        private int uploadBytes = 16 * 1024;
+        private int syncImages = 300;
+        private int durationSeconds;
+        private int pollIntervalMs = 2000;
+
+        Builder(String name) {
+            this.name = name;
+        }
+
+        Builder posts(int posts) {
+            this.posts = posts;
+            return this;
+        }
+
+        Builder imageBytes(int imageBytes) {
+            this.imageBytes = imageBytes;
+            return this;
+        }
+
+        Builder latencyMs(int latencyMs) {
+            this.latencyMs = latencyMs;
+            return this;
+        }
+
+        Builder errorRate(double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        Builder uploadsPerSecond(double uploadsPerSecond) {
+            this.uploadsPerSecond = uploadsPerSecond;
+            return this;
+        }
+
+        Builder devices(int devices) {
+            this.devices = devices;
+            return this;
+        }
+
+        Builder uploadBytes(int uploadBytes) {
+            this.uploadBytes = uploadBytes;
+            return this;
+        }
+
+        Builder syncImages(int syncImages) {
+            this.syncImages = syncImages;
+            return this;
+        }
+
+        Builder durationSeconds(int durationSeconds) {
+            this.durationSeconds = durationSeconds;
+            return this;
+        }
+
+        Builder pollIntervalMs(int pollIntervalMs) {
+            this.pollIntervalMs = pollIntervalMs;
+            return this;
+        }
+
+        LoadScenario build() {
+            if (posts < 0 || imageBytes < 4 || devices < 1 || pollIntervalMs < 1
+                    || errorRate < 0 || errorRate >= 1 || uploadsPerSecond < 0) {
+                throw new IllegalArgumentException("Invalid scenario " + name);
+            }
+            // Uploads with nobody polling for them would measure nothing
+            if (uploadsPerSecond > 0 && durationSeconds == 0) {
+                durationSeconds = 15;
+            }
+            return new LoadScenario(this);
+        }
+    }
+}
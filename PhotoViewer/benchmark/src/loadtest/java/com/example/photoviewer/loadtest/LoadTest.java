@@ -0,0 +1,276 @@
+package com.example.photoviewer.loadtest;
+
+import com.example.photoviewer.core.feed.NewPostDetector;
+import com.example.photoviewer.core.feed.NewPostScan;
+import com.example.photoviewer.core.feed.PostRecord;
+import com.example.photoviewer.core.image.ImageFormat;
+import com.example.photoviewer.core.metrics.MetricsRegistry;
+import com.example.photoviewer.core.net.ApiClient;
+import com.example.photoviewer.core.sched.LaneScheduler;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.ref.Reference;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Load test of the viewer's sync against a local stand-in server:
+ * <pre>
+ *   ./gradlew :benchmark:loadTest                         # default suite (1k-100k posts, flaky, busy devices)
+ *   ./gradlew :benchmark:loadTest --args="posts=50000 imageKb=120 latencyMs=80 errorRate=0.02 uploadsPerSecond=5"
+ * </pre>
+ * Each scenario runs the sync the way FeedViewModel does (full feed, then images in feed
+ * order with as many downloads in flight as the network estimate allows), then polls
+ * newest-first for new posts while {@link EdgeDeviceSimulator} uploads.
+ * Reports sync time, heap (peak during the sync and retained after it, both above the
+ * idle baseline, server included since it shares the JVM) and request counts per scenario,
+ * and writes every scenario's metrics to build/results/loadtest/results.json.
+ */
+public final class LoadTest {
+    private static final String TOKEN = "viewer-token";
+    private static final int DISPLAY_WIDTH_PX = 1080;
+    // What ImageFormats.ACCEPT sends on a device without AVIF decoding
+    private static final String ACCEPT =
+            ImageFormat.acceptHeader(EnumSet.of(ImageFormat.WEBP, ImageFormat.JPEG, ImageFormat.PNG));
+    private static final String[] CLIENT_ENDPOINTS = {"posts.list", "media", "posts.poll"};
+    private static final String[] SERVER_ROUTES = {"root", "posts", "by_hash", "media"};
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        List<LoadScenario> scenarios = new ArrayList<>();
+        if (args.length == 0) {
+            scenarios.addAll(LoadScenario.defaultSuite());
+        } else {
+            scenarios.add(LoadScenario.parse(args));
+        }
+
+        Map<LoadScenario, MetricsRegistry> results = new LinkedHashMap<>();
+        for (LoadScenario scenario : scenarios) {
+            System.out.println("Running " + scenario);
+            results.put(scenario, run(scenario));
+        }
+
+        System.out.println();
+        System.out.println(String.format(Locale.US, "%-18s %9s %9s %7s %8s %8s %8s %8s %8s %6s %8s %7s",
+                "scenario", "sync_ms", "feed_ms", "images", "peak_MB", "kept_MB", "client", "retries",
+                "server", "503s", "uploads", "missed"));
+        boolean failed = false;
+        for (Map.Entry<LoadScenario, MetricsRegistry> e : results.entrySet()) {
+            MetricsRegistry m = e.getValue();
+            System.out.println(String.format(Locale.US, "%-18s %9d %9d %7d %8.1f %8.1f %8d %8d %8d %6d %8d %7d",
+                    e.getKey().name,
+                    m.histogram("loadtest.sync_ms").getMax(),
+                    m.histogram("feed.fetch_ms").getMax() + m.histogram("feed.parse_ms").getMax(),
+                    m.counter("loadtest.images").get(),
+                    m.counter("loadtest.heap_peak_kb").get() / 1024.0,
+                    m.counter("loadtest.heap_retained_kb").get() / 1024.0,
+                    sum(m, "http.", CLIENT_ENDPOINTS, ".requests"),
+                    sum(m, "http.", CLIENT_ENDPOINTS, ".retries"),
+                    sum(m, "server.requests.", SERVER_ROUTES, ""),
+                    m.counter("server.errors_injected").get(),
+                    m.counter("device.uploads").get(),
+                    m.counter("loadtest.posts_missed").get()));
+            failed |= m.counter("loadtest.sync_failures").get() > 0;
+        }
+        writeResults(results);
+        if (failed) {
+            System.err.println("At least one sync failed; see loadtest.sync_failures in the results");
+            System.exit(1);
+        }
+    }
+
+    private static MetricsRegistry run(LoadScenario scenario) throws Exception {
+        MetricsRegistry metrics = new MetricsRegistry();
+        try (StandInServer server = StandInServer.start(scenario, metrics)) {
+            ApiClient api = new ApiClient(server.getBaseUrl(), () -> TOKEN, metrics);
+            int lastSeenId = sync(api, scenario, metrics);
+            lastSeenId = pollWhileUploading(api, server, scenario, metrics, lastSeenId);
+            metrics.counter("loadtest.posts_missed").add(server.getMaxId() - lastSeenId);
+        }
+        return metrics;
+    }
+
+    /**
+     * @return Highest post id in the synced feed
+     */
+    private static int sync(ApiClient api, LoadScenario scenario, MetricsRegistry metrics)
+            throws InterruptedException {
+        List<MemoryPoolMXBean> heap = heapPools();
+        long baseline = usedAfterGc(heap);
+        for (MemoryPoolMXBean pool : heap) {
+            pool.resetPeakUsage();
+        }
+        long start = System.nanoTime();
+        List<PostRecord> records = new ArrayList<>();
+        List<byte[]> images = new ArrayList<>();
+        try {
+            records = api.fetchPosts(api.getNetworkQuality().timeoutMs());
+            downloadImages(api, records, scenario.syncImages, images, metrics);
+        } catch (IOException e) {
+            System.err.println("  sync failed: " + e);
+            metrics.counter("loadtest.sync_failures").inc();
+        }
+        metrics.histogram("loadtest.sync_ms").recordSince(start);
+        long peak = 0;
+        for (MemoryPoolMXBean pool : heap) {
+            // Sum of per-pool peaks: an upper bound, the pools peak at different times
+            peak += pool.getPeakUsage().getUsed();
+        }
+        metrics.counter("loadtest.heap_peak_kb").add(Math.max(0, peak - baseline) / 1024);
+        // What the app would hold on to: the parsed feed and the downloaded images
+        metrics.counter("loadtest.heap_retained_kb").add(Math.max(0, usedAfterGc(heap) - baseline) / 1024);
+        Reference.reachabilityFence(images);
+
+        int maxId = 0;
+        for (PostRecord record : records) {
+            maxId = Math.max(maxId, record.getId());
+        }
+        return maxId;
+    }
+
+    /**
+     * Images of the first syncImages posts, in feed order, with a sliding window of
+     * network.getImageParallelism() downloads on as many threads as the SYNC_IMAGE lane has
+     */
+    private static void downloadImages(ApiClient api, List<PostRecord> records, int syncImages,
+                                       List<byte[]> images, MetricsRegistry metrics) throws IOException {
+        List<PostRecord> toFetch = new ArrayList<>();
+        for (PostRecord record : records) {
+            if (syncImages >= 0 && toFetch.size() >= syncImages) {
+                break;
+            }
+            if (record.hasImage()) {
+                toFetch.add(record);
+            }
+        }
+        ExecutorService lane = Executors.newFixedThreadPool(LaneScheduler.Lane.SYNC_IMAGE.getConcurrency());
+        try {
+            List<Future<byte[]>> downloads = new ArrayList<>(toFetch.size());
+            int inFlight = 0;
+            for (int i = 0; i < toFetch.size(); i++) {
+                while (downloads.size() < toFetch.size() && inFlight < api.getNetworkQuality().getImageParallelism()) {
+                    String url = ApiClient.imageUrlForWidth(toFetch.get(downloads.size()).getImageUrl(),
+                            api.getNetworkQuality().imageWidthFor(DISPLAY_WIDTH_PX));
+                    downloads.add(lane.submit(() -> api.fetchImage(url, ACCEPT, api.getNetworkQuality().imageTimeoutMs())));
+                    inFlight++;
+                }
+                inFlight--;
+                try {
+                    images.add(downloads.get(i).get());
+                    metrics.counter("loadtest.images").inc();
+                } catch (ExecutionException e) {
+                    // The app logs a failed image and goes on with the next one
+                    metrics.counter("loadtest.image_failures").inc();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted", e);
+                }
+            }
+        } finally {
+            lane.shutdownNow();
+        }
+    }
+
+    /**
+     * @return Highest post id seen by the last poll
+     */
+    private static int pollWhileUploading(ApiClient api, StandInServer server, LoadScenario scenario,
+                                          MetricsRegistry metrics, int lastSeenId) throws InterruptedException {
+        if (scenario.durationSeconds <= 0) {
+            return lastSeenId;
+        }
+        long end = System.nanoTime() + scenario.durationSeconds * 1_000_000_000L;
+        try (EdgeDeviceSimulator devices = EdgeDeviceSimulator.start(server.getBaseUrl(), scenario, metrics)) {
+            while (System.nanoTime() < end) {
+                Thread.sleep(scenario.pollIntervalMs);
+                lastSeenId = poll(api, metrics, lastSeenId);
+            }
+        }
+        // Uploads still in flight when the devices stopped
+        return poll(api, metrics, lastSeenId);
+    }
+
+    private static int poll(ApiClient api, MetricsRegistry metrics, int lastSeenId) {
+        try {
+            NewPostScan scan = api.detectNewPosts(new NewPostDetector(lastSeenId).newestFirst(),
+                    api.getNetworkQuality().timeoutMs());
+            metrics.counter("loadtest.new_posts").add(scan.getNewPostCount());
+            return Math.max(lastSeenId, scan.getMaxId());
+        } catch (IOException e) {
+            metrics.counter("loadtest.poll_failures").inc();
+            return lastSeenId;
+        }
+    }
+
+    private static long sum(MetricsRegistry metrics, String prefix, String[] names, String suffix) {
+        long total = 0;
+        for (String name : names) {
+            total += metrics.counter(prefix + name + suffix).get();
+        }
+        return total;
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pools.add(pool);
+            }
+        }
+        return pools;
+    }
+
+    private static long usedAfterGc(List<MemoryPoolMXBean> heap) throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        long used = 0;
+        for (MemoryPoolMXBean pool : heap) {
+            used += pool.getUsage().getUsed();
+        }
+        return used;
+    }
+
+    private static void writeResults(Map<LoadScenario, MetricsRegistry> results) throws IOException {
+        File dir = new File(System.getProperty("loadtest.resultsDir", "build/results/loadtest"));
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        File file = new File(dir, "results.json");
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            out.write('[');
+            boolean first = true;
+            for (Map.Entry<LoadScenario, MetricsRegistry> e : results.entrySet()) {
+                if (!first) {
+                    out.write(',');
+                }
+                first = false;
+                Map<String, String> meta = new LinkedHashMap<>();
+                meta.put("scenario", e.getKey().toString());
+                meta.put("java", System.getProperty("java.version"));
+                meta.put("maxHeapMb", Long.toString(Runtime.getRuntime().maxMemory() / (1024 * 1024)));
+                e.getValue().writeJson(out, meta);
+            }
+            out.write(']');
+        }
+        System.out.println("Results: " + file.getAbsolutePath());
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.photoviewer.loadtest;
+
+import com.example.photoviewer.core.metrics.MetricsRegistry;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for PhotoBlogServer's api_root/ on the JDK's built-in HTTP server.
+ * <p>
+ * The feed is generated from post ids while it is written, so a 100k-post feed costs
+ * no heap in this (shared) JVM; posts uploaded during the run are appended to it.
+ * Media URLs all serve the same JPEG-tagged bytes of the scenario's image size.
+ * Uploads follow changedetection.py: POST Post/by-hash/ (always 404, the stand-in
+ * keeps no images), then the multipart POST Post/.
+ * Every response waits latencyMs plus jitter, and errorRate of them are 503s.
+ * Counts server.requests.&lt;route&gt;, server.errors_injected and server.upload_bytes.
+ */
+final class StandInServer implements AutoCloseable {
+    private static final String[] TITLES = {"person", "car", "dog", "bicycle", "사람", "자동차"};
+    private static final String DATE = "2025-11-02T17:57:04.123456+09:00";
+
+    private final LoadScenario scenario;
+    private final MetricsRegistry metrics;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicInteger maxId;
+    private final byte[] image;
+    private final Random random = new Random(17);
+    private final String baseUrl;
+
+    private StandInServer(LoadScenario scenario, MetricsRegistry metrics) throws IOException {
+        this.scenario = scenario;
+        this.metrics = metrics;
+        this.maxId = new AtomicInteger(scenario.posts);
+        image = new byte[scenario.imageBytes];
+        new Random(42).nextBytes(image);
+        // JPEG SOI + APP0, so the client's format sniffing counts it as a JPEG
+        image[0] = (byte) 0xff;
+        image[1] = (byte) 0xd8;
+        image[2] = (byte) 0xff;
+        image[3] = (byte) 0xe0;
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+        server.createContext("/api_root/", route("root", this::root));
+        server.createContext("/api_root/Post/", route("posts", this::posts));
+        server.createContext("/api_root/Post/by-hash/", route("by_hash", this::byHash));
+        server.createContext("/media/", route("media", this::media));
+        // Enough threads that injected latency delays requests instead of queueing them
+        executor = Executors.newFixedThreadPool(32, r -> {
+            Thread thread = new Thread(r, "stand-in-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+    }
+
+    static StandInServer start(LoadScenario scenario, MetricsRegistry metrics) throws IOException {
+        StandInServer standIn = new StandInServer(scenario, metrics);
+        standIn.server.start();
+        return standIn;
+    }
+
+    String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * @return Highest post id, including posts uploaded during the run
+     */
+    int getMaxId() {
+        return maxId.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private HttpHandler route(String name, HttpHandler handler) {
+        return exchange -> {
+            try {
+                metrics.counter("server.requests." + name).inc();
+                if (delayAndMaybeFail(exchange)) {
+                    return;
+                }
+                handler.handle(exchange);
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    /**
+     * @return true if the request was answered with an injected 503
+     */
+    private boolean delayAndMaybeFail(HttpExchange exchange) throws IOException {
+        int delayMs;
+        boolean fail;
+        synchronized (random) {
+            delayMs = scenario.latencyMs > 0 ? scenario.latencyMs + random.nextInt(scenario.latencyMs / 2 + 1) : 0;
+            fail = random.nextDouble() < scenario.errorRate;
+        }
+        if (delayMs > 0) {
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Stand-in server stopped", e);
+            }
+        }
+        if (!fail) {
+            return false;
+        }
+        metrics.counter("server.errors_injected").inc();
+        drain(exchange.getRequestBody());
+        exchange.getResponseHeaders().set("Retry-After", "1");
+        sendJson(exchange, 503, "{\"detail\":\"Service unavailable\"}");
+        return true;
+    }
+
+    private void root(HttpExchange exchange) throws IOException {
+        sendJson(exchange, 200, "{\"Post\":\"" + baseUrl + "api_root/Post/\"}");
+    }
+
+    private void posts(HttpExchange exchange) throws IOException {
+        if ("POST".equals(exchange.getRequestMethod())) {
+            metrics.counter("server.upload_bytes").add(drain(exchange.getRequestBody()));
+            int id = maxId.incrementAndGet();
+            StringBuilder post = new StringBuilder(300);
+            appendPost(post, id, false);
+            sendJson(exchange, 201, post.toString());
+            return;
+        }
+        String query = exchange.getRequestURI().getRawQuery();
+        query = query != null ? "&" + query + "&" : "";
+        boolean newestFirst = query.contains("&ordering=-id&");
+        boolean summary = query.contains("&summary=1&");
+        // Posts uploaded while this response is written show up in the next one
+        int last = maxId.get();
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, 0);
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(),
+                StandardCharsets.UTF_8), 64 * 1024)) {
+            StringBuilder post = new StringBuilder(300);
+            out.write('[');
+            for (int n = 1; n <= last; n++) {
+                post.setLength(0);
+                if (n > 1) {
+                    post.append(',');
+                }
+                appendPost(post, newestFirst ? last - n + 1 : n, summary);
+                out.append(post);
+            }
+            out.write(']');
+        } catch (IOException e) {
+            // The client closed a newest-first list early once it reached the old posts
+        }
+    }
+
+    private void byHash(HttpExchange exchange) throws IOException {
+        drain(exchange.getRequestBody());
+        sendJson(exchange, 404, "{\"detail\":\"Not found.\"}");
+    }
+
+    private void media(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "image/jpeg");
+        exchange.sendResponseHeaders(200, image.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(image);
+        }
+    }
+
+    /**
+     * A post shaped like PostSerializer output (summary: id, title and dates only)
+     */
+    private void appendPost(StringBuilder sb, int id, boolean summary) {
+        String title = TITLES[id % TITLES.length];
+        sb.append("{\"id\":").append(id)
+          .append(",\"title\":\"").append(title).append('"');
+        if (!summary) {
+            sb.append(",\"author\":1")
+              .append(",\"text\":\"").append(title).append(", \"")
+              .append(",\"image\":\"").append(baseUrl).append("media/blog_image/").append(id).append(".jpg\"");
+        }
+        sb.append(",\"created_date\":\"").append(DATE).append('"')
+          .append(",\"published_date\":\"").append(DATE).append("\"}");
+    }
+
+    private static long drain(InputStream in) throws IOException {
+        long total = 0;
+        byte[] buffer = new byte[16 * 1024];
+        try (InputStream body = in) {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                total += read;
+            }
+        }
+        return total;
+    }
+
+    private static void sendJson(HttpExchange exchange, int code, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
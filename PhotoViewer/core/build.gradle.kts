@@ -0,0 +1,19 @@
+// Android-free client code (API access, feed parsing, caching) shared by :app
+// and benchmarked by :benchmark on a plain JVM.
+plugins {
+    `java-library`
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// Sources and tests hold Korean text; javac would otherwise use the platform encoding
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
@@ -0,0 +1,167 @@
+package com.example.photoviewer.core.cache;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Directory of files with a total size budget and least-recently-used eviction.
+ * <p>
+ * The LRU order and sizes are tracked in memory (seeded from file modification
+ * times when the cache is opened), so a put only touches the entries it evicts
+ * instead of listing and sorting the whole directory.
+ */
+public class SizeBoundedFileCache {
+    private static final String TMP_SUFFIX = ".tmp";
+
+    /**
+     * Writes an entry's content
+     */
+    public interface Writer {
+        void write(OutputStream out) throws IOException;
+    }
+
+    private final File dir;
+    private final long maxBytes;
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+    private long evictionCount;
+
+    public SizeBoundedFileCache(File dir, long maxBytes) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        loadIndex();
+    }
+
+    private void loadIndex() {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            if (file.getName().endsWith(TMP_SUFFIX)) {
+                file.delete();
+                continue;
+            }
+            long length = file.length();
+            entries.put(file.getName(), length);
+            totalBytes += length;
+        }
+    }
+
+    public synchronized boolean contains(String key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Look up an entry and mark it as recently used
+     * @return The entry's file, or null if it is not cached
+     */
+    public synchronized File get(String key) {
+        if (entries.get(key) == null) {
+            return null;
+        }
+        File file = new File(dir, key);
+        if (!file.exists()) {
+            // Deleted behind our back (e.g. the system cleared the cache dir)
+            totalBytes -= entries.remove(key);
+            return null;
+        }
+        file.setLastModified(System.currentTimeMillis());
+        return file;
+    }
+
+    /**
+     * Write an entry atomically (temp file + rename), then evict down to the budget
+     * @return The entry's file
+     */
+    public File put(String key, Writer writer) throws IOException {
+        File tmp = new File(dir, key + "." + Thread.currentThread().getId() + TMP_SUFFIX);
+        try (OutputStream out = new FileOutputStream(tmp)) {
+            writer.write(out);
+        } catch (IOException | RuntimeException e) {
+            tmp.delete();
+            throw e;
+        }
+
+        File file = new File(dir, key);
+        List<String> evicted;
+        synchronized (this) {
+            if (!tmp.renameTo(file)) {
+                tmp.delete();
+                throw new IOException("Could not move cache entry into place: " + key);
+            }
+            Long previous = entries.put(key, file.length());
+            if (previous != null) {
+                totalBytes -= previous;
+            }
+            totalBytes += file.length();
+            evicted = trimToSizeLocked(key);
+        }
+        for (String name : evicted) {
+            new File(dir, name).delete();
+        }
+        return file;
+    }
+
+    public synchronized void remove(String key) {
+        Long length = entries.remove(key);
+        if (length != null) {
+            totalBytes -= length;
+            new File(dir, key).delete();
+        }
+    }
+
+    public synchronized void clear() {
+        for (String key : entries.keySet()) {
+            new File(dir, key).delete();
+        }
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    public synchronized long size() {
+        return totalBytes;
+    }
+
+    public synchronized int entryCount() {
+        return entries.size();
+    }
+
+    public long maxSize() {
+        return maxBytes;
+    }
+
+    public synchronized long evictionCount() {
+        return evictionCount;
+    }
+
+    private List<String> trimToSizeLocked(String keep) {
+        List<String> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            totalBytes -= eldest.getValue();
+            evicted.add(eldest.getKey());
+            it.remove();
+            evictionCount++;
+        }
+        return evicted;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.photoviewer.core.feed;
+
+import com.example.photoviewer.core.json.JsonStrings;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Deletes and title/text updates for many posts, sent in one
+ * POST api_root/Post/bulk/ request (see ApiClient.bulkEdit).
+ * The server applies them in one transaction and answers with a {@link BulkResult}.
+ */
+public final class BulkEdit {
+    /** Most posts one request may carry (the server's BULK_MAX_ITEMS) */
+    public static final int MAX_ITEMS = 500;
+
+    private final Set<Integer> deletes = new LinkedHashSet<>();
+    private final List<Update> updates = new ArrayList<>();
+
+    private static final class Update {
+        final int postId;
+        final String title;
+        final String text;
+
+        Update(int postId, String title, String text) {
+            this.postId = postId;
+            this.title = title;
+            this.text = text;
+        }
+    }
+
+    public BulkEdit delete(int postId) {
+        deletes.add(postId);
+        return this;
+    }
+
+    /**
+     * @param title New title, or null to keep it
+     * @param text New text, or null to keep it
+     */
+    public BulkEdit update(int postId, String title, String text) {
+        updates.add(new Update(postId, title, text));
+        return this;
+    }
+
+    public int size() {
+        return deletes.size() + updates.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return The request body: {"delete": [ids], "update": [{"id", "title"?, "text"?}]}
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\"delete\":[");
+        String separator = "";
+        for (int postId : deletes) {
+            json.append(separator).append(postId);
+            separator = ",";
+        }
+        json.append("],\"update\":[");
+        separator = "";
+        for (Update update : updates) {
+            json.append(separator).append("{\"id\":").append(update.postId);
+            if (update.title != null) {
+                json.append(",\"title\":").append(JsonStrings.quote(update.title));
+            }
+            if (update.text != null) {
+                json.append(",\"text\":").append(JsonStrings.quote(update.text));
+            }
+            json.append('}');
+            separator = ",";
+        }
+        return json.append("]}").toString();
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.photoviewer.core.feed;
+
+import com.example.photoviewer.core.json.JsonReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-post outcome of a {@link BulkEdit}, parsed from
+ * {"results": [{"id", "op": "delete"|"update", "status", "post"?}]}.
+ * A delete of a post that no longer exists (404) counts as removed, so the
+ * client drops it either way.
+ */
+public final class BulkResult {
+    private final List<Integer> removedIds;
+    private final List<PostRecord> updatedPosts;
+    private final Map<Integer, Integer> failures;
+
+    BulkResult(List<Integer> removedIds, List<PostRecord> updatedPosts, Map<Integer, Integer> failures) {
+        this.removedIds = Collections.unmodifiableList(removedIds);
+        this.updatedPosts = Collections.unmodifiableList(updatedPosts);
+        this.failures = Collections.unmodifiableMap(failures);
+    }
+
+    public static BulkResult parse(InputStream in) throws IOException {
+        return parse(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    public static BulkResult parse(Reader reader) throws IOException {
+        JsonReader json = new JsonReader(reader);
+        List<Integer> removedIds = new ArrayList<>();
+        List<PostRecord> updatedPosts = new ArrayList<>();
+        Map<Integer, Integer> failures = new LinkedHashMap<>();
+
+        json.beginObject();
+        while (json.hasNext()) {
+            if (!json.nextNameEquals("results")) {
+                json.skipValue();
+                continue;
+            }
+            json.beginArray();
+            while (json.hasNext()) {
+                int id = -1;
+                String op = null;
+                int status = 0;
+                PostRecord post = null;
+                json.beginObject();
+                while (json.hasNext()) {
+                    String name = json.nextName();
+                    if (json.peek() == JsonReader.Token.NULL) {
+                        json.nextNull();
+                        continue;
+                    }
+                    switch (name) {
+                        case "id":
+                            id = json.nextInt();
+                            break;
+                        case "op":
+                            op = json.nextString();
+                            break;
+                        case "status":
+                            status = json.nextInt();
+                            break;
+                        case "post":
+                            post = FeedParser.readPost(json);
+                            break;
+                        default:
+                            json.skipValue();
+                            break;
+                    }
+                }
+                json.endObject();
+
+                boolean ok = status >= 200 && status < 300;
+                if ("delete".equals(op) && (ok || status == 404)) {
+                    removedIds.add(id);
+                } else if ("update".equals(op) && ok && post != null) {
+                    updatedPosts.add(post);
+                } else {
+                    failures.put(id, status);
+                }
+            }
+            json.endArray();
+        }
+        json.endObject();
+        return new BulkResult(removedIds, updatedPosts, failures);
+    }
+
+    /**
+     * @return Ids of posts that are gone from the server
+     */
+    public List<Integer> getRemovedIds() {
+        return removedIds;
+    }
+
+    /**
+     * @return Updated posts as the server now has them
+     */
+    public List<PostRecord> getUpdatedPosts() {
+        return updatedPosts;
+    }
+
+    /**
+     * @return HTTP-style status per post id that was not changed (e.g. 404, 400)
+     */
+    public Map<Integer, Integer> getFailures() {
+        return failures;
+    }
+
+    public int getSucceededCount() {
+        return removedIds.size() + updatedPosts.size();
+    }
+
+    @Override
+    public String toString() {
+        return "BulkResult{removed=" + removedIds.size() + ", updated=" + updatedPosts.size()
+                + ", failed=" + failures.size() + "}";
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.photoviewer.core.feed;
+
+import com.example.photoviewer.core.image.DHash;
+import com.example.photoviewer.core.json.JsonReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses the api_root/Post/ response (a JSON array of posts) straight from
+ * the response stream, without buffering the body into a String first
+ */
+public final class FeedParser {
+
+    private FeedParser() {}
+
+    public static List<PostRecord> parse(InputStream in) throws IOException {
+        return parse(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    public static List<PostRecord> parse(Reader reader) throws IOException {
+        JsonReader json = new JsonReader(reader);
+        List<PostRecord> posts = new ArrayList<>();
+        json.beginArray();
+        while (json.hasNext()) {
+            posts.add(readPost(json));
+        }
+        json.endArray();
+        return posts;
+    }
+
+    static PostRecord readPost(JsonReader json) throws IOException {
+        PostFields post = new PostFields();
+        json.beginObject();
+        while (json.hasNext()) {
+            post.read(json.nextName(), json);
+        }
+        json.endObject();
+        return post.toRecord();
+    }
+
+    /**
+     * One post's fields as they are read; NewPostDetector fills one for each new post it
+     * collects, so those carry the same fields as a full parse
+     */
+    static final class PostFields {
+        int id = -1;
+        String title = "No title";
+        String text = "";
+        String image;
+        String negotiatedImage;
+        long createdAt = -1;
+        long dhash;
+        boolean hasDhash;
+        int width;
+        int height;
+
+        /**
+         * Reads the value of the field with the given name; values of other fields are skipped
+         */
+        void read(String name, JsonReader json) throws IOException {
+            if (json.peek() == JsonReader.Token.NULL) {
+                json.nextNull();
+                return;
+            }
+            switch (name) {
+                case "id":
+                    id = json.nextInt();
+                    break;
+                case "title":
+                    title = json.nextString();
+                    break;
+                case "text":
+                    text = json.nextString();
+                    break;
+                case "image":
+                    image = json.nextString();
+                    break;
+                case "created_date":
+                    createdAt = Timestamps.parseIso8601(json.nextString());
+                    break;
+                case "image_dhash":
+                    String hex = json.nextString();
+                    try {
+                        dhash = DHash.parseHex(hex);
+                        hasDhash = true;
+                    } catch (NumberFormatException e) {
+                        // Empty for images the server could not decode
+                    }
+                    break;
+                case "image_negotiated":
+                    negotiatedImage = json.nextString();
+                    break;
+                case "image_width":
+                    width = json.nextInt();
+                    break;
+                case "image_height":
+                    height = json.nextInt();
+                    break;
+                default:
+                    json.skipValue();
+                    break;
+            }
+        }
+
+        PostRecord toRecord() {
+            // Same image, served as AVIF/WebP when the request's Accept header allows it
+            String url = negotiatedImage != null && !negotiatedImage.isEmpty() ? negotiatedImage : image;
+            return new PostRecord(id, title, text, url, createdAt, dhash, hasDhash, width, height);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.photoviewer.core.feed;
+
+import com.example.photoviewer.core.image.DHash;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Collapses near-identical images posted close together, such as a burst of frames
+ * from the detection camera while an object stays in view.
+ * <p>
+ * Images are offered in posting order. One is a near-duplicate when its dHash is within
+ * maxDistance bits of an image kept less than windowMillis earlier; the kept image stands
+ * in for the whole burst. Kept images that fall out of the window are dropped, so each
+ * offer only compares against the current window. A static scene therefore still shows up once per
+ * window. Not thread-safe; use one instance per pass over a feed.
+ */
+public final class NearDuplicateFilter {
+    /** Hamming distance used by the server's NEAR_DUPLICATE_MAX_DISTANCE default */
+    public static final int DEFAULT_MAX_DISTANCE = 6;
+    /** Same as the server's NEAR_DUPLICATE_WINDOW_SECONDS default */
+    public static final long DEFAULT_WINDOW_MILLIS = 5 * 60 * 1000;
+
+    private final int maxDistance;
+    private final long windowMillis;
+    // Kept images inside the window as {timeMillis, dhash}, oldest first
+    private final ArrayDeque<long[]> kept = new ArrayDeque<>();
+    private int collapsedCount;
+
+    public NearDuplicateFilter() {
+        this(DEFAULT_MAX_DISTANCE, DEFAULT_WINDOW_MILLIS);
+    }
+
+    public NearDuplicateFilter(int maxDistance, long windowMillis) {
+        this.maxDistance = maxDistance;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * @return false if the image is a near-duplicate of a kept one (it is not kept);
+     *         true if it is kept and later images are compared against it
+     */
+    public boolean offer(long timeMillis, long dhash) {
+        while (!kept.isEmpty() && timeMillis - kept.peekFirst()[0] >= windowMillis) {
+            kept.removeFirst();
+        }
+        for (Iterator<long[]> it = kept.descendingIterator(); it.hasNext(); ) {
+            if (DHash.distance(dhash, it.next()[1]) <= maxDistance) {
+                collapsedCount++;
+                return false;
+            }
+        }
+        kept.addLast(new long[]{timeMillis, dhash});
+        return true;
+    }
+
+    /**
+     * @return The posts that are not near-duplicates, in their original order.
+     *         Posts without a timestamp or server dHash are always kept.
+     */
+    public List<PostRecord> filter(List<PostRecord> posts) {
+        List<PostRecord> result = new ArrayList<>(posts.size());
+        for (PostRecord post : posts) {
+            if (!isComparable(post) || offer(post.getCreatedAtMillis(), post.getImageDhash())) {
+                result.add(post);
+            }
+        }
+        return result;
+    }
+
+    public static boolean isComparable(PostRecord post) {
+        return post.hasImageDhash() && post.getCreatedAtMillis() >= 0;
+    }
+
+    /**
+     * @return Images dropped as near-duplicates so far
+     */
+    public int getCollapsedCount() {
+        return collapsedCount;
+    }
+}
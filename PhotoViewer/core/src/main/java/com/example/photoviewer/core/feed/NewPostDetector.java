@@ -0,0 +1,207 @@
+package com.example.photoviewer.core.feed;
+
+import com.example.photoviewer.core.json.JsonReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Skims an api_root/Post/ response for new posts without parsing the feed.
+ * <p>
+ * Only "id" and, for the first new post, "title" are read; every other value is
+ * skipped without building strings. With {@link #collectNewPosts()} the new posts
+ * are read in full, with every field FeedParser reads (for the PostCache), old ones
+ * are still only skimmed.
+ * <p>
+ * When the list is requested newest first (?ordering=-id), {@link #newestFirst()}
+ * stops reading at the first post that is not new. Before stopping it checks that
+ * the next id is lower; if it is not (e.g. an older server ignored the ordering
+ * parameter) the scan continues over the whole list, so a wrong ordering hint
+ * never hides new posts.
+ */
+public final class NewPostDetector {
+    // id and title, then the rest of what FeedParser reads (only read for collected posts)
+    private static final String[] FIELDS = {"id", "title", "text", "image", "created_date", "image_dhash",
+            "image_width", "image_height", "image_negotiated"};
+    private static final int FIELD_ID = 0;
+    private static final int FIELD_TITLE = 1;
+
+    private final int lastSeenId;
+    private boolean newestFirst;
+    private boolean collectNewPosts;
+    private boolean summaryOnly;
+
+    public NewPostDetector(int lastSeenId) {
+        this.lastSeenId = lastSeenId;
+    }
+
+    /**
+     * Expect posts sorted by id descending and stop once the old ones start
+     */
+    public NewPostDetector newestFirst() {
+        this.newestFirst = true;
+        return this;
+    }
+
+    public boolean isNewestFirst() {
+        return newestFirst;
+    }
+
+    /**
+     * Also materialize the new posts, with the same fields as FeedParser
+     */
+    public NewPostDetector collectNewPosts() {
+        this.collectNewPosts = true;
+        return this;
+    }
+
+    /**
+     * Ask the server for a summary list (?summary=1: id, title and dates only).
+     * Enough to detect new posts; collected posts then have no text or image.
+     */
+    public NewPostDetector summaryOnly() {
+        this.summaryOnly = true;
+        return this;
+    }
+
+    public boolean isSummaryOnly() {
+        return summaryOnly;
+    }
+
+    public NewPostScan detect(InputStream in) throws IOException {
+        return detect(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    public NewPostScan detect(Reader reader) throws IOException {
+        JsonReader json = new JsonReader(reader);
+        State state = new State();
+        boolean mayStop = newestFirst;
+        int stopCandidate = Integer.MIN_VALUE;
+
+        json.beginArray();
+        while (json.hasNext()) {
+            int id = readPost(json, state);
+            if (stopCandidate != Integer.MIN_VALUE) {
+                if (id < stopCandidate) {
+                    // Confirmed descending: everything further down is older
+                    return state.toScan(lastSeenId);
+                }
+                mayStop = false;
+                stopCandidate = Integer.MIN_VALUE;
+            }
+            if (mayStop && id <= lastSeenId) {
+                stopCandidate = id;
+            }
+        }
+        json.endArray();
+        return state.toScan(lastSeenId);
+    }
+
+    /**
+     * @return The post's id (-1 if missing)
+     */
+    private int readPost(JsonReader json, State state) throws IOException {
+        int id = -1;
+        boolean idKnown = false;
+        String title = null;
+        FeedParser.PostFields post = null;
+
+        json.beginObject();
+        while (json.hasNext()) {
+            int field = json.selectName(FIELDS);
+            boolean maybeNew = !idKnown || id > lastSeenId;
+            switch (field) {
+                case FIELD_ID:
+                    if (json.peek() == JsonReader.Token.NUMBER) {
+                        id = json.nextInt();
+                    } else {
+                        json.skipValue();
+                    }
+                    idKnown = true;
+                    break;
+                case FIELD_TITLE:
+                    // The API sends id first, so an old post's title is skipped unread
+                    if (maybeNew && collectNewPosts) {
+                        post = post != null ? post : new FeedParser.PostFields();
+                        post.read(FIELDS[field], json);
+                        title = post.title;
+                    } else if (maybeNew && state.firstNewTitle == null) {
+                        title = readOptionalString(json, null);
+                    } else {
+                        json.skipValue();
+                    }
+                    break;
+                default:
+                    if (field >= 0 && maybeNew && collectNewPosts) {
+                        post = post != null ? post : new FeedParser.PostFields();
+                        post.read(FIELDS[field], json);
+                    } else {
+                        json.skipValue();
+                    }
+                    break;
+            }
+        }
+        json.endObject();
+
+        if (collectNewPosts && id > lastSeenId) {
+            post = post != null ? post : new FeedParser.PostFields();
+            post.id = id;
+        } else {
+            // Fields read before the id showed the post is old
+            post = null;
+        }
+        state.count(id, title, post, lastSeenId);
+        return id;
+    }
+
+    private static String readOptionalString(JsonReader json, String fallback) throws IOException {
+        if (json.peek() == JsonReader.Token.STRING) {
+            return json.nextString();
+        }
+        json.skipValue();
+        return fallback;
+    }
+
+    private static final class State {
+        int scanned;
+        int maxId;
+        int newPostCount;
+        String firstNewTitle;
+        List<PostRecord> newPosts;
+
+        /**
+         * @param post The post's fields if it is new and new posts are collected, otherwise null
+         */
+        void count(int id, String title, FeedParser.PostFields post, int lastSeenId) {
+            scanned++;
+            if (id > maxId) {
+                maxId = id;
+            }
+            if (id <= lastSeenId) {
+                return;
+            }
+            newPostCount++;
+            if (firstNewTitle == null) {
+                firstNewTitle = title != null ? title : "No title";
+            }
+            if (post != null) {
+                if (newPosts == null) {
+                    newPosts = new ArrayList<>();
+                }
+                newPosts.add(post.toRecord());
+            }
+        }
+
+        NewPostScan toScan(int lastSeenId) {
+            List<PostRecord> posts = newPosts != null
+                    ? Collections.unmodifiableList(newPosts) : Collections.<PostRecord>emptyList();
+            return new NewPostScan(lastSeenId, maxId, newPostCount, firstNewTitle, posts, scanned);
+        }
+    }
+}
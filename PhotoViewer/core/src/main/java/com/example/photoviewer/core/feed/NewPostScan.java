@@ -0,0 +1,95 @@
+package com.example.photoviewer.core.feed;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of comparing a feed against the last seen post id.
+ * Built from parsed records by {@link #scan} (foreground sync) or straight
+ * from the response stream by {@link NewPostDetector} (30 s poll, BackgroundSyncWorker).
+ */
+public final class NewPostScan {
+    private final int lastSeenId;
+    private final int maxId;
+    private final int newPostCount;
+    private final String firstNewTitle;
+    private final List<PostRecord> newPosts;
+    private final int scannedCount;
+
+    NewPostScan(int lastSeenId, int maxId, int newPostCount, String firstNewTitle,
+                List<PostRecord> newPosts, int scannedCount) {
+        this.lastSeenId = lastSeenId;
+        this.maxId = maxId;
+        this.newPostCount = newPostCount;
+        this.firstNewTitle = firstNewTitle;
+        this.newPosts = newPosts;
+        this.scannedCount = scannedCount;
+    }
+
+    public static NewPostScan scan(List<PostRecord> posts, int lastSeenId) {
+        int maxId = 0;
+        int newPostCount = 0;
+        String firstNewTitle = null;
+        List<PostRecord> newPosts = new ArrayList<>();
+
+        for (PostRecord post : posts) {
+            int id = post.getId();
+            if (id > maxId) {
+                maxId = id;
+            }
+            if (id > lastSeenId) {
+                newPostCount++;
+                if (firstNewTitle == null) {
+                    firstNewTitle = post.getTitle();
+                }
+                newPosts.add(post);
+            }
+        }
+        return new NewPostScan(lastSeenId, maxId, newPostCount, firstNewTitle,
+                Collections.unmodifiableList(newPosts), posts.size());
+    }
+
+    public int getLastSeenId() {
+        return lastSeenId;
+    }
+
+    public int getMaxId() {
+        return maxId;
+    }
+
+    public int getNewPostCount() {
+        return newPostCount;
+    }
+
+    public boolean hasNewPosts() {
+        return newPostCount > 0;
+    }
+
+    /**
+     * @return Title of the first new post in feed order, or null if there are none
+     */
+    public String getFirstNewTitle() {
+        return firstNewTitle;
+    }
+
+    /**
+     * @return New posts in feed order (empty unless collected, see NewPostDetector)
+     */
+    public List<PostRecord> getNewPosts() {
+        return newPosts;
+    }
+
+    /**
+     * @return Posts looked at before the scan finished (less than the feed size after an early stop)
+     */
+    public int getScannedCount() {
+        return scannedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "lastSeenId=" + lastSeenId + ", maxId=" + maxId + ", newPostCount=" + newPostCount
+                + ", scanned=" + scannedCount;
+    }
+}
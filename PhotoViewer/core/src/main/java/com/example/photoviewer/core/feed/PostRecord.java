@@ -0,0 +1,106 @@
+package com.example.photoviewer.core.feed;
+
+/**
+ * Post metadata as returned by api_root/Post/ (no image data)
+ */
+public final class PostRecord {
+    private final int id;
+    private final String title;
+    private final String text;
+    private final String imageUrl;
+    private final long createdAtMillis;
+    private final long imageDhash;
+    private final boolean hasImageDhash;
+    private final int imageWidth;
+    private final int imageHeight;
+
+    public PostRecord(int id, String title, String text, String imageUrl) {
+        this(id, title, text, imageUrl, -1, 0, false);
+    }
+
+    /**
+     * @param createdAtMillis created_date in epoch milliseconds, or -1 if unknown
+     * @param hasImageDhash false when the server sent no image_dhash (imageDhash is then ignored)
+     */
+    public PostRecord(int id, String title, String text, String imageUrl,
+                      long createdAtMillis, long imageDhash, boolean hasImageDhash) {
+        this(id, title, text, imageUrl, createdAtMillis, imageDhash, hasImageDhash, 0, 0);
+    }
+
+    /**
+     * @param imageWidth image_width in pixels, or 0 if unknown
+     * @param imageHeight image_height in pixels, or 0 if unknown
+     */
+    public PostRecord(int id, String title, String text, String imageUrl,
+                      long createdAtMillis, long imageDhash, boolean hasImageDhash,
+                      int imageWidth, int imageHeight) {
+        this.id = id;
+        this.title = title;
+        this.text = text;
+        this.imageUrl = imageUrl;
+        this.createdAtMillis = createdAtMillis;
+        this.imageDhash = imageDhash;
+        this.hasImageDhash = hasImageDhash;
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return image_negotiated, the server's image endpoint (send an Accept header, see
+     *         ApiClient.fetchImage), or the original image URL from a server without it
+     */
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    /**
+     * @return created_date in epoch milliseconds, or -1 if unknown
+     */
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    /**
+     * @return The image's dHash (see DHash); only meaningful if hasImageDhash()
+     */
+    public long getImageDhash() {
+        return imageDhash;
+    }
+
+    public boolean hasImageDhash() {
+        return hasImageDhash;
+    }
+
+    /**
+     * @return Image width in pixels as stored on the server, or 0 if unknown
+     */
+    public int getImageWidth() {
+        return imageWidth;
+    }
+
+    /**
+     * @return Image height in pixels as stored on the server, or 0 if unknown
+     */
+    public int getImageHeight() {
+        return imageHeight;
+    }
+
+    /**
+     * @return true if the post points at a downloadable image
+     */
+    public boolean hasImage() {
+        return imageUrl != null && !imageUrl.isEmpty() && !imageUrl.equals("null");
+    }
+}
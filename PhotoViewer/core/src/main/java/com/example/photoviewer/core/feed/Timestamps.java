@@ -0,0 +1,98 @@
+package com.example.photoviewer.core.feed;
+
+/**
+ * ISO-8601 timestamps as written by Django REST framework
+ * ("2025-09-23T21:14:00.123456+09:00", "...Z"), parsed without java.time
+ * so the code also runs on Android API 24/25.
+ */
+final class Timestamps {
+
+    private Timestamps() {}
+
+    /**
+     * @return Epoch milliseconds, or -1 if the value is not in the expected form
+     *         (a missing offset is read as UTC)
+     */
+    static long parseIso8601(String value) {
+        if (value == null || value.length() < 19 || value.charAt(4) != '-' || value.charAt(7) != '-'
+                || (value.charAt(10) != 'T' && value.charAt(10) != ' ')
+                || value.charAt(13) != ':' || value.charAt(16) != ':') {
+            return -1;
+        }
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 2);
+        int day = digits(value, 8, 2);
+        int hour = digits(value, 11, 2);
+        int minute = digits(value, 14, 2);
+        int second = digits(value, 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 60) {
+            return -1;
+        }
+
+        int pos = 19;
+        int millis = 0;
+        if (pos < value.length() && value.charAt(pos) == '.') {
+            pos++;
+            int fractionDigits = 0;
+            while (pos < value.length() && Character.isDigit(value.charAt(pos))) {
+                if (fractionDigits < 3) {
+                    millis = millis * 10 + (value.charAt(pos) - '0');
+                }
+                fractionDigits++;
+                pos++;
+            }
+            if (fractionDigits == 0) {
+                return -1;
+            }
+            for (int i = fractionDigits; i < 3; i++) {
+                millis *= 10;
+            }
+        }
+
+        int offsetMinutes = 0;
+        if (pos < value.length()) {
+            char sign = value.charAt(pos);
+            if (sign == 'Z' && pos + 1 == value.length()) {
+                offsetMinutes = 0;
+            } else if ((sign == '+' || sign == '-') && value.length() == pos + 6 && value.charAt(pos + 3) == ':') {
+                int offsetHours = digits(value, pos + 1, 2);
+                int offsetMins = digits(value, pos + 4, 2);
+                if (offsetHours < 0 || offsetMins < 0) {
+                    return -1;
+                }
+                offsetMinutes = (offsetHours * 60 + offsetMins) * (sign == '-' ? -1 : 1);
+            } else {
+                return -1;
+            }
+        }
+
+        long days = daysFromCivil(year, month, day);
+        long seconds = days * 86400L + hour * 3600L + minute * 60L + second - offsetMinutes * 60L;
+        return seconds * 1000L + millis;
+    }
+
+    private static int digits(String value, int start, int count) {
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    /**
+     * Days since 1970-01-01 in the proleptic Gregorian calendar (H. Hinnant's algorithm)
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.photoviewer.core.image;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 of image bytes, as lowercase hex; the server's Post.image_hash uses the same form
+ */
+public final class ContentHash {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final String hex;
+    private final long length;
+
+    private ContentHash(String hex, long length) {
+        this.hex = hex;
+        this.length = length;
+    }
+
+    /**
+     * Hash a stream while reading it to EOF (the stream is not closed)
+     */
+    public static ContentHash sha256(InputStream in) throws IOException {
+        MessageDigest digest = newSha256();
+        byte[] buffer = new byte[16 * 1024];
+        long length = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+            length += read;
+        }
+        return new ContentHash(toHex(digest.digest()), length);
+    }
+
+    public static ContentHash sha256(byte[] data) {
+        MessageDigest digest = newSha256();
+        digest.update(data);
+        return new ContentHash(toHex(digest.digest()), data.length);
+    }
+
+    public String getHex() {
+        return hex;
+    }
+
+    /**
+     * @return Number of bytes hashed
+     */
+    public long getLength() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return hex;
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform (and Android) is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            out[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+            out[i * 2 + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(out);
+    }
+}
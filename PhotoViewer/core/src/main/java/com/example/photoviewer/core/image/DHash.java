@@ -0,0 +1,80 @@
+package com.example.photoviewer.core.image;
+
+/**
+ * 64-bit difference hash (dHash) for spotting near-identical images, e.g. consecutive
+ * frames from the detection camera.
+ * <p>
+ * The image is reduced to 9x8 luminance (box average); bit (y * 8 + x), counted from the
+ * most significant bit, is 1 when pixel (x, y) is brighter than (x + 1, y). This is the
+ * same layout as the server's blog.views.image_dhash, so hashes from either side compare.
+ * Near-identical images are a small Hamming distance apart.
+ */
+public final class DHash {
+    public static final int WIDTH = 9;
+    public static final int HEIGHT = 8;
+
+    private DHash() {}
+
+    /**
+     * Hash ARGB pixels (Bitmap.getPixels / BufferedImage.getRGB layout, row-major).
+     * Passing an already scaled 9x8 image skips the reduction.
+     */
+    public static long compute(int[] argb, int width, int height) {
+        if (width < WIDTH || height < HEIGHT) {
+            throw new IllegalArgumentException("image smaller than 9x8: " + width + "x" + height);
+        }
+        if (argb.length < width * height) {
+            throw new IllegalArgumentException("pixel array too short");
+        }
+        // Box-average luminance per 9x8 cell, in fixed point (luma scaled by 1000)
+        long[] sums = new long[WIDTH * HEIGHT];
+        int[] counts = new int[WIDTH * HEIGHT];
+        int[] columnCell = new int[width];
+        for (int x = 0; x < width; x++) {
+            columnCell[x] = (int) ((long) x * WIDTH / width);
+        }
+        for (int y = 0; y < height; y++) {
+            int cellRow = (int) ((long) y * HEIGHT / height) * WIDTH;
+            int rowStart = y * width;
+            for (int x = 0; x < width; x++) {
+                int cell = cellRow + columnCell[x];
+                int pixel = argb[rowStart + x];
+                // ITU-R 601-2 luma, as Pillow's convert('L')
+                sums[cell] += ((pixel >> 16) & 0xff) * 299 + ((pixel >> 8) & 0xff) * 587 + (pixel & 0xff) * 114;
+                counts[cell]++;
+            }
+        }
+        long hash = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH - 1; x++) {
+                int left = y * WIDTH + x;
+                // Compare averages without dividing: a/ca > b/cb  <=>  a*cb > b*ca
+                boolean brighter = sums[left] * counts[left + 1] > sums[left + 1] * counts[left];
+                hash = (hash << 1) | (brighter ? 1 : 0);
+            }
+        }
+        return hash;
+    }
+
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    /**
+     * @return 16 lowercase hex digits, as stored in Post.image_dhash
+     */
+    public static String toHex(long hash) {
+        String hex = Long.toHexString(hash);
+        return "0000000000000000".substring(hex.length()) + hex;
+    }
+
+    /**
+     * @throws NumberFormatException if the value is not 1-16 hex digits
+     */
+    public static long parseHex(String hex) {
+        if (hex.isEmpty() || hex.length() > 16) {
+            throw new NumberFormatException("not a 64-bit hex hash: " + hex);
+        }
+        return Long.parseUnsignedLong(hex, 16);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.photoviewer.core.image;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Encoded image formats the feed can receive, most compact first.
+ * Used to build the Accept header for image downloads and to tell from the
+ * bytes which format the server actually sent.
+ */
+public enum ImageFormat {
+    AVIF("image/avif", "avif"),
+    WEBP("image/webp", "webp"),
+    JPEG("image/jpeg", "jpeg"),
+    PNG("image/png", "png"),
+    UNKNOWN(null, "unknown");
+
+    private final String mimeType;
+    private final String name;
+
+    ImageFormat(String mimeType, String name) {
+        this.mimeType = mimeType;
+        this.name = name;
+    }
+
+    /**
+     * @return MIME type, or null for UNKNOWN
+     */
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    /**
+     * @return Lowercase name for metric keys and file extensions
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Accept header listing the given formats in order of compactness, then any
+     * other image type at lower priority (the server falls back to the original)
+     */
+    public static String acceptHeader(Set<ImageFormat> decodable) {
+        StringBuilder sb = new StringBuilder();
+        for (ImageFormat format : values()) {
+            if (format.mimeType != null && decodable.contains(format)) {
+                sb.append(format.mimeType).append(',');
+            }
+        }
+        return sb.append("image/*;q=0.8").toString();
+    }
+
+    /**
+     * Identify an encoded image by its signature
+     */
+    public static ImageFormat sniff(byte[] data) {
+        if (data == null || data.length < 12) {
+            return UNKNOWN;
+        }
+        if ((data[0] & 0xff) == 0xff && (data[1] & 0xff) == 0xd8 && (data[2] & 0xff) == 0xff) {
+            return JPEG;
+        }
+        if ((data[0] & 0xff) == 0x89 && ascii(data, 1, "PNG")) {
+            return PNG;
+        }
+        if (ascii(data, 0, "RIFF") && ascii(data, 8, "WEBP")) {
+            return WEBP;
+        }
+        // ISO-BMFF: [size]ftyp[major brand][minor version][compatible brands...]
+        if (ascii(data, 4, "ftyp")) {
+            int boxSize = ((data[0] & 0xff) << 24) | ((data[1] & 0xff) << 16)
+                    | ((data[2] & 0xff) << 8) | (data[3] & 0xff);
+            int end = Math.min(data.length, boxSize);
+            for (int i = 8; i + 4 <= end; i += 4) {
+                if (i != 12 && (ascii(data, i, "avif") || ascii(data, i, "avis"))) {
+                    return AVIF;
+                }
+            }
+        }
+        return UNKNOWN;
+    }
+
+    private static boolean ascii(byte[] data, int offset, String expected) {
+        byte[] bytes = expected.getBytes(StandardCharsets.US_ASCII);
+        if (offset + bytes.length > data.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (data[offset + i] != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
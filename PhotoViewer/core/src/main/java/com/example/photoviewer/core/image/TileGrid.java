@@ -0,0 +1,119 @@
+package com.example.photoviewer.core.image;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a large image into tiles for region decoding.
+ * At a given zoom each tile is decoded with a power-of-two sample size, so one
+ * tile bitmap is at most tileSize x tileSize pixels and is drawn at between half
+ * and full size on screen. The number of tiles covering the view, and so the
+ * memory they need, depends on the view size only, not on the image size.
+ */
+public final class TileGrid {
+    public static final int DEFAULT_TILE_SIZE = 512;
+
+    /**
+     * One tile: the image region it covers (in full-resolution pixels, right/bottom
+     * exclusive) at a sample size
+     */
+    public static final class Tile {
+        public final int sampleSize;
+        public final int column;
+        public final int row;
+        public final int left;
+        public final int top;
+        public final int right;
+        public final int bottom;
+
+        Tile(int sampleSize, int column, int row, int left, int top, int right, int bottom) {
+            this.sampleSize = sampleSize;
+            this.column = column;
+            this.row = row;
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Tile)) {
+                return false;
+            }
+            Tile other = (Tile) o;
+            return sampleSize == other.sampleSize && column == other.column && row == other.row;
+        }
+
+        @Override
+        public int hashCode() {
+            return (sampleSize * 31 + column) * 65521 + row;
+        }
+
+        @Override
+        public String toString() {
+            return "Tile{s=" + sampleSize + " " + column + "," + row + "}";
+        }
+    }
+
+    private final int imageWidth;
+    private final int imageHeight;
+    private final int tileSize;
+
+    public TileGrid(int imageWidth, int imageHeight, int tileSize) {
+        if (imageWidth <= 0 || imageHeight <= 0 || tileSize <= 0) {
+            throw new IllegalArgumentException("Sizes must be positive");
+        }
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+        this.tileSize = tileSize;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * @param scale Screen pixels per image pixel
+     * @return Largest power of two whose subsampled pixels are still at least one
+     *         screen pixel, so decoding loses no visible detail
+     */
+    public static int sampleSizeFor(float scale) {
+        int sampleSize = 1;
+        while (sampleSize < (1 << 30) && sampleSize * 2 * scale <= 1f) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * @return Upper bound on tilesFor(...).size() for a view of this size at any zoom
+     */
+    public static int maxVisibleTiles(int viewWidth, int viewHeight, int tileSize) {
+        // A tile is drawn at least tileSize / 2 screen pixels wide; partial tiles at both edges
+        int half = Math.max(1, tileSize / 2);
+        return (viewWidth / half + 2) * (viewHeight / half + 2);
+    }
+
+    /**
+     * Tiles covering the visible image region, top-left first
+     * @param left Visible region in full-resolution image pixels (clipped to the image)
+     */
+    public List<Tile> tilesFor(float left, float top, float right, float bottom, int sampleSize) {
+        int span = tileSize * sampleSize;
+        int firstColumn = Math.max(0, (int) Math.floor(left / span));
+        int firstRow = Math.max(0, (int) Math.floor(top / span));
+        int lastColumn = Math.min((imageWidth - 1) / span, (int) Math.ceil(right / span) - 1);
+        int lastRow = Math.min((imageHeight - 1) / span, (int) Math.ceil(bottom / span) - 1);
+        List<Tile> tiles = new ArrayList<>();
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int tileLeft = column * span;
+                int tileTop = row * span;
+                tiles.add(new Tile(sampleSize, column, row, tileLeft, tileTop,
+                        Math.min(imageWidth, tileLeft + span), Math.min(imageHeight, tileTop + span)));
+            }
+        }
+        return tiles;
+    }
+}
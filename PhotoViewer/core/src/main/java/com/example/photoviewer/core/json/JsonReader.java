@@ -0,0 +1,485 @@
+package com.example.photoviewer.core.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Minimal streaming (pull) JSON reader.
+ * <p>
+ * Same shape as android.util.JsonReader, but pure Java so parsing code can run
+ * and be benchmarked on a plain JVM. Values are read one token at a time;
+ * nothing is materialized unless the caller asks for it, and {@link #skipValue()}
+ * skips whole objects/arrays without allocating strings for them.
+ */
+public final class JsonReader implements Closeable {
+
+    public enum Token {
+        BEGIN_ARRAY, END_ARRAY, BEGIN_OBJECT, END_OBJECT, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    // Scope stack entries
+    private static final int EMPTY_ARRAY = 1;
+    private static final int NONEMPTY_ARRAY = 2;
+    private static final int EMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int NONEMPTY_OBJECT = 5;
+    private static final int EMPTY_DOCUMENT = 6;
+    private static final int NONEMPTY_DOCUMENT = 7;
+
+    private final Reader in;
+    private final char[] buffer = new char[8192];
+    private int pos;
+    private int limit;
+
+    private int[] stack = new int[32];
+    private int stackSize = 1;
+
+    private Token peeked;
+    private final StringBuilder scratch = new StringBuilder();
+
+    public JsonReader(Reader in) {
+        this.in = in;
+        stack[0] = EMPTY_DOCUMENT;
+    }
+
+    public Token peek() throws IOException {
+        if (peeked == null) {
+            peeked = doPeek();
+        }
+        return peeked;
+    }
+
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        stackSize--;
+    }
+
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        stackSize--;
+    }
+
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        return readQuoted();
+    }
+
+    /**
+     * Compare the next name against a known key without allocating a String
+     */
+    public boolean nextNameEquals(String expected) throws IOException {
+        expect(Token.NAME);
+        return readQuotedEquals(expected);
+    }
+
+    /**
+     * Match the next name against several known keys without allocating a String
+     * @return Index of the matching option, or -1 if none matches
+     */
+    public int selectName(String[] options) throws IOException {
+        expect(Token.NAME);
+        readQuotedInto(scratch);
+        for (int i = 0; i < options.length; i++) {
+            if (options[i].contentEquals(scratch)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public String nextString() throws IOException {
+        Token token = peek();
+        if (token == Token.STRING) {
+            peeked = null;
+            return readQuoted();
+        }
+        if (token == Token.NUMBER || token == Token.BOOLEAN) {
+            peeked = null;
+            return readLiteral();
+        }
+        throw syntaxError("Expected string but was " + token);
+    }
+
+    public long nextLong() throws IOException {
+        Token token = peek();
+        if (token != Token.NUMBER && token != Token.STRING) {
+            throw syntaxError("Expected number but was " + token);
+        }
+        peeked = null;
+        String literal = token == Token.STRING ? readQuoted() : readLiteral();
+        try {
+            return Long.parseLong(literal);
+        } catch (NumberFormatException e) {
+            double d = Double.parseDouble(literal);
+            long l = (long) d;
+            if (l != d) {
+                throw syntaxError("Expected integer but was " + literal);
+            }
+            return l;
+        }
+    }
+
+    public int nextInt() throws IOException {
+        long value = nextLong();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw syntaxError("Integer out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    public double nextDouble() throws IOException {
+        Token token = peek();
+        if (token != Token.NUMBER && token != Token.STRING) {
+            throw syntaxError("Expected number but was " + token);
+        }
+        peeked = null;
+        return Double.parseDouble(token == Token.STRING ? readQuoted() : readLiteral());
+    }
+
+    public boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        return "true".equals(readLiteral());
+    }
+
+    public void nextNull() throws IOException {
+        expect(Token.NULL);
+        readLiteral();
+    }
+
+    /**
+     * Skip the next value, including nested arrays and objects
+     */
+    public void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            Token token = peek();
+            peeked = null;
+            switch (token) {
+                case BEGIN_ARRAY:
+                    push(EMPTY_ARRAY);
+                    depth++;
+                    break;
+                case BEGIN_OBJECT:
+                    push(EMPTY_OBJECT);
+                    depth++;
+                    break;
+                case END_ARRAY:
+                case END_OBJECT:
+                    stackSize--;
+                    depth--;
+                    break;
+                case NAME:
+                case STRING:
+                    skipQuoted();
+                    break;
+                case NUMBER:
+                case BOOLEAN:
+                case NULL:
+                    skipLiteral();
+                    break;
+                case END_DOCUMENT:
+                    throw syntaxError("Unexpected end of document");
+                default:
+                    break;
+            }
+        } while (depth > 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        peeked = null;
+        stackSize = 0;
+        in.close();
+    }
+
+    private void expect(Token expected) throws IOException {
+        Token token = peek();
+        if (token != expected) {
+            throw syntaxError("Expected " + expected + " but was " + token);
+        }
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (stackSize == stack.length) {
+            int[] grown = new int[stackSize * 2];
+            System.arraycopy(stack, 0, grown, 0, stackSize);
+            stack = grown;
+        }
+        stack[stackSize++] = scope;
+    }
+
+    private Token doPeek() throws IOException {
+        int scope = stack[stackSize - 1];
+        int c;
+        switch (scope) {
+            case EMPTY_ARRAY:
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    pos++;
+                    return Token.END_ARRAY;
+                }
+                return valueToken(c);
+            case NONEMPTY_ARRAY:
+                c = nextNonWhitespace();
+                pos++;
+                if (c == ']') {
+                    return Token.END_ARRAY;
+                }
+                if (c != ',') {
+                    throw syntaxError("Unterminated array");
+                }
+                return valueToken(nextNonWhitespace());
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                c = nextNonWhitespace();
+                pos++;
+                if (c == '}') {
+                    return Token.END_OBJECT;
+                }
+                if (scope == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw syntaxError("Unterminated object");
+                    }
+                    c = nextNonWhitespace();
+                    pos++;
+                }
+                if (c != '"') {
+                    throw syntaxError("Expected name");
+                }
+                stack[stackSize - 1] = DANGLING_NAME;
+                return Token.NAME;
+            case DANGLING_NAME:
+                c = nextNonWhitespace();
+                pos++;
+                if (c != ':') {
+                    throw syntaxError("Expected ':'");
+                }
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                return valueToken(nextNonWhitespace());
+            case EMPTY_DOCUMENT:
+                stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+                return valueToken(nextNonWhitespace());
+            case NONEMPTY_DOCUMENT:
+                c = nextNonWhitespaceOrEof();
+                if (c == -1) {
+                    return Token.END_DOCUMENT;
+                }
+                throw syntaxError("Trailing content after document");
+            default:
+                throw new IllegalStateException("JsonReader is closed");
+        }
+    }
+
+    /**
+     * Classify a value starting at c. Strings consume the opening quote;
+     * literals are left in the buffer for readLiteral/skipLiteral.
+     */
+    private Token valueToken(int c) throws IOException {
+        switch (c) {
+            case '[':
+                pos++;
+                return Token.BEGIN_ARRAY;
+            case '{':
+                pos++;
+                return Token.BEGIN_OBJECT;
+            case '"':
+                pos++;
+                return Token.STRING;
+            case 't':
+            case 'f':
+                return Token.BOOLEAN;
+            case 'n':
+                return Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return Token.NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    private boolean fill() throws IOException {
+        if (pos < limit) {
+            return true;
+        }
+        int read = in.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            pos = limit = 0;
+            return false;
+        }
+        pos = 0;
+        limit = read;
+        return true;
+    }
+
+    private int nextNonWhitespaceOrEof() throws IOException {
+        while (fill()) {
+            char c = buffer[pos];
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                pos++;
+                continue;
+            }
+            return c;
+        }
+        return -1;
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        int c = nextNonWhitespaceOrEof();
+        if (c == -1) {
+            throw syntaxError("Unexpected end of input");
+        }
+        return c;
+    }
+
+    /**
+     * Read a quoted string whose opening quote was already consumed
+     */
+    private String readQuoted() throws IOException {
+        readQuotedInto(scratch);
+        return scratch.toString();
+    }
+
+    private void readQuotedInto(StringBuilder out) throws IOException {
+        out.setLength(0);
+        while (true) {
+            if (!fill()) {
+                throw syntaxError("Unterminated string");
+            }
+            int start = pos;
+            while (pos < limit) {
+                char c = buffer[pos++];
+                if (c == '"') {
+                    out.append(buffer, start, pos - 1 - start);
+                    return;
+                }
+                if (c == '\\') {
+                    out.append(buffer, start, pos - 1 - start);
+                    out.append(readEscape());
+                    start = pos;
+                }
+            }
+            out.append(buffer, start, pos - start);
+        }
+    }
+
+    private boolean readQuotedEquals(String expected) throws IOException {
+        int index = 0;
+        boolean matches = true;
+        while (true) {
+            if (!fill()) {
+                throw syntaxError("Unterminated string");
+            }
+            char c = buffer[pos++];
+            if (c == '"') {
+                return matches && index == expected.length();
+            }
+            if (c == '\\') {
+                c = readEscape();
+            }
+            if (matches && (index >= expected.length() || expected.charAt(index) != c)) {
+                matches = false;
+            }
+            index++;
+        }
+    }
+
+    private void skipQuoted() throws IOException {
+        while (true) {
+            if (!fill()) {
+                throw syntaxError("Unterminated string");
+            }
+            char c = buffer[pos++];
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                readEscape();
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        if (!fill()) {
+            throw syntaxError("Unterminated escape sequence");
+        }
+        char escaped = buffer[pos++];
+        switch (escaped) {
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    if (!fill()) {
+                        throw syntaxError("Unterminated escape sequence");
+                    }
+                    int digit = Character.digit(buffer[pos++], 16);
+                    if (digit < 0) {
+                        throw syntaxError("Invalid unicode escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            default:
+                return escaped; // '"', '\\', '/'
+        }
+    }
+
+    private String readLiteral() throws IOException {
+        scratch.setLength(0);
+        while (fill()) {
+            char c = buffer[pos];
+            if (isLiteralEnd(c)) {
+                break;
+            }
+            scratch.append(c);
+            pos++;
+        }
+        String literal = scratch.toString();
+        if (literal.isEmpty()) {
+            throw syntaxError("Expected literal");
+        }
+        return literal;
+    }
+
+    private void skipLiteral() throws IOException {
+        while (fill() && !isLiteralEnd(buffer[pos])) {
+            pos++;
+        }
+    }
+
+    private static boolean isLiteralEnd(char c) {
+        return c == ',' || c == '}' || c == ']' || c == ':'
+                || c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException("Malformed JSON: " + message);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.photoviewer.core.layout;
+
+/**
+ * Feed layouts the user can switch between, and the cell height each one gives a post.
+ * Heights depend only on the cell width and the image size the server reports
+ * (image_width/image_height), never on the bitmap, so a cell keeps its size from the
+ * first bind through the bitmap arriving and the list never jumps.
+ */
+public enum FeedLayout {
+    /** One column of fixed-height, center-cropped rows (the original feed) */
+    LIST(1),
+    /** Square center-cropped cells */
+    GRID(3),
+    /** Columns of cells as tall as the image's aspect ratio asks for */
+    STAGGERED(2);
+
+    // Frames from changedetection.py are 320x240
+    public static final float DEFAULT_ASPECT = 4f / 3f;
+    // Panoramas and very tall screenshots are cropped to these width/height ratios
+    public static final float MIN_ASPECT = 0.5f;
+    public static final float MAX_ASPECT = 2.5f;
+
+    private final int columns;
+
+    FeedLayout(int columns) {
+        this.columns = columns;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return The layout after this one, for a toggle button
+     */
+    public FeedLayout next() {
+        FeedLayout[] all = values();
+        return all[(ordinal() + 1) % all.length];
+    }
+
+    /**
+     * Width of one cell's content
+     * @param contentWidth Width available to all columns together
+     * @param cellPadding Horizontal padding inside each cell (both sides together)
+     */
+    public int cellWidth(int contentWidth, int cellPadding) {
+        return Math.max(1, contentWidth / columns - cellPadding);
+    }
+
+    /**
+     * Height of a cell's image
+     * @param cellWidth From cellWidth()
+     * @param listRowHeight Fixed row height used by LIST
+     * @param imageWidth Image width from the server, or 0 if unknown
+     * @param imageHeight Image height from the server, or 0 if unknown
+     */
+    public int cellHeight(int cellWidth, int listRowHeight, int imageWidth, int imageHeight) {
+        switch (this) {
+            case LIST:
+                return listRowHeight;
+            case GRID:
+                return cellWidth;
+            default:
+                return Math.max(1, Math.round(cellWidth / aspect(imageWidth, imageHeight)));
+        }
+    }
+
+    /**
+     * @return width / height, clamped to [MIN_ASPECT, MAX_ASPECT]; DEFAULT_ASPECT if unknown
+     */
+    static float aspect(int imageWidth, int imageHeight) {
+        if (imageWidth <= 0 || imageHeight <= 0) {
+            return DEFAULT_ASPECT;
+        }
+        float aspect = (float) imageWidth / imageHeight;
+        return Math.max(MIN_ASPECT, Math.min(MAX_ASPECT, aspect));
+    }
+}
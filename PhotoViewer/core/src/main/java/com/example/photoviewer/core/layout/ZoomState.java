@@ -0,0 +1,112 @@
+package com.example.photoviewer.core.layout;
+
+/**
+ * Pan and zoom of an image inside a view.
+ * The image is drawn at (translateX, translateY) scaled by scale (screen pixels
+ * per image pixel). Zoom runs from fitting the whole image in the view up to
+ * MAX_SCALE; when the scaled image is smaller than the view along an axis it is
+ * centered on that axis, otherwise it cannot be panned past its edges.
+ */
+public final class ZoomState {
+    // Two screen pixels per image pixel at most, enough to read small text in a frame
+    public static final float MAX_SCALE = 2f;
+
+    private int viewWidth;
+    private int viewHeight;
+    private int imageWidth;
+    private int imageHeight;
+    private float scale = 1f;
+    private float translateX;
+    private float translateY;
+
+    /**
+     * Set the view and image sizes and zoom out to fit
+     */
+    public void setSizes(int viewWidth, int viewHeight, int imageWidth, int imageHeight) {
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+        reset();
+    }
+
+    public boolean hasSizes() {
+        return viewWidth > 0 && viewHeight > 0 && imageWidth > 0 && imageHeight > 0;
+    }
+
+    public void reset() {
+        scale = getFitScale();
+        clamp();
+    }
+
+    public float getFitScale() {
+        if (!hasSizes()) {
+            return 1f;
+        }
+        return Math.min((float) viewWidth / imageWidth, (float) viewHeight / imageHeight);
+    }
+
+    public float getMaxScale() {
+        return Math.max(getFitScale(), MAX_SCALE);
+    }
+
+    public float getScale() {
+        return scale;
+    }
+
+    public float getTranslateX() {
+        return translateX;
+    }
+
+    public float getTranslateY() {
+        return translateY;
+    }
+
+    /**
+     * @return true if zoomed in beyond fit, so drags should pan instead of scrolling the parent
+     */
+    public boolean isZoomed() {
+        return scale > getFitScale() * 1.01f;
+    }
+
+    /**
+     * Zoom around a point in view coordinates, keeping the image point under it in place
+     */
+    public void zoomBy(float factor, float focusX, float focusY) {
+        float target = Math.max(getFitScale(), Math.min(getMaxScale(), scale * factor));
+        float applied = target / scale;
+        translateX = focusX - (focusX - translateX) * applied;
+        translateY = focusY - (focusY - translateY) * applied;
+        scale = target;
+        clamp();
+    }
+
+    public void panBy(float dx, float dy) {
+        translateX += dx;
+        translateY += dy;
+        clamp();
+    }
+
+    /**
+     * @return Visible region in image pixels: {left, top, right, bottom}
+     */
+    public float[] visibleImageRect() {
+        float left = Math.max(0f, -translateX / scale);
+        float top = Math.max(0f, -translateY / scale);
+        float right = Math.min(imageWidth, (viewWidth - translateX) / scale);
+        float bottom = Math.min(imageHeight, (viewHeight - translateY) / scale);
+        return new float[]{left, top, right, bottom};
+    }
+
+    private void clamp() {
+        translateX = clampAxis(translateX, viewWidth, imageWidth * scale);
+        translateY = clampAxis(translateY, viewHeight, imageHeight * scale);
+    }
+
+    private static float clampAxis(float translate, int viewSize, float scaledSize) {
+        if (scaledSize <= viewSize) {
+            return (viewSize - scaledSize) / 2f;
+        }
+        return Math.max(viewSize - scaledSize, Math.min(0f, translate));
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.photoviewer.core.metrics;
+
+import com.example.photoviewer.core.json.JsonStrings;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Named counters and latency histograms for sync and network code.
+ * <p>
+ * Names are dotted paths ("http.posts.list.latency_ms", "cache.thumbnail.hit").
+ * A counter pair "x.hit" / "x.miss" is reported as a hit rate as well.
+ * Metrics live in memory only; {@link #writeJson} exports a snapshot so runs of
+ * different builds can be compared offline.
+ */
+public final class MetricsRegistry {
+    private static final MetricsRegistry instance = new MetricsRegistry();
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    public static MetricsRegistry getInstance() {
+        return instance;
+    }
+
+    public Counter counter(String name) {
+        Counter counter = counters.get(name);
+        return counter != null ? counter : counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    public Histogram histogram(String name) {
+        Histogram histogram = histograms.get(name);
+        return histogram != null ? histogram : histograms.computeIfAbsent(name, key -> new Histogram());
+    }
+
+    /**
+     * Zero every metric (names are kept so the debug screen stays stable)
+     */
+    public void reset() {
+        for (Counter counter : counters.values()) {
+            counter.reset();
+        }
+        for (Histogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * @return hits / (hits + misses) for the "prefix.hit" / "prefix.miss" pair, or -1 with no lookups
+     */
+    public double hitRate(String prefix) {
+        Counter hits = counters.get(prefix + ".hit");
+        Counter misses = counters.get(prefix + ".miss");
+        long h = hits != null ? hits.get() : 0;
+        long m = misses != null ? misses.get() : 0;
+        return h + m == 0 ? -1 : (double) h / (h + m);
+    }
+
+    /**
+     * Human-readable dump for the debug screen, sorted by name
+     */
+    public String formatText() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[histograms] count / mean / p50 / p95 / max (ms)\n");
+        for (Map.Entry<String, Histogram> e : new TreeMap<>(histograms).entrySet()) {
+            Histogram h = e.getValue();
+            sb.append(String.format(Locale.US, "%s  %d / %.1f / %d / %d / %d%n", e.getKey(), h.getCount(),
+                    h.getMean(), h.getPercentile(0.5), h.getPercentile(0.95), h.getMax()));
+        }
+        sb.append("\n[counters]\n");
+        for (Map.Entry<String, Counter> e : new TreeMap<>(counters).entrySet()) {
+            sb.append(e.getKey()).append("  ").append(e.getValue().get()).append('\n');
+        }
+        sb.append("\n[hit rates]\n");
+        for (String prefix : hitRatePrefixes()) {
+            sb.append(String.format(Locale.US, "%s  %.1f%%%n", prefix, hitRate(prefix) * 100));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Export a snapshot as a JSON object: {"meta":{...},"counters":{...},"histograms":{...},"hitRates":{...}}
+     * @param meta Build/device info to tag the export with
+     */
+    public void writeJson(Writer out, Map<String, String> meta) throws IOException {
+        out.write("{\"meta\":{");
+        boolean first = true;
+        for (Map.Entry<String, String> e : new TreeMap<>(meta).entrySet()) {
+            first = writeKey(out, e.getKey(), first);
+            out.write(JsonStrings.quote(e.getValue()));
+        }
+        out.write("},\"counters\":{");
+        first = true;
+        for (Map.Entry<String, Counter> e : new TreeMap<>(counters).entrySet()) {
+            first = writeKey(out, e.getKey(), first);
+            out.write(Long.toString(e.getValue().get()));
+        }
+        out.write("},\"histograms\":{");
+        first = true;
+        for (Map.Entry<String, Histogram> e : new TreeMap<>(histograms).entrySet()) {
+            first = writeKey(out, e.getKey(), first);
+            writeHistogram(out, e.getValue());
+        }
+        out.write("},\"hitRates\":{");
+        first = true;
+        for (String prefix : hitRatePrefixes()) {
+            first = writeKey(out, prefix, first);
+            out.write(String.format(Locale.US, "%.4f", hitRate(prefix)));
+        }
+        out.write("}}");
+        out.flush();
+    }
+
+    private Iterable<String> hitRatePrefixes() {
+        TreeMap<String, Boolean> prefixes = new TreeMap<>();
+        for (String name : counters.keySet()) {
+            if (name.endsWith(".hit") || name.endsWith(".miss")) {
+                prefixes.put(name.substring(0, name.lastIndexOf('.')), Boolean.TRUE);
+            }
+        }
+        return prefixes.keySet();
+    }
+
+    private static boolean writeKey(Writer out, String key, boolean first) throws IOException {
+        if (!first) {
+            out.write(',');
+        }
+        out.write(JsonStrings.quote(key));
+        out.write(':');
+        return false;
+    }
+
+    private static void writeHistogram(Writer out, Histogram h) throws IOException {
+        out.write(String.format(Locale.US,
+                "{\"count\":%d,\"sum\":%d,\"mean\":%.2f,\"p50\":%d,\"p95\":%d,\"p99\":%d,\"max\":%d,\"buckets\":{",
+                h.getCount(), h.getSum(), h.getMean(), h.getPercentile(0.5), h.getPercentile(0.95),
+                h.getPercentile(0.99), h.getMax()));
+        for (int i = 0; i <= Histogram.BOUNDS_MS.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            String label = i < Histogram.BOUNDS_MS.length ? "le" + Histogram.BOUNDS_MS[i] : "inf";
+            out.write("\"" + label + "\":" + h.getBucketCount(i));
+        }
+        out.write("}}");
+    }
+}
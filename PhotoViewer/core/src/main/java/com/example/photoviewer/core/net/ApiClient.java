@@ -0,0 +1,869 @@
+package com.example.photoviewer.core.net;
+
+import com.example.photoviewer.core.feed.BulkEdit;
+import com.example.photoviewer.core.feed.BulkResult;
+import com.example.photoviewer.core.feed.FeedParser;
+import com.example.photoviewer.core.feed.NewPostDetector;
+import com.example.photoviewer.core.feed.NewPostScan;
+import com.example.photoviewer.core.feed.PostRecord;
+import com.example.photoviewer.core.image.ContentHash;
+import com.example.photoviewer.core.image.ImageFormat;
+import com.example.photoviewer.core.json.JsonReader;
+import com.example.photoviewer.core.json.JsonStrings;
+import com.example.photoviewer.core.metrics.MetricsRegistry;
+import com.example.photoviewer.core.trace.TraceRecorder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HTTP client for the PhotoBlogServer REST API (api_root/Post/ and api/auth/login/).
+ * Pure Java on top of HttpURLConnection, so the same code runs in the app and on a JVM.
+ * <p>
+ * Every call records into the MetricsRegistry under "http.&lt;endpoint&gt;.":
+ * latency_ms (histogram), requests, failures, bytes_in and bytes_out (counters),
+ * and bytes_saved when the server answered with a reduced response (a downscaled image),
+ * or when a summary poll replaced the full list (estimated from the last full list).
+ * Endpoints are posts.list, posts.poll, posts.create, posts.create_by_hash, posts.update,
+ * posts.delete, posts.bulk, auth.login, warmup and media.
+ * Calls aborted through a RequestScope count as "cancelled" instead of failures.
+ * Images fetched with fetchImage() also count per received format under
+ * "media.&lt;format&gt;.": images and bytes.
+ * <p>
+ * Every call goes through the client's RetryPolicy: idempotent requests are retried on
+ * transient failures with jittered backoff (counted as "retries", each attempt also counts
+ * as a request), and calls to a host whose circuit breaker is open fail at once with
+ * CircuitOpenException (counted as "short_circuited").
+ * A client built with withReauthenticator() answers a 401 by re-authenticating once through
+ * its AuthGate and replaying the request with the new token (counted as "replays").
+ * <p>
+ * Response times and image download speeds feed the client's NetworkQualityEstimator,
+ * which callers use to pick timeouts, parallelism and image widths.
+ */
+public class ApiClient {
+    private static final String POSTS_PATH = "api_root/Post/";
+    private static final String LOGIN_PATH = "api/auth/login/";
+    private static final String API_ROOT_PATH = "api_root/";
+    private static final String BY_HASH_PATH = "by-hash/";
+    private static final String BULK_PATH = "bulk/";
+
+    /**
+     * Supplies the auth token for each request (null = anonymous)
+     */
+    public interface TokenProvider {
+        String getToken();
+    }
+
+    /**
+     * Opens an upload's image; called once to hash it and again only if the bytes must be sent
+     */
+    public interface ImageSource {
+        InputStream open() throws IOException;
+    }
+
+    private final String baseUrl;
+    private final TokenProvider tokenProvider;
+    private final MetricsRegistry metrics;
+    // Null for the shared client; set on the views returned by withScope()
+    private final RequestScope scope;
+    // Shared by all views of a client, so they see the same circuit breakers
+    private final RetryPolicy retryPolicy;
+    private final NetworkQualityEstimator network;
+    // Null unless withReauthenticator() was used; shared by all views of a client
+    private final AuthGate auth;
+    // Bytes per post of the last full list (0 before one); shared by all views of a client
+    private final AtomicLong fullListBytesPerPost;
+
+    /**
+     * @param baseUrl Server root with trailing slash, e.g. "http://10.0.2.2:8000/"
+     */
+    public ApiClient(String baseUrl, TokenProvider tokenProvider) {
+        this(baseUrl, tokenProvider, new MetricsRegistry());
+    }
+
+    public ApiClient(String baseUrl, TokenProvider tokenProvider, MetricsRegistry metrics) {
+        this(baseUrl.endsWith("/") ? baseUrl : baseUrl + "/", tokenProvider, metrics, null,
+                RetryPolicy.defaults(), new NetworkQualityEstimator(), null, new AtomicLong());
+    }
+
+    private ApiClient(String baseUrl, TokenProvider tokenProvider, MetricsRegistry metrics, RequestScope scope,
+                      RetryPolicy retryPolicy, NetworkQualityEstimator network, AuthGate auth,
+                      AtomicLong fullListBytesPerPost) {
+        this.baseUrl = baseUrl;
+        this.tokenProvider = tokenProvider;
+        this.metrics = metrics;
+        this.scope = scope;
+        this.retryPolicy = retryPolicy;
+        this.network = network;
+        this.auth = auth;
+        this.fullListBytesPerPost = fullListBytesPerPost;
+    }
+
+    /**
+     * @return A client sharing this one's server, token and metrics whose connections
+     *         are closed when the scope is cancelled; calls then throw CancelledException
+     */
+    public ApiClient withScope(RequestScope scope) {
+        return new ApiClient(baseUrl, tokenProvider, metrics, scope, retryPolicy, network, auth, fullListBytesPerPost);
+    }
+
+    /**
+     * @return A client sharing this one's server, token, metrics and scope that retries with the given policy
+     */
+    public ApiClient withRetryPolicy(RetryPolicy retryPolicy) {
+        return new ApiClient(baseUrl, tokenProvider, metrics, scope, retryPolicy, network, auth, fullListBytesPerPost);
+    }
+
+    /**
+     * @return A client sharing this one's server, token, metrics and scope that handles a 401
+     *         by running one re-authentication for all its views (see AuthGate) and replaying
+     *         the request with the new token
+     */
+    public ApiClient withReauthenticator(AuthGate.Reauthenticator reauthenticator) {
+        return new ApiClient(baseUrl, tokenProvider, metrics, scope, retryPolicy, network,
+                new AuthGate(tokenProvider, reauthenticator, metrics), fullListBytesPerPost);
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * @return Estimate of the link to the server, shared by all views of this client
+     */
+    public NetworkQualityEstimator getNetworkQuality() {
+        return network;
+    }
+
+    public RequestScope getScope() {
+        return scope;
+    }
+
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public String postsUrl() {
+        return baseUrl + POSTS_PATH;
+    }
+
+    public String postUrl(int postId) {
+        return baseUrl + POSTS_PATH + postId + "/";
+    }
+
+    /**
+     * Ask the server's image endpoint for a copy no wider than width
+     * (see NetworkQualityEstimator.imageWidthFor); plain media URLs ignore the parameter
+     */
+    public static String imageUrlForWidth(String imageUrl, int width) {
+        return imageUrl + (imageUrl.indexOf('?') < 0 ? "?w=" : "&w=") + width;
+    }
+
+    /**
+     * GET api_root/Post/ and parse the list while streaming.
+     * Also records feed.fetch_ms (until response headers) and feed.parse_ms (body streaming + parsing).
+     */
+    public List<PostRecord> fetchPosts(int timeoutMs) throws IOException {
+        return send("posts.list", "GET", postsUrl(), call -> {
+            HttpURLConnection conn = open(call, "GET", postsUrl(), timeoutMs);
+            try {
+                int code = responseCode(conn, call);
+                metrics.histogram("feed.fetch_ms").recordSince(call.startNanos);
+                if (code != HttpURLConnection.HTTP_OK) {
+                    throw error(conn, code, call);
+                }
+                long parseStart = System.nanoTime();
+                try (CountingInputStream in = new CountingInputStream(conn.getInputStream())) {
+                    List<PostRecord> posts = FeedParser.parse(in);
+                    metrics.histogram("feed.parse_ms").recordSince(parseStart);
+                    call.bytesIn = in.getCount();
+                    if (!posts.isEmpty()) {
+                        fullListBytesPerPost.set(call.bytesIn / posts.size());
+                    }
+                    call.ok = true;
+                    return posts;
+                }
+            } catch (IOException | RuntimeException e) {
+                throw failure(e);
+            } finally {
+                release(conn);
+            }
+        });
+    }
+
+    /**
+     * GET api_root/Post/ and skim it for posts newer than the detector's last seen id.
+     * A newest-first detector requests ?ordering=-id and closes the response as soon
+     * as it reaches the old posts.
+     */
+    public NewPostScan detectNewPosts(NewPostDetector detector, int timeoutMs) throws IOException {
+        String query = (detector.isNewestFirst() ? "&ordering=-id" : "") + (detector.isSummaryOnly() ? "&summary=1" : "");
+        String url = query.isEmpty() ? postsUrl() : postsUrl() + "?" + query.substring(1);
+        return send("posts.poll", "GET", url, call -> {
+            HttpURLConnection conn = open(call, "GET", url, timeoutMs);
+            try {
+                int code = responseCode(conn, call);
+                if (code != HttpURLConnection.HTTP_OK) {
+                    throw error(conn, code, call);
+                }
+                try (CountingInputStream in = new CountingInputStream(conn.getInputStream())) {
+                    NewPostScan scan = detector.detect(in);
+                    call.bytesIn = in.getCount();
+                    if (detector.isSummaryOnly()) {
+                        countSummaryBytesSaved(scan.getScannedCount(), call);
+                    }
+                    call.ok = true;
+                    return scan;
+                }
+            } catch (IOException | RuntimeException e) {
+                throw failure(e);
+            } finally {
+                release(conn);
+            }
+        });
+    }
+
+    /**
+     * Download an image (or any media URL) into memory
+     */
+    public byte[] fetchBytes(String url, int timeoutMs) throws IOException {
+        return fetchImage(url, null, timeoutMs);
+    }
+
+    /**
+     * Download an image, asking for the formats in the Accept header
+     * (see ImageFormat.acceptHeader); PostRecord.getImageUrl() points at the
+     * server's negotiating endpoint for every post with an image
+     * @param accept Accept header value, or null to take whatever the URL serves
+     */
+    public byte[] fetchImage(String url, String accept, int timeoutMs) throws IOException {
+        return send("media", "GET", url, call -> {
+            HttpURLConnection conn = open(call, "GET", url, timeoutMs);
+            try {
+                if (accept != null) {
+                    conn.setRequestProperty("Accept", accept);
+                }
+                call.measureThroughput = true;
+                int code = responseCode(conn, call);
+                if (code != HttpURLConnection.HTTP_OK) {
+                    throw error(conn, code, call);
+                }
+                try (InputStream in = conn.getInputStream()) {
+                    byte[] data = readAll(in, conn.getContentLength());
+                    call.bytesIn = data.length;
+                    call.ok = true;
+                    countImage(data, data.length);
+                    return data;
+                }
+            } catch (IOException | RuntimeException e) {
+                throw failure(e);
+            } finally {
+                release(conn);
+            }
+        });
+    }
+
+    /**
+     * Like fetchImage(), but streams the body to out instead of holding it in memory
+     * (full-resolution originals for the zoom viewer can be tens of megabytes)
+     * @return Number of bytes written
+     */
+    public long fetchImage(String url, String accept, OutputStream out, int timeoutMs) throws IOException {
+        return send("media", "GET", url, call -> {
+            HttpURLConnection conn = open(call, "GET", url, timeoutMs);
+            try {
+                if (accept != null) {
+                    conn.setRequestProperty("Accept", accept);
+                }
+                call.measureThroughput = true;
+                int code = responseCode(conn, call);
+                if (code != HttpURLConnection.HTTP_OK) {
+                    throw error(conn, code, call);
+                }
+                byte[] header = null;
+                try (InputStream in = conn.getInputStream()) {
+                    byte[] buffer = new byte[64 * 1024];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        if (header == null) {
+                            header = Arrays.copyOf(buffer, read);
+                        }
+                        // Bytes handed to out cannot be taken back; no retry from here on
+                        call.committed = true;
+                        out.write(buffer, 0, read);
+                        call.bytesIn += read;
+                    }
+                }
+                call.ok = true;
+                countImage(header, call.bytesIn);
+                return call.bytesIn;
+            } catch (IOException | RuntimeException e) {
+                throw failure(e);
+            } finally {
+                release(conn);
+            }
+        });
+    }
+
+    private void countImage(byte[] header, long length) {
+        String format = ImageFormat.sniff(header).getName();
+        metrics.counter("media." + format + ".images").inc();
+        metrics.counter("media." + format + ".bytes").add(length);
+    }
+
+    /**
+     * POST a new post with its image, streaming the image from the given source
+     */
+    public ApiResponse createPost(String title, String text, String fileName, String contentType,
+                                  InputStream image, int timeoutMs) throws IOException {
+        String boundary = MultipartWriter.newBoundary();
+        return send("posts.create", "POST", postsUrl(), call -> {
+            HttpURLConnection conn = open(call, "POST", postsUrl(), timeoutMs);
+            try {
+                conn.setDoOutput(true);
+                conn.setUseCaches(false);
+                conn.setRequestProperty("Content-Type", MultipartWriter.contentType(boundary));
+                try (OutputStream out = conn.getOutputStream()) {
+                    MultipartWriter writer = new MultipartWriter(out, boundary);
+                    writer.addField("title", title);
+                    writer.addField("text", text);
+                    call.oneShotBody = true;
+                    writer.addFile("image", fileName, contentType, image);
+                    writer.finish();
+                    call.bytesOut = writer.getBytesWritten();
+                }
+                return readResponse(conn, call);
+            } catch (IOException | RuntimeException e) {
+                throw failure(e);
+            } finally {
+                release(conn);
+            }
+        });
+    }
+
+    /**
+     * Create a post without re-sending an image the server already has.
+     * The image is hashed while it is read once; POST api_root/Post/by-hash/ then creates the
+     * post from the stored copy in one small round trip. Only if the server does not know the
+     * hash (404, or any other failure such as an older server) is the image opened again and
+     * uploaded with {@link #createPost}.
+     * Counts upload.dedup.hit / upload.dedup.miss and upload.dedup.bytes_saved.
+     */
+    public ApiResponse createPostDeduplicated(String title, String text, String fileName, String contentType,
+                                              ImageSource image, int timeoutMs) throws IOException {
+        ContentHash hash;
+        try (InputStream in = image.open()) {
+            hash = ContentHash.sha256(in);
+        }
+        ApiResponse byHash = createPostByHash(title, text, hash.getHex(), timeoutMs);
+        if (byHash.isSuccessful()) {
+            metrics.counter("upload.dedup.hit").inc();
+            metrics.counter("upload.dedup.bytes_saved").add(hash.getLength());
+            return byHash;
+        }
+        metrics.counter("upload.dedup.miss").inc();
+        try (InputStream in = image.open()) {
+            return createPost(title, text, fileName, contentType, in, timeoutMs);
+        }
+    }
+
+    /**
+     * POST api_root/Post/by-hash/ with the image's SHA-256 instead of its bytes
+     * @return 201 if the server reused a stored image, 404 if it has no image with that hash
+     */
+    public ApiResponse createPostByHash(String title, String text, String imageHash, int timeoutMs)
+            throws IOException {
+        return send("posts.create_by_hash", "POST", postsUrl() + BY_HASH_PATH, call -> {
+            HttpURLConnection conn = open(call, "POST", postsUrl() + BY_HASH_PATH, timeoutMs);
+            try {
+                conn.setDoOutput(true);
+                conn.setRequestProperty("Content-Type", "application/json");
+                byte[] body = ("{\"title\":" + JsonStrings.quote(title)
+                        + ",\"text\":" + JsonStrings.quote(text)
+                        + ",\"image_hash\":" + JsonStrings.quote(imageHash) + "}").getBytes(StandardCharsets.UTF_8);
+                try (OutputStream out = conn.getOutputStream()) {
+                    out.write(body);
+                }
+                call.bytesOut = body.length;
+                ApiResponse response = readResponse(conn, call);
+                if (response.getCode() == HttpURLConnection.HTTP_NOT_FOUND) {
+                    // Unknown hash is an expected answer, not a failed request
+                    call.ok = true;
+                }
+                return response;
+            } catch (IOException | RuntimeException e) {
+                throw failure(e);
+            } finally {
+                release(conn);
+            }
+        });
+    }
+
+    /**
+     * PUT updated title/text, and a replacement image if one is given
+     */
+    public ApiResponse updatePost(int postId, String title, String text, byte[] image, String imageFileName,
+                                  String imageContentType, int timeoutMs) throws IOException {
+        String boundary = MultipartWriter.newBoundary();
+        return send("posts.update", "PUT", postUrl(postId), call -> {
+            HttpURLConnection conn = open(call, "PUT", postUrl(postId), timeoutMs);
+            try {
+                conn.setDoOutput(true);
+                conn.setRequestProperty("Content-Type", MultipartWriter.contentType(boundary));
+                try (OutputStream out = conn.getOutputStream()) {
+                    MultipartWriter writer = new MultipartWriter(out, boundary);
+                    writer.addField("title", title);
+                    writer.addField("text", text);
+                    if (image != null) {
+                        writer.addFile("image", imageFileName, imageContentType, image);
+                    }
+                    writer.finish();
+                    call.bytesOut = writer.getBytesWritten();
+                }
+                return readResponse(conn, call);
+            } catch (IOException | RuntimeException e) {
+                throw failure(e);
+            } finally {
+                release(conn);
+            }
+        });
+    }
+
+    public ApiResponse deletePost(int postId, int timeoutMs) throws IOException {
+        return send("posts.delete", "DELETE", postUrl(postId), call -> {
+            HttpURLConnection conn = open(call, "DELETE", postUrl(postId), timeoutMs);
+            try {
+                return readResponse(conn, call);
+            } catch (IOException | RuntimeException e) {
+                throw failure(e);
+            } finally {
+                release(conn);
+            }
+        });
+    }
+
+    /**
+     * POST api_root/Post/bulk/: delete and update many posts in one request and one
+     * server transaction
+     * @return Per-post results
+     * @throws ApiException if the server rejected the whole request
+     */
+    public BulkResult bulkEdit(BulkEdit edit, int timeoutMs) throws IOException {
+        String url = postsUrl() + BULK_PATH;
+        return send("posts.bulk", "POST", url, call -> {
+            HttpURLConnection conn = open(call, "POST", url, timeoutMs);
+            try {
+                conn.setDoOutput(true);
+                conn.setRequestProperty("Content-Type", "application/json");
+                byte[] body = edit.toJson().getBytes(StandardCharsets.UTF_8);
+                try (OutputStream out = conn.getOutputStream()) {
+                    out.write(body);
+                }
+                call.bytesOut = body.length;
+                int code = responseCode(conn, call);
+                if (code != HttpURLConnection.HTTP_OK) {
+                    throw error(conn, code, call);
+                }
+                try (CountingInputStream in = new CountingInputStream(conn.getInputStream())) {
+                    BulkResult result = BulkResult.parse(in);
+                    call.bytesIn = in.getCount();
+                    call.ok = true;
+                    return result;
+                }
+            } catch (IOException | RuntimeException e) {
+                throw failure(e);
+            } finally {
+                release(conn);
+            }
+        });
+    }
+
+    /**
+     * GET api_root/ (a few hundred bytes) to resolve DNS and open the (TLS) connection
+     * before it is needed. The response is read to the end, so the socket goes back to the
+     * platform keep-alive pool and the next request to the host (login, the first sync)
+     * skips the handshakes.
+     * @return false if the server could not be reached; warming up is best effort
+     */
+    public boolean warmUp(int timeoutMs) {
+        String url = baseUrl + API_ROOT_PATH;
+        try {
+            return send("warmup", "GET", url, call -> {
+                HttpURLConnection conn = open(call, "GET", url, timeoutMs, false);
+                try {
+                    return readResponse(conn, call).isSuccessful();
+                } catch (IOException | RuntimeException e) {
+                    throw failure(e);
+                } finally {
+                    release(conn);
+                }
+            });
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * POST api/auth/login/
+     * @return Auth token
+     * @throws ApiException with the server's "error" message when credentials are rejected
+     */
+    public String login(String username, String password, int timeoutMs) throws IOException {
+        return send("auth.login", "POST", baseUrl + LOGIN_PATH, call -> {
+            HttpURLConnection conn = open(call, "POST", baseUrl + LOGIN_PATH, timeoutMs, false);
+            try {
+                conn.setDoOutput(true);
+                conn.setRequestProperty("Content-Type", "application/json");
+                byte[] body = ("{\"username\":" + JsonStrings.quote(username)
+                        + ",\"password\":" + JsonStrings.quote(password) + "}").getBytes(StandardCharsets.UTF_8);
+                try (OutputStream out = conn.getOutputStream()) {
+                    out.write(body);
+                }
+                call.bytesOut = body.length;
+                ApiResponse response = readResponse(conn, call);
+                if (response.getCode() != HttpURLConnection.HTTP_OK) {
+                    String message = readStringField(response.getBody(), "error");
+                    throw new ApiException(response.getCode(),
+                            message != null ? message : "Login failed", response.getBody());
+                }
+                String token = readStringField(response.getBody(), "token");
+                if (token == null) {
+                    throw new IOException("Login response has no token");
+                }
+                return token;
+            } catch (IOException | RuntimeException e) {
+                throw failure(e);
+            } finally {
+                release(conn);
+            }
+        });
+    }
+
+    /**
+     * One attempt of a request; fills in the Call's metrics
+     */
+    private interface Attempt<T> {
+        T run(Call call) throws IOException;
+    }
+
+    /**
+     * Run attempts under the retry policy and the host's circuit breaker.
+     * An attempt that returns a transient status (e.g. a PUT answered with 503) is retried
+     * like one that throws; after the last attempt its response or exception is passed on.
+     */
+    private <T> T send(String endpoint, String method, String url, Attempt<T> attempt) throws IOException {
+        CircuitBreaker breaker = retryPolicy.breakerFor(url);
+        boolean idempotent = RetryPolicy.isIdempotent(method);
+        boolean replayed = false;
+        for (int attemptNo = 1; ; attemptNo++) {
+            if (!breaker.tryAcquire()) {
+                metrics.counter("http." + endpoint + ".short_circuited").inc();
+                throw new CircuitOpenException(RetryPolicy.hostOf(url), breaker.getRetryAfterMs());
+            }
+            Call call = new Call(endpoint);
+            T result = null;
+            IOException error = null;
+            try {
+                result = attempt.run(call);
+            } catch (IOException e) {
+                error = e;
+            } catch (RuntimeException e) {
+                breaker.onCancelled();
+                throw e;
+            } finally {
+                call.finish();
+            }
+            if (error instanceof CancelledException) {
+                breaker.onCancelled();
+                throw error;
+            }
+            // Any IOException other than an HTTP status is a network failure
+            boolean networkError = error != null && !(error instanceof ApiException);
+            if (networkError || RetryPolicy.isHostFailure(call.code)) {
+                breaker.onFailure();
+            } else {
+                breaker.onSuccess();
+            }
+            // A 401 was not acted on by the server, so any request may be sent again once
+            if (call.code == HttpURLConnection.HTTP_UNAUTHORIZED && auth != null && call.token != null
+                    && !call.committed && !call.oneShotBody && !replayed) {
+                String token = auth.onUnauthorized(call.token, scope);
+                if (token != null) {
+                    replayed = true;
+                    metrics.counter("http." + endpoint + ".replays").inc();
+                    // A replay does not use up a retry
+                    attemptNo--;
+                    continue;
+                }
+            }
+            boolean retryable = idempotent && !call.committed && attemptNo < retryPolicy.getMaxAttempts()
+                    && (networkError || RetryPolicy.isTransientStatus(call.code));
+            long delayMs = retryable ? retryPolicy.delayBeforeRetry(attemptNo - 1, call.retryAfterMs) : -1;
+            if (delayMs < 0) {
+                if (error != null) {
+                    throw error;
+                }
+                return result;
+            }
+            metrics.counter("http." + endpoint + ".retries").inc();
+            retryPolicy.getSleeper().sleep(delayMs, scope);
+        }
+    }
+
+    /**
+     * Open a connection with the auth header and timeouts applied
+     */
+    private HttpURLConnection open(Call call, String method, String url, int timeoutMs) throws IOException {
+        return open(call, method, url, timeoutMs, true);
+    }
+
+    /**
+     * @param authenticated false for login: a stale token would make
+     *                      TokenAuthentication reject even AllowAny views
+     */
+    private HttpURLConnection open(Call call, String method, String url, int timeoutMs, boolean authenticated)
+            throws IOException {
+        if (scope != null) {
+            scope.throwIfCancelled();
+        }
+        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+        // disconnect() from the cancelling thread closes the socket under a blocked read
+        if (scope != null && !scope.attach(new Disconnect(conn))) {
+            throw new CancelledException("Request scope cancelled");
+        }
+        conn.setRequestMethod(method);
+        conn.setConnectTimeout(timeoutMs);
+        conn.setReadTimeout(timeoutMs);
+        if (authenticated) {
+            // Held back while a re-authentication replaces the token
+            call.token = auth != null ? auth.tokenForRequest(scope)
+                    : tokenProvider != null ? tokenProvider.getToken() : null;
+        }
+        if (call.token != null) {
+            conn.setRequestProperty("Authorization", "Token " + call.token);
+        }
+        return conn;
+    }
+
+    private void release(HttpURLConnection conn) {
+        if (scope != null) {
+            scope.detach(new Disconnect(conn));
+        }
+        conn.disconnect();
+    }
+
+    /**
+     * A call that failed because the scope closed its connection reports as cancelled.
+     * That includes runtime exceptions: the JDK's HttpURLConnection can throw a
+     * NullPointerException when disconnect() races a blocked getResponseCode().
+     */
+    private IOException failure(Exception e) {
+        if (scope != null && scope.isCancelled() && !(e instanceof CancelledException)) {
+            CancelledException cancelled = new CancelledException("Request scope cancelled");
+            cancelled.initCause(e);
+            return cancelled;
+        }
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        }
+        return (IOException) e;
+    }
+
+    /**
+     * getResponseCode(), also timing the response for the network estimate and
+     * keeping the server's Retry-After for the retry loop
+     */
+    private int responseCode(HttpURLConnection conn, Call call) throws IOException {
+        int code = conn.getResponseCode();
+        call.code = code;
+        call.headersNanos = System.nanoTime();
+        network.onResponseHeaders(TimeUnit.NANOSECONDS.toMillis(call.headersNanos - call.startNanos));
+        countBytesSaved(conn, call);
+        if (RetryPolicy.isTransientStatus(code)) {
+            call.retryAfterMs = RetryPolicy.parseRetryAfter(conn.getHeaderField("Retry-After"), retryPolicy.now());
+        }
+        return code;
+    }
+
+    /**
+     * Downscaled images carry X-Full-Length, the size the full response would have had;
+     * the difference counts as "http.&lt;endpoint&gt;.bytes_saved"
+     */
+    private void countBytesSaved(HttpURLConnection conn, Call call) {
+        String fullLength = conn.getHeaderField("X-Full-Length");
+        long length = conn.getContentLengthLong();
+        if (fullLength == null || length < 0) {
+            return;
+        }
+        try {
+            long saved = Long.parseLong(fullLength.trim()) - length;
+            if (saved > 0) {
+                metrics.counter("http." + call.endpoint + ".bytes_saved").add(saved);
+            }
+        } catch (NumberFormatException e) {
+            // Ignore a malformed header
+        }
+    }
+
+    /**
+     * A summary poll saved what its posts would have cost in the full list, estimated from
+     * the last fetchPosts(); counted here so the server does not render the full list
+     * on every poll. Nothing is counted before the first full list.
+     */
+    private void countSummaryBytesSaved(int postsRead, Call call) {
+        long saved = fullListBytesPerPost.get() * postsRead - call.bytesIn;
+        if (saved > 0) {
+            metrics.counter("http." + call.endpoint + ".bytes_saved").add(saved);
+        }
+    }
+
+    private ApiResponse readResponse(HttpURLConnection conn, Call call) throws IOException {
+        int code = responseCode(conn, call);
+        call.ok = code >= 200 && code < 300;
+        InputStream in = code >= 400 ? conn.getErrorStream() : conn.getInputStream();
+        if (in == null) {
+            return new ApiResponse(code, "");
+        }
+        try (InputStream body = in) {
+            byte[] data = readAll(body, -1);
+            call.bytesIn = data.length;
+            return new ApiResponse(code, new String(data, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static ApiException error(HttpURLConnection conn, int code, Call call) throws IOException {
+        String body = "";
+        InputStream in = conn.getErrorStream();
+        if (in != null) {
+            try (InputStream errorBody = in) {
+                byte[] data = readAll(errorBody, -1);
+                call.bytesIn = data.length;
+                body = new String(data, StandardCharsets.UTF_8);
+            }
+        }
+        return new ApiException(code, "HTTP " + code, body);
+    }
+
+    /**
+     * Metrics for one request attempt; finish() records them whether the call succeeded or threw.
+     * Also leaves an "http" event (code, ms) in the TraceRecorder; code 0 = no response.
+     */
+    private final class Call {
+        final String endpoint;
+        final long startNanos = System.nanoTime();
+        long bytesIn;
+        long bytesOut;
+        int code;
+        boolean ok;
+        // Set once response bytes have left the client (streamed to a caller's output)
+        boolean committed;
+        long retryAfterMs = -1;
+        // Set when the response headers arrive; bodies of image calls count towards throughput
+        long headersNanos;
+        boolean measureThroughput;
+        // Token the request was sent with, or null
+        String token;
+        // Set when the request body came from a stream that cannot be read again
+        boolean oneShotBody;
+
+        Call(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        void finish() {
+            long now = System.nanoTime();
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(now - startNanos);
+            if (ok && measureThroughput && headersNanos != 0) {
+                network.onBody(bytesIn, TimeUnit.NANOSECONDS.toMillis(now - headersNanos));
+            }
+            TraceRecorder.getInstance().record("http", endpoint, code, elapsedMs);
+            String prefix = "http." + endpoint + ".";
+            metrics.histogram(prefix + "latency_ms").record(elapsedMs);
+            metrics.counter(prefix + "requests").inc();
+            metrics.counter(prefix + "bytes_in").add(bytesIn);
+            metrics.counter(prefix + "bytes_out").add(bytesOut);
+            if (scope != null && scope.isCancelled()) {
+                metrics.counter(prefix + "cancelled").inc();
+            } else if (!ok) {
+                metrics.counter(prefix + "failures").inc();
+            }
+        }
+    }
+
+    /**
+     * Scope attachment for a connection; equal for the same connection so it can be detached
+     */
+    private static final class Disconnect implements Closeable {
+        final HttpURLConnection conn;
+
+        Disconnect(HttpURLConnection conn) {
+            this.conn = conn;
+        }
+
+        @Override
+        public void close() {
+            conn.disconnect();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Disconnect && ((Disconnect) o).conn == conn;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(conn);
+        }
+    }
+
+    static byte[] readAll(InputStream in, int expectedLength) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(expectedLength > 0 ? expectedLength : 8192);
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Read one top-level string field from a JSON object body
+     * @return The value, or null if absent or the body is not an object
+     */
+    static String readStringField(String body, String field) {
+        if (body == null || body.isEmpty()) {
+            return null;
+        }
+        try {
+            JsonReader json = new JsonReader(new StringReader(body));
+            if (json.peek() != JsonReader.Token.BEGIN_OBJECT) {
+                return null;
+            }
+            json.beginObject();
+            while (json.hasNext()) {
+                if (json.nextNameEquals(field) && json.peek() == JsonReader.Token.STRING) {
+                    return json.nextString();
+                }
+                json.skipValue();
+            }
+        } catch (IOException e) {
+            // Not JSON (e.g. an HTML error page)
+        }
+        return null;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.photoviewer.core.net;
+
+import java.io.IOException;
+
+/**
+ * The server answered, but not with a success status
+ */
+public class ApiException extends IOException {
+    private final int code;
+    private final String body;
+
+    public ApiException(int code, String message, String body) {
+        super(message);
+        this.code = code;
+        this.body = body;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String getBody() {
+        return body;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.photoviewer.core.net;
+
+/**
+ * Status code and body of a finished API request
+ */
+public final class ApiResponse {
+    private final int code;
+    private final String body;
+
+    public ApiResponse(int code, String body) {
+        this.code = code;
+        this.body = body;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public boolean isSuccessful() {
+        return code >= 200 && code < 300;
+    }
+}
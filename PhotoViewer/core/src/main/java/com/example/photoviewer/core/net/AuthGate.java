@@ -0,0 +1,123 @@
+package com.example.photoviewer.core.net;
+
+import com.example.photoviewer.core.metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-flight re-authentication for an ApiClient (see ApiClient.withReauthenticator).
+ * <p>
+ * When the server answers 401 to a token, the first request to see it runs the
+ * {@link Reauthenticator}; while that flow runs, authenticated requests wait instead of
+ * being sent with the rejected token, and other requests answered 401 join the same flow.
+ * All of them are then replayed with the new token. A flow that ends without a token is
+ * not started again for the same token for {@link #DECLINED_BACKOFF_MS}, so a cancelled
+ * re-login does not come back with every following request.
+ * <p>
+ * Records "auth.reauth.": flows, joined, declined and suppressed (counters).
+ */
+public final class AuthGate {
+    static final long DECLINED_BACKOFF_MS = 60000;
+    // Waiting requests check their scope this often
+    private static final long WAIT_SLICE_MS = 100;
+
+    /**
+     * Obtains a new token once the server rejected the current one (e.g. asks the user to log in again)
+     */
+    public interface Reauthenticator {
+        /**
+         * Blocks until the flow is done; requests that need a token wait meanwhile
+         * @param rejectedToken The token the server answered 401 to
+         * @return The new token, or null if there is none (the user cancelled, the app is in the background)
+         */
+        String reauthenticate(String rejectedToken) throws IOException;
+    }
+
+    private final ApiClient.TokenProvider tokens;
+    private final Reauthenticator reauthenticator;
+    private final MetricsRegistry metrics;
+
+    // Guarded by this
+    private boolean inFlight;
+    private long flowCount;
+    private String lastResult;
+    private String declinedToken;
+    private long declinedAtNanos;
+
+    AuthGate(ApiClient.TokenProvider tokens, Reauthenticator reauthenticator, MetricsRegistry metrics) {
+        this.tokens = tokens;
+        this.reauthenticator = reauthenticator;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return The token to send, after any re-authentication in progress has finished
+     */
+    String tokenForRequest(RequestScope scope) throws CancelledException {
+        synchronized (this) {
+            while (inFlight) {
+                await(scope);
+            }
+        }
+        return tokens.getToken();
+    }
+
+    /**
+     * @param rejectedToken The token the request was sent with
+     * @return The token to replay the request with, or null to let it fail with its 401
+     */
+    String onUnauthorized(String rejectedToken, RequestScope scope) throws IOException {
+        synchronized (this) {
+            if (inFlight) {
+                metrics.counter("auth.reauth.joined").inc();
+                long flow = flowCount;
+                while (inFlight && flowCount == flow) {
+                    await(scope);
+                }
+                return lastResult;
+            }
+            String current = tokens.getToken();
+            if (current != null && !current.equals(rejectedToken)) {
+                // Someone re-authenticated after this request was sent
+                return current;
+            }
+            if (rejectedToken.equals(declinedToken)
+                    && System.nanoTime() - declinedAtNanos < TimeUnit.MILLISECONDS.toNanos(DECLINED_BACKOFF_MS)) {
+                metrics.counter("auth.reauth.suppressed").inc();
+                return null;
+            }
+            inFlight = true;
+            flowCount++;
+        }
+        metrics.counter("auth.reauth.flows").inc();
+        String token = null;
+        try {
+            token = reauthenticator.reauthenticate(rejectedToken);
+            return token;
+        } finally {
+            synchronized (this) {
+                inFlight = false;
+                lastResult = token;
+                if (token == null) {
+                    metrics.counter("auth.reauth.declined").inc();
+                    declinedToken = rejectedToken;
+                    declinedAtNanos = System.nanoTime();
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    private void await(RequestScope scope) throws CancelledException {
+        if (scope != null) {
+            scope.throwIfCancelled();
+        }
+        try {
+            wait(WAIT_SLICE_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancelledException("Interrupted while waiting for re-authentication");
+        }
+    }
+}
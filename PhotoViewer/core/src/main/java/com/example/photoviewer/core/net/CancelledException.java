@@ -0,0 +1,12 @@
+package com.example.photoviewer.core.net;
+
+import java.io.InterruptedIOException;
+
+/**
+ * The request's RequestScope was cancelled; its connection has been closed
+ */
+public class CancelledException extends InterruptedIOException {
+    public CancelledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.photoviewer.core.net;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker for one host.
+ * <p>
+ * CLOSED: requests flow; consecutive failures are counted. After failureThreshold
+ * of them the breaker turns OPEN and rejects requests for openMs without touching
+ * the network. Then it is HALF_OPEN: exactly one probe request is let through; its
+ * success closes the breaker, its failure opens it again for another openMs.
+ * A failure is a network error, a 5xx or a 429; other answers prove the host is up.
+ */
+public final class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMs;
+    private final LongSupplier clock;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+    private long openCount;
+
+    CircuitBreaker(int failureThreshold, long openMs, LongSupplier clock) {
+        this.failureThreshold = failureThreshold;
+        this.openMs = openMs;
+        this.clock = clock;
+    }
+
+    /**
+     * Ask to send a request
+     * @return false if the breaker is open (or a half-open probe is already out)
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openMs) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                return false;
+            }
+            probeInFlight = true;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                openCount++;
+            }
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+        }
+        probeInFlight = false;
+    }
+
+    /**
+     * The request was cancelled before it said anything about the host; lets another probe through
+     */
+    public synchronized void onCancelled() {
+        probeInFlight = false;
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openMs) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * @return Milliseconds until a probe is allowed, 0 if requests may go now
+     */
+    public synchronized long getRetryAfterMs() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, openMs - (clock.getAsLong() - openedAt));
+    }
+
+    /**
+     * @return How many times the breaker has opened
+     */
+    public synchronized long getOpenCount() {
+        return openCount;
+    }
+}
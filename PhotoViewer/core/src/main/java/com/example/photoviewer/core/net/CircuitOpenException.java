@@ -0,0 +1,29 @@
+package com.example.photoviewer.core.net;
+
+import java.io.IOException;
+
+/**
+ * The request was not sent because the host's circuit breaker is open
+ * (it failed repeatedly and is being left alone for a while)
+ */
+public class CircuitOpenException extends IOException {
+    private final String host;
+    private final long retryAfterMs;
+
+    public CircuitOpenException(String host, long retryAfterMs) {
+        super("Circuit open for " + host + ", retry in " + retryAfterMs + " ms");
+        this.host = host;
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * @return Time until the breaker lets a probe request through
+     */
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.photoviewer.core.net;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams a multipart/form-data body.
+ * Field values are written as UTF-8 so Korean titles survive the upload
+ * (DataOutputStream.writeBytes dropped the high byte of every char).
+ */
+public final class MultipartWriter {
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] DASHES = {'-', '-'};
+
+    private final OutputStream out;
+    private final String boundary;
+    private final byte[] copyBuffer = new byte[16 * 1024];
+    private long bytesWritten;
+
+    public MultipartWriter(OutputStream out, String boundary) {
+        this.out = out;
+        this.boundary = boundary;
+    }
+
+    public static String newBoundary() {
+        return "===boundary===" + System.currentTimeMillis() + "===";
+    }
+
+    public static String contentType(String boundary) {
+        return "multipart/form-data; boundary=" + boundary;
+    }
+
+    public MultipartWriter addField(String name, String value) throws IOException {
+        writeBoundary();
+        writeAscii("Content-Disposition: form-data; name=\"" + name + "\"");
+        write(CRLF);
+        write(CRLF);
+        write(value.getBytes(StandardCharsets.UTF_8));
+        write(CRLF);
+        return this;
+    }
+
+    /**
+     * Add a file part, copying from the stream until EOF
+     * @return Number of file bytes written
+     */
+    public long addFile(String name, String fileName, String contentType, InputStream data) throws IOException {
+        writeFileHeader(name, fileName, contentType);
+        long total = 0;
+        int read;
+        while ((read = data.read(copyBuffer)) != -1) {
+            write(copyBuffer, 0, read);
+            total += read;
+        }
+        write(CRLF);
+        return total;
+    }
+
+    public MultipartWriter addFile(String name, String fileName, String contentType, byte[] data) throws IOException {
+        writeFileHeader(name, fileName, contentType);
+        write(data, 0, data.length);
+        write(CRLF);
+        return this;
+    }
+
+    /**
+     * Write the closing boundary and flush
+     */
+    public void finish() throws IOException {
+        write(DASHES);
+        writeAscii(boundary);
+        write(DASHES);
+        write(CRLF);
+        out.flush();
+    }
+
+    /**
+     * @return Total body bytes written so far
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    private void writeFileHeader(String name, String fileName, String contentType) throws IOException {
+        writeBoundary();
+        write(("Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + fileName + "\"")
+                .getBytes(StandardCharsets.UTF_8));
+        write(CRLF);
+        writeAscii("Content-Type: " + contentType);
+        write(CRLF);
+        write(CRLF);
+    }
+
+    private void writeBoundary() throws IOException {
+        write(DASHES);
+        writeAscii(boundary);
+        write(CRLF);
+    }
+
+    private void writeAscii(String s) throws IOException {
+        write(s.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        write(bytes, 0, bytes.length);
+    }
+
+    private void write(byte[] bytes, int off, int len) throws IOException {
+        out.write(bytes, off, len);
+        bytesWritten += len;
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.photoviewer.core.net;
+
+import java.util.Locale;
+
+/**
+ * Estimates the link to the server from the app's own traffic, so timeouts,
+ * download parallelism and image sizes follow the network instead of constants.
+ * <p>
+ * RTT is measured per request from sending it to its response headers (so it includes
+ * server time) and smoothed like TCP's retransmission timer (RFC 6298): a smoothed RTT
+ * plus a mean deviation. Throughput is measured on image bodies of at least
+ * {@link #MIN_THROUGHPUT_BYTES} (smaller ones are all latency) and smoothed with an EWMA.
+ * ApiClient feeds every call into the estimator it was built with.
+ */
+public final class NetworkQualityEstimator {
+    public enum Quality {
+        /** No samples yet */
+        UNKNOWN,
+        /** 2G-like: RTT over 1.4 s or under 150 kbps */
+        POOR,
+        /** 3G-like: RTT over 270 ms or under 1.5 Mbps */
+        MODERATE,
+        GOOD
+    }
+
+    static final long MIN_THROUGHPUT_BYTES = 32 * 1024;
+    private static final double THROUGHPUT_WEIGHT = 0.3;
+
+    /** Timeout before anything is known; as long as the old hard-coded worker/login timeouts */
+    public static final int DEFAULT_TIMEOUT_MS = 10000;
+    public static final int MIN_TIMEOUT_MS = 2000;
+    public static final int MAX_TIMEOUT_MS = 30000;
+    /**
+     * Floor for image reads: the first request for a width makes the server resize the
+     * original before it sends a byte, which small requests' RTTs know nothing about
+     */
+    public static final int MIN_IMAGE_TIMEOUT_MS = 15000;
+
+    /** Widths the server renders images at (PhotoBlogServer IMAGE_WIDTHS) */
+    static final int[] IMAGE_WIDTHS = {320, 640, 1280};
+
+    private long srttMs = -1;
+    private long rttVarMs;
+    private double throughputKbps = -1;
+    private long rttSamples;
+    private long throughputSamples;
+
+    /**
+     * @param rttMs Time from sending a request to its response headers
+     */
+    public synchronized void onResponseHeaders(long rttMs) {
+        rttSamples++;
+        if (srttMs < 0) {
+            srttMs = rttMs;
+            rttVarMs = rttMs / 2;
+            return;
+        }
+        // RFC 6298: rttvar = 3/4 rttvar + 1/4 |srtt - r|, srtt = 7/8 srtt + 1/8 r
+        rttVarMs = (3 * rttVarMs + Math.abs(srttMs - rttMs)) / 4;
+        srttMs = (7 * srttMs + rttMs) / 8;
+    }
+
+    /**
+     * @param transferMs Time from the response headers to the end of the body
+     */
+    public synchronized void onBody(long bytes, long transferMs) {
+        if (bytes < MIN_THROUGHPUT_BYTES) {
+            return;
+        }
+        throughputSamples++;
+        double kbps = bytes * 8.0 / Math.max(1, transferMs);
+        throughputKbps = throughputKbps < 0 ? kbps
+                : THROUGHPUT_WEIGHT * kbps + (1 - THROUGHPUT_WEIGHT) * throughputKbps;
+    }
+
+    /**
+     * @return Smoothed RTT, or -1 before the first response
+     */
+    public synchronized long getRttMs() {
+        return srttMs;
+    }
+
+    /**
+     * @return Smoothed throughput in kbit/s, or -1 before the first large body
+     */
+    public synchronized long getThroughputKbps() {
+        return Math.round(throughputKbps);
+    }
+
+    public synchronized Quality getQuality() {
+        if (srttMs < 0) {
+            return Quality.UNKNOWN;
+        }
+        boolean knownThroughput = throughputKbps >= 0;
+        if (srttMs > 1400 || (knownThroughput && throughputKbps < 150)) {
+            return Quality.POOR;
+        }
+        if (srttMs > 270 || (knownThroughput && throughputKbps < 1500)) {
+            return Quality.MODERATE;
+        }
+        return Quality.GOOD;
+    }
+
+    /**
+     * Connect and read timeout for a request: twice the retransmission timeout
+     * (srtt + 4 * rttvar), within [MIN_TIMEOUT_MS, MAX_TIMEOUT_MS].
+     * HttpURLConnection's read timeout applies per read, so body size does not matter.
+     */
+    public synchronized int timeoutMs() {
+        if (srttMs < 0) {
+            return DEFAULT_TIMEOUT_MS;
+        }
+        long rto = srttMs + 4 * rttVarMs;
+        return (int) Math.max(MIN_TIMEOUT_MS, Math.min(MAX_TIMEOUT_MS, 2 * rto));
+    }
+
+    /**
+     * Connect and read timeout for an image request (api_root/Post/&lt;id&gt;/image/?w=):
+     * timeoutMs(), but at least MIN_IMAGE_TIMEOUT_MS
+     */
+    public int imageTimeoutMs() {
+        return Math.max(MIN_IMAGE_TIMEOUT_MS, timeoutMs());
+    }
+
+    /**
+     * @return How many image downloads to keep in flight at once
+     */
+    public int getImageParallelism() {
+        switch (getQuality()) {
+            case POOR:
+                return 1;
+            case GOOD:
+                return 4;
+            default:
+                return 2;
+        }
+    }
+
+    /**
+     * @param displayWidthPx Width the image is shown at
+     * @return Smallest server width covering the display, capped at 320 px on a poor
+     *         link and 640 px on a moderate one
+     */
+    public int imageWidthFor(int displayWidthPx) {
+        Quality quality = getQuality();
+        int cap = quality == Quality.POOR ? IMAGE_WIDTHS[0]
+                : quality == Quality.MODERATE ? IMAGE_WIDTHS[1] : IMAGE_WIDTHS[IMAGE_WIDTHS.length - 1];
+        for (int width : IMAGE_WIDTHS) {
+            if (width >= displayWidthPx || width == cap) {
+                return width;
+            }
+        }
+        return cap;
+    }
+
+    /**
+     * One-line summary for the metrics screen
+     */
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.US, "%s  rtt %d ms (±%d, %d samples), %d kbps (%d samples), timeout %d ms",
+                getQuality(), srttMs, rttVarMs, rttSamples, getThroughputKbps(), throughputSamples, timeoutMs());
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.photoviewer.core.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cancellation handle for a group of requests (a screen, a sync run, a worker).
+ * <p>
+ * An ApiClient bound with {@link ApiClient#withScope(RequestScope)} attaches every
+ * connection it opens; cancel() closes them from the calling thread, so a blocked
+ * connect, header wait or body read fails right away with CancelledException instead
+ * of running into its timeout. Child scopes are cancelled with their parent;
+ * close() a child whose work finished normally so the parent does not keep it.
+ */
+public class RequestScope implements Closeable {
+    private final Set<Closeable> attached = new LinkedHashSet<>();
+    private final RequestScope parent;
+    private final Closeable parentLink = this::cancel;
+    private boolean cancelled;
+
+    public RequestScope() {
+        this(null);
+    }
+
+    private RequestScope(RequestScope parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * @return A scope that is cancelled together with this one, but can also be
+     *         cancelled on its own (e.g. one sync run inside the screen's scope)
+     */
+    public RequestScope newChild() {
+        RequestScope child = new RequestScope(this);
+        if (!attach(child.parentLink)) {
+            child.cancelled = true;
+        }
+        return child;
+    }
+
+    /**
+     * Register something to close on cancel
+     * @return false if the scope is already cancelled (the resource is not attached)
+     */
+    public synchronized boolean attach(Closeable resource) {
+        if (cancelled) {
+            return false;
+        }
+        attached.add(resource);
+        return true;
+    }
+
+    public synchronized void detach(Closeable resource) {
+        attached.remove(resource);
+    }
+
+    /**
+     * Cancel the scope and close everything attached to it. Idempotent.
+     */
+    public void cancel() {
+        List<Closeable> toClose;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            toClose = new ArrayList<>(attached);
+            attached.clear();
+            // Wake sleep() callers
+            notifyAll();
+        }
+        if (parent != null) {
+            parent.detach(parentLink);
+        }
+        for (Closeable resource : toClose) {
+            try {
+                resource.close();
+            } catch (IOException | RuntimeException e) {
+                // Best effort: the owning thread sees the failure on its next read
+            }
+        }
+    }
+
+    /**
+     * Release a child scope whose work is done, without cancelling anything
+     */
+    @Override
+    public void close() {
+        if (parent != null) {
+            parent.detach(parentLink);
+        }
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Wait between requests (e.g. a retry backoff), returning early if the scope is cancelled
+     * @throws CancelledException if the scope is or becomes cancelled
+     */
+    public synchronized void sleep(long millis) throws CancelledException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        while (!cancelled) {
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMs <= 0) {
+                return;
+            }
+            try {
+                wait(remainingMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        throw new CancelledException("Request scope cancelled");
+    }
+
+    /**
+     * Checkpoint for work between requests (e.g. decoding a downloaded image)
+     * @throws CancelledException if the scope has been cancelled
+     */
+    public void throwIfCancelled() throws CancelledException {
+        if (isCancelled()) {
+            throw new CancelledException("Request scope cancelled");
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.photoviewer.core.net;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.function.LongSupplier;
+
+/**
+ * How ApiClient retries failed requests, shared by every call it makes.
+ * <ul>
+ * <li>Only idempotent methods (GET, HEAD, PUT, DELETE) are retried; a POST may
+ *     already have created a post when its response was lost.</li>
+ * <li>Only transient failures are retried: network errors, 429, 502, 503, 504.</li>
+ * <li>Delays grow exponentially with full jitter (uniform in [0, base * 2^retry],
+ *     capped), so clients that failed together do not come back together.</li>
+ * <li>A server's Retry-After is honoured as a lower bound; if it asks for longer
+ *     than maxRetryAfterMs the call fails instead of blocking.</li>
+ * <li>Each host has a CircuitBreaker; while it is open calls fail at once with
+ *     CircuitOpenException.</li>
+ * </ul>
+ * Clock, randomness and sleeping are injectable for deterministic tests.
+ */
+public final class RetryPolicy {
+
+    /**
+     * Waits between attempts; the default wakes up early when the scope is cancelled
+     */
+    public interface Sleeper {
+        void sleep(long millis, RequestScope scope) throws IOException;
+    }
+
+    public static final Sleeper SCOPE_SLEEPER = (millis, scope) -> {
+        if (scope != null) {
+            scope.sleep(millis);
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during retry backoff");
+        }
+    };
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final long maxRetryAfterMs;
+    private final int failureThreshold;
+    private final long openMs;
+    private final LongSupplier clock;
+    private final Random random;
+    private final Sleeper sleeper;
+    private final Map<String, CircuitBreaker> breakers = new HashMap<>();
+
+    private RetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.baseDelayMs = builder.baseDelayMs;
+        this.maxDelayMs = builder.maxDelayMs;
+        this.maxRetryAfterMs = builder.maxRetryAfterMs;
+        this.failureThreshold = builder.failureThreshold;
+        this.openMs = builder.openMs;
+        this.clock = builder.clock;
+        this.random = builder.random;
+        this.sleeper = builder.sleeper;
+    }
+
+    /**
+     * 3 attempts, 500 ms base delay up to 8 s, Retry-After up to 30 s;
+     * a host's breaker opens after 5 consecutive failures, for 30 s
+     */
+    public static RetryPolicy defaults() {
+        return new Builder().build();
+    }
+
+    /**
+     * Never retries and never opens a breaker
+     */
+    public static RetryPolicy none() {
+        return new Builder().maxAttempts(1).failureThreshold(Integer.MAX_VALUE).build();
+    }
+
+    public static final class Builder {
+        private int maxAttempts = 3;
+        private long baseDelayMs = 500;
+        private long maxDelayMs = 8000;
+        private long maxRetryAfterMs = 30000;
+        private int failureThreshold = 5;
+        private long openMs = 30000;
+        private LongSupplier clock = System::currentTimeMillis;
+        private Random random = new Random();
+        private Sleeper sleeper = SCOPE_SLEEPER;
+
+        /**
+         * @param maxAttempts Attempts including the first (1 = no retries)
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            this.maxAttempts = Math.max(1, maxAttempts);
+            return this;
+        }
+
+        public Builder backoff(long baseDelayMs, long maxDelayMs) {
+            this.baseDelayMs = baseDelayMs;
+            this.maxDelayMs = maxDelayMs;
+            return this;
+        }
+
+        public Builder maxRetryAfter(long maxRetryAfterMs) {
+            this.maxRetryAfterMs = maxRetryAfterMs;
+            return this;
+        }
+
+        public Builder failureThreshold(int failureThreshold) {
+            this.failureThreshold = Math.max(1, failureThreshold);
+            return this;
+        }
+
+        public Builder openFor(long openMs) {
+            this.openMs = openMs;
+            return this;
+        }
+
+        public Builder clock(LongSupplier clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public Builder random(Random random) {
+            this.random = random;
+            return this;
+        }
+
+        public Builder sleeper(Sleeper sleeper) {
+            this.sleeper = sleeper;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    Sleeper getSleeper() {
+        return sleeper;
+    }
+
+    long now() {
+        return clock.getAsLong();
+    }
+
+    public static boolean isIdempotent(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "PUT".equals(method) || "DELETE".equals(method);
+    }
+
+    /**
+     * @return true for statuses worth retrying: rate limiting and an overloaded or restarting backend
+     */
+    public static boolean isTransientStatus(int code) {
+        return code == 429 || code == 502 || code == 503 || code == 504;
+    }
+
+    /**
+     * @return true for statuses that count against the host's breaker
+     */
+    static boolean isHostFailure(int code) {
+        return code == 429 || code >= 500;
+    }
+
+    /**
+     * @param retry 0 for the delay before the first retry
+     * @return Full-jitter delay: uniform in [0, min(maxDelay, base * 2^retry)]
+     */
+    public long backoffMs(int retry) {
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << Math.min(retry, 30));
+        synchronized (random) {
+            return (long) (random.nextDouble() * (ceiling + 1));
+        }
+    }
+
+    /**
+     * @param retryAfterMs Server's Retry-After, or -1 if it sent none
+     * @return Delay before the next attempt, or -1 if the server asked to wait too long
+     */
+    long delayBeforeRetry(int retry, long retryAfterMs) {
+        if (retryAfterMs > maxRetryAfterMs) {
+            return -1;
+        }
+        return Math.max(backoffMs(retry), retryAfterMs);
+    }
+
+    /**
+     * @return The breaker for the URL's host (one per host:port, created on first use)
+     */
+    public CircuitBreaker breakerFor(String url) {
+        String host = hostOf(url);
+        synchronized (breakers) {
+            CircuitBreaker breaker = breakers.get(host);
+            if (breaker == null) {
+                breaker = new CircuitBreaker(failureThreshold, openMs, clock);
+                breakers.put(host, breaker);
+            }
+            return breaker;
+        }
+    }
+
+    static String hostOf(String url) {
+        try {
+            URL parsed = new URL(url);
+            return parsed.getPort() == -1 ? parsed.getHost() : parsed.getHost() + ":" + parsed.getPort();
+        } catch (IOException e) {
+            return url;
+        }
+    }
+
+    /**
+     * Parse a Retry-After header: delta-seconds or an HTTP date
+     * @return Milliseconds to wait, or -1 if absent or unparseable
+     */
+    public static long parseRetryAfter(String value, long nowMs) {
+        if (value == null || value.trim().isEmpty()) {
+            return -1;
+        }
+        String trimmed = value.trim();
+        try {
+            long seconds = Long.parseLong(trimmed);
+            return seconds < 0 ? -1 : seconds * 1000;
+        } catch (NumberFormatException e) {
+            // Not delta-seconds; try the date form
+        }
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        try {
+            return Math.max(0, format.parse(trimmed).getTime() - nowMs);
+        } catch (ParseException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.photoviewer.core.sched;
+
+import com.example.photoviewer.core.metrics.MetricsRegistry;
+import com.example.photoviewer.core.trace.TraceRecorder;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background executor with one bounded thread pool per {@link Lane}, so a user's
+ * delete never queues behind a multi-minute image sync or a poll.
+ * <p>
+ * Every task records into the MetricsRegistry under "sched.&lt;lane&gt;.":
+ * wait_ms (submit until start), run_ms (histograms) and tasks (counter).
+ * Tasks that waited longer than {@link #SLOW_WAIT_MS} also leave a "sched" trace event.
+ */
+public final class LaneScheduler {
+    static final long SLOW_WAIT_MS = 1000;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    /**
+     * Lanes in priority order; lower lanes run on lower-priority threads.
+     * AUTH ranks right after USER, at the same thread priority: USER requests that got a 401
+     * wait for the re-login, so the login itself must not queue behind them or behind syncs
+     */
+    public enum Lane {
+        /** Upload, edit, delete: the user is waiting on the result */
+        USER("user", 2, Thread.NORM_PRIORITY),
+        /** Login; never queues behind requests parked until a re-login finishes */
+        AUTH("auth", 1, Thread.NORM_PRIORITY),
+        /** Decoding images about to be shown (cached thumbnails) */
+        VISIBLE_IMAGE("image", 2, Thread.NORM_PRIORITY),
+        /** Full feed syncs; one at a time, a newer sync cancels the running one */
+        SYNC("sync", 1, Thread.NORM_PRIORITY - 1),
+        /** Image downloads of the running sync; it keeps as many in flight as the network allows */
+        SYNC_IMAGE("sync_image", 4, Thread.NORM_PRIORITY - 1),
+        /** Polls and prefetch */
+        BACKGROUND("background", 1, Thread.MIN_PRIORITY);
+
+        final String metricName;
+        final int concurrency;
+        final int threadPriority;
+
+        Lane(String metricName, int concurrency, int threadPriority) {
+            this.metricName = metricName;
+            this.concurrency = concurrency;
+            this.threadPriority = threadPriority;
+        }
+
+        public String getMetricName() {
+            return metricName;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+    }
+
+    private static final LaneScheduler instance = new LaneScheduler(MetricsRegistry.getInstance());
+
+    private final Map<Lane, ThreadPoolExecutor> pools = new EnumMap<>(Lane.class);
+    private final MetricsRegistry metrics;
+
+    public static LaneScheduler getInstance() {
+        return instance;
+    }
+
+    public LaneScheduler(MetricsRegistry metrics) {
+        this.metrics = metrics;
+        for (Lane lane : Lane.values()) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(lane.concurrency, lane.concurrency,
+                    KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory(lane));
+            // Idle lanes hold no threads
+            pool.allowCoreThreadTimeOut(true);
+            pools.put(lane, pool);
+        }
+    }
+
+    private static ThreadFactory threadFactory(Lane lane) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "lane-" + lane.metricName + "-" + count.incrementAndGet());
+            thread.setPriority(lane.threadPriority);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Queue a task on a lane; tasks within a lane start in submission order
+     */
+    public void execute(Lane lane, Runnable task) {
+        long submittedAt = System.nanoTime();
+        pools.get(lane).execute(() -> run(lane, task, submittedAt));
+    }
+
+    private void run(Lane lane, Runnable task, long submittedAt) {
+        long startedAt = System.nanoTime();
+        long waitMs = TimeUnit.NANOSECONDS.toMillis(startedAt - submittedAt);
+        String prefix = "sched." + lane.metricName + ".";
+        metrics.histogram(prefix + "wait_ms").record(waitMs);
+        metrics.counter(prefix + "tasks").inc();
+        if (waitMs >= SLOW_WAIT_MS) {
+            TraceRecorder.getInstance().record("sched", lane.metricName, waitMs);
+        }
+        try {
+            task.run();
+        } finally {
+            metrics.histogram(prefix + "run_ms").recordSince(startedAt);
+        }
+    }
+
+    /**
+     * @return Tasks waiting for a thread on the lane (not counting running ones)
+     */
+    public int getQueuedCount(Lane lane) {
+        return pools.get(lane).getQueue().size();
+    }
+
+    public int getActiveCount(Lane lane) {
+        return pools.get(lane).getActiveCount();
+    }
+
+    /**
+     * Stop every lane; for tests and tools, the app's instance lives as long as the process
+     */
+    public void shutdownNow() {
+        for (ThreadPoolExecutor pool : pools.values()) {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.photoviewer.core.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * In-memory inverted index over post titles and text, for search-as-you-type.
+ * <p>
+ * Text is split into runs of letters and digits, and runs are split where the script
+ * changes between Hangul and anything else:
+ * <ul>
+ * <li>Other runs (Latin, digits) are lowercased words; a query word matches every
+ *     indexed word it is a prefix of ("per" finds "person").</li>
+ * <li>Hangul runs are indexed as overlapping syllable bigrams plus their last syllable,
+ *     so a query matches inside a word regardless of attached particles ("사람" finds
+ *     "사람이", "람" finds it too). A query run of two or more syllables must contain all
+ *     its bigrams; a single syllable matches any term starting with it.</li>
+ * </ul>
+ * All query terms must match (AND). Documents get increasing internal numbers, so every
+ * posting list is append-only and sorted; replaced or removed posts are dropped at query
+ * time and compacted away once they outnumber live ones. Thread-safe.
+ */
+public final class PostIndex {
+    private static final int KIND_SEPARATOR = 0;
+    private static final int KIND_HANGUL = 1;
+    private static final int KIND_OTHER = 2;
+    // Marks a query term that matches every indexed term it is a prefix of
+    private static final String PREFIX = "prefix:";
+
+    /**
+     * Growable sorted int array of document numbers
+     */
+    private static final class Postings {
+        int[] docs = new int[4];
+        int size;
+
+        void add(int doc) {
+            if (size > 0 && docs[size - 1] == doc) {
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+    }
+
+    // Sorted, for prefix lookups
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    // Document number -> post id (-1 once replaced or removed)
+    private int[] docPostIds = new int[64];
+    private int[] docContentHashes = new int[64];
+    private int docCount;
+    private int deadCount;
+    private final Map<Integer, Integer> docByPostId = new HashMap<>();
+
+    /**
+     * Index a post, replacing an earlier version with the same id.
+     * Re-adding unchanged content is a cheap no-op, so a full sync can re-add every post.
+     */
+    public synchronized void add(int postId, String title, String text) {
+        String content = normalize(title) + '\n' + normalize(text);
+        int contentHash = content.hashCode();
+        Integer existing = docByPostId.get(postId);
+        if (existing != null) {
+            if (docContentHashes[existing] == contentHash) {
+                return;
+            }
+            kill(existing);
+        }
+        int doc = docCount++;
+        if (doc == docPostIds.length) {
+            docPostIds = Arrays.copyOf(docPostIds, doc * 2);
+            docContentHashes = Arrays.copyOf(docContentHashes, doc * 2);
+        }
+        docPostIds[doc] = postId;
+        docContentHashes[doc] = contentHash;
+        docByPostId.put(postId, doc);
+        for (String term : terms(content, false)) {
+            Postings postings = terms.get(term);
+            if (postings == null) {
+                postings = new Postings();
+                terms.put(term, postings);
+            }
+            postings.add(doc);
+        }
+    }
+
+    public synchronized void remove(int postId) {
+        Integer doc = docByPostId.remove(postId);
+        if (doc != null) {
+            docPostIds[doc] = -1;
+            deadCount++;
+            compactIfNeeded();
+        }
+    }
+
+    /**
+     * Remove every post whose id is not in the given set (e.g. deleted on the server)
+     */
+    public synchronized void retainAll(int[] postIds) {
+        int[] keep = postIds.clone();
+        Arrays.sort(keep);
+        List<Integer> gone = new ArrayList<>();
+        for (Integer postId : docByPostId.keySet()) {
+            if (Arrays.binarySearch(keep, postId) < 0) {
+                gone.add(postId);
+            }
+        }
+        for (Integer postId : gone) {
+            remove(postId);
+        }
+    }
+
+    /**
+     * @return Number of posts in the index
+     */
+    public synchronized int size() {
+        return docByPostId.size();
+    }
+
+    /**
+     * @return Ids of the posts matching every term of the query, ascending;
+     *         null if the query has no terms (show everything)
+     */
+    public synchronized int[] search(String query) {
+        List<String> queryTerms = terms(normalize(query), true);
+        if (queryTerms.isEmpty()) {
+            return null;
+        }
+        BitSet result = null;
+        for (String term : queryTerms) {
+            BitSet matches = match(term);
+            if (result == null) {
+                result = matches;
+            } else {
+                result.and(matches);
+            }
+            if (result.isEmpty()) {
+                return new int[0];
+            }
+        }
+        int[] ids = new int[result.cardinality()];
+        int count = 0;
+        for (int doc = result.nextSetBit(0); doc >= 0; doc = result.nextSetBit(doc + 1)) {
+            int postId = docPostIds[doc];
+            if (postId >= 0) {
+                ids[count++] = postId;
+            }
+        }
+        ids = count == ids.length ? ids : Arrays.copyOf(ids, count);
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * Query terms are looked up exactly, except "prefix:" terms which match every
+     * indexed term starting with them
+     */
+    private BitSet match(String term) {
+        BitSet docs = new BitSet(docCount);
+        if (term.startsWith(PREFIX)) {
+            String prefix = term.substring(PREFIX.length());
+            SortedMap<String, Postings> range = terms.subMap(prefix, prefix + Character.MAX_VALUE);
+            for (Postings postings : range.values()) {
+                set(docs, postings);
+            }
+        } else {
+            Postings postings = terms.get(term);
+            if (postings != null) {
+                set(docs, postings);
+            }
+        }
+        return docs;
+    }
+
+    private static void set(BitSet docs, Postings postings) {
+        for (int i = 0; i < postings.size; i++) {
+            docs.set(postings.docs[i]);
+        }
+    }
+
+    private void kill(int doc) {
+        docPostIds[doc] = -1;
+        deadCount++;
+        compactIfNeeded();
+    }
+
+    /**
+     * Drop dead documents from every posting list once they are the majority
+     */
+    private void compactIfNeeded() {
+        if (deadCount < 64 || deadCount * 2 < docCount) {
+            return;
+        }
+        int[] remap = new int[docCount];
+        int live = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (docPostIds[doc] >= 0) {
+                remap[doc] = live;
+                docPostIds[live] = docPostIds[doc];
+                docContentHashes[live] = docContentHashes[doc];
+                docByPostId.put(docPostIds[live], live);
+                live++;
+            } else {
+                remap[doc] = -1;
+            }
+        }
+        docCount = live;
+        deadCount = 0;
+        terms.values().removeIf(postings -> {
+            int size = 0;
+            for (int i = 0; i < postings.size; i++) {
+                int doc = remap[postings.docs[i]];
+                if (doc >= 0) {
+                    postings.docs[size++] = doc;
+                }
+            }
+            postings.size = size;
+            return size == 0;
+        });
+    }
+
+    private static String normalize(String s) {
+        return s == null ? "" : s.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Split normalized text into index terms, or query terms (prefix-marked where needed)
+     */
+    static List<String> terms(String text, boolean query) {
+        List<String> out = new ArrayList<>();
+        int runStart = -1;
+        int runKind = KIND_SEPARATOR;
+        for (int i = 0; i <= text.length(); i++) {
+            int kind = i < text.length() ? kind(text.charAt(i)) : KIND_SEPARATOR;
+            if (kind != runKind) {
+                if (runKind != KIND_SEPARATOR) {
+                    addRun(out, text, runStart, i, runKind, query);
+                }
+                runStart = i;
+                runKind = kind;
+            }
+        }
+        return out;
+    }
+
+    private static void addRun(List<String> out, String text, int start, int end, int kind, boolean query) {
+        if (kind == KIND_OTHER) {
+            String word = text.substring(start, end);
+            out.add(query ? PREFIX + word : word);
+            return;
+        }
+        if (end - start == 1) {
+            String syllable = text.substring(start, end);
+            out.add(query ? PREFIX + syllable : syllable);
+            return;
+        }
+        for (int i = start; i + 1 < end; i++) {
+            out.add(text.substring(i, i + 2));
+        }
+        if (!query) {
+            out.add(text.substring(end - 1, end));
+        }
+    }
+
+    private static int kind(char c) {
+        if ((c >= '\uAC00' && c <= '\uD7A3')      // Hangul syllables
+                || (c >= '\u1100' && c <= '\u11FF')   // Jamo
+                || (c >= '\u3130' && c <= '\u318F')) { // Compatibility jamo
+            return KIND_HANGUL;
+        }
+        return Character.isLetterOrDigit(c) ? KIND_OTHER : KIND_SEPARATOR;
+    }
+}
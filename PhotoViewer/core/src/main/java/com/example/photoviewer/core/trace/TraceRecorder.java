@@ -0,0 +1,187 @@
+package com.example.photoviewer.core.trace;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Fixed-size ring buffer of recent structured events, kept in memory so the
+ * lead-up to a failure can be dumped after the fact.
+ * <p>
+ * Events are stored in preallocated parallel arrays: recording with constant
+ * tag/event strings allocates nothing, so it stays on in release builds.
+ * Once full, the oldest event is overwritten.
+ */
+public final class TraceRecorder {
+    public static final int DEFAULT_CAPACITY = 512;
+
+    private static final TraceRecorder instance = new TraceRecorder(DEFAULT_CAPACITY);
+
+    private final long[] times;
+    private final String[] tags;
+    private final String[] events;
+    private final String[] details;
+    private final long[] values1;
+    private final long[] values2;
+    private long recorded;
+
+    public TraceRecorder(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be > 0");
+        }
+        times = new long[capacity];
+        tags = new String[capacity];
+        events = new String[capacity];
+        details = new String[capacity];
+        values1 = new long[capacity];
+        values2 = new long[capacity];
+    }
+
+    public static TraceRecorder getInstance() {
+        return instance;
+    }
+
+    public void record(String tag, String event) {
+        record(tag, event, null, 0, 0);
+    }
+
+    public void record(String tag, String event, long value) {
+        record(tag, event, null, value, 0);
+    }
+
+    public void record(String tag, String event, long value1, long value2) {
+        record(tag, event, null, value1, value2);
+    }
+
+    /**
+     * @param detail Free text (e.g. an error message); avoid building it on hot paths
+     */
+    public void record(String tag, String event, String detail) {
+        record(tag, event, detail, 0, 0);
+    }
+
+    private synchronized void record(String tag, String event, String detail, long value1, long value2) {
+        int slot = (int) (recorded % times.length);
+        times[slot] = System.currentTimeMillis();
+        tags[slot] = tag;
+        events[slot] = event;
+        details[slot] = detail;
+        values1[slot] = value1;
+        values2[slot] = value2;
+        recorded++;
+    }
+
+    public int capacity() {
+        return times.length;
+    }
+
+    /**
+     * @return Number of events currently held (at most capacity)
+     */
+    public synchronized int size() {
+        return (int) Math.min(recorded, times.length);
+    }
+
+    /**
+     * @return Events recorded since start, including ones already overwritten
+     */
+    public synchronized long totalRecorded() {
+        return recorded;
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < times.length; i++) {
+            tags[i] = null;
+            events[i] = null;
+            details[i] = null;
+        }
+        recorded = 0;
+    }
+
+    /**
+     * @return Held events, oldest first
+     */
+    public synchronized List<Event> snapshot() {
+        int size = size();
+        List<Event> result = new ArrayList<>(size);
+        for (long i = recorded - size; i < recorded; i++) {
+            int slot = (int) (i % times.length);
+            result.add(new Event(times[slot], tags[slot], events[slot], details[slot],
+                    values1[slot], values2[slot]));
+        }
+        return result;
+    }
+
+    /**
+     * Write held events one per line, oldest first
+     */
+    public void dump(Appendable out) throws IOException {
+        List<Event> snapshot = snapshot();
+        long dropped = totalRecorded() - snapshot.size();
+        out.append("# ").append(String.valueOf(snapshot.size())).append(" events");
+        if (dropped > 0) {
+            out.append(" (").append(String.valueOf(dropped)).append(" older dropped)");
+        }
+        out.append('\n');
+        SimpleDateFormat format = new SimpleDateFormat("HH:mm:ss.SSS", Locale.US);
+        for (Event event : snapshot) {
+            out.append(format.format(new Date(event.getTimeMillis()))).append(' ')
+                    .append(event.toString()).append('\n');
+        }
+    }
+
+    public static final class Event {
+        private final long timeMillis;
+        private final String tag;
+        private final String event;
+        private final String detail;
+        private final long value1;
+        private final long value2;
+
+        Event(long timeMillis, String tag, String event, String detail, long value1, long value2) {
+            this.timeMillis = timeMillis;
+            this.tag = tag;
+            this.event = event;
+            this.detail = detail;
+            this.value1 = value1;
+            this.value2 = value2;
+        }
+
+        public long getTimeMillis() {
+            return timeMillis;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        public String getEvent() {
+            return event;
+        }
+
+        public String getDetail() {
+            return detail;
+        }
+
+        public long getValue1() {
+            return value1;
+        }
+
+        public long getValue2() {
+            return value2;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(tag).append(' ').append(event).append(' ').append(value1).append(' ').append(value2);
+            if (detail != null) {
+                sb.append(' ').append(detail);
+            }
+            return sb.toString();
+        }
+    }
+}
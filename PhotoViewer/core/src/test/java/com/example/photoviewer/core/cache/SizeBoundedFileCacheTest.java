@@ -0,0 +1,60 @@
+package com.example.photoviewer.core.cache;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class SizeBoundedFileCacheTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() throws IOException {
+        SizeBoundedFileCache cache = new SizeBoundedFileCache(tmp.newFolder("c"), 30);
+        put(cache, "a", 10);
+        put(cache, "b", 10);
+        put(cache, "c", 10);
+        assertNotNull(cache.get("a")); // a is now most recently used
+
+        put(cache, "d", 10);
+
+        assertTrue(cache.contains("a"));
+        assertFalse("b was least recently used", cache.contains("b"));
+        assertTrue(cache.contains("c"));
+        assertTrue(cache.contains("d"));
+        assertEquals(30, cache.size());
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    public void testReplacingEntryUpdatesSize() throws IOException {
+        SizeBoundedFileCache cache = new SizeBoundedFileCache(tmp.newFolder("c"), 100);
+        put(cache, "a", 10);
+        put(cache, "a", 25);
+        assertEquals(25, cache.size());
+        assertEquals(1, cache.entryCount());
+    }
+
+    @Test
+    public void testReopenRestoresIndex() throws IOException {
+        File dir = tmp.newFolder("c");
+        SizeBoundedFileCache cache = new SizeBoundedFileCache(dir, 100);
+        put(cache, "a", 10);
+        put(cache, "b", 20);
+
+        SizeBoundedFileCache reopened = new SizeBoundedFileCache(dir, 100);
+        assertEquals(30, reopened.size());
+        assertTrue(reopened.contains("a"));
+        assertTrue(reopened.contains("b"));
+    }
+
+    private static void put(SizeBoundedFileCache cache, String key, int size) throws IOException {
+        cache.put(key, out -> out.write(new byte[size]));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.photoviewer.core.feed;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class BulkEditTest {
+
+    @Test
+    public void testRequestJson() {
+        BulkEdit edit = new BulkEdit()
+                .delete(3)
+                .delete(5)
+                .delete(3)
+                .update(7, "a \"b\"", null)
+                .update(8, null, "text");
+        assertEquals(4, edit.size());
+        assertEquals("{\"delete\":[3,5],\"update\":[{\"id\":7,\"title\":\"a \\\"b\\\"\"},{\"id\":8,\"text\":\"text\"}]}",
+                edit.toJson());
+        assertEquals("{\"delete\":[],\"update\":[]}", new BulkEdit().toJson());
+        assertTrue(new BulkEdit().isEmpty());
+    }
+
+    @Test
+    public void testParsesPerPostResults() throws IOException {
+        String response = "{\"results\":["
+                + "{\"id\":3,\"op\":\"delete\",\"status\":204},"
+                + "{\"id\":5,\"op\":\"delete\",\"status\":404},"
+                + "{\"id\":7,\"op\":\"update\",\"status\":200,\"post\":{\"id\":7,\"title\":\"new\",\"text\":\"t\","
+                + "\"image\":null,\"image_width\":null}},"
+                + "{\"id\":8,\"op\":\"update\",\"status\":400,\"errors\":{\"title\":[\"too long\"]}},"
+                + "{\"id\":9,\"op\":\"update\",\"status\":404}"
+                + "]}";
+        BulkResult result = BulkResult.parse(new StringReader(response));
+
+        // Already-deleted posts are gone either way
+        assertEquals(Arrays.asList(3, 5), result.getRemovedIds());
+        assertEquals(1, result.getUpdatedPosts().size());
+        assertEquals("new", result.getUpdatedPosts().get(0).getTitle());
+        assertEquals(2, result.getFailures().size());
+        assertEquals(Integer.valueOf(400), result.getFailures().get(8));
+        assertEquals(Integer.valueOf(404), result.getFailures().get(9));
+        assertEquals(3, result.getSucceededCount());
+    }
+}
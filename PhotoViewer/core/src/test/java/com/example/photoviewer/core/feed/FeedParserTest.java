@@ -0,0 +1,80 @@
+package com.example.photoviewer.core.feed;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FeedParserTest {
+
+    private static final String FEED = "["
+            + "{\"id\":1,\"author\":1,\"title\":\"person\",\"text\":\"person, \","
+            + "\"created_date\":\"2025-11-02T17:57:04+09:00\",\"published_date\":null,"
+            + "\"image\":\"http://10.0.2.2:8000/media/blog_image/1.jpg\",\"image_dhash\":\"00ff00ff00ff00ff\","
+            + "\"image_width\":320,\"image_height\":240},"
+            + "{\"id\":2,\"author\":1,\"title\":\"car\",\"text\":\"car, \",\"image\":null,"
+            + "\"image_width\":null,\"image_height\":null}"
+            + "]";
+
+    @Test
+    public void testParsesSerializerFields() throws IOException {
+        List<PostRecord> posts = FeedParser.parse(new StringReader(FEED));
+        assertEquals(2, posts.size());
+        PostRecord first = posts.get(0);
+        assertEquals(1, first.getId());
+        assertEquals("person", first.getTitle());
+        assertEquals("person, ", first.getText());
+        assertEquals("http://10.0.2.2:8000/media/blog_image/1.jpg", first.getImageUrl());
+        assertTrue(first.hasImage());
+        assertFalse(posts.get(1).hasImage());
+        assertEquals(1762073824000L, first.getCreatedAtMillis());
+        assertTrue(first.hasImageDhash());
+        assertEquals(0x00ff00ff00ff00ffL, first.getImageDhash());
+        assertEquals(-1, posts.get(1).getCreatedAtMillis());
+        assertFalse(posts.get(1).hasImageDhash());
+        assertEquals(320, first.getImageWidth());
+        assertEquals(240, first.getImageHeight());
+        assertEquals(0, posts.get(1).getImageWidth());
+        assertEquals(0, posts.get(1).getImageHeight());
+    }
+
+    @Test
+    public void testTimestamps() {
+        assertEquals(1762073824000L, Timestamps.parseIso8601("2025-11-02T08:57:04Z"));
+        assertEquals(1762073824000L, Timestamps.parseIso8601("2025-11-02T08:57:04"));
+        assertEquals(1709251199123L, Timestamps.parseIso8601("2024-03-01T08:59:59.123456+09:00"));
+        assertEquals(1709251199123L, Timestamps.parseIso8601("2024-02-29T19:59:59.1234-04:00"));
+        assertEquals(0, Timestamps.parseIso8601("1970-01-01T00:00:00.0Z"));
+        assertEquals(-1, Timestamps.parseIso8601("2025-11-02"));
+        assertEquals(-1, Timestamps.parseIso8601("2025-13-02T08:57:04Z"));
+        assertEquals(-1, Timestamps.parseIso8601("2025-11-02T08:57:04+0900"));
+        assertEquals(-1, Timestamps.parseIso8601(null));
+    }
+
+    @Test
+    public void testEmptyFeed() throws IOException {
+        assertTrue(FeedParser.parse(new StringReader("[]")).isEmpty());
+    }
+
+    @Test
+    public void testNewPostScan() {
+        List<PostRecord> posts = Arrays.asList(
+                new PostRecord(3, "person", "", null),
+                new PostRecord(5, "car", "", null),
+                new PostRecord(4, "dog", "", null));
+
+        NewPostScan scan = NewPostScan.scan(posts, 3);
+        assertEquals(5, scan.getMaxId());
+        assertEquals(2, scan.getNewPostCount());
+        assertEquals("car", scan.getFirstNewTitle());
+        assertEquals(2, scan.getNewPosts().size());
+
+        NewPostScan none = NewPostScan.scan(posts, 5);
+        assertFalse(none.hasNewPosts());
+        assertNull(none.getFirstNewTitle());
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.photoviewer.core.feed;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class NearDuplicateFilterTest {
+    private static final long MINUTE = 60_000;
+
+    private static PostRecord post(int id, long minutes, long dhash) {
+        return new PostRecord(id, "person", "", "http://x/" + id + ".jpg", minutes * MINUTE, dhash, true);
+    }
+
+    @Test
+    public void testBurstCollapsesToFirstFrame() {
+        NearDuplicateFilter filter = new NearDuplicateFilter(6, 5 * MINUTE);
+        List<PostRecord> kept = filter.filter(Arrays.asList(
+                post(1, 0, 0x0L),
+                post(2, 1, 0x7L),            // 3 bits from #1
+                post(3, 2, 0xffff0000L),     // different scene
+                post(4, 3, 0xffff0001L),     // near #3
+                new PostRecord(5, "car", "", null)));  // no hash: always kept
+
+        assertEquals(Arrays.asList(1, 3, 5), ids(kept));
+        assertEquals(2, filter.getCollapsedCount());
+    }
+
+    @Test
+    public void testStaticSceneReappearsOncePerWindow() {
+        NearDuplicateFilter filter = new NearDuplicateFilter(6, 5 * MINUTE);
+        assertTrue(filter.offer(0, 0xabcL));
+        assertFalse(filter.offer(4 * MINUTE, 0xabcL));
+        assertTrue(filter.offer(5 * MINUTE, 0xabcL));
+        assertFalse(filter.offer(6 * MINUTE, 0xabdL));
+    }
+
+    @Test
+    public void testDistanceThreshold() {
+        NearDuplicateFilter filter = new NearDuplicateFilter(2, MINUTE);
+        assertTrue(filter.offer(0, 0L));
+        assertFalse(filter.offer(1, 0x3L));   // 2 bits
+        assertTrue(filter.offer(2, 0x7L));    // 3 bits
+    }
+
+    private static List<Integer> ids(List<PostRecord> posts) {
+        Integer[] ids = new Integer[posts.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = posts.get(i).getId();
+        }
+        return Arrays.asList(ids);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.photoviewer.core.feed;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+public class NewPostDetectorTest {
+
+    private static String post(int id, String title) {
+        return "{\"id\":" + id + ",\"author\":1,\"title\":\"" + title + "\",\"text\":\"" + title + ", \","
+                + "\"created_date\":\"2025-11-02T17:57:04+09:00\",\"published_date\":null,"
+                + "\"image\":\"http://10.0.2.2:8000/media/blog_image/" + id + ".jpg\"}";
+    }
+
+    private static String feed(String... posts) {
+        return "[" + String.join(",", posts) + "]";
+    }
+
+    private static NewPostScan detect(NewPostDetector detector, String json) throws IOException {
+        return detector.detect(new StringReader(json));
+    }
+
+    @Test
+    public void testMatchesScanOfParsedFeed() throws IOException {
+        String json = feed(post(1, "person"), post(2, "car"), post(3, "dog"), post(4, "사람"));
+        NewPostScan expected = NewPostScan.scan(FeedParser.parse(new StringReader(json)), 2);
+
+        NewPostScan scan = detect(new NewPostDetector(2), json);
+
+        assertEquals(expected.getMaxId(), scan.getMaxId());
+        assertEquals(expected.getNewPostCount(), scan.getNewPostCount());
+        assertEquals("dog", scan.getFirstNewTitle());
+        assertEquals(4, scan.getScannedCount());
+        assertTrue("posts are only counted unless collecting", scan.getNewPosts().isEmpty());
+    }
+
+    @Test
+    public void testNoNewPosts() throws IOException {
+        NewPostScan scan = detect(new NewPostDetector(5), feed(post(4, "a"), post(5, "b")));
+        assertFalse(scan.hasNewPosts());
+        assertNull(scan.getFirstNewTitle());
+        assertEquals(5, scan.getMaxId());
+    }
+
+    @Test
+    public void testNewestFirstStopsAtOldPosts() throws IOException {
+        // Anything past the confirmed stop point is never read, not even malformed JSON
+        String json = "[" + post(6, "car") + "," + post(5, "dog") + "," + post(4, "old") + ","
+                + post(3, "older") + ",{ this is never parsed";
+
+        NewPostScan scan = detect(new NewPostDetector(4).newestFirst(), json);
+
+        assertEquals(6, scan.getMaxId());
+        assertEquals(2, scan.getNewPostCount());
+        assertEquals("car", scan.getFirstNewTitle());
+        assertEquals(4, scan.getScannedCount());
+    }
+
+    @Test
+    public void testNewestFirstFallsBackWhenListIsNotDescending() throws IOException {
+        // A server that ignores ?ordering=-id returns the default ascending order
+        String json = feed(post(1, "a"), post(2, "b"), post(3, "c"), post(4, "new"), post(5, "newer"));
+
+        NewPostScan scan = detect(new NewPostDetector(3).newestFirst(), json);
+
+        assertEquals(5, scan.getMaxId());
+        assertEquals(2, scan.getNewPostCount());
+        assertEquals("new", scan.getFirstNewTitle());
+        assertEquals(5, scan.getScannedCount());
+    }
+
+    @Test
+    public void testCollectsNewPostsOnly() throws IOException {
+        String json = feed(post(9, "car"), "{\"id\":8,\"title\":null,\"text\":\"t\",\"image\":null}",
+                post(7, "old"), post(6, "older"));
+
+        NewPostScan scan = detect(new NewPostDetector(7).newestFirst().collectNewPosts(), json);
+
+        assertEquals(2, scan.getNewPosts().size());
+        PostRecord first = scan.getNewPosts().get(0);
+        assertEquals(9, first.getId());
+        assertEquals("car", first.getTitle());
+        assertEquals("car, ", first.getText());
+        assertEquals("http://10.0.2.2:8000/media/blog_image/9.jpg", first.getImageUrl());
+        PostRecord second = scan.getNewPosts().get(1);
+        assertEquals("No title", second.getTitle());
+        assertFalse(second.hasImage());
+    }
+
+    @Test
+    public void testCollectedPostsCarryFeedParserFields() throws IOException {
+        // BackgroundSyncWorker caches these; the grid sizes placeholders and groups near-duplicates by them
+        String json = feed("{\"id\":9,\"title\":\"car\",\"text\":\"car, \",\"created_date\":\"2024-06-03T09:34:00Z\","
+                + "\"image\":\"http://10.0.2.2:8000/media/blog_image/9.jpg\",\"image_dhash\":\"00ff00ff00ff00ff\","
+                + "\"image_width\":320,\"image_height\":240,"
+                + "\"image_negotiated\":\"http://10.0.2.2:8000/api_root/Post/9/image/\"}",
+                post(7, "old"));
+
+        NewPostScan scan = detect(new NewPostDetector(7).newestFirst().collectNewPosts(), json);
+
+        PostRecord record = scan.getNewPosts().get(0);
+        assertEquals(FeedParser.parse(new StringReader(json)).get(0).getCreatedAtMillis(),
+                record.getCreatedAtMillis());
+        assertTrue(record.getCreatedAtMillis() > 0);
+        assertTrue(record.hasImageDhash());
+        assertEquals(0x00ff00ff00ff00ffL, record.getImageDhash());
+        assertEquals(320, record.getImageWidth());
+        assertEquals(240, record.getImageHeight());
+        assertEquals("http://10.0.2.2:8000/api_root/Post/9/image/", record.getImageUrl());
+    }
+
+    @Test
+    public void testEmptyFeed() throws IOException {
+        NewPostScan scan = detect(new NewPostDetector(0).newestFirst(), "[]");
+        assertFalse(scan.hasNewPosts());
+        assertEquals(0, scan.getScannedCount());
+    }
+}
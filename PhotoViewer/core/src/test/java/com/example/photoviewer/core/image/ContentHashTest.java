@@ -0,0 +1,33 @@
+package com.example.photoviewer.core.image;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class ContentHashTest {
+
+    @Test
+    public void testKnownVector() throws IOException {
+        byte[] abc = "abc".getBytes(StandardCharsets.US_ASCII);
+        String expected = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+        ContentHash streamed = ContentHash.sha256(new ByteArrayInputStream(abc));
+        assertEquals(expected, streamed.getHex());
+        assertEquals(3, streamed.getLength());
+        assertEquals(expected, ContentHash.sha256(abc).getHex());
+    }
+
+    @Test
+    public void testStreamingMatchesInMemoryAcrossBuffers() throws IOException {
+        byte[] data = new byte[100_000]; // several 16 KB reads
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 31);
+        }
+        assertEquals(ContentHash.sha256(data).getHex(),
+                ContentHash.sha256(new ByteArrayInputStream(data)).getHex());
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.photoviewer.core.image;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DHashTest {
+
+    /**
+     * 320x240 frame (the detector's upload size) with a horizontal gradient and a block
+     */
+    private static int[] frame(int blockX, int noise, long seed) {
+        Random random = new Random(seed);
+        int[] argb = new int[320 * 240];
+        for (int y = 0; y < 240; y++) {
+            for (int x = 0; x < 320; x++) {
+                int v = (x * 255) / 320;
+                if (x >= blockX && x < blockX + 80 && y >= 80 && y < 160) {
+                    v = 255 - v;
+                }
+                v = Math.max(0, Math.min(255, v + (noise > 0 ? random.nextInt(2 * noise + 1) - noise : 0)));
+                argb[y * 320 + x] = 0xff000000 | (v << 16) | (v << 8) | v;
+            }
+        }
+        return argb;
+    }
+
+    @Test
+    public void testScaledInputUsesPixelsDirectly() {
+        // Each row of the 9x8 image gets darker to the right: every comparison is "brighter"
+        int[] argb = new int[9 * 8];
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 9; x++) {
+                int v = 240 - x * 20;
+                argb[y * 9 + x] = 0xff000000 | (v << 16) | (v << 8) | v;
+            }
+        }
+        assertEquals(-1L, DHash.compute(argb, 9, 8));
+    }
+
+    @Test
+    public void testNoisyCopyIsNearAndDifferentSceneIsFar() {
+        long original = DHash.compute(frame(40, 0, 1), 320, 240);
+        long noisy = DHash.compute(frame(40, 6, 2), 320, 240);
+        long moved = DHash.compute(frame(200, 0, 3), 320, 240);
+
+        assertTrue("noisy copy distance " + DHash.distance(original, noisy),
+                DHash.distance(original, noisy) <= 6);
+        assertTrue("different scene distance " + DHash.distance(original, moved),
+                DHash.distance(original, moved) > 6);
+    }
+
+    @Test
+    public void testHexRoundTrip() {
+        assertEquals("00000000000000ff", DHash.toHex(0xffL));
+        assertEquals("ffffffffffffffff", DHash.toHex(-1L));
+        assertEquals(-1L, DHash.parseHex("ffffffffffffffff"));
+        assertEquals(0x1234L, DHash.parseHex("0000000000001234"));
+        try {
+            DHash.parseHex("");
+            fail();
+        } catch (NumberFormatException expected) {
+        }
+    }
+}
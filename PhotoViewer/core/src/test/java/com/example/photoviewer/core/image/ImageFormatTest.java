@@ -0,0 +1,48 @@
+package com.example.photoviewer.core.image;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+
+public class ImageFormatTest {
+
+    static byte[] header(String ascii) {
+        return ascii.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    static byte[] avif() {
+        // ftyp box of 28 bytes: major brand mif1, compatible brands include avif
+        return header("\0\0\0\u001cftypmif1\0\0\0\0mif1avifmiaf\0\0\0\0");
+    }
+
+    @Test
+    public void testSniff() {
+        assertEquals(ImageFormat.JPEG, ImageFormat.sniff(header("ÿØÿà\0\u0010JFIF\0\u0001")));
+        assertEquals(ImageFormat.PNG, ImageFormat.sniff(header("\u0089PNG\r\n\u001a\n\0\0\0\r")));
+        assertEquals(ImageFormat.WEBP, ImageFormat.sniff(header("RIFF$\0\0\0WEBPVP8 ")));
+        assertEquals(ImageFormat.AVIF, ImageFormat.sniff(header("\0\0\0 ftypavif\0\0\0\0")));
+        assertEquals(ImageFormat.AVIF, ImageFormat.sniff(avif()));
+    }
+
+    @Test
+    public void testSniffRejectsOtherData() {
+        assertEquals(ImageFormat.UNKNOWN, ImageFormat.sniff(null));
+        assertEquals(ImageFormat.UNKNOWN, ImageFormat.sniff(new byte[3]));
+        assertEquals(ImageFormat.UNKNOWN, ImageFormat.sniff(header("{\"detail\":\"x\"}")));
+        // HEIC is also ISO-BMFF, but not AVIF
+        assertEquals(ImageFormat.UNKNOWN, ImageFormat.sniff(header("\0\0\0\u0018ftypheic\0\0\0\0mif1heic")));
+        // Brand after the ftyp box does not count
+        assertEquals(ImageFormat.UNKNOWN, ImageFormat.sniff(header("\0\0\0\u0010ftypmif1\0\0\0\0avif")));
+    }
+
+    @Test
+    public void testAcceptHeaderListsCompactFormatsFirst() {
+        assertEquals("image/avif,image/webp,image/jpeg,image/*;q=0.8",
+                ImageFormat.acceptHeader(EnumSet.of(ImageFormat.JPEG, ImageFormat.WEBP, ImageFormat.AVIF)));
+        assertEquals("image/webp,image/*;q=0.8", ImageFormat.acceptHeader(EnumSet.of(ImageFormat.WEBP)));
+        assertEquals("image/*;q=0.8", ImageFormat.acceptHeader(EnumSet.of(ImageFormat.UNKNOWN)));
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.photoviewer.core.image;
+
+import com.example.photoviewer.core.image.TileGrid.Tile;
+import com.example.photoviewer.core.layout.ZoomState;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TileGridTest {
+    // 50 MP
+    private static final int IMAGE_WIDTH = 8160;
+    private static final int IMAGE_HEIGHT = 6120;
+    private static final int VIEW_WIDTH = 1080;
+    private static final int VIEW_HEIGHT = 1600;
+    private static final int TILE = TileGrid.DEFAULT_TILE_SIZE;
+
+    @Test
+    public void testSampleSize() {
+        assertEquals(1, TileGrid.sampleSizeFor(2f));
+        assertEquals(1, TileGrid.sampleSizeFor(1f));
+        assertEquals(1, TileGrid.sampleSizeFor(0.51f));
+        assertEquals(2, TileGrid.sampleSizeFor(0.5f));
+        assertEquals(4, TileGrid.sampleSizeFor(0.2f));
+        // Whole 50 MP image fitted into a phone-width view
+        assertEquals(4, TileGrid.sampleSizeFor(VIEW_WIDTH / (float) IMAGE_WIDTH));
+        assertEquals(1 << 30, TileGrid.sampleSizeFor(0f));
+    }
+
+    @Test
+    public void testTilesCoverRegionAndClipAtEdges() {
+        TileGrid grid = new TileGrid(1000, 700, 256);
+        List<Tile> all = grid.tilesFor(0, 0, 1000, 700, 1);
+        assertEquals(4 * 3, all.size());
+        Tile last = all.get(all.size() - 1);
+        assertEquals(768, last.left);
+        assertEquals(1000, last.right);
+        assertEquals(700, last.bottom);
+
+        // Region inside one tile
+        List<Tile> one = grid.tilesFor(300, 300, 400, 400, 1);
+        assertEquals(1, one.size());
+        assertEquals(1, one.get(0).column);
+        assertEquals(1, one.get(0).row);
+
+        // Sample size 4: one tile spans 1024 image pixels, the whole image
+        List<Tile> coarse = grid.tilesFor(0, 0, 1000, 700, 4);
+        assertEquals(1, coarse.size());
+        assertEquals(1000, coarse.get(0).right);
+    }
+
+    @Test
+    public void testTileIdentity() {
+        TileGrid grid = new TileGrid(1000, 700, 256);
+        Tile a = grid.tilesFor(0, 0, 10, 10, 1).get(0);
+        Tile b = grid.tilesFor(5, 5, 20, 20, 1).get(0);
+        Tile coarse = grid.tilesFor(0, 0, 10, 10, 2).get(0);
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertNotEquals(a, coarse);
+    }
+
+    @Test
+    public void testVisibleTilesAndPixelsAreBoundedAtAnyZoom() {
+        TileGrid grid = new TileGrid(IMAGE_WIDTH, IMAGE_HEIGHT, TILE);
+        ZoomState zoom = new ZoomState();
+        zoom.setSizes(VIEW_WIDTH, VIEW_HEIGHT, IMAGE_WIDTH, IMAGE_HEIGHT);
+        int bound = TileGrid.maxVisibleTiles(VIEW_WIDTH, VIEW_HEIGHT, TILE);
+        Random random = new Random(5);
+        int maxSeen = 0;
+        for (int i = 0; i < 2000; i++) {
+            zoom.zoomBy((float) Math.pow(2, random.nextGaussian()), random.nextInt(VIEW_WIDTH), random.nextInt(VIEW_HEIGHT));
+            zoom.panBy(random.nextInt(4000) - 2000, random.nextInt(4000) - 2000);
+            float[] rect = zoom.visibleImageRect();
+            int sampleSize = TileGrid.sampleSizeFor(zoom.getScale());
+            List<Tile> tiles = grid.tilesFor(rect[0], rect[1], rect[2], rect[3], sampleSize);
+            assertEquals(tiles.size(), new HashSet<>(tiles).size());
+            assertTrue(tiles.size() + " tiles > bound " + bound, tiles.size() <= bound);
+            for (Tile tile : tiles) {
+                // Decoded bitmap never exceeds tile size, whatever the image size
+                assertTrue((tile.right - tile.left) / tile.sampleSize <= TILE);
+                assertTrue((tile.bottom - tile.top) / tile.sampleSize <= TILE);
+            }
+            maxSeen = Math.max(maxSeen, tiles.size());
+        }
+        assertTrue(maxSeen > 1);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.photoviewer.core.json;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+public class JsonReaderTest {
+
+    @Test
+    public void testReadsNestedValues() throws IOException {
+        JsonReader json = new JsonReader(new StringReader(
+                "{\"id\": 7, \"title\": \"사람\", \"tags\": [1, {\"a\": null}], \"ok\": true, \"score\": -1.5e2}"));
+        json.beginObject();
+        assertEquals("id", json.nextName());
+        assertEquals(7, json.nextInt());
+        assertEquals("title", json.nextName());
+        assertEquals("사람", json.nextString());
+        assertEquals("tags", json.nextName());
+        json.skipValue();
+        assertEquals("ok", json.nextName());
+        assertTrue(json.nextBoolean());
+        assertEquals("score", json.nextName());
+        assertEquals(-150.0, json.nextDouble(), 0.0);
+        assertFalse(json.hasNext());
+        json.endObject();
+        assertEquals(JsonReader.Token.END_DOCUMENT, json.peek());
+    }
+
+    @Test
+    public void testDecodesEscapes() throws IOException {
+        JsonReader json = new JsonReader(new StringReader("[\"a\\\"b\\\\c\\n\\u00e9\\/\"]"));
+        json.beginArray();
+        assertEquals("a\"b\\c\né/", json.nextString());
+        json.endArray();
+    }
+
+    @Test
+    public void testNextNameEquals() throws IOException {
+        JsonReader json = new JsonReader(new StringReader("{\"title\":1,\"titles\":2,\"tit\":3}"));
+        json.beginObject();
+        assertTrue(json.nextNameEquals("title"));
+        json.skipValue();
+        assertFalse(json.nextNameEquals("title"));
+        json.skipValue();
+        assertFalse(json.nextNameEquals("title"));
+        json.skipValue();
+        json.endObject();
+    }
+
+    @Test
+    public void testSelectName() throws IOException {
+        String[] options = {"id", "title", "image"};
+        JsonReader json = new JsonReader(new StringReader("{\"title\":1,\"titles\":2,\"id\":3,\"im\\u0061ge\":4}"));
+        json.beginObject();
+        assertEquals(1, json.selectName(options));
+        json.skipValue();
+        assertEquals(-1, json.selectName(options));
+        json.skipValue();
+        assertEquals(0, json.selectName(options));
+        json.skipValue();
+        assertEquals(2, json.selectName(options));
+        json.skipValue();
+        json.endObject();
+    }
+
+    @Test
+    public void testStringsSpanningBufferRefills() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        JsonReader json = new JsonReader(new StringReader("[\"" + sb + "\"]"));
+        json.beginArray();
+        assertEquals(sb.toString(), json.nextString());
+        json.endArray();
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsTruncatedInput() throws IOException {
+        JsonReader json = new JsonReader(new StringReader("[{\"id\": 1"));
+        json.beginArray();
+        json.beginObject();
+        json.nextName();
+        json.nextInt();
+        json.hasNext();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.photoviewer.core.layout;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FeedLayoutTest {
+    private static final int ROW = 525; // 200dp at xxhdpi
+
+    @Test
+    public void testCellWidthSplitsColumns() {
+        assertEquals(1000, FeedLayout.LIST.cellWidth(1032, 32));
+        assertEquals(312, FeedLayout.GRID.cellWidth(1032, 32));
+        assertEquals(484, FeedLayout.STAGGERED.cellWidth(1032, 32));
+        assertEquals(1, FeedLayout.GRID.cellWidth(0, 32));
+    }
+
+    @Test
+    public void testListAndGridIgnoreImageSize() {
+        assertEquals(ROW, FeedLayout.LIST.cellHeight(1000, ROW, 320, 240));
+        assertEquals(ROW, FeedLayout.LIST.cellHeight(1000, ROW, 0, 0));
+        assertEquals(312, FeedLayout.GRID.cellHeight(312, ROW, 1080, 1920));
+    }
+
+    @Test
+    public void testStaggeredFollowsAspectRatio() {
+        assertEquals(363, FeedLayout.STAGGERED.cellHeight(484, ROW, 320, 240));
+        assertEquals(860, FeedLayout.STAGGERED.cellHeight(484, ROW, 1080, 1920));
+        assertEquals(484, FeedLayout.STAGGERED.cellHeight(484, ROW, 500, 500));
+    }
+
+    @Test
+    public void testStaggeredPlaceholderWithoutSize() {
+        // Unknown size: same height as a detector frame, so most cells do not change later
+        int expected = FeedLayout.STAGGERED.cellHeight(484, ROW, 320, 240);
+        assertEquals(expected, FeedLayout.STAGGERED.cellHeight(484, ROW, 0, 0));
+        assertEquals(expected, FeedLayout.STAGGERED.cellHeight(484, ROW, 320, 0));
+        assertEquals(expected, FeedLayout.STAGGERED.cellHeight(484, ROW, -1, 240));
+    }
+
+    @Test
+    public void testExtremeAspectRatiosAreClamped() {
+        // Panorama and a very tall screenshot
+        assertEquals(194, FeedLayout.STAGGERED.cellHeight(484, ROW, 8000, 1000));
+        assertEquals(968, FeedLayout.STAGGERED.cellHeight(484, ROW, 500, 10000));
+    }
+
+    @Test
+    public void testNextCyclesThroughAll() {
+        assertEquals(FeedLayout.GRID, FeedLayout.LIST.next());
+        assertEquals(FeedLayout.STAGGERED, FeedLayout.GRID.next());
+        assertEquals(FeedLayout.LIST, FeedLayout.STAGGERED.next());
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.photoviewer.core.layout;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ZoomStateTest {
+    private static final float EPSILON = 0.01f;
+    private ZoomState zoom;
+
+    @Before
+    public void setUp() {
+        zoom = new ZoomState();
+        // 4000x3000 photo in a 1000x1000 view: fits at 0.25, centered vertically
+        zoom.setSizes(1000, 1000, 4000, 3000);
+    }
+
+    @Test
+    public void testStartsFittedAndCentered() {
+        assertEquals(0.25f, zoom.getScale(), EPSILON);
+        assertEquals(0f, zoom.getTranslateX(), EPSILON);
+        assertEquals(125f, zoom.getTranslateY(), EPSILON);
+        assertFalse(zoom.isZoomed());
+        float[] rect = zoom.visibleImageRect();
+        assertArrayEquals(new float[]{0, 0, 4000, 3000}, rect, EPSILON);
+    }
+
+    @Test
+    public void testZoomKeepsFocusPointInPlace() {
+        // Image point under the view center before zooming
+        float imageX = (500 - zoom.getTranslateX()) / zoom.getScale();
+        float imageY = (500 - zoom.getTranslateY()) / zoom.getScale();
+        zoom.zoomBy(4f, 500, 500);
+        assertEquals(1f, zoom.getScale(), EPSILON);
+        assertTrue(zoom.isZoomed());
+        assertEquals(imageX, (500 - zoom.getTranslateX()) / zoom.getScale(), EPSILON);
+        assertEquals(imageY, (500 - zoom.getTranslateY()) / zoom.getScale(), EPSILON);
+    }
+
+    @Test
+    public void testZoomIsClamped() {
+        zoom.zoomBy(100f, 0, 0);
+        assertEquals(ZoomState.MAX_SCALE, zoom.getScale(), EPSILON);
+        zoom.zoomBy(0.001f, 0, 0);
+        assertEquals(zoom.getFitScale(), zoom.getScale(), EPSILON);
+        assertEquals(125f, zoom.getTranslateY(), EPSILON);
+    }
+
+    @Test
+    public void testPanStopsAtEdges() {
+        zoom.zoomBy(4f, 0, 0);
+        zoom.panBy(500, 500);
+        assertEquals(0f, zoom.getTranslateX(), EPSILON);
+        assertEquals(0f, zoom.getTranslateY(), EPSILON);
+        zoom.panBy(-100000, -100000);
+        assertEquals(1000 - 4000, zoom.getTranslateX(), EPSILON);
+        assertEquals(1000 - 3000, zoom.getTranslateY(), EPSILON);
+        assertArrayEquals(new float[]{3000, 2000, 4000, 3000}, zoom.visibleImageRect(), EPSILON);
+    }
+
+    @Test
+    public void testSmallImageMayZoomToMaxOnly() {
+        zoom.setSizes(1000, 1000, 320, 240);
+        assertEquals(1000f / 320, zoom.getScale(), EPSILON);
+        assertEquals(zoom.getFitScale(), zoom.getMaxScale(), EPSILON);
+        zoom.zoomBy(2f, 500, 500);
+        assertFalse(zoom.isZoomed());
+    }
+}
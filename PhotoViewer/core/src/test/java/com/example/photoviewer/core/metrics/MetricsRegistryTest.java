@@ -0,0 +1,83 @@
+package com.example.photoviewer.core.metrics;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class MetricsRegistryTest {
+
+    @Test
+    public void testHistogramPercentilesUseBucketBounds() {
+        Histogram h = new Histogram();
+        for (int i = 0; i < 90; i++) {
+            h.record(3);   // 5 ms bucket
+        }
+        for (int i = 0; i < 10; i++) {
+            h.record(700); // 1000 ms bucket
+        }
+        assertEquals(100, h.getCount());
+        assertEquals(5, h.getPercentile(0.5));
+        assertEquals(700, h.getPercentile(0.95)); // capped at the max seen
+        assertEquals(700, h.getMax());
+        assertEquals(72.7, h.getMean(), 0.001);
+    }
+
+    @Test
+    public void testHistogramOverflowBucket() {
+        Histogram h = new Histogram();
+        h.record(60_000);
+        assertEquals(1, h.getBucketCount(Histogram.BOUNDS_MS.length));
+        assertEquals(60_000, h.getPercentile(0.99));
+    }
+
+    @Test
+    public void testSameNameReturnsSameMetric() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("a").inc();
+        registry.counter("a").add(4);
+        assertEquals(5, registry.counter("a").get());
+        assertSame(registry.histogram("h"), registry.histogram("h"));
+    }
+
+    @Test
+    public void testHitRate() {
+        MetricsRegistry registry = new MetricsRegistry();
+        assertEquals(-1, registry.hitRate("cache.thumbnail"), 0);
+        registry.counter("cache.thumbnail.hit").add(3);
+        registry.counter("cache.thumbnail.miss").inc();
+        assertEquals(0.75, registry.hitRate("cache.thumbnail"), 0.0001);
+    }
+
+    @Test
+    public void testResetKeepsNames() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("c").inc();
+        registry.histogram("h").record(10);
+        registry.reset();
+        assertEquals(0, registry.counter("c").get());
+        assertEquals(0, registry.histogram("h").getCount());
+        assertTrue(registry.formatText().contains("c  0"));
+    }
+
+    @Test
+    public void testJsonExport() throws IOException {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("http.posts.list.bytes_in").add(1234);
+        registry.counter("cache.feed.hit").inc();
+        registry.histogram("sync.total_ms").record(150);
+
+        StringWriter out = new StringWriter();
+        registry.writeJson(out, Collections.singletonMap("build", "debug \"1.0\""));
+        String json = out.toString();
+
+        assertTrue(json, json.startsWith("{\"meta\":{\"build\":\"debug \\\"1.0\\\"\"}"));
+        assertTrue(json, json.contains("\"http.posts.list.bytes_in\":1234"));
+        assertTrue(json, json.contains("\"sync.total_ms\":{\"count\":1,\"sum\":150,"));
+        assertTrue(json, json.contains("\"le200\":1"));
+        assertTrue(json, json.contains("\"hitRates\":{\"cache.feed\":1.0000}"));
+    }
+}
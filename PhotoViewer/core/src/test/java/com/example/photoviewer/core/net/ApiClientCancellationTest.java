@@ -0,0 +1,195 @@
+package com.example.photoviewer.core.net;
+
+import com.example.photoviewer.core.metrics.MetricsRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class ApiClientCancellationTest {
+    private static final int TIMEOUT_MS = 20000;
+
+    /**
+     * Stand-in server that accepts one request, optionally sends a partial response,
+     * then stalls until the client closes the socket
+     */
+    private static final class SlowServer implements Runnable {
+        final ServerSocket socket;
+        final String partialResponse;
+        final CountDownLatch requestReceived = new CountDownLatch(1);
+        final CountDownLatch clientClosed = new CountDownLatch(1);
+        final AtomicInteger accepted = new AtomicInteger();
+        final AtomicLong closedAtNanos = new AtomicLong();
+
+        SlowServer(String partialResponse) throws IOException {
+            this.socket = new ServerSocket(0);
+            this.partialResponse = partialResponse;
+            Thread thread = new Thread(this, "slow-server");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        String baseUrl() {
+            return "http://127.0.0.1:" + socket.getLocalPort() + "/";
+        }
+
+        @Override
+        public void run() {
+            try (Socket client = socket.accept()) {
+                accepted.incrementAndGet();
+                InputStream in = client.getInputStream();
+                readHeaders(in);
+                requestReceived.countDown();
+                if (partialResponse != null) {
+                    OutputStream out = client.getOutputStream();
+                    out.write(partialResponse.getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+                // Never answer (further); a read returns -1 once the client hangs up
+                while (in.read() != -1) {
+                    // drain
+                }
+                closedAtNanos.set(System.nanoTime());
+                clientClosed.countDown();
+            } catch (IOException e) {
+                closedAtNanos.set(System.nanoTime());
+                clientClosed.countDown();
+            }
+        }
+
+        private static void readHeaders(InputStream in) throws IOException {
+            int matched = 0;
+            int b;
+            while (matched < 4 && (b = in.read()) != -1) {
+                matched = (b == "\r\n\r\n".charAt(matched)) ? matched + 1 : (b == '\r' ? 1 : 0);
+            }
+        }
+
+        void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    private SlowServer server;
+    private MetricsRegistry metrics;
+
+    @Before
+    public void setUp() {
+        metrics = new MetricsRegistry();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    /**
+     * Run fetchPosts on a worker thread, cancel once the server has the request,
+     * and return what the call threw
+     */
+    private IOException fetchAndCancel(RequestScope cancelTarget, RequestScope callScope) throws Exception {
+        ApiClient api = new ApiClient(server.baseUrl(), null, metrics).withScope(callScope);
+        AtomicReference<IOException> thrown = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        Thread caller = new Thread(() -> {
+            try {
+                api.fetchPosts(TIMEOUT_MS);
+            } catch (IOException e) {
+                thrown.set(e);
+            } finally {
+                done.countDown();
+            }
+        });
+        caller.start();
+        assertTrue(server.requestReceived.await(5, TimeUnit.SECONDS));
+
+        long cancelAt = System.nanoTime();
+        cancelTarget.cancel();
+        assertTrue("call still blocked after cancel", done.await(2, TimeUnit.SECONDS));
+        assertTrue("server never saw the connection close", server.clientClosed.await(2, TimeUnit.SECONDS));
+        long closeMs = TimeUnit.NANOSECONDS.toMillis(server.closedAtNanos.get() - cancelAt);
+        assertTrue("connection closed " + closeMs + " ms after cancel", closeMs < 1000);
+        return thrown.get();
+    }
+
+    @Test
+    public void testCancelWhileWaitingForHeaders() throws Exception {
+        server = new SlowServer(null);
+        RequestScope scope = new RequestScope();
+
+        IOException e = fetchAndCancel(scope, scope);
+        assertTrue("expected CancelledException, got " + e, e instanceof CancelledException);
+        assertEquals(1, metrics.counter("http.posts.list.cancelled").get());
+        assertEquals(0, metrics.counter("http.posts.list.failures").get());
+    }
+
+    @Test
+    public void testCancelWhileStreamingBody() throws Exception {
+        // Headers and the first post arrive, then the body stalls mid-array
+        server = new SlowServer("HTTP/1.1 200 OK\r\n"
+                + "Content-Type: application/json\r\n"
+                + "Content-Length: 100000\r\n\r\n"
+                + "[{\"id\":1,\"title\":\"a\",\"text\":\"b\",\"image\":null},");
+        RequestScope scope = new RequestScope();
+
+        IOException e = fetchAndCancel(scope, scope);
+        assertTrue("expected CancelledException, got " + e, e instanceof CancelledException);
+    }
+
+    @Test
+    public void testParentCancelReachesChild() throws Exception {
+        server = new SlowServer(null);
+        RequestScope parent = new RequestScope();
+        RequestScope child = parent.newChild();
+
+        IOException e = fetchAndCancel(parent, child);
+        assertTrue(e instanceof CancelledException);
+        assertTrue(child.isCancelled());
+    }
+
+    @Test
+    public void testCancelledScopeDoesNotConnect() throws Exception {
+        server = new SlowServer(null);
+        RequestScope scope = new RequestScope();
+        scope.cancel();
+
+        try {
+            new ApiClient(server.baseUrl(), null, metrics).withScope(scope).fetchPosts(TIMEOUT_MS);
+            fail("expected CancelledException");
+        } catch (CancelledException expected) {
+            // no request was made
+        }
+        Thread.sleep(100);
+        assertEquals(0, server.accepted.get());
+    }
+
+    @Test
+    public void testChildCancelLeavesParentRunning() {
+        RequestScope parent = new RequestScope();
+        RequestScope first = parent.newChild();
+        first.cancel();
+        RequestScope second = parent.newChild();
+        second.close();
+
+        assertFalse(parent.isCancelled());
+        assertFalse(second.isCancelled());
+        parent.cancel();
+        assertFalse("closed child is no longer attached", second.isCancelled());
+        assertTrue(parent.newChild().isCancelled());
+    }
+}
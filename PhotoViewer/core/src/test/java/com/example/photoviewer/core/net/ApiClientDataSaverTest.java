@@ -0,0 +1,90 @@
+package com.example.photoviewer.core.net;
+
+import com.example.photoviewer.core.feed.NewPostDetector;
+import com.example.photoviewer.core.feed.NewPostScan;
+import com.example.photoviewer.core.metrics.MetricsRegistry;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ApiClientDataSaverTest {
+    private static final String FULL = "[{\"id\":2,\"title\":\"b\",\"text\":\"" + repeat('x', 500)
+            + "\",\"image\":\"http://example.invalid/2.jpg\"},{\"id\":1,\"title\":\"a\",\"text\":\"\",\"image\":null}]";
+    private static final String SUMMARY = "[{\"id\":2,\"title\":\"b\"},{\"id\":1,\"title\":\"a\"}]";
+
+    private HttpServer server;
+    private final List<String> queries = Collections.synchronizedList(new ArrayList<>());
+    private MetricsRegistry metrics;
+    private ApiClient api;
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        // Stand-in for BlogImages.list: ?summary=1 answers with the summary list
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api_root/Post/", exchange -> {
+            String query = exchange.getRequestURI().getQuery();
+            queries.add(query);
+            boolean summary = query != null && query.contains("summary=1");
+            byte[] body = (summary ? SUMMARY : FULL).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        metrics = new MetricsRegistry();
+        api = new ApiClient("http://127.0.0.1:" + server.getAddress().getPort() + "/", null, metrics);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testSummaryPollCountsBytesSaved() throws IOException {
+        api.fetchPosts(5000);
+        // A scoped view shares the estimate from the full list
+        NewPostScan scan = api.withScope(new RequestScope())
+                .detectNewPosts(new NewPostDetector(1).newestFirst().summaryOnly(), 5000);
+        assertEquals("ordering=-id&summary=1", queries.get(1));
+        assertEquals(1, scan.getNewPostCount());
+        assertEquals("b", scan.getFirstNewTitle());
+        // Both posts were read, at the full list's average size per post
+        assertEquals(FULL.length() / 2 * 2 - SUMMARY.length(), metrics.counter("http.posts.poll.bytes_saved").get());
+    }
+
+    @Test
+    public void testSummaryPollBeforeFullListSavesNothing() throws IOException {
+        api.detectNewPosts(new NewPostDetector(1).newestFirst().summaryOnly(), 5000);
+        assertEquals(0, metrics.counter("http.posts.poll.bytes_saved").get());
+    }
+
+    @Test
+    public void testFullPollSavesNothing() throws IOException {
+        api.detectNewPosts(new NewPostDetector(1).newestFirst(), 5000);
+        api.detectNewPosts(new NewPostDetector(1), 5000);
+        assertEquals("ordering=-id", queries.get(0));
+        assertNull(queries.get(1));
+        assertEquals(0, metrics.counter("http.posts.poll.bytes_saved").get());
+    }
+}
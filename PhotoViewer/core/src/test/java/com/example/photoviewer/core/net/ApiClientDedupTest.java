@@ -0,0 +1,109 @@
+package com.example.photoviewer.core.net;
+
+import com.example.photoviewer.core.image.ContentHash;
+import com.example.photoviewer.core.metrics.MetricsRegistry;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ApiClientDedupTest {
+    private static final byte[] IMAGE = new byte[50_000];
+
+    static {
+        for (int i = 0; i < IMAGE.length; i++) {
+            IMAGE[i] = (byte) (i % 251);
+        }
+    }
+
+    private HttpServer server;
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<>());
+    private final Set<String> storedHashes = Collections.synchronizedSet(new HashSet<>());
+    private final AtomicInteger uploadedBytes = new AtomicInteger();
+    private MetricsRegistry metrics;
+    private ApiClient api;
+
+    @Before
+    public void setUp() throws IOException {
+        // Stand-in for BlogImages: by-hash answers 201 for stored hashes, full uploads store one
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api_root/Post/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            byte[] body = readAll(exchange.getRequestBody());
+            requests.add(exchange.getRequestMethod() + " " + path);
+            if (path.endsWith("/by-hash/")) {
+                String json = new String(body, StandardCharsets.UTF_8);
+                String hash = ApiClient.readStringField(json, "image_hash");
+                respond(exchange, storedHashes.contains(hash) ? 201 : 404, "{}");
+            } else {
+                uploadedBytes.addAndGet(body.length);
+                storedHashes.add(ContentHash.sha256(IMAGE).getHex());
+                respond(exchange, 201, "{\"id\":1}");
+            }
+        });
+        server.start();
+        metrics = new MetricsRegistry();
+        api = new ApiClient("http://127.0.0.1:" + server.getAddress().getPort() + "/", null, metrics);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        return ApiClient.readAll(in, -1);
+    }
+
+    private static void respond(HttpExchange exchange, int code, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Test
+    public void testNewImageIsUploadedAndDuplicateIsNot() throws IOException {
+        AtomicInteger opens = new AtomicInteger();
+        ApiClient.ImageSource source = () -> {
+            opens.incrementAndGet();
+            return new ByteArrayInputStream(IMAGE);
+        };
+
+        ApiResponse first = api.createPostDeduplicated("t", "x", "a.jpg", "image/jpeg", source, 5000);
+        assertEquals(201, first.getCode());
+        assertEquals(2, opens.get()); // hash, then upload
+        assertEquals(2, requests.size());
+        assertTrue(uploadedBytes.get() > IMAGE.length);
+
+        ApiResponse second = api.createPostDeduplicated("t2", "x2", "a.jpg", "image/jpeg", source, 5000);
+        assertEquals(201, second.getCode());
+        assertEquals(3, opens.get()); // hash only
+        assertEquals(3, requests.size());
+        assertEquals("POST /api_root/Post/by-hash/", requests.get(2));
+
+        assertEquals(1, metrics.counter("upload.dedup.hit").get());
+        assertEquals(1, metrics.counter("upload.dedup.miss").get());
+        assertEquals(IMAGE.length, metrics.counter("upload.dedup.bytes_saved").get());
+        assertEquals(0.5, metrics.hitRate("upload.dedup"), 0.001);
+        // An unknown hash is an answer, not a failed request
+        assertEquals(0, metrics.counter("http.posts.create_by_hash.failures").get());
+    }
+}
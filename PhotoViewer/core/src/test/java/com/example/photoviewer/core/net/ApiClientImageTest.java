@@ -0,0 +1,107 @@
+package com.example.photoviewer.core.net;
+
+import com.example.photoviewer.core.feed.FeedParser;
+import com.example.photoviewer.core.feed.PostRecord;
+import com.example.photoviewer.core.image.ImageFormat;
+import com.example.photoviewer.core.metrics.MetricsRegistry;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ApiClientImageTest {
+    private static final byte[] JPEG = signed("ÿØÿà", 3000);
+    private static final byte[] WEBP = signed("RIFF\0\0\0\0WEBPVP8 ", 2000);
+    private static final byte[] AVIF = signed("\0\0\0\u0014ftypavif\0\0\0\0mif1", 1500);
+
+    private HttpServer server;
+    private final List<String> acceptHeaders = Collections.synchronizedList(new ArrayList<>());
+    private MetricsRegistry metrics;
+    private ApiClient api;
+    private String baseUrl;
+
+    private static byte[] signed(String signature, int length) {
+        byte[] data = new byte[length];
+        byte[] head = signature.getBytes(StandardCharsets.ISO_8859_1);
+        System.arraycopy(head, 0, data, 0, head.length);
+        return data;
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        // Stand-in for BlogImages.image: smallest stored variant the Accept header allows
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api_root/Post/1/image/", exchange -> {
+            String accept = exchange.getRequestHeaders().getFirst("Accept");
+            acceptHeaders.add(accept);
+            String allowed = accept == null ? "" : accept;
+            byte[] body = allowed.contains("image/avif") ? AVIF
+                    : allowed.contains("image/webp") ? WEBP : JPEG;
+            exchange.getResponseHeaders().set("Vary", "Accept");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+        metrics = new MetricsRegistry();
+        api = new ApiClient(baseUrl, null, metrics);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testFeedPrefersNegotiatedUrl() throws IOException {
+        String feed = "[{\"id\":1,\"image\":\"" + baseUrl + "media/1.jpg\",\"image_negotiated\":\""
+                + baseUrl + "api_root/Post/1/image/\"},"
+                + "{\"id\":2,\"image\":\"" + baseUrl + "media/2.jpg\",\"image_negotiated\":null}]";
+        List<PostRecord> posts = FeedParser.parse(new StringReader(feed));
+        assertEquals(baseUrl + "api_root/Post/1/image/", posts.get(0).getImageUrl());
+        assertEquals(baseUrl + "media/2.jpg", posts.get(1).getImageUrl());
+    }
+
+    @Test
+    public void testAcceptHeaderSelectsFormat() throws IOException {
+        String url = baseUrl + "api_root/Post/1/image/";
+        String avifDevice = ImageFormat.acceptHeader(EnumSet.of(ImageFormat.AVIF, ImageFormat.WEBP, ImageFormat.JPEG));
+        String webpDevice = ImageFormat.acceptHeader(EnumSet.of(ImageFormat.WEBP, ImageFormat.JPEG));
+
+        assertArrayEquals(AVIF, api.fetchImage(url, avifDevice, 5000));
+        assertArrayEquals(WEBP, api.fetchImage(url, webpDevice, 5000));
+        assertArrayEquals(JPEG, api.fetchBytes(url, 5000));
+        assertEquals(avifDevice, acceptHeaders.get(0));
+
+        assertEquals(1, metrics.counter("media.avif.images").get());
+        assertEquals(AVIF.length, metrics.counter("media.avif.bytes").get());
+        assertEquals(WEBP.length, metrics.counter("media.webp.bytes").get());
+        assertEquals(JPEG.length, metrics.counter("media.jpeg.bytes").get());
+        assertEquals(AVIF.length + WEBP.length + JPEG.length, metrics.counter("http.media.bytes_in").get());
+    }
+
+    @Test
+    public void testStreamingFetchWritesBody() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = api.fetchImage(baseUrl + "api_root/Post/1/image/", "image/webp,image/*;q=0.8", out, 5000);
+        assertEquals(WEBP.length, written);
+        assertArrayEquals(WEBP, out.toByteArray());
+        assertEquals(1, metrics.counter("media.webp.images").get());
+        assertEquals(WEBP.length, metrics.counter("http.media.bytes_in").get());
+    }
+}
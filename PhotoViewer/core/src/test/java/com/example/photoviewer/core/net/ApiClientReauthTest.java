@@ -0,0 +1,164 @@
+package com.example.photoviewer.core.net;
+
+import com.example.photoviewer.core.metrics.MetricsRegistry;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class ApiClientReauthTest {
+    private static final int PARALLEL = 8;
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private ExecutorService clients;
+    private final AtomicReference<String> token = new AtomicReference<>("revoked");
+    private final AtomicInteger flows = new AtomicInteger();
+    private MetricsRegistry metrics;
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws IOException {
+        // Stand-in for TokenAuthentication: only "fresh" is accepted
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                while (in.read() != -1) {
+                    // Drain uploads
+                }
+            }
+            boolean valid = "Token fresh".equals(exchange.getRequestHeaders().getFirst("Authorization"));
+            byte[] body = (valid ? "[]" : "{\"detail\":\"Invalid token.\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(valid ? 200 : 401, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        serverThreads = Executors.newFixedThreadPool(PARALLEL);
+        server.setExecutor(serverThreads);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+        metrics = new MetricsRegistry();
+        clients = Executors.newFixedThreadPool(PARALLEL);
+    }
+
+    @After
+    public void tearDown() {
+        clients.shutdownNow();
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    private ApiClient client(AuthGate.Reauthenticator reauthenticator) {
+        return new ApiClient(baseUrl, token::get, metrics)
+                .withRetryPolicy(RetryPolicy.none())
+                .withReauthenticator(reauthenticator);
+    }
+
+    /**
+     * Slow re-login, so every parallel request gets its 401 or waits while it runs
+     */
+    private AuthGate.Reauthenticator relogin(String newToken) {
+        return rejected -> {
+            flows.incrementAndGet();
+            assertEquals("revoked", rejected);
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                throw new CancelledException("interrupted");
+            }
+            token.set(newToken);
+            return newToken;
+        };
+    }
+
+    private List<Future<Integer>> fetchInParallel(ApiClient api) throws InterruptedException {
+        List<Callable<Integer>> calls = new ArrayList<>();
+        for (int i = 0; i < PARALLEL; i++) {
+            calls.add(() -> api.fetchPosts(5000).size());
+        }
+        return clients.invokeAll(calls);
+    }
+
+    @Test
+    public void testParallelRequestsShareOneReauthentication() throws Exception {
+        ApiClient api = client(relogin("fresh"));
+        for (Future<Integer> result : fetchInParallel(api)) {
+            assertEquals(Integer.valueOf(0), result.get());
+        }
+        assertEquals(1, flows.get());
+        assertEquals(1, metrics.counter("auth.reauth.flows").get());
+        assertTrue(metrics.counter("http.posts.list.replays").get() >= 1);
+        // Later requests carry the new token from the start
+        api.fetchPosts(5000);
+        assertEquals(1, flows.get());
+    }
+
+    @Test
+    public void testDeclinedReauthenticationFailsOnceAndIsNotRepeated() throws Exception {
+        ApiClient api = client(rejected -> {
+            flows.incrementAndGet();
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                throw new CancelledException("interrupted");
+            }
+            return null;
+        });
+        for (Future<Integer> result : fetchInParallel(api)) {
+            try {
+                result.get();
+                fail("expected 401");
+            } catch (ExecutionException e) {
+                assertEquals(401, ((ApiException) e.getCause()).getCode());
+            }
+        }
+        try {
+            api.fetchPosts(5000);
+            fail("expected 401");
+        } catch (ApiException e) {
+            assertEquals(401, e.getCode());
+        }
+        assertEquals(1, flows.get());
+        assertTrue(metrics.counter("auth.reauth.suppressed").get() >= 1);
+    }
+
+    @Test
+    public void testStreamedUploadIsNotReplayed() throws IOException {
+        ApiClient api = client(relogin("fresh"));
+        InputStream image = new ByteArrayInputStream(new byte[1024]);
+        ApiResponse response = api.createPost("t", "x", "a.jpg", "image/jpeg", image, 5000);
+        assertEquals(401, response.getCode());
+        assertEquals(0, flows.get());
+    }
+
+    @Test
+    public void testWithoutReauthenticatorA401Fails() {
+        ApiClient api = new ApiClient(baseUrl, token::get, metrics).withRetryPolicy(RetryPolicy.none());
+        try {
+            api.fetchPosts(5000);
+            fail("expected 401");
+        } catch (IOException e) {
+            assertEquals(401, ((ApiException) e).getCode());
+        }
+        assertEquals(0, metrics.counter("http.posts.list.replays").get());
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.photoviewer.core.net;
+
+import com.example.photoviewer.core.metrics.MetricsRegistry;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class ApiClientRetryTest {
+    private HttpServer server;
+    // Scripted answers, taken one per request; "200" once empty. "503:7" adds Retry-After: 7
+    private final Deque<String> script = new ArrayDeque<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final List<Long> sleeps = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private MetricsRegistry metrics;
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws IOException {
+        // Flaky stand-in for BlogImages: fails the way an overloaded PythonAnywhere worker does
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            hits.incrementAndGet();
+            String answer;
+            synchronized (script) {
+                answer = script.isEmpty() ? "200" : script.poll();
+            }
+            String[] parts = answer.split(":");
+            int code = Integer.parseInt(parts[0]);
+            if (parts.length > 1) {
+                exchange.getResponseHeaders().set("Retry-After", parts[1]);
+            }
+            byte[] body = (code == 200 ? "[]" : "{\"detail\":\"busy\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(code, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+        metrics = new MetricsRegistry();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private void answer(String... answers) {
+        synchronized (script) {
+            Collections.addAll(script, answers);
+        }
+    }
+
+    private RetryPolicy.Builder policy() {
+        return new RetryPolicy.Builder()
+                .backoff(100, 1000)
+                .clock(clock::get)
+                .random(new Random(1))
+                .sleeper((millis, scope) -> {
+                    sleeps.add(millis);
+                    clock.addAndGet(millis);
+                });
+    }
+
+    private ApiClient client(RetryPolicy policy) {
+        return new ApiClient(baseUrl, null, metrics).withRetryPolicy(policy);
+    }
+
+    @Test
+    public void testGetRetriedUntilSuccess() throws IOException {
+        answer("503", "502");
+        ApiClient api = client(policy().maxAttempts(3).build());
+        assertTrue(api.fetchPosts(5000).isEmpty());
+        assertEquals(3, hits.get());
+        assertEquals(2, metrics.counter("http.posts.list.retries").get());
+        assertEquals(3, metrics.counter("http.posts.list.requests").get());
+        assertEquals(2, sleeps.size());
+        // Full jitter: each delay is within [0, base * 2^retry]
+        assertTrue(sleeps.get(0) <= 100);
+        assertTrue(sleeps.get(1) <= 200);
+    }
+
+    @Test
+    public void testGivesUpAfterMaxAttempts() {
+        answer("503", "503", "503", "503");
+        ApiClient api = client(policy().maxAttempts(3).build());
+        try {
+            api.fetchPosts(5000);
+            fail("Expected ApiException");
+        } catch (IOException e) {
+            assertTrue(e instanceof ApiException);
+            assertEquals(503, ((ApiException) e).getCode());
+        }
+        assertEquals(3, hits.get());
+    }
+
+    @Test
+    public void testPutResponseRetried() throws IOException {
+        answer("504");
+        ApiClient api = client(policy().build());
+        ApiResponse response = api.updatePost(1, "person", "person, ", null, null, null, 5000);
+        assertEquals(200, response.getCode());
+        assertEquals(2, hits.get());
+    }
+
+    @Test
+    public void testPostNotRetried() throws IOException {
+        answer("503");
+        ApiClient api = client(policy().build());
+        ApiResponse response = api.createPostByHash("person", "", "00", 5000);
+        assertEquals(503, response.getCode());
+        assertEquals(1, hits.get());
+        assertTrue(sleeps.isEmpty());
+    }
+
+    @Test
+    public void testClientErrorNotRetried() {
+        answer("404");
+        ApiClient api = client(policy().build());
+        try {
+            api.fetchPosts(5000);
+            fail("Expected ApiException");
+        } catch (IOException e) {
+            assertEquals(404, ((ApiException) e).getCode());
+        }
+        assertEquals(1, hits.get());
+    }
+
+    @Test
+    public void testRetryAfterHonoured() throws IOException {
+        answer("429:3");
+        ApiClient api = client(policy().build());
+        api.fetchPosts(5000);
+        assertEquals(2, hits.get());
+        assertEquals(Collections.singletonList(3000L), sleeps);
+    }
+
+    @Test
+    public void testRetryAfterBeyondCapFailsFast() {
+        answer("503:120");
+        ApiClient api = client(policy().maxRetryAfter(10000).build());
+        try {
+            api.fetchPosts(5000);
+            fail("Expected ApiException");
+        } catch (IOException e) {
+            assertEquals(503, ((ApiException) e).getCode());
+        }
+        assertEquals(1, hits.get());
+        assertTrue(sleeps.isEmpty());
+    }
+
+    @Test
+    public void testCircuitOpensAndRecovers() throws IOException {
+        answer("500", "500", "500");
+        RetryPolicy policy = policy().maxAttempts(1).failureThreshold(2).openFor(30000).build();
+        ApiClient api = client(policy);
+        for (int i = 0; i < 2; i++) {
+            try {
+                api.fetchPosts(5000);
+                fail("Expected ApiException");
+            } catch (ApiException expected) {
+                // Counted against the breaker
+            }
+        }
+        try {
+            api.deletePost(1, 5000);
+            fail("Expected CircuitOpenException");
+        } catch (CircuitOpenException e) {
+            assertEquals(30000, e.getRetryAfterMs());
+        }
+        assertEquals(2, hits.get());
+        assertEquals(1, metrics.counter("http.posts.delete.short_circuited").get());
+
+        // Half-open: the probe fails and the breaker opens again
+        clock.addAndGet(30000);
+        try {
+            api.fetchPosts(5000);
+            fail("Expected ApiException");
+        } catch (ApiException expected) {
+            // Probe failed
+        }
+        assertEquals(3, hits.get());
+        assertEquals(CircuitBreaker.State.OPEN, policy.breakerFor(baseUrl).getState());
+
+        // Next probe succeeds and closes it
+        clock.addAndGet(30000);
+        assertTrue(api.fetchPosts(5000).isEmpty());
+        assertEquals(CircuitBreaker.State.CLOSED, policy.breakerFor(baseUrl).getState());
+        assertTrue(api.fetchPosts(5000).isEmpty());
+        assertEquals(5, hits.get());
+    }
+
+    @Test
+    public void testCancelDuringBackoff() throws Exception {
+        answer("503:20");
+        RequestScope scope = new RequestScope();
+        ApiClient api = new ApiClient(baseUrl, null, metrics)
+                .withRetryPolicy(new RetryPolicy.Builder().maxRetryAfter(60000).build())
+                .withScope(scope);
+        Thread canceller = new Thread(() -> {
+            while (hits.get() == 0) {
+                Thread.yield();
+            }
+            scope.cancel();
+        });
+        canceller.start();
+        long start = System.nanoTime();
+        try {
+            api.fetchPosts(5000);
+            fail("Expected CancelledException");
+        } catch (CancelledException expected) {
+            // Woken from the 20 s Retry-After wait
+        }
+        canceller.join();
+        assertTrue(System.nanoTime() - start < 10_000_000_000L);
+        assertEquals(1, hits.get());
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.photoviewer.core.net;
+
+import com.example.photoviewer.core.metrics.MetricsRegistry;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ApiClientWarmUpTest {
+    private HttpServer server;
+    // Client port of every request; the same port means the same (reused) connection
+    private final List<Integer> clientPorts = Collections.synchronizedList(new ArrayList<>());
+    private MetricsRegistry metrics;
+    private ApiClient api;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api_root/", exchange -> respond(exchange, "{\"Post\":\"/api_root/Post/\"}"));
+        server.createContext("/api/auth/login/", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                while (in.read() != -1) {
+                    // Drain the credentials
+                }
+            }
+            respond(exchange, "{\"token\":\"abc123\"}");
+        });
+        server.start();
+        metrics = new MetricsRegistry();
+        api = new ApiClient("http://127.0.0.1:" + server.getAddress().getPort() + "/", null, metrics)
+                .withRetryPolicy(RetryPolicy.none());
+    }
+
+    private void respond(HttpExchange exchange, String json) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testLoginReusesWarmedConnection() throws IOException {
+        assertTrue(api.warmUp(5000));
+        assertEquals("abc123", api.login("user", "secret", 5000));
+        assertEquals(2, clientPorts.size());
+        assertEquals(clientPorts.get(0), clientPorts.get(1));
+        assertEquals(1, metrics.counter("http.warmup.requests").get());
+        assertTrue(api.getNetworkQuality().getRttMs() >= 0);
+    }
+
+    @Test
+    public void testUnreachableServerIsNotAnError() {
+        server.stop(0);
+        assertFalse(api.warmUp(1000));
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.photoviewer.core.net;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class CircuitBreakerTest {
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    public void testOpensAfterConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(3, 1000, clock::get);
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        clock.set(400);
+        assertEquals(600, breaker.getRetryAfterMs());
+        assertEquals(1, breaker.getOpenCount());
+    }
+
+    @Test
+    public void testHalfOpenLetsOneProbeThrough() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 1000, clock::get);
+        breaker.onFailure();
+        clock.set(1000);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        // A cancelled probe says nothing about the host
+        breaker.onCancelled();
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    public void testParseRetryAfter() {
+        assertEquals(120000, RetryPolicy.parseRetryAfter("120", 0));
+        assertEquals(-1, RetryPolicy.parseRetryAfter(null, 0));
+        assertEquals(-1, RetryPolicy.parseRetryAfter("soon", 0));
+        // 2025-11-02T08:57:04Z
+        assertEquals(4000, RetryPolicy.parseRetryAfter("Sun, 02 Nov 2025 08:57:08 GMT", 1762073824000L));
+        assertEquals(0, RetryPolicy.parseRetryAfter("Sun, 02 Nov 2025 08:57:00 GMT", 1762073824000L));
+    }
+
+    @Test
+    public void testBackoffIsCappedFullJitter() {
+        RetryPolicy policy = new RetryPolicy.Builder().backoff(500, 8000).random(new Random(5)).build();
+        long max = 0;
+        for (int i = 0; i < 1000; i++) {
+            long delay = policy.backoffMs(10);
+            assertTrue(delay >= 0 && delay <= 8000);
+            max = Math.max(max, delay);
+        }
+        assertTrue(max > 4000);
+        assertTrue(policy.backoffMs(0) <= 500);
+        assertTrue(RetryPolicy.isIdempotent("PUT"));
+        assertFalse(RetryPolicy.isIdempotent("POST"));
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.photoviewer.core.net;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class MultipartWriterTest {
+
+    @Test
+    public void testEncodesFieldsAndFile() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MultipartWriter writer = new MultipartWriter(out, "B");
+        writer.addField("title", "사람");
+        long fileBytes = writer.addFile("image", "a.jpg", "image/jpeg",
+                new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        writer.finish();
+
+        String expected = "--B\r\n"
+                + "Content-Disposition: form-data; name=\"title\"\r\n\r\n"
+                + "사람\r\n"
+                + "--B\r\n"
+                + "Content-Disposition: form-data; name=\"image\"; filename=\"a.jpg\"\r\n"
+                + "Content-Type: image/jpeg\r\n\r\n"
+                + "\u0001\u0002\u0003\r\n"
+                + "--B--\r\n";
+        assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(3, fileBytes);
+        assertEquals(out.size(), writer.getBytesWritten());
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.photoviewer.core.net;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+
+import static org.junit.Assert.*;
+
+public class NetworkQualityEstimatorTest {
+
+    @Test
+    public void testDefaultsBeforeSamples() {
+        NetworkQualityEstimator network = new NetworkQualityEstimator();
+        assertEquals(NetworkQualityEstimator.Quality.UNKNOWN, network.getQuality());
+        assertEquals(NetworkQualityEstimator.DEFAULT_TIMEOUT_MS, network.timeoutMs());
+        assertEquals(2, network.getImageParallelism());
+        assertEquals(640, network.imageWidthFor(500));
+        assertEquals(1280, network.imageWidthFor(1080));
+        assertEquals(1280, network.imageWidthFor(2000));
+    }
+
+    @Test
+    public void testFastLink() {
+        NetworkQualityEstimator network = new NetworkQualityEstimator();
+        for (int i = 0; i < 20; i++) {
+            network.onResponseHeaders(60);
+            network.onBody(200_000, 100); // 16 Mbps
+        }
+        assertEquals(NetworkQualityEstimator.Quality.GOOD, network.getQuality());
+        assertEquals(60, network.getRttMs());
+        assertEquals(16000, network.getThroughputKbps());
+        assertEquals(NetworkQualityEstimator.MIN_TIMEOUT_MS, network.timeoutMs());
+        // A cold resize on the server is not covered by a fast link's RTT
+        assertEquals(NetworkQualityEstimator.MIN_IMAGE_TIMEOUT_MS, network.imageTimeoutMs());
+        assertEquals(4, network.getImageParallelism());
+        assertEquals(1280, network.imageWidthFor(1080));
+    }
+
+    @Test
+    public void testSlowLinkStretchesTimeoutAndShrinksImages() {
+        NetworkQualityEstimator network = new NetworkQualityEstimator();
+        long[] rtts = {1800, 2600, 1500, 3000, 2200};
+        for (long rtt : rtts) {
+            network.onResponseHeaders(rtt);
+        }
+        network.onBody(64 * 1024, 5000); // ~105 kbps
+        assertEquals(NetworkQualityEstimator.Quality.POOR, network.getQuality());
+        assertTrue(network.timeoutMs() > 5000);
+        assertTrue(network.timeoutMs() <= NetworkQualityEstimator.MAX_TIMEOUT_MS);
+        assertTrue(network.imageTimeoutMs() >= network.timeoutMs());
+        assertEquals(1, network.getImageParallelism());
+        assertEquals(320, network.imageWidthFor(1080));
+    }
+
+    @Test
+    public void testModerateThroughputCapsWidth() {
+        NetworkQualityEstimator network = new NetworkQualityEstimator();
+        network.onResponseHeaders(120);
+        network.onBody(100_000, 1000); // 800 kbps
+        network.onBody(1000, 1000); // too small to count
+        assertEquals(NetworkQualityEstimator.Quality.MODERATE, network.getQuality());
+        assertEquals(800, network.getThroughputKbps());
+        assertEquals(640, network.imageWidthFor(1080));
+        assertEquals(320, network.imageWidthFor(200));
+    }
+
+    @Test
+    public void testApiClientFeedsEstimator() throws IOException {
+        byte[] image = new byte[100 * 1024];
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] body = exchange.getRequestURI().getPath().startsWith("/media/") ? image : "[]".getBytes();
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        try {
+            String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+            ApiClient api = new ApiClient(baseUrl, null);
+            NetworkQualityEstimator network = api.withScope(new RequestScope()).getNetworkQuality();
+            assertSame(api.getNetworkQuality(), network);
+
+            api.fetchPosts(5000);
+            assertTrue(network.getRttMs() >= 0);
+            assertEquals(-1, network.getThroughputKbps());
+
+            api.fetchImage(ApiClient.imageUrlForWidth(baseUrl + "media/1.jpg", 640), null, 5000);
+            assertTrue(network.getThroughputKbps() > 0);
+            assertNotEquals(NetworkQualityEstimator.Quality.UNKNOWN, network.getQuality());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testImageUrlForWidth() {
+        assertEquals("http://x/api_root/Post/1/image/?w=320",
+                ApiClient.imageUrlForWidth("http://x/api_root/Post/1/image/", 320));
+        assertEquals("http://x/a?b=1&w=640", ApiClient.imageUrlForWidth("http://x/a?b=1", 640));
+    }
+}
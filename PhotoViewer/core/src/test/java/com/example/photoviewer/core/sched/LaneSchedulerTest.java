@@ -0,0 +1,86 @@
+package com.example.photoviewer.core.sched;
+
+import com.example.photoviewer.core.metrics.MetricsRegistry;
+import com.example.photoviewer.core.sched.LaneScheduler.Lane;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LaneSchedulerTest {
+    private MetricsRegistry metrics;
+    private LaneScheduler scheduler;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Before
+    public void setUp() {
+        metrics = new MetricsRegistry();
+        scheduler = new LaneScheduler(metrics);
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        scheduler.shutdownNow();
+    }
+
+    private Runnable blockUntilReleased(CountDownLatch started) {
+        return () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+
+    @Test
+    public void testUserLaneDoesNotWaitForBusyLanes() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(2);
+        scheduler.execute(Lane.SYNC, blockUntilReleased(started));
+        scheduler.execute(Lane.BACKGROUND, blockUntilReleased(started));
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+
+        CountDownLatch userRan = new CountDownLatch(1);
+        scheduler.execute(Lane.USER, userRan::countDown);
+        assertTrue("user task queued behind sync/poll", userRan.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testLaneConcurrencyIsBounded() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        for (int i = 0; i < 3; i++) {
+            scheduler.execute(Lane.SYNC, blockUntilReleased(started));
+        }
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        Thread.sleep(50);
+
+        assertEquals(1, scheduler.getActiveCount(Lane.SYNC));
+        assertEquals(2, scheduler.getQueuedCount(Lane.SYNC));
+    }
+
+    @Test
+    public void testQueueWaitIsRecorded() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        scheduler.execute(Lane.BACKGROUND, blockUntilReleased(started));
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+
+        CountDownLatch queuedRan = new CountDownLatch(1);
+        scheduler.execute(Lane.BACKGROUND, queuedRan::countDown);
+        Thread.sleep(100);
+        release.countDown();
+        assertTrue(queuedRan.await(2, TimeUnit.SECONDS));
+        Thread.sleep(50); // metrics are recorded after the task body
+
+        assertEquals(2, metrics.counter("sched.background.tasks").get());
+        assertEquals(2, metrics.histogram("sched.background.wait_ms").getCount());
+        assertTrue(metrics.histogram("sched.background.wait_ms").getMax() >= 90);
+        assertEquals(2, metrics.histogram("sched.background.run_ms").getCount());
+        assertEquals(0, metrics.histogram("sched.user.wait_ms").getCount());
+    }
+}
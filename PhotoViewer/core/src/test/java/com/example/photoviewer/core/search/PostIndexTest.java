@@ -0,0 +1,89 @@
+package com.example.photoviewer.core.search;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PostIndexTest {
+    private PostIndex index;
+
+    @Before
+    public void setUp() {
+        index = new PostIndex();
+        index.add(1, "Person detected", "front door camera");
+        index.add(2, "사람이 감지되었습니다", "현관 카메라");
+        index.add(3, "고양이 발견", "Garden camera 2");
+        index.add(4, "사람과 고양이", null);
+    }
+
+    @Test
+    public void testEmptyQueryMatchesEverything() {
+        assertNull(index.search(""));
+        assertNull(index.search("  ,. "));
+    }
+
+    @Test
+    public void testLatinPrefixAndCase() {
+        assertArrayEquals(new int[]{1}, index.search("PERS"));
+        assertArrayEquals(new int[]{1, 3}, index.search("camera"));
+        assertArrayEquals(new int[]{3}, index.search("garden cam"));
+        assertArrayEquals(new int[]{3}, index.search("2"));
+        assertArrayEquals(new int[0], index.search("dog"));
+    }
+
+    @Test
+    public void testHangulMatchesInsideWords() {
+        // Particles attached to the noun do not prevent a match
+        assertArrayEquals(new int[]{2, 4}, index.search("사람"));
+        assertArrayEquals(new int[]{3, 4}, index.search("고양이"));
+        assertArrayEquals(new int[]{3, 4}, index.search("양이"));
+        // Single syllable, typed so far
+        assertArrayEquals(new int[]{2, 4}, index.search("사"));
+        assertArrayEquals(new int[]{2, 4}, index.search("람"));
+        assertArrayEquals(new int[0], index.search("사자"));
+    }
+
+    @Test
+    public void testTermsAreAnded() {
+        assertArrayEquals(new int[]{4}, index.search("사람 고양이"));
+        assertArrayEquals(new int[]{3}, index.search("고양이 camera"));
+        // Mixed scripts in one word split at the boundary
+        assertArrayEquals(new int[]{3}, index.search("발견camera"));
+    }
+
+    @Test
+    public void testUpdateReplacesOldContent() {
+        index.add(1, "Dog detected", "front door camera");
+        assertArrayEquals(new int[0], index.search("person"));
+        assertArrayEquals(new int[]{1}, index.search("dog"));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    public void testRemoveAndRetain() {
+        index.remove(2);
+        assertArrayEquals(new int[]{4}, index.search("사람"));
+        index.retainAll(new int[]{3, 1});
+        assertEquals(2, index.size());
+        assertArrayEquals(new int[]{3}, index.search("고양이"));
+        assertArrayEquals(new int[]{1, 3}, index.search("camera"));
+    }
+
+    @Test
+    public void testCompactionKeepsResults() {
+        // Rewrite every post many times so dead documents pile up and get compacted
+        for (int round = 0; round < 50; round++) {
+            for (int id = 100; id < 110; id++) {
+                index.add(id, "round " + round, "사진 " + id);
+            }
+        }
+        assertEquals(14, index.size());
+        assertArrayEquals(new int[0], index.search("round 48"));
+        int[] latest = index.search("round 49 사진");
+        assertEquals(10, latest.length);
+        assertEquals(100, latest[0]);
+        assertArrayEquals(new int[]{1}, index.search("person"));
+        assertArrayEquals(new int[]{2, 4}, index.search("사람"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.photoviewer.core.trace;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TraceRecorderTest {
+
+    @Test
+    public void testKeepsEventsInOrder() {
+        TraceRecorder recorder = new TraceRecorder(4);
+        recorder.record("sync", "start");
+        recorder.record("http", "posts.list", 200, 35);
+        recorder.record("sync", "error", "timeout");
+
+        List<TraceRecorder.Event> events = recorder.snapshot();
+        assertEquals(3, events.size());
+        assertEquals("start", events.get(0).getEvent());
+        assertEquals(200, events.get(1).getValue1());
+        assertEquals(35, events.get(1).getValue2());
+        assertEquals("timeout", events.get(2).getDetail());
+    }
+
+    @Test
+    public void testOverwritesOldestWhenFull() {
+        TraceRecorder recorder = new TraceRecorder(3);
+        for (int i = 0; i < 7; i++) {
+            recorder.record("t", "e", i);
+        }
+        List<TraceRecorder.Event> events = recorder.snapshot();
+        assertEquals(3, recorder.size());
+        assertEquals(7, recorder.totalRecorded());
+        assertEquals(4, events.get(0).getValue1());
+        assertEquals(6, events.get(2).getValue1());
+    }
+
+    @Test
+    public void testDumpAndClear() throws IOException {
+        TraceRecorder recorder = new TraceRecorder(2);
+        recorder.record("a", "one");
+        recorder.record("b", "two", 5);
+        recorder.record("c", "three", "boom");
+
+        StringBuilder out = new StringBuilder();
+        recorder.dump(out);
+        String text = out.toString();
+        assertTrue(text, text.startsWith("# 2 events (1 older dropped)\n"));
+        assertTrue(text, text.contains("b two 5 0\n"));
+        assertTrue(text, text.contains("c three 0 0 boom\n"));
+        assertFalse(text, text.contains("a one"));
+
+        recorder.clear();
+        assertEquals(0, recorder.size());
+        assertTrue(recorder.snapshot().isEmpty());
+    }
+}
@@ -21,3 +21,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "PhotoViewer"
 include(":app")
+include(":core")
+include(":benchmark")
@@ -1,4 +1,5 @@
 import os
+import hashlib
 import cv2
 import pathlib
 import requests
@@ -76,8 +77,24 @@ class ChangeDetection:
             'title': self.title,
             'text': self.text,
             'created_date': now,
-            'published_date': now
+            'published_date': now,
+            # 서버가 최근 글과 거의 같은 프레임이면 새 글을 만들지 않도록 (앱 업로드는 검사하지 않음)
+            'detection': '1',
         }
-        file = {'image': open(full_path, 'rb')}
-        res = requests.post(self.HOST + '/api_root/Post/', data=data, files=file, headers=headers)
+
+        # 같은 프레임이 이미 서버에 있으면 이미지 없이 해시만 보내서 작성 (404면 전체 업로드)
+        # 200이면 최근 글과 거의 같은 프레임이라 서버가 새 글을 만들지 않음: 업로드하지 않음
+        with open(full_path, 'rb') as f:
+            image_hash = hashlib.sha256(f.read()).hexdigest()
+        res = requests.post(self.HOST + '/api_root/Post/by-hash/',
+                            data=dict(data, image_hash=image_hash), headers=headers)
+        if res.status_code == 201:
+            print(res, 'duplicate image, reused', image_hash[:12])
+            return
+        if res.status_code == 200:
+            print(res, 'near-duplicate of post', res.headers.get('X-Near-Duplicate-Of'), ', skipped')
+            return
+
+        with open(full_path, 'rb') as f:
+            res = requests.post(self.HOST + '/api_root/Post/', data=data, files={'image': f}, headers=headers)
         print(res)
\ No newline at end of file